@@ -0,0 +1,506 @@
+package org.osm2world.benchmark;
+
+import static java.lang.Math.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.osm2world.core.ConversionFacade;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.map_data.creation.LatLon;
+import org.osm2world.core.map_data.creation.LatLonBounds;
+import org.osm2world.core.map_data.creation.MetricMapProjection;
+import org.osm2world.core.map_data.creation.OriginMapProjection;
+import org.osm2world.core.map_elevation.creation.ElevationGrid;
+import org.osm2world.core.map_elevation.creation.SiteArray;
+import org.osm2world.core.math.LineSegmentXZ;
+import org.osm2world.core.math.SimplePolygonXZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.osm.creation.OSMFileReader;
+import org.osm2world.core.osm.creation.PbfFileReader;
+import org.osm2world.core.osm.data.OSMData;
+
+/**
+ * reproducible input data for the benchmarks.
+ *
+ * Fixtures are referenced by name:
+ * <ul>
+ * <li>"synthetic-N" is a generated district of N by N blocks with streets, bridges, houses, trees and parks.
+ * Houses get randomly varied footprints, except for "synthetic-N-identical",
+ * where all houses with the same roof shape are geometrically identical.</li>
+ * <li>other names are files in the checked-in test resources (src/test/resources), or paths to any .osm file.
+ * Paths to .osm.pbf files, such as city extracts, are supported as well.</li>
+ * </ul>
+ *
+ * All random values come from generators with fixed seeds.
+ */
+public final class BenchmarkFixtures {
+
+	/** prevents instantiation */
+	private BenchmarkFixtures() { }
+
+	public static final double ORIGIN_LAT = 48.0;
+	public static final double ORIGIN_LON = 11.0;
+
+	private static final double METERS_PER_DEGREE = 111320;
+
+	private static final File TEST_RESOURCES = new File("src/test/resources");
+
+	private static final Map<String, File> generatedFiles = new HashMap<>();
+
+	/** returns the .osm file for a fixture name, generating it first if necessary */
+	public static synchronized File fixtureFile(String name) throws IOException {
+
+		if (name.startsWith("synthetic-")) {
+
+			File file = generatedFiles.get(name);
+
+			if (file == null) {
+
+				String[] parts = name.split("-");
+				int blocks = Integer.parseInt(parts[1]);
+				boolean identicalBuildings = parts.length > 2 && "identical".equals(parts[2]);
+
+				file = File.createTempFile("osm2world-benchmark-" + name + "-", ".osm");
+				file.deleteOnExit();
+				writeSyntheticDistrict(file, blocks, identicalBuildings);
+
+				generatedFiles.put(name, file);
+
+			}
+
+			return file;
+
+		} else if (new File(TEST_RESOURCES, name).exists()) {
+			return new File(TEST_RESOURCES, name);
+		} else if (new File(name).exists()) {
+			return new File(name);
+		} else {
+			throw new IOException("unknown fixture: " + name);
+		}
+
+	}
+
+	public static OSMData readOsmData(String fixtureName) throws IOException {
+		File file = fixtureFile(fixtureName);
+		if (isPbf(file)) {
+			return new PbfFileReader(file, new LatLonBounds(-90, -180, 90, 180), 1).getData();
+		} else {
+			return new OSMFileReader(file).getData();
+		}
+	}
+
+	/** returns true if a fixture file is an .osm.pbf file rather than an .osm file */
+	public static boolean isPbf(File fixtureFile) {
+		return fixtureFile.getName().endsWith(".pbf");
+	}
+
+	/** runs the conversion with default modules and no targets */
+	public static Results convert(String fixtureName, Configuration config) throws IOException {
+		return new ConversionFacade().createRepresentations(readOsmData(fixtureName), null, config, null);
+	}
+
+	public static Results convert(String fixtureName) throws IOException {
+		return convert(fixtureName, new BaseConfiguration());
+	}
+
+	public static OriginMapProjection projection() {
+		OriginMapProjection projection = new MetricMapProjection();
+		projection.setOrigin(new LatLon(ORIGIN_LAT, ORIGIN_LON));
+		return projection;
+	}
+
+	/* geometry */
+
+	/** a smooth, hilly elevation function used for all synthetic terrain */
+	public static double terrainEle(double x, double z) {
+		return 20 * sin(x / 150) + 10 * cos(z / 90) + 5 * sin((x + z) / 40);
+	}
+
+	/** returns terrain sites at random positions within a square of the given size around the origin */
+	public static SiteArray terrainSites(int count, double size, long seed) {
+
+		Random random = new Random(seed);
+		SiteArray sites = new SiteArray(count);
+
+		for (int i = 0; i < count; i++) {
+			double x = (random.nextDouble() - 0.5) * size;
+			double z = (random.nextDouble() - 0.5) * size;
+			sites.accept(x, terrainEle(x, z), z);
+		}
+
+		return sites;
+
+	}
+
+	/** returns a grid with SRTM-like resolution (3 arc seconds) covering a square of the given size */
+	public static ElevationGrid terrainGrid(double size) {
+
+		OriginMapProjection projection = projection();
+
+		double spacing = 3.0 / 3600;
+		VectorXZ min = new VectorXZ(-size / 2, -size / 2);
+		double originLat = projection.calcLat(min) - spacing;
+		double originLon = projection.calcLon(min) - spacing;
+
+		int columns = (int) ceil(size / (METERS_PER_DEGREE * cos(toRadians(ORIGIN_LAT)) * spacing)) + 3;
+		int rows = (int) ceil(size / (METERS_PER_DEGREE * spacing)) + 3;
+
+		double[] values = new double[columns * rows];
+
+		for (int row = 0; row < rows; row++) {
+			for (int column = 0; column < columns; column++) {
+				VectorXZ pos = projection.calcPos(originLat + row * spacing, originLon + column * spacing);
+				values[row * columns + column] = terrainEle(pos.x, pos.z);
+			}
+		}
+
+		return new ElevationGrid(projection, originLon, originLat, spacing, columns, rows, values);
+
+	}
+
+	/** returns random positions within a square of the given size around the origin */
+	public static double[][] randomPositions(int count, double size, long seed) {
+
+		Random random = new Random(seed);
+		double[][] result = new double[2][count];
+
+		for (int i = 0; i < count; i++) {
+			result[0][i] = (random.nextDouble() - 0.5) * size;
+			result[1][i] = (random.nextDouble() - 0.5) * size;
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * creates a star-shaped (and therefore non-self-intersecting) polygon
+	 * with radii between minRadius and maxRadius
+	 */
+	public static SimplePolygonXZ starPolygon(Random random, VectorXZ center, int numVertices,
+			double minRadius, double maxRadius) {
+
+		List<VectorXZ> vertexLoop = new ArrayList<>(numVertices + 1);
+
+		for (int i = 0; i < numVertices; i++) {
+			double angle = 2 * PI * i / numVertices;
+			double radius = minRadius + (maxRadius - minRadius) * random.nextDouble();
+			vertexLoop.add(center.add(new VectorXZ(radius * sin(angle), radius * cos(angle))));
+		}
+
+		vertexLoop.add(vertexLoop.get(0));
+
+		return new SimplePolygonXZ(vertexLoop);
+
+	}
+
+	/** creates a square polygon, possibly rotated */
+	public static SimplePolygonXZ square(VectorXZ center, double size, double angleRad) {
+
+		List<VectorXZ> vertexLoop = new ArrayList<>(5);
+
+		for (int i = 0; i < 4; i++) {
+			double angle = angleRad + PI / 4 - i * PI / 2;
+			vertexLoop.add(center.add(new VectorXZ(sin(angle), cos(angle)).mult(size / sqrt(2))));
+		}
+
+		vertexLoop.add(vertexLoop.get(0));
+
+		return new SimplePolygonXZ(vertexLoop);
+
+	}
+
+	/** creates random line segments with start points in a square of the given size around the origin */
+	public static List<LineSegmentXZ> randomSegments(Random random, int count, double size, double maxLength) {
+
+		List<LineSegmentXZ> segments = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			VectorXZ p1 = new VectorXZ((random.nextDouble() - 0.5) * size, (random.nextDouble() - 0.5) * size);
+			double angle = 2 * PI * random.nextDouble();
+			double length = maxLength * (0.1 + 0.9 * random.nextDouble());
+			segments.add(new LineSegmentXZ(p1, p1.add(new VectorXZ(sin(angle), cos(angle)).mult(length))));
+		}
+
+		return segments;
+
+	}
+
+	/* synthetic OSM data */
+
+	private static final double BLOCK_SIZE = 100;
+	private static final int LOTS_PER_ROW = 4;
+
+	private static final String[] ROOF_SHAPES = {"gabled", "hipped", "pyramidal", "flat", "skillion", "complex"};
+
+	/**
+	 * writes a district of blocks x blocks city blocks, separated by a grid of streets.
+	 *
+	 * Most blocks contain 16 houses with different roof shapes (including roofs with mapped ridges)
+	 * and a few trees. Every fifth block is a park multipolygon with a detailed outline and two holes.
+	 * Some street segments are bridges over a stream.
+	 */
+	static void writeSyntheticDistrict(File file, int blocks, boolean identicalBuildings) throws IOException {
+
+		Random random = new Random(blocks);
+		OsmXmlWriter osm = new OsmXmlWriter();
+
+		/* street grid */
+
+		long[][] junctions = new long[blocks + 1][blocks + 1];
+
+		for (int row = 0; row <= blocks; row++) {
+			for (int column = 0; column <= blocks; column++) {
+				junctions[row][column] = osm.node(column * BLOCK_SIZE, row * BLOCK_SIZE);
+			}
+		}
+
+		for (int row = 0; row <= blocks; row++) {
+			List<Long> nodes = new ArrayList<>();
+			for (int column = 0; column <= blocks; column++) {
+				nodes.add(junctions[row][column]);
+			}
+			osm.way(nodes, "highway", "residential", "name", "Row " + row);
+		}
+
+		for (int column = 0; column <= blocks; column++) {
+			for (int row = 0; row < blocks; row++) {
+
+				double x = column * BLOCK_SIZE;
+				double z = row * BLOCK_SIZE;
+
+				long start = junctions[row][column];
+				long end = junctions[row + 1][column];
+				long bridgeStart = osm.node(x, z + BLOCK_SIZE / 3);
+				long bridgeEnd = osm.node(x, z + 2 * BLOCK_SIZE / 3);
+
+				String name = "Column " + column;
+
+				if (column % 4 == 1 && row % 3 == 1) {
+
+					osm.way(asIds(start, bridgeStart), "highway", "residential", "name", name);
+					osm.way(asIds(bridgeStart, bridgeEnd), "highway", "residential", "name", name,
+							"bridge", "yes", "layer", "1");
+					osm.way(asIds(bridgeEnd, end), "highway", "residential", "name", name);
+
+					osm.way(asIds(osm.node(x - 15, z + BLOCK_SIZE / 2), osm.node(x + 15, z + BLOCK_SIZE / 2)),
+							"waterway", "stream");
+
+				} else {
+					osm.way(asIds(start, bridgeStart, bridgeEnd, end), "highway", "residential", "name", name);
+				}
+
+			}
+		}
+
+		/* blocks */
+
+		for (int row = 0; row < blocks; row++) {
+			for (int column = 0; column < blocks; column++) {
+
+				double blockX = column * BLOCK_SIZE;
+				double blockZ = row * BLOCK_SIZE;
+
+				if ((row * blocks + column) % 5 == 2) {
+					writePark(osm, random, blockX + BLOCK_SIZE / 2, blockZ + BLOCK_SIZE / 2);
+					continue;
+				}
+
+				double lotSize = (BLOCK_SIZE - 20) / LOTS_PER_ROW;
+
+				for (int i = 0; i < LOTS_PER_ROW; i++) {
+					for (int j = 0; j < LOTS_PER_ROW; j++) {
+
+						double centerX = blockX + 10 + (i + 0.5) * lotSize;
+						double centerZ = blockZ + 10 + (j + 0.5) * lotSize;
+
+						String roofShape = ROOF_SHAPES[(i * LOTS_PER_ROW + j) % ROOF_SHAPES.length];
+
+						double width = 12, depth = 8, angle = 0;
+
+						if (!identicalBuildings) {
+							width = 9 + 6 * random.nextDouble();
+							depth = 6 + 4 * random.nextDouble();
+							angle = (random.nextDouble() - 0.5) * 0.4;
+						}
+
+						writeHouse(osm, centerX, centerZ, width, depth, angle, roofShape);
+
+					}
+				}
+
+				osm.node(blockX + 10, blockZ + 10, "natural", "tree");
+				osm.node(blockX + BLOCK_SIZE - 10, blockZ + BLOCK_SIZE - 10, "natural", "tree");
+
+			}
+		}
+
+		/* bounds include a margin around the streets */
+
+		osm.write(file, -BLOCK_SIZE / 2, -BLOCK_SIZE / 2,
+				(blocks + 0.5) * BLOCK_SIZE, (blocks + 0.5) * BLOCK_SIZE);
+
+	}
+
+	/**
+	 * writes a rectangular house. The outline has additional nodes in the middle of the short sides,
+	 * which become the end points of a mapped ridge for the "complex" roof shape.
+	 */
+	private static void writeHouse(OsmXmlWriter osm, double centerX, double centerZ,
+			double width, double depth, double angle, String roofShape) {
+
+		double[][] corners = {
+				{-width / 2, -depth / 2}, {+width / 2, -depth / 2}, {+width / 2, 0},
+				{+width / 2, +depth / 2}, {-width / 2, +depth / 2}, {-width / 2, 0}};
+
+		List<Long> nodes = new ArrayList<>();
+
+		for (double[] c : corners) {
+			double x = centerX + c[0] * cos(angle) - c[1] * sin(angle);
+			double z = centerZ + c[0] * sin(angle) + c[1] * cos(angle);
+			nodes.add(osm.node(x, z));
+		}
+
+		nodes.add(nodes.get(0));
+
+		if ("complex".equals(roofShape)) {
+			osm.way(nodes, "building", "house", "building:levels", "2", "roof:height", "3");
+			osm.way(asIds(nodes.get(2), nodes.get(5)), "roof:ridge", "yes");
+		} else {
+			osm.way(nodes, "building", "house", "building:levels", "2", "roof:height", "3",
+					"roof:shape", roofShape, "roof:direction", "N");
+		}
+
+	}
+
+	/** writes a park multipolygon with a detailed circular outline and two square holes */
+	private static void writePark(OsmXmlWriter osm, Random random, double centerX, double centerZ) {
+
+		int outerVertices = 128;
+
+		List<Long> outer = new ArrayList<>();
+
+		for (int i = 0; i < outerVertices; i++) {
+			double angle = 2 * PI * i / outerVertices;
+			double radius = 38 + 4 * random.nextDouble();
+			outer.add(osm.node(centerX + radius * sin(angle), centerZ + radius * cos(angle)));
+		}
+
+		outer.add(outer.get(0));
+
+		List<Long> outerWay = asIds(osm.way(outer));
+		List<Long> innerWays = new ArrayList<>();
+
+		for (double offset : new double[] {-15, +15}) {
+			List<Long> inner = new ArrayList<>();
+			for (double[] c : new double[][] {{-5, -5}, {+5, -5}, {+5, +5}, {-5, +5}}) {
+				inner.add(osm.node(centerX + offset + c[0], centerZ + c[1]));
+			}
+			inner.add(inner.get(0));
+			innerWays.add(osm.way(inner));
+		}
+
+		osm.multipolygon(outerWay, innerWays, "leisure", "park");
+
+	}
+
+	private static List<Long> asIds(long... ids) {
+		List<Long> result = new ArrayList<>(ids.length);
+		for (long id : ids) {
+			result.add(id);
+		}
+		return result;
+	}
+
+	/** collects nodes, ways and relations with local coordinates and writes them as an .osm file */
+	private static class OsmXmlWriter {
+
+		private final StringBuilder nodes = new StringBuilder();
+		private final StringBuilder ways = new StringBuilder();
+		private final StringBuilder relations = new StringBuilder();
+
+		private long nextId = 1;
+
+		long node(double x, double z, String... tags) {
+			long id = nextId++;
+			nodes.append(String.format(Locale.ROOT, "  <node id='%d' version='1' lat='%.8f' lon='%.8f'",
+					id, lat(z), lon(x)));
+			appendTags(nodes, tags);
+			nodes.append(tags.length == 0 ? "" : "  </node>\n");
+			return id;
+		}
+
+		long way(List<Long> nodeIds, String... tags) {
+			long id = nextId++;
+			ways.append("  <way id='").append(id).append("' version='1'>\n");
+			for (long nodeId : nodeIds) {
+				ways.append("    <nd ref='").append(nodeId).append("' />\n");
+			}
+			appendTags(ways, tags);
+			ways.append("  </way>\n");
+			return id;
+		}
+
+		long multipolygon(List<Long> outerWays, List<Long> innerWays, String... tags) {
+			long id = nextId++;
+			relations.append("  <relation id='").append(id).append("' version='1'>\n");
+			for (long wayId : outerWays) {
+				relations.append("    <member type='way' ref='").append(wayId).append("' role='outer' />\n");
+			}
+			for (long wayId : innerWays) {
+				relations.append("    <member type='way' ref='").append(wayId).append("' role='inner' />\n");
+			}
+			appendTags(relations, "type", "multipolygon");
+			appendTags(relations, tags);
+			relations.append("  </relation>\n");
+			return id;
+		}
+
+		/**
+		 * appends tags as child elements. For nodes, also closes the start tag,
+		 * which is left open by {@link #node(double, double, String...)}.
+		 */
+		private void appendTags(StringBuilder builder, String... tags) {
+			if (builder == nodes) {
+				builder.append(tags.length == 0 ? " />\n" : ">\n");
+			}
+			for (int i = 0; i + 1 < tags.length; i += 2) {
+				builder.append("    <tag k='").append(tags[i]).append("' v='").append(tags[i + 1]).append("' />\n");
+			}
+		}
+
+		void write(File file, double minX, double minZ, double maxX, double maxZ) throws IOException {
+			try (PrintWriter w = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+				w.println("<?xml version='1.0' encoding='UTF-8'?>");
+				w.println("<osm version='0.6' generator='OSM2World benchmark'>");
+				w.printf(Locale.ROOT, "  <bounds minlat='%.8f' minlon='%.8f' maxlat='%.8f' maxlon='%.8f' />\n",
+						lat(minZ), lon(minX), lat(maxZ), lon(maxX));
+				w.print(nodes);
+				w.print(ways);
+				w.print(relations);
+				w.println("</osm>");
+			}
+		}
+
+		private static double lat(double z) {
+			return ORIGIN_LAT + z / METERS_PER_DEGREE;
+		}
+
+		private static double lon(double x) {
+			return ORIGIN_LON + x / (METERS_PER_DEGREE * cos(toRadians(ORIGIN_LAT)));
+		}
+
+	}
+
+}
@@ -0,0 +1,72 @@
+package org.osm2world.benchmark;
+
+import static java.lang.Math.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.core.math.PolygonWithHolesXZ;
+import org.osm2world.core.math.SimplePolygonXZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.math.algorithms.CAGUtil;
+
+/**
+ * {@link CAGUtil#subtractPolygons(org.osm2world.core.math.shapes.SimplePolygonShapeXZ, List)}
+ * with a detailed base polygon and many small, partially overlapping subtracted polygons,
+ * similar to the ground area around buildings and roads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CAGBenchmark {
+
+	@Param({"64", "1024"})
+	public int baseVertices;
+
+	@Param({"10", "100", "1000"})
+	public int subtractCount;
+
+	private SimplePolygonXZ basePolygon;
+	private List<SimplePolygonXZ> subtractPolygons;
+
+	@Setup
+	public void setup() {
+
+		Random random = new Random(subtractCount);
+
+		basePolygon = BenchmarkFixtures.starPolygon(random, VectorXZ.NULL_VECTOR, baseVertices, 400, 500);
+
+		subtractPolygons = new ArrayList<>(subtractCount);
+		for (int i = 0; i < subtractCount; i++) {
+			double angle = 2 * PI * random.nextDouble();
+			double radius = 450 * sqrt(random.nextDouble());
+			subtractPolygons.add(BenchmarkFixtures.square(
+					new VectorXZ(radius * sin(angle), radius * cos(angle)),
+					5 + 15 * random.nextDouble(), random.nextDouble()));
+		}
+
+	}
+
+	@Benchmark
+	public Collection<PolygonWithHolesXZ> subtractPolygons() {
+		return CAGUtil.subtractPolygons(basePolygon, subtractPolygons);
+	}
+
+}
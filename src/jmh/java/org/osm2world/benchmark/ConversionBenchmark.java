@@ -0,0 +1,163 @@
+package org.osm2world.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.core.ConversionFacade;
+import org.osm2world.core.ConversionFacade.Phase;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.PerformanceReport;
+import org.osm2world.core.math.algorithms.TriangulationCache;
+import org.osm2world.core.osm.data.OSMData;
+import org.osm2world.core.target.TargetUtil;
+import org.osm2world.core.target.statistics.StatisticsTarget;
+import org.osm2world.core.world.modules.building.WallSurface;
+import org.osm2world.core.world.modules.building.roof.HeightfieldRoof;
+
+/**
+ * a complete conversion from {@link OSMData} to the finished representations,
+ * followed by rendering them into a {@link StatisticsTarget}.
+ * Besides the total time, the durations of the conversion phases and of rendering (in milliseconds) and the
+ * hits and misses of the roof and wall {@link TriangulationCache}s are reported as secondary results.
+ * Roofs and walls are only triangulated while rendering, so without that step the caches would not be used.
+ *
+ * In the "-identical" variant of the synthetic fixture, all houses with the same roof shape
+ * are geometrically identical, which shows the best case for the triangulation caches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConversionBenchmark {
+
+	@Param({"synthetic-8", "synthetic-8-identical"})
+	public String fixture;
+
+	/** value of the moduleThreads config key */
+	@Param({"1", "4"})
+	public int moduleThreads;
+
+	/** value of the createTerrain config key */
+	@Param({"false", "true"})
+	public boolean createTerrain;
+
+	/**
+	 * whether the triangulation caches are disabled with the triangulationCache config key ("off"),
+	 * emptied before each conversion ("cleared"), or keep the entries from earlier conversions ("warm")
+	 */
+	@Param({"off", "cleared", "warm"})
+	public String triangulationCache;
+
+	private OSMData osmData;
+	private Configuration config;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class ConversionCounters {
+
+		public long mapDataMs;
+		public long representationMs;
+		public long elevationMs;
+		public long terrainMs;
+		public long renderMs;
+
+		public long roofCacheHits;
+		public long roofCacheMisses;
+		public long wallCacheHits;
+		public long wallCacheMisses;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			mapDataMs = representationMs = elevationMs = terrainMs = renderMs = 0;
+			roofCacheHits = roofCacheMisses = wallCacheHits = wallCacheMisses = 0;
+		}
+
+	}
+
+	@Setup
+	public void setup() throws IOException {
+
+		osmData = BenchmarkFixtures.readOsmData(fixture);
+
+		config = new BaseConfiguration();
+		config.setProperty("moduleThreads", moduleThreads);
+		config.setProperty("createTerrain", createTerrain);
+		config.setProperty("triangulationCache", !"off".equals(triangulationCache));
+
+	}
+
+	@Setup(Level.Invocation)
+	public void prepareCaches() {
+		if ("cleared".equals(triangulationCache)) {
+			HeightfieldRoof.TRIANGULATION_CACHE.clear();
+			WallSurface.TRIANGULATION_CACHE.clear();
+		}
+	}
+
+	@Benchmark
+	public Results convert(ConversionCounters counters) throws IOException {
+
+		/* use the caches like a conversion job of the console Output does */
+
+		boolean useTriangulationCache = config.getBoolean("triangulationCache", true);
+
+		TriangulationCache.Usage roofCacheUsage =
+				new TriangulationCache.Usage(HeightfieldRoof.TRIANGULATION_CACHE, useTriangulationCache);
+		TriangulationCache.Usage wallCacheUsage =
+				new TriangulationCache.Usage(WallSurface.TRIANGULATION_CACHE, useTriangulationCache);
+
+		roofCacheUsage.activate();
+		wallCacheUsage.activate();
+
+		PerformanceReport report = new PerformanceReport();
+
+		ConversionFacade cf = new ConversionFacade();
+		cf.addProgressListener(report);
+
+		Results results = cf.createRepresentations(osmData, null, config, null);
+
+		report.finish();
+
+		long renderStart = System.currentTimeMillis();
+		TargetUtil.renderWorldObjects(new StatisticsTarget(), results.getMapData(), false);
+		long renderEnd = System.currentTimeMillis();
+
+		/* with SingleShotTime, there is one invocation per iteration */
+
+		counters.mapDataMs = phaseDuration(report, Phase.MAP_DATA);
+		counters.representationMs = phaseDuration(report, Phase.REPRESENTATION);
+		counters.elevationMs = phaseDuration(report, Phase.ELEVATION);
+		counters.terrainMs = phaseDuration(report, Phase.TERRAIN);
+		counters.renderMs = renderEnd - renderStart;
+
+		counters.roofCacheHits = roofCacheUsage.getHits();
+		counters.roofCacheMisses = roofCacheUsage.getMisses();
+		counters.wallCacheHits = wallCacheUsage.getHits();
+		counters.wallCacheMisses = wallCacheUsage.getMisses();
+
+		return results;
+
+	}
+
+	private static long phaseDuration(PerformanceReport report, Phase phase) {
+		return report.getPhaseEnd(phase) == null ? 0 : report.getPhaseDuration(phase);
+	}
+
+}
@@ -0,0 +1,141 @@
+package org.osm2world.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.map_data.creation.EmptyTerrainBuilder;
+import org.osm2world.core.map_data.data.MapArea;
+import org.osm2world.core.map_elevation.data.EleConnector;
+import org.osm2world.core.map_elevation.data.EleConnectorGroup;
+import org.osm2world.core.math.TriangleXYZ;
+import org.osm2world.core.math.TriangleXZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.common.AbstractTarget;
+import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.world.data.WorldObject;
+import org.osm2world.core.world.modules.SurfaceAreaModule.SurfaceArea;
+
+/**
+ * position lookups in the {@link EleConnectorGroup}s of the empty terrain patches
+ * created by {@link EmptyTerrainBuilder} for a fixture.
+ * The connectors and triangles are those of the {@link SurfaceArea}s of the patches
+ * after a complete conversion with terrain, including the points of other features
+ * within the patches. Each benchmark method covers all patches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EleConnectorGroupBenchmark {
+
+	@Param({"synthetic-8", "synthetic-24"})
+	public String fixture;
+
+	/** the connectors of each patch */
+	private List<EleConnectorGroup> groups;
+
+	/** the positions of each patch's connectors, in random order */
+	private List<List<VectorXZ>> lookupPositions;
+
+	/** the triangulation of each patch */
+	private List<List<TriangleXZ>> triangles;
+
+	@Setup
+	public void setup() throws IOException {
+
+		Configuration config = new BaseConfiguration();
+		config.setProperty("createTerrain", true);
+
+		Results results = BenchmarkFixtures.convert(fixture, config);
+
+		groups = new ArrayList<>();
+		lookupPositions = new ArrayList<>();
+		triangles = new ArrayList<>();
+
+		Random random = new Random(0);
+
+		for (MapArea area : results.getMapData().getMapAreas()) {
+
+			if (!area.getTags().contains("surface", EmptyTerrainBuilder.EMPTY_SURFACE_VALUE)) continue;
+
+			for (WorldObject worldObject : area.getRepresentations()) {
+
+				if (!(worldObject instanceof SurfaceArea)) continue;
+
+				SurfaceArea patch = (SurfaceArea) worldObject;
+
+				/* the triangulation is not public, but it is what the patch renders */
+
+				List<TriangleXZ> patchTriangles = new ArrayList<>();
+
+				patch.renderTo(new AbstractTarget() {
+					@Override
+					public void drawTriangles(Material material, List<? extends TriangleXYZ> triangles,
+							List<List<VectorXZ>> texCoordLists) {
+						for (TriangleXYZ t : triangles) {
+							patchTriangles.add(new TriangleXZ(t.v1.xz(), t.v2.xz(), t.v3.xz()));
+						}
+					}
+				});
+
+				List<VectorXZ> patchPositions = new ArrayList<>();
+				for (EleConnector connector : patch.getEleConnectors()) {
+					patchPositions.add(connector.pos);
+				}
+				Collections.shuffle(patchPositions, random);
+
+				groups.add(patch.getEleConnectors());
+				lookupPositions.add(patchPositions);
+				triangles.add(patchTriangles);
+
+			}
+
+		}
+
+		if (groups.isEmpty()) {
+			throw new IllegalStateException("no empty terrain patches in fixture " + fixture);
+		}
+
+	}
+
+	/** looks up each connector of each patch once */
+	@Benchmark
+	public void getConnector(Blackhole blackhole) {
+		for (int i = 0; i < groups.size(); i++) {
+			EleConnectorGroup group = groups.get(i);
+			for (VectorXZ pos : lookupPositions.get(i)) {
+				blackhole.consume(group.getConnector(pos));
+			}
+		}
+	}
+
+	/** converts the triangulation of each patch to 3D */
+	@Benchmark
+	public void getTriangulationXYZ(Blackhole blackhole) {
+		for (int i = 0; i < groups.size(); i++) {
+			blackhole.consume(groups.get(i).getTriangulationXYZ(triangles.get(i)));
+		}
+	}
+
+}
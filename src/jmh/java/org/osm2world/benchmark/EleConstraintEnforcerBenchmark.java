@@ -0,0 +1,97 @@
+package org.osm2world.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.core.map_data.data.MapData;
+import org.osm2world.core.map_elevation.creation.DiffusionEleConstraintEnforcer;
+import org.osm2world.core.map_elevation.creation.EleConstraintEnforcer;
+import org.osm2world.core.map_elevation.creation.NoneEleConstraintEnforcer;
+import org.osm2world.core.map_elevation.creation.SimpleEleConstraintEnforcer;
+import org.osm2world.core.map_elevation.creation.SimpleInterpolatedEleConstraintEnforcer;
+import org.osm2world.core.map_elevation.data.EleConnector;
+import org.osm2world.core.world.data.WorldObject;
+
+/**
+ * each {@link EleConstraintEnforcer} on the world objects of a synthetic district.
+ * Like a conversion, each operation adds the connectors, lets all world objects define their constraints
+ * and then enforces them. Connector elevations are reset to the synthetic terrain beforehand.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EleConstraintEnforcerBenchmark {
+
+	@Param({"None", "Simple", "SimpleInterpolated", "Diffusion"})
+	public String enforcer;
+
+	@Param({"synthetic-8"})
+	public String fixture;
+
+	private MapData mapData;
+	private List<EleConnector> connectors;
+
+	@Setup
+	public void setup() throws IOException {
+
+		mapData = BenchmarkFixtures.convert(fixture).getMapData();
+
+		connectors = new ArrayList<>();
+		for (WorldObject o : mapData.getWorldObjects()) {
+			for (EleConnector c : o.getEleConnectors()) {
+				connectors.add(c);
+			}
+		}
+
+	}
+
+	@Benchmark
+	public EleConstraintEnforcer enforceConstraints() {
+
+		for (EleConnector c : connectors) {
+			c.setPosXYZ(c.pos.xyz(BenchmarkFixtures.terrainEle(c.pos.x, c.pos.z)));
+		}
+
+		EleConstraintEnforcer e;
+
+		switch (enforcer) {
+		case "None": e = new NoneEleConstraintEnforcer(); break;
+		case "Simple": e = new SimpleEleConstraintEnforcer(); break;
+		case "SimpleInterpolated": e = new SimpleInterpolatedEleConstraintEnforcer(); break;
+		case "Diffusion": e = new DiffusionEleConstraintEnforcer(); break;
+		default: throw new IllegalArgumentException(enforcer);
+		}
+
+		e.addConnectors(connectors);
+
+		for (WorldObject o : mapData.getWorldObjects()) {
+			try {
+				o.defineEleConstraints(e);
+			} catch (Exception ex) {
+				// ignored, as in ConversionFacade
+			}
+		}
+
+		e.enforceConstraints();
+
+		return e;
+
+	}
+
+}
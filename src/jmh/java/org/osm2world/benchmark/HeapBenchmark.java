@@ -0,0 +1,138 @@
+package org.osm2world.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.core.map_data.creation.MetricMapProjection;
+import org.osm2world.core.map_data.creation.OSMToMapDataConverter;
+import org.osm2world.core.map_data.creation.OriginMapProjection;
+import org.osm2world.core.map_data.data.MapData;
+import org.osm2world.core.map_data.data.TagPool;
+import org.osm2world.core.osm.data.CompactOSMData;
+import org.osm2world.core.osm.data.OSMData;
+
+import de.topobyte.osm4j.core.dataset.MapDataSetLoader;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import de.topobyte.osm4j.xml.dynsax.OsmXmlIterator;
+
+/**
+ * retained heap size of the in-memory representations of a dataset.
+ * The sizes are reported as the secondary result "retainedBytes".
+ *
+ * Compares {@link CompactOSMData} with osm4j's object-based data set,
+ * and measures {@link MapData}, which shares tags through a {@link TagPool}.
+ * Heap sizes are measured after explicit garbage collection, so use a fixed heap size
+ * (e.g. -Djmh.args="HeapBenchmark -jvmArgs -Xmx4g") for comparable numbers.
+ * The default fixture is synthetic. For representative numbers, pass a city extract
+ * (.osm or .osm.pbf) as the fixture, see doc/benchmarks.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class HeapBenchmark {
+
+	@Param({"synthetic-24"})
+	public String fixture;
+
+	/** reports the heap size retained by the result of the last invocation */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class HeapCounters {
+
+		public long retainedBytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			retainedBytes = 0;
+		}
+
+	}
+
+	@Benchmark
+	public Object compactOsmData(HeapCounters counters) throws IOException {
+		long before = usedHeapAfterGC();
+		OSMData result = BenchmarkFixtures.readOsmData(fixture);
+		counters.retainedBytes = usedHeapAfterGC() - before;
+		return result;
+	}
+
+	@Benchmark
+	public Object objectOsmData(HeapCounters counters) throws IOException {
+
+		File file = BenchmarkFixtures.fixtureFile(fixture);
+
+		long before = usedHeapAfterGC();
+
+		OSMData result;
+
+		if (BenchmarkFixtures.isPbf(file)) {
+			try (InputStream stream = new FileInputStream(file)) {
+				result = new OSMData(MapDataSetLoader.read(new PbfIterator(stream, true), true, true, true));
+			}
+		} else {
+			result = new OSMData(MapDataSetLoader.read(new OsmXmlIterator(file, true), true, true, true));
+		}
+
+		counters.retainedBytes = usedHeapAfterGC() - before;
+
+		return result;
+
+	}
+
+	@Benchmark
+	public Object mapData(HeapCounters counters) throws IOException, EntityNotFoundException {
+
+		OSMData osmData = BenchmarkFixtures.readOsmData(fixture);
+
+		OriginMapProjection mapProjection = new MetricMapProjection();
+		mapProjection.setOrigin(osmData);
+		OSMToMapDataConverter converter = new OSMToMapDataConverter(mapProjection, new BaseConfiguration());
+
+		long before = usedHeapAfterGC();
+		MapData result = converter.createMapData(osmData);
+		counters.retainedBytes = usedHeapAfterGC() - before;
+
+		/* keep the OSM data reachable during the measurement, it is not part of the result */
+		return new Object[] {result, osmData};
+
+	}
+
+	private static long usedHeapAfterGC() {
+
+		Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+
+	}
+
+}
@@ -0,0 +1,56 @@
+package org.osm2world.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.core.math.LineSegmentXZ;
+import org.osm2world.core.math.algorithms.LineSegmentIntersectionFinder;
+import org.osm2world.core.math.algorithms.LineSegmentIntersectionFinder.Intersection;
+import org.osm2world.core.math.algorithms.SimpleLineSegmentIntersectionFinder;
+
+/**
+ * the sweep line algorithm in {@link LineSegmentIntersectionFinder}
+ * and the brute-force {@link SimpleLineSegmentIntersectionFinder} on random short segments
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IntersectionBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	public int segmentCount;
+
+	private List<LineSegmentXZ> segments;
+
+	@Setup
+	public void setup() {
+		segments = BenchmarkFixtures.randomSegments(new Random(segmentCount), segmentCount,
+				10 * Math.sqrt(segmentCount), 10);
+	}
+
+	@Benchmark
+	public List<Intersection<LineSegmentXZ>> sweepLine() {
+		return LineSegmentIntersectionFinder.findAllIntersections(segments);
+	}
+
+	@Benchmark
+	public List<Intersection<LineSegmentXZ>> bruteForce() {
+		return SimpleLineSegmentIntersectionFinder.findAllIntersections(segments);
+	}
+
+}
@@ -0,0 +1,75 @@
+package org.osm2world.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.core.map_data.creation.MetricMapProjection;
+import org.osm2world.core.map_data.creation.OSMToMapDataConverter;
+import org.osm2world.core.map_data.creation.OriginMapProjection;
+import org.osm2world.core.map_data.data.MapData;
+import org.osm2world.core.osm.data.OSMData;
+
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+
+/**
+ * reading OSM files and {@link OSMToMapDataConverter#createMapData(OSMData)},
+ * including the (optionally parallel) overlap calculation and tag pooling.
+ * Pass a large extract as the fixture to get realistic numbers for the MAP_DATA phase.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MapDataBenchmark {
+
+	@Param({"synthetic-8", "synthetic-24", "mp_two_holes_advanced.osm", "coastline_islands_and_coast.osm"})
+	public String fixture;
+
+	/** value of the mapDataThreads config key */
+	@Param({"1", "4"})
+	public int mapDataThreads;
+
+	private OSMData osmData;
+	private Configuration config;
+
+	@Setup
+	public void setup() throws IOException {
+
+		osmData = BenchmarkFixtures.readOsmData(fixture);
+
+		config = new BaseConfiguration();
+		config.setProperty("mapDataThreads", mapDataThreads);
+
+	}
+
+	@Benchmark
+	public OSMData readOsmFile() throws IOException {
+		return BenchmarkFixtures.readOsmData(fixture);
+	}
+
+	@Benchmark
+	public MapData createMapData() throws IOException, EntityNotFoundException {
+
+		OriginMapProjection mapProjection = new MetricMapProjection();
+		mapProjection.setOrigin(osmData);
+
+		return new OSMToMapDataConverter(mapProjection, config).createMapData(osmData);
+
+	}
+
+}
@@ -0,0 +1,93 @@
+package org.osm2world.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.osm2world.core.math.LineSegmentXZ;
+import org.osm2world.core.math.SimplePolygonXZ;
+import org.osm2world.core.math.TriangleXZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.math.shapes.SimplePolygonShapeXZ;
+
+/**
+ * point-in-polygon and segment intersection tests against large rings,
+ * such as the outlines of real-world multipolygons.
+ * Compares {@link SimplePolygonXZ}, which indexes large rings for these tests,
+ * with the brute-force default implementations of {@link SimplePolygonShapeXZ}.
+ *
+ * Each operation performs 1000 tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PreparedRingBenchmark {
+
+	@Param({"32", "1024", "16384"})
+	public int vertices;
+
+	@Param({"true", "false"})
+	public boolean prepared;
+
+	private SimplePolygonShapeXZ polygon;
+	private List<VectorXZ> points;
+	private List<LineSegmentXZ> segments;
+
+	@Setup
+	public void setup() {
+
+		Random random = new Random(vertices);
+
+		SimplePolygonXZ p = BenchmarkFixtures.starPolygon(random, VectorXZ.NULL_VECTOR, vertices, 300, 500);
+
+		if (prepared) {
+			polygon = p;
+		} else {
+			List<VectorXZ> vertexLoop = p.getVertexList();
+			polygon = new SimplePolygonShapeXZ() {
+				@Override public List<VectorXZ> getVertexList() { return vertexLoop; }
+				@Override public Collection<TriangleXZ> getTriangulation() { return null; }
+			};
+		}
+
+		segments = BenchmarkFixtures.randomSegments(random, 1000, 1000, 100);
+
+		points = new ArrayList<>(segments.size());
+		for (LineSegmentXZ s : segments) {
+			points.add(s.p1);
+		}
+
+	}
+
+	@Benchmark
+	public void contains(Blackhole blackhole) {
+		for (VectorXZ v : points) {
+			blackhole.consume(polygon.contains(v));
+		}
+	}
+
+	@Benchmark
+	public void intersects(Blackhole blackhole) {
+		for (LineSegmentXZ s : segments) {
+			blackhole.consume(polygon.intersects(s));
+		}
+	}
+
+}
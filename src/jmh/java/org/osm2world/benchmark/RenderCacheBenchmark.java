@@ -0,0 +1,85 @@
+package org.osm2world.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.target.RenderCache;
+import org.osm2world.core.target.TargetUtil;
+import org.osm2world.core.target.frontend_pbf.FrontendPbfTarget;
+import org.osm2world.core.target.obj.ObjWriter;
+import org.osm2world.core.target.statistics.StatisticsTarget;
+
+/**
+ * writing the results of one conversion to three outputs (OBJ, frontend PBF and statistics),
+ * with and without a {@link RenderCache} shared by the outputs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RenderCacheBenchmark {
+
+	@Param({"synthetic-8"})
+	public String fixture;
+
+	@Param({"true", "false"})
+	public boolean useRenderCache;
+
+	/** value of the renderThreads config key */
+	@Param({"1", "4"})
+	public int renderThreads;
+
+	private Results results;
+
+	private File objFile;
+	private File pbfFile;
+
+	@Setup
+	public void setup() throws IOException {
+		results = BenchmarkFixtures.convert(fixture);
+		objFile = File.createTempFile("osm2world-benchmark-", ".obj");
+		pbfFile = File.createTempFile("osm2world-benchmark-", ".o2w.pbf");
+	}
+
+	@TearDown
+	public void tearDown() {
+		objFile.delete();
+		new File(objFile.getAbsoluteFile() + ".mtl").delete();
+		pbfFile.delete();
+	}
+
+	@Benchmark
+	public StatisticsTarget threeOutputs() throws IOException {
+
+		RenderCache renderCache = useRenderCache ? new RenderCache(Long.MAX_VALUE) : null;
+
+		ObjWriter.writeObjFile(objFile, results.getMapData(), results.getMapProjection(),
+				null, null, false, renderThreads, renderCache);
+
+		FrontendPbfTarget.writePbfFile(pbfFile, results.getMapData(), null, results.getMapProjection(),
+				renderThreads, renderCache);
+
+		StatisticsTarget statistics = new StatisticsTarget();
+		TargetUtil.renderWorldObjects(statistics, results.getMapData(), false, renderThreads, renderCache);
+
+		return statistics;
+
+	}
+
+}
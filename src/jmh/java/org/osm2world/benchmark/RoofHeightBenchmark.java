@@ -0,0 +1,84 @@
+package org.osm2world.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.osm2world.core.map_data.data.TagSet;
+import org.osm2world.core.math.AxisAlignedRectangleXZ;
+import org.osm2world.core.math.PolygonWithHolesXZ;
+import org.osm2world.core.math.SimplePolygonXZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.common.material.Materials;
+import org.osm2world.core.world.modules.building.roof.HeightfieldRoof;
+import org.osm2world.core.world.modules.building.roof.Roof;
+
+/**
+ * {@link Roof#getRoofHeightAt(VectorXZ)} for positions inside the roof,
+ * most of which need the nearest-segment interpolation of {@link HeightfieldRoof}.
+ *
+ * Each operation performs 1000 lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RoofHeightBenchmark {
+
+	@Param({"gabled", "hipped", "mansard", "round"})
+	public String roofShape;
+
+	@Param({"6", "64"})
+	public int outlineVertices;
+
+	private Roof roof;
+	private List<VectorXZ> positions;
+
+	@Setup
+	public void setup() {
+
+		Random random = new Random(outlineVertices);
+
+		SimplePolygonXZ outline = BenchmarkFixtures.starPolygon(random, VectorXZ.NULL_VECTOR,
+				outlineVertices, 8, 10);
+
+		roof = Roof.createRoofForShape(roofShape, null, new PolygonWithHolesXZ(outline, new ArrayList<>()),
+				TagSet.of(), 5, Materials.ROOF_DEFAULT);
+
+		AxisAlignedRectangleXZ bbox = outline.boundingBox();
+
+		positions = new ArrayList<>();
+		while (positions.size() < 1000) {
+			VectorXZ v = new VectorXZ(
+					bbox.minX + random.nextDouble() * bbox.sizeX(),
+					bbox.minZ + random.nextDouble() * bbox.sizeZ());
+			if (outline.contains(v)) {
+				positions.add(v);
+			}
+		}
+
+	}
+
+	@Benchmark
+	public void getRoofHeightAt(Blackhole blackhole) {
+		for (VectorXZ v : positions) {
+			blackhole.consume(roof.getRoofHeightAt(v));
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+package org.osm2world.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.target.Target;
+import org.osm2world.core.target.TargetUtil;
+import org.osm2world.core.target.frontend_pbf.FrontendPbfTarget;
+import org.osm2world.core.target.obj.ObjWriter;
+import org.osm2world.core.target.povray.POVRayWriter;
+import org.osm2world.core.target.statistics.StatisticsTarget;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * rendering a converted district to each file-based {@link Target}.
+ * The OpenGL targets are not included, as they need a graphics context.
+ * The POV-Ray export doesn't support parallel rendering and ignores renderThreads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TargetBenchmark {
+
+	@Param({"synthetic-8"})
+	public String fixture;
+
+	/** value of the renderThreads config key */
+	@Param({"1", "4"})
+	public int renderThreads;
+
+	private Results results;
+
+	private File outputDir;
+
+	@Setup
+	public void setup() throws IOException {
+
+		results = BenchmarkFixtures.convert(fixture);
+
+		outputDir = File.createTempFile("osm2world-benchmark-", "");
+		outputDir.delete();
+		outputDir.mkdir();
+
+	}
+
+	@TearDown
+	public void tearDown() {
+		for (File file : outputDir.listFiles()) {
+			file.delete();
+		}
+		outputDir.delete();
+	}
+
+	@Benchmark
+	public void obj() throws IOException {
+		ObjWriter.writeObjFile(new File(outputDir, "out.obj"), results.getMapData(), results.getMapProjection(),
+				null, null, true, renderThreads);
+	}
+
+	@Benchmark
+	public void povray() throws IOException {
+		POVRayWriter.writePOVInstructionFile(new File(outputDir, "out.pov"), results.getMapData(), null, null);
+	}
+
+	@Benchmark
+	public void frontendPbf() throws IOException {
+		FrontendPbfTarget.writePbfStream(ByteStreams.nullOutputStream(), results.getMapData(), null,
+				results.getMapProjection(), renderThreads);
+	}
+
+	@Benchmark
+	public StatisticsTarget statistics() {
+		StatisticsTarget target = new StatisticsTarget();
+		TargetUtil.renderWorldObjects(target, results.getMapData(), true, renderThreads);
+		return target;
+	}
+
+}
@@ -0,0 +1,115 @@
+package org.osm2world.benchmark;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.core.map_elevation.creation.BilinearGridInterpolator;
+import org.osm2world.core.map_elevation.creation.ElevationGrid;
+import org.osm2world.core.map_elevation.creation.InverseDistanceWeightingInterpolator;
+import org.osm2world.core.map_elevation.creation.LeastSquaresInterpolator;
+import org.osm2world.core.map_elevation.creation.LinearInterpolator;
+import org.osm2world.core.map_elevation.creation.NaturalNeighborInterpolator;
+import org.osm2world.core.map_elevation.creation.SiteArray;
+import org.osm2world.core.map_elevation.creation.TerrainInterpolationUtil;
+import org.osm2world.core.map_elevation.creation.TerrainInterpolator;
+import org.osm2world.core.map_elevation.creation.ZeroInterpolator;
+
+/**
+ * each {@link TerrainInterpolator}: preparing the known sites, and interpolating the elevations of
+ * 100,000 positions through {@link TerrainInterpolationUtil} (like the connectors during a conversion).
+ *
+ * Sites are randomly placed on a smooth synthetic terrain within 2 km x 2 km.
+ * The bilinear interpolator uses a regular grid with SRTM resolution covering the same area instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TerrainInterpolatorBenchmark {
+
+	private static final double SIZE = 2000;
+
+	private static final int POSITION_COUNT = 100_000;
+
+	@Param({"Zero", "Linear", "InverseDistanceWeighting", "LeastSquares", "NaturalNeighbor", "BilinearGrid"})
+	public String interpolator;
+
+	@Param({"10000"})
+	public int siteCount;
+
+	/** value of the terrainThreads config key */
+	@Param({"1", "4"})
+	public int terrainThreads;
+
+	private SiteArray sites;
+	private ElevationGrid grid;
+
+	private TerrainInterpolator preparedInterpolator;
+
+	private double[] xs;
+	private double[] zs;
+	private double[] out;
+
+	@Setup
+	public void setup() {
+
+		sites = BenchmarkFixtures.terrainSites(siteCount, SIZE, 42);
+		grid = BenchmarkFixtures.terrainGrid(SIZE);
+
+		preparedInterpolator = prepareInterpolator();
+
+		double[][] positions = BenchmarkFixtures.randomPositions(POSITION_COUNT, 0.9 * SIZE, 43);
+		xs = positions[0];
+		zs = positions[1];
+		out = new double[POSITION_COUNT];
+
+	}
+
+	private TerrainInterpolator prepareInterpolator() {
+
+		TerrainInterpolator result;
+
+		switch (interpolator) {
+		case "Zero": result = new ZeroInterpolator(); break;
+		case "Linear": result = new LinearInterpolator(); break;
+		case "InverseDistanceWeighting": result = new InverseDistanceWeightingInterpolator(); break;
+		case "LeastSquares": result = new LeastSquaresInterpolator(); break;
+		case "NaturalNeighbor": result = new NaturalNeighborInterpolator(); break;
+		case "BilinearGrid": {
+			BilinearGridInterpolator bilinear = new BilinearGridInterpolator();
+			bilinear.setKnownGrid(grid);
+			return bilinear;
+		}
+		default: throw new IllegalArgumentException(interpolator);
+		}
+
+		result.setKnownSites(sites);
+
+		return result;
+
+	}
+
+	@Benchmark
+	public TerrainInterpolator setKnownSites() {
+		return prepareInterpolator();
+	}
+
+	@Benchmark
+	public BitSet interpolateEle() {
+		return TerrainInterpolationUtil.interpolateEle(preparedInterpolator, xs, zs, out, terrainThreads);
+	}
+
+}
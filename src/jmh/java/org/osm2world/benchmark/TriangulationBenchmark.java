@@ -0,0 +1,81 @@
+package org.osm2world.benchmark;
+
+import static java.lang.Math.*;
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.core.math.SimplePolygonXZ;
+import org.osm2world.core.math.TriangleXZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.math.algorithms.JTSTriangulationUtil;
+import org.osm2world.core.math.algorithms.Poly2TriTriangulationUtil;
+import org.osm2world.core.math.algorithms.TriangulationUtil;
+import org.osm2world.core.util.exception.TriangulationException;
+
+/**
+ * the triangulation implementations on star-shaped polygons with square holes.
+ * {@link TriangulationUtil} is the default, which uses Earcut4J.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TriangulationBenchmark {
+
+	@Param({"16", "256", "4096"})
+	public int vertices;
+
+	@Param({"0", "8"})
+	public int holes;
+
+	private SimplePolygonXZ outer;
+	private List<SimplePolygonXZ> holePolygons;
+
+	@Setup
+	public void setup() {
+
+		Random random = new Random(vertices);
+
+		outer = BenchmarkFixtures.starPolygon(random, VectorXZ.NULL_VECTOR, vertices, 50, 100);
+
+		holePolygons = new ArrayList<>();
+		for (int i = 0; i < holes; i++) {
+			double angle = 2 * PI * i / holes;
+			holePolygons.add(BenchmarkFixtures.square(new VectorXZ(30 * sin(angle), 30 * cos(angle)), 5, angle));
+		}
+
+	}
+
+	@Benchmark
+	public List<TriangleXZ> earcut4j() {
+		return TriangulationUtil.triangulate(outer, holePolygons);
+	}
+
+	@Benchmark
+	public List<TriangleXZ> poly2tri() throws TriangulationException {
+		return Poly2TriTriangulationUtil.triangulate(outer, holePolygons, emptyList(), emptyList());
+	}
+
+	@Benchmark
+	public List<TriangleXZ> jts() {
+		return JTSTriangulationUtil.triangulate(outer, holePolygons);
+	}
+
+}
@@ -0,0 +1,175 @@
+package org.osm2world.console;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.benchmark.BenchmarkFixtures;
+
+/**
+ * throughput of the two modes for many small conversion jobs:
+ * {@link ServerMode}, where each job is submitted through a socket, and {@link ParamFileDirMode},
+ * where each job is a parameter file moved into the observed directory.
+ * One operation is a batch of jobs, and is complete once all jobs of the batch have finished.
+ *
+ * This is in the same package as the modes because their entry points for embedding are package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JobModeBenchmark {
+
+	@Param({"synthetic-2"})
+	public String fixture;
+
+	/** number of jobs per operation */
+	@Param({"16"})
+	public int jobs;
+
+	/** number of jobs which are executed at the same time */
+	@Param({"1", "4"})
+	public int threads;
+
+	private File inputFile;
+	private Path workDir;
+
+	private ServerSocket serverSocket;
+	private Thread serverThread;
+	private ExecutorService clients;
+
+	private Path paramFileDir;
+	private Path stagingDir;
+	private File jobLog;
+	private ParamFileDirMode paramFileDirMode;
+	private Thread watchThread;
+
+	private int batch = 0;
+
+	@Setup
+	public void setup() throws IOException {
+
+		inputFile = BenchmarkFixtures.fixtureFile(fixture);
+		workDir = Files.createTempDirectory("osm2world-benchmark-");
+
+		/* server mode */
+
+		serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		serverThread = new Thread(() -> ServerMode.serve(serverSocket, threads));
+		serverThread.start();
+
+		clients = Executors.newFixedThreadPool(jobs);
+
+		/* parameter file directory mode */
+
+		paramFileDir = Files.createDirectory(workDir.resolve("params"));
+		stagingDir = Files.createDirectory(workDir.resolve("staging"));
+		jobLog = workDir.resolve("jobs.log").toFile();
+
+		paramFileDirMode = new ParamFileDirMode(paramFileDir, threads, jobLog);
+		paramFileDirMode.start();
+		watchThread = new Thread(paramFileDirMode::watch);
+		watchThread.start();
+
+	}
+
+	@TearDown
+	public void tearDown() throws IOException, InterruptedException {
+
+		serverSocket.close();
+		serverThread.join();
+		clients.shutdown();
+
+		paramFileDirMode.shutdown();
+		watchThread.join();
+
+		Files.walk(workDir)
+				.sorted((a, b) -> b.compareTo(a))
+				.forEach(p -> p.toFile().delete());
+
+	}
+
+	@Benchmark
+	public int server() throws Exception {
+
+		batch += 1;
+
+		List<Future<Boolean>> results = new ArrayList<>();
+
+		for (int i = 0; i < jobs; i++) {
+			String parameterLine = parameterLine(i);
+			results.add(clients.submit(() -> ServerClient.submit(serverSocket.getLocalPort(), parameterLine, l -> {})));
+		}
+
+		int successfulJobs = 0;
+
+		for (Future<Boolean> result : results) {
+			if (result.get()) {
+				successfulJobs += 1;
+			}
+		}
+
+		return successfulJobs;
+
+	}
+
+	@Benchmark
+	public int parameterFileDir() throws IOException, InterruptedException {
+
+		batch += 1;
+
+		int loggedJobs = countLoggedJobs();
+
+		for (int i = 0; i < jobs; i++) {
+			String fileName = String.format("%05d-%03d.txt", batch, i);
+			Path stagedFile = stagingDir.resolve(fileName);
+			Files.write(stagedFile, parameterLine(i).getBytes(UTF_8));
+			Files.move(stagedFile, paramFileDir.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		/* the job log has one line for each finished job */
+
+		while (countLoggedJobs() < loggedJobs + jobs) {
+			Thread.sleep(5);
+		}
+
+		return jobs;
+
+	}
+
+	private String parameterLine(int job) {
+		Path outputFile = workDir.resolve("output-" + batch + "-" + job + ".obj");
+		return "-i \"" + inputFile.getAbsolutePath() + "\" -o \"" + outputFile + "\"";
+	}
+
+	private int countLoggedJobs() throws IOException {
+		return jobLog.exists() ? Files.readAllLines(jobLog.toPath(), UTF_8).size() : 0;
+	}
+
+}
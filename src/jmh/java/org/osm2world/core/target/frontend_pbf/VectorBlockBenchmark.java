@@ -0,0 +1,84 @@
+package org.osm2world.core.target.frontend_pbf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.target.frontend_pbf.FrontendPbfTarget.SimpleBlock;
+import org.osm2world.core.target.frontend_pbf.FrontendPbfTarget.VectorBlock;
+
+/**
+ * deduplicating vertices with {@link VectorBlock} compared to the generic {@link SimpleBlock}.
+ * Each distinct vector is passed to the block 4 times, similar to the shared vertices of a mesh.
+ * This is in the same package as {@link FrontendPbfTarget} because the blocks are package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VectorBlockBenchmark {
+
+	private static final int REPETITIONS = 4;
+
+	/** number of distinct vectors */
+	@Param({"1000", "10000", "100000"})
+	public int vectorCount;
+
+	private List<VectorXYZ> vectors;
+
+	@Setup
+	public void setup() {
+
+		Random random = new Random(vectorCount);
+
+		List<VectorXYZ> distinctVectors = new ArrayList<>(vectorCount);
+		for (int i = 0; i < vectorCount; i++) {
+			distinctVectors.add(new VectorXYZ(
+					1000 * random.nextDouble(), 50 * random.nextDouble(), 1000 * random.nextDouble()));
+		}
+
+		vectors = new ArrayList<>(vectorCount * REPETITIONS);
+		for (int i = 0; i < REPETITIONS; i++) {
+			vectors.addAll(distinctVectors);
+		}
+		Collections.shuffle(vectors, random);
+
+	}
+
+	@Benchmark
+	public int vectorBlock() {
+		VectorBlock<VectorXYZ> block = VectorBlock.vector3dBlock();
+		int indexSum = 0;
+		for (VectorXYZ v : vectors) {
+			indexSum += block.toIndex(v);
+		}
+		return indexSum;
+	}
+
+	@Benchmark
+	public int simpleBlock() {
+		SimpleBlock<VectorXYZ> block = new SimpleBlock<>();
+		int indexSum = 0;
+		for (VectorXYZ v : vectors) {
+			indexSum += block.toIndex(v);
+		}
+		return indexSum;
+	}
+
+}
@@ -39,12 +39,12 @@ public interface CLIArguments {
 	InputMode getInputMode();
 	boolean isInputMode();
 
-	@Option(description="lat,lon pairs defining an input bounding box (does not work with files)",
+	@Option(description="lat,lon pairs defining an input bounding box (for Overpass and .osm.pbf input)",
 			longName="input_bbox", pattern=LatLonEle.PATTERN)
 	List<LatLonEle> getInputBoundingBox();
 	boolean isInputBoundingBox();
 
-	@Option(description="zoom,x,y defining an input tile (used for mbtiles sqlite input)", pattern=TileNumber.PATTERN)
+	@Option(description="zoom,x,y defining an input tile (used for mbtiles sqlite and .osm.pbf input)", pattern=TileNumber.PATTERN)
 	TileNumber getTile();
 	boolean isTile();
 
@@ -78,6 +78,12 @@ public interface CLIArguments {
 	List<TileNumber> getOviewTiles();
 	boolean isOviewTiles();
 
+	@Option(description="two zoom,x,y corner tiles of a range of tiles which are written as separate .o2w.pbf files;"
+			+ " {zoom}, {x} and {y} in the output file name are replaced with each tile's number",
+			pattern=TileNumber.PATTERN, longName="pbfTileRange")
+	List<TileNumber> getPbfTileRange();
+	boolean isPbfTileRange();
+
 	@Option(description="lat,lon,ele of camera position for perspective view",
 			pattern=LatLonEle.PATTERN_WITH_ELE, longName="pview.pos")
 	LatLonEle getPviewPos();
@@ -107,6 +113,11 @@ public interface CLIArguments {
 	File getPerformanceTable();
 	boolean isPerformanceTable();
 
+	@Option(description="writes phase and module timings, peak heap, element counts and per-class render statistics"
+			+ " to a .json or .csv file; rendering the statistics adds an extra render pass")
+	File getPerformanceReport();
+	boolean isPerformanceReport();
+
 	/* other parameters */
 
 	@Option(description="start the graphical user interface")
@@ -128,4 +139,27 @@ public interface CLIArguments {
 	File getParameterFileDir();
 	boolean isParameterFileDir();
 
+	@Option(description="number of parameter files from the parameterFileDir which are processed at the same time;"
+			+ " defaults to the number of processors")
+	int getParameterFileDirThreads();
+	boolean isParameterFileDirThreads();
+
+	@Option(description="a file to which a line with timings and output size is appended"
+			+ " for each job from the parameterFileDir")
+	File getParameterFileDirLog();
+	boolean isParameterFileDirLog();
+
+	/* server mode */
+
+	@Option(description="a local port on which OSM2World keeps running and accepts conversion jobs")
+	int getServerPort();
+	boolean isServerPort();
+
+	/* caching */
+
+	@Option(description="memory in MiB (1024 * 1024 bytes) for keeping the input data and results of recent conversions,"
+			+ " useful with parameterFile, parameterFileDir or serverPort")
+	int getCacheMemory();
+	boolean isCacheMemory();
+
 }
@@ -13,7 +13,7 @@ import java.util.regex.Pattern;
 
 public final class CLIArgumentsUtil {
 
-	public static enum ProgramMode {GUI, CONVERT, HELP, VERSION, PARAMFILE, PARAMFILEDIR}
+	public static enum ProgramMode {GUI, CONVERT, HELP, VERSION, PARAMFILE, PARAMFILEDIR, SERVER}
 	public static enum OutputMode {OBJ, POV, WEB_PBF, PNG, PPM, GD}
 	public static enum InputMode {FILE, OVERPASS}
 
@@ -25,6 +25,14 @@ public final class CLIArgumentsUtil {
 
 	public static final String getErrorString(CLIArguments args) {
 
+		if (args.isParameterFileDirThreads() && args.getParameterFileDirThreads() < 1) {
+			return "at least one thread is required for the parameter file directory";
+		}
+
+		if (args.isCacheMemory() && args.getCacheMemory() < 0) {
+			return "cache memory must not be negative";
+		}
+
 		if (getProgramMode(args) == CONVERT) {
 
 			switch (args.getInputMode()) {
@@ -53,6 +61,15 @@ public final class CLIArgumentsUtil {
 				return "at least one tile required";
 			}
 
+			if (args.isPbfTileRange() && args.getPbfTileRange().size() != 2) {
+				return "a tile range requires exactly two corner tiles";
+			}
+
+			if (args.isPbfTileRange()
+					&& args.getPbfTileRange().get(0).zoom != args.getPbfTileRange().get(1).zoom) {
+				return "the corner tiles of a tile range must have the same zoom level";
+			}
+
 			if (args.isOviewBoundingBox()
 					&& args.getOviewBoundingBox().size() < 2) {
 				return "bounding box requires at least two lat,lon pairs";
@@ -98,7 +115,8 @@ public final class CLIArgumentsUtil {
 	}
 
 	public static final ProgramMode getProgramMode(CLIArguments args) {
-		return args.isParameterFileDir() ? PARAMFILEDIR
+		return args.isServerPort() ? SERVER
+			: args.isParameterFileDir() ? PARAMFILEDIR
 				: args.isParameterFile() ? PARAMFILE
 					: args.getHelp() ? HELP
 						: args.getVersion() ? VERSION
@@ -138,25 +156,7 @@ public final class CLIArgumentsUtil {
 				if (line.startsWith("#")) continue;
 				if (line.trim().isEmpty()) continue;
 
-				List<String> argList = new ArrayList<>();
-
-				Pattern regex = Pattern.compile("[^\\s\"']+|\"([^\"]*)\"|'([^']*)'");
-				Matcher matcher = regex.matcher(line);
-
-				while (matcher.find()) {
-				    if (matcher.group(1) != null) {
-				        // Add double-quoted string without the quotes
-				    	argList.add(matcher.group(1));
-				    } else if (matcher.group(2) != null) {
-				        // Add single-quoted string without the quotes
-				    	argList.add(matcher.group(2));
-				    } else {
-				        // Add unquoted word
-				    	argList.add(matcher.group());
-				    }
-				}
-
-				result.add(argList.toArray(new String[argList.size()]));
+				result.add(splitParameterLine(line));
 
 			}
 
@@ -166,4 +166,32 @@ public final class CLIArgumentsUtil {
 
 	}
 
+	/**
+	 * splits a line of parameters into individual arguments.
+	 * Arguments are separated by whitespace, quotes can be used for arguments containing whitespace.
+	 */
+	public static final String[] splitParameterLine(String line) {
+
+		List<String> argList = new ArrayList<>();
+
+		Pattern regex = Pattern.compile("[^\\s\"']+|\"([^\"]*)\"|'([^']*)'");
+		Matcher matcher = regex.matcher(line);
+
+		while (matcher.find()) {
+		    if (matcher.group(1) != null) {
+		        // Add double-quoted string without the quotes
+		    	argList.add(matcher.group(1));
+		    } else if (matcher.group(2) != null) {
+		        // Add single-quoted string without the quotes
+		    	argList.add(matcher.group(2));
+		    } else {
+		        // Add unquoted word
+		    	argList.add(matcher.group());
+		    }
+		}
+
+		return argList.toArray(new String[argList.size()]);
+
+	}
+
 }
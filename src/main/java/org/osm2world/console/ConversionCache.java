@@ -0,0 +1,210 @@
+package org.osm2world.console;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.configuration.Configuration;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.map_data.creation.LatLonBounds;
+import org.osm2world.core.osm.creation.OSMDataReader;
+import org.osm2world.core.osm.data.OSMData;
+
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+
+/**
+ * keeps the input data and conversion results of recent conversions in memory.
+ * This allows later jobs in the same process (e.g. from other parameter files or lines with a different tile)
+ * to skip reading the input and, if the configuration is also the same, the conversion.
+ *
+ * Only input files are cached. They are identified by their path, modification time and size,
+ * and by the tile for .mbtiles files or the extracted area for .osm.pbf files.
+ * The memory use of the entries is estimated from the size of the OSM data.
+ * The least recently used entries are removed when the estimate exceeds the memory budget.
+ *
+ * Cached {@link Results} are shared by all jobs which use them, including their map data and world objects.
+ * World objects are not safe to render from several threads at once, so jobs must hold the lock
+ * of the Results object while rendering them (see {@link Output}). Jobs using different results
+ * still run in parallel, while jobs using the same results write their outputs one after another.
+ */
+final class ConversionCache {
+
+	/* rough estimates of the memory used by osm4j's data structures */
+
+	private static final long BYTES_PER_ENTITY = 64;
+	private static final long BYTES_PER_TAG = 96;
+	private static final long BYTES_PER_WAY_NODE = 8;
+	private static final long BYTES_PER_MEMBER = 32;
+
+	/** estimated memory used by conversion results relative to the memory used by their input data */
+	private static final long RESULTS_SIZE_FACTOR = 10;
+
+	private static class CachedValue {
+
+		final Object value;
+		final long estimatedSize;
+
+		CachedValue(Object value, long estimatedSize) {
+			this.value = value;
+			this.estimatedSize = estimatedSize;
+		}
+
+	}
+
+	private static long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+
+	private static long estimatedMemoryUse = 0;
+
+	/** cached {@link OSMData} and {@link Results}, in access order */
+	private static final LinkedHashMap<List<?>, CachedValue> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private ConversionCache() {}
+
+	/** sets the maximum estimated memory use of the cache, in bytes. 0 disables the cache. */
+	static synchronized void setMemoryBudget(long memoryBudget) {
+		ConversionCache.memoryBudget = memoryBudget;
+		evict();
+	}
+
+	/**
+	 * returns the key identifying the input of a conversion,
+	 * or null if the input cannot be cached (e.g. because it is downloaded)
+	 */
+	static @Nullable List<?> getInputKey(CLIArguments args) {
+
+		if (args.getInputMode() != CLIArgumentsUtil.InputMode.FILE || !args.isInput()) {
+			return null;
+		}
+
+		File inputFile = args.getInput().getAbsoluteFile();
+
+		if (!inputFile.isFile()) {
+			return null;
+		}
+
+		/* identify the part of the file which is read */
+
+		Object extract = null;
+
+		if (inputFile.getName().endsWith(".mbtiles") && args.isTile()) {
+			extract = args.getTile();
+		} else if (inputFile.getName().endsWith(".pbf")) {
+			LatLonBounds bounds = Output.getInputBounds(args);
+			if (bounds != null) {
+				extract = Arrays.asList(bounds.minlat, bounds.minlon, bounds.maxlat, bounds.maxlon);
+			}
+		}
+
+		return Arrays.asList(inputFile, inputFile.lastModified(), inputFile.length(), extract);
+
+	}
+
+	/**
+	 * returns the OSM data for an input, reading it with the reader if it is not cached yet
+	 */
+	static OSMData getOSMData(List<?> inputKey, OSMDataReader reader) throws IOException {
+
+		OSMData osmData = (OSMData) get(inputKey);
+
+		if (osmData == null) {
+			osmData = reader.getData();
+			put(inputKey, osmData, estimateSize(osmData));
+		}
+
+		return osmData;
+
+	}
+
+	/**
+	 * returns the results of a previous conversion with the same input and configuration, or null if there is none
+	 */
+	static @Nullable Results getResults(List<?> inputKey, Configuration config) {
+		return (Results) get(resultsKey(inputKey, config));
+	}
+
+	static void putResults(List<?> inputKey, Configuration config, Results results, OSMData osmData) {
+		put(resultsKey(inputKey, config), results, RESULTS_SIZE_FACTOR * estimateSize(osmData));
+	}
+
+	private static List<?> resultsKey(List<?> inputKey, Configuration config) {
+
+		Map<String, Object> configEntries = new HashMap<>();
+
+		Iterator<String> keyIterator = config.getKeys();
+		while (keyIterator.hasNext()) {
+			String key = keyIterator.next();
+			configEntries.put(key, config.getProperty(key));
+		}
+
+		return Arrays.asList(inputKey, configEntries);
+
+	}
+
+	private static synchronized @Nullable Object get(List<?> key) {
+		CachedValue cachedValue = entries.get(key);
+		return cachedValue == null ? null : cachedValue.value;
+	}
+
+	private static synchronized void put(List<?> key, Object value, long estimatedSize) {
+
+		if (estimatedSize > memoryBudget) return;
+
+		CachedValue previousValue = entries.put(key, new CachedValue(value, estimatedSize));
+
+		if (previousValue != null) {
+			estimatedMemoryUse -= previousValue.estimatedSize;
+		}
+
+		estimatedMemoryUse += estimatedSize;
+
+		evict();
+
+	}
+
+	/** removes the least recently used entries until the memory budget is met */
+	private static void evict() {
+
+		Iterator<CachedValue> iterator = entries.values().iterator();
+
+		while (estimatedMemoryUse > memoryBudget && iterator.hasNext()) {
+			estimatedMemoryUse -= iterator.next().estimatedSize;
+			iterator.remove();
+		}
+
+	}
+
+	private static long estimateSize(OSMData osmData) {
+
+		long size = 0;
+
+		for (OsmNode node : osmData.getNodes()) {
+			size += estimateSize(node);
+		}
+
+		for (OsmWay way : osmData.getWays()) {
+			size += estimateSize(way) + way.getNumberOfNodes() * BYTES_PER_WAY_NODE;
+		}
+
+		for (OsmRelation relation : osmData.getRelations()) {
+			size += estimateSize(relation) + relation.getNumberOfMembers() * BYTES_PER_MEMBER;
+		}
+
+		return size;
+
+	}
+
+	private static long estimateSize(OsmEntity entity) {
+		return BYTES_PER_ENTITY + entity.getNumberOfTags() * BYTES_PER_TAG;
+	}
+
+}
@@ -18,6 +18,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 
+import javax.annotation.Nullable;
 import javax.media.opengl.GL;
 import javax.media.opengl.GLAutoDrawable;
 import javax.media.opengl.GLCapabilities;
@@ -29,6 +30,7 @@ import javax.media.opengl.GLProfile;
 import org.apache.commons.configuration.Configuration;
 import org.osm2world.console.CLIArgumentsUtil.OutputMode;
 import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.target.RenderCache;
 import org.osm2world.core.target.TargetUtil;
 import org.osm2world.core.target.common.lighting.GlobalLightingParameters;
 import org.osm2world.core.target.common.rendering.Camera;
@@ -61,6 +63,7 @@ public class ImageExporter {
 
 	private final Results results;
 	private final Configuration config;
+	private final @Nullable RenderCache renderCache;
 
 	private File backgroundImage;
 	private JOGLTextureManager backgroundTextureManager;
@@ -90,9 +93,21 @@ public class ImageExporter {
 	 */
 	public ImageExporter(Configuration config, Results results,
 			CLIArgumentsGroup expectedGroup) {
+		this(config, results, expectedGroup, null);
+	}
+
+	/**
+	 * variant of {@link #ImageExporter(Configuration, Results, CLIArgumentsGroup)}
+	 * which reuses output recorded for other targets
+	 *
+	 * @param renderCache  cache for output which is shared with other targets; can be null
+	 */
+	public ImageExporter(Configuration config, Results results,
+			CLIArgumentsGroup expectedGroup, @Nullable RenderCache renderCache) {
 
 		this.results = results;
 		this.config = config;
+		this.renderCache = renderCache;
 
 		/* parse background color/image and other configuration options */
 
@@ -308,7 +323,7 @@ public class ImageExporter {
 	}
 
 	private static JOGLTarget createJOGLTarget(GL gl, Results results,
-			Configuration config) {
+			Configuration config, @Nullable RenderCache renderCache) {
 
 		JOGLTarget target;
 		if ("shader".equals(config.getString("joglImplementation"))) {
@@ -340,7 +355,7 @@ public class ImageExporter {
 		boolean underground = config.getBoolean("renderUnderground", true);
 
 		target.setXZBoundary(results.getMapData().getBoundary());
-		TargetUtil.renderWorldObjects(target, results.getMapData(), underground);
+		TargetUtil.renderWorldObjects(target, results.getMapData(), underground, 1, renderCache);
 
 		target.finish();
 
@@ -595,7 +610,7 @@ public class ImageExporter {
 
 			/* render map data into buffer if it needs to be rendered multiple times */
 			if (!unbufferedRendering ) {
-				bufferTarget = createJOGLTarget(drawable.getGL(), results, config);
+				bufferTarget = createJOGLTarget(drawable.getGL(), results, config, renderCache);
 			}
 		}
 
@@ -642,7 +657,7 @@ public class ImageExporter {
 			/* render to pBuffer */
 
 			JOGLTarget target = (bufferTarget == null)?
-					createJOGLTarget(drawable.getGL(), results, config) : bufferTarget;
+					createJOGLTarget(drawable.getGL(), results, config, renderCache) : bufferTarget;
 
 					if (backgroundImage != null) {
 						target.drawBackgoundImage(backgroundImage,
@@ -58,10 +58,25 @@ public class OSM2World {
 			System.exit(1);
 		}
 
+		if (args.isCacheMemory()) {
+			ConversionCache.setMemoryBudget(args.getCacheMemory() * 1024L * 1024L);
+		}
+
 		/* check for parameter file directory mode */
 
 		if (args.isParameterFileDir()) {
-			ParamFileDirMode.run(args.getParameterFileDir());
+			ParamFileDirMode.run(args.getParameterFileDir(),
+					args.isParameterFileDirThreads() ? args.getParameterFileDirThreads()
+							: Runtime.getRuntime().availableProcessors(),
+					args.isParameterFileDirLog() ? args.getParameterFileDirLog() : null);
+			return;
+		}
+
+		/* check for server mode */
+
+		if (args.isServerPort()) {
+			ServerMode.run(args.getServerPort());
+			return;
 		}
 
 		/* parse lines from parameter file (if one exists) */
@@ -144,7 +159,7 @@ public class OSM2World {
 
 	}
 
-	private static CLIArguments parseArguments(String[] unparsedArgs)
+	static CLIArguments parseArguments(String[] unparsedArgs)
 		throws ArgumentValidationException, Exception {
 
 		CLIArguments args = CliFactory.parseArguments(CLIArguments.class, unparsedArgs);
@@ -156,6 +171,28 @@ public class OSM2World {
 
 	}
 
+	/**
+	 * reads a configuration file and registers the fonts it references.
+	 * If the file cannot be read, an empty configuration is returned.
+	 */
+	static Configuration loadConfig(File configFile) {
+
+		try {
+
+			PropertiesConfiguration fileConfig = new PropertiesConfiguration();
+			fileConfig.setListDelimiter(';');
+			fileConfig.load(configFile);
+			ConfigUtil.parseFonts(fileConfig);
+			return fileConfig;
+
+		} catch (ConfigurationException e) {
+			System.err.println("could not read config, ignoring it: ");
+			System.err.println(e);
+			return new BaseConfiguration();
+		}
+
+	}
+
 	private static void executeArgumentsGroup(CLIArgumentsGroup argumentsGroup) {
 
 		/* load configuration file */
@@ -166,18 +203,8 @@ public class OSM2World {
 		CLIArguments representativeArgs = argumentsGroup.getRepresentative();
 
 		if (representativeArgs.isConfig()) {
-			try {
-				configFile = representativeArgs.getConfig();
-				PropertiesConfiguration fileConfig = new PropertiesConfiguration();
-				fileConfig.setListDelimiter(';');
-				fileConfig.load(configFile);
-				config = fileConfig;
-				ConfigUtil.parseFonts(config);
-
-			} catch (ConfigurationException e) {
-				System.err.println("could not read config, ignoring it: ");
-				System.err.println(e);
-			}
+			configFile = representativeArgs.getConfig();
+			config = loadConfig(configFile);
 		}
 
 		/* run selected mode */
@@ -9,8 +9,9 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 import org.apache.commons.configuration.Configuration;
 import org.osm2world.console.CLIArgumentsUtil.OutputMode;
@@ -18,8 +19,10 @@ import org.osm2world.core.ConversionFacade;
 import org.osm2world.core.ConversionFacade.Phase;
 import org.osm2world.core.ConversionFacade.ProgressListener;
 import org.osm2world.core.ConversionFacade.Results;
-import org.osm2world.core.map_data.creation.LatLon;
+import org.osm2world.core.PerformanceReport;
+import org.osm2world.core.map_data.creation.LatLonBounds;
 import org.osm2world.core.map_data.creation.MapProjection;
+import org.osm2world.core.map_elevation.creation.BilinearGridInterpolator;
 import org.osm2world.core.map_elevation.creation.DiffusionEleConstraintEnforcer;
 import org.osm2world.core.map_elevation.creation.LeastSquaresInterpolator;
 import org.osm2world.core.map_elevation.creation.NaturalNeighborInterpolator;
@@ -29,17 +32,26 @@ import org.osm2world.core.map_elevation.creation.SimpleInterpolatedEleConstraint
 import org.osm2world.core.map_elevation.creation.ZeroInterpolator;
 import org.osm2world.core.math.AxisAlignedRectangleXZ;
 import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.algorithms.TriangulationCache;
 import org.osm2world.core.osm.creation.MbtilesReader;
 import org.osm2world.core.osm.creation.OSMDataReader;
 import org.osm2world.core.osm.creation.OSMFileReader;
 import org.osm2world.core.osm.creation.OverpassReader;
+import org.osm2world.core.osm.creation.PbfFileReader;
+import org.osm2world.core.osm.data.OSMData;
+import org.osm2world.core.target.RenderCache;
+import org.osm2world.core.target.TargetUtil;
 import org.osm2world.core.target.common.rendering.Camera;
 import org.osm2world.core.target.common.rendering.OrthoTilesUtil;
 import org.osm2world.core.target.common.rendering.OrthoTilesUtil.CardinalDirection;
 import org.osm2world.core.target.common.rendering.Projection;
+import org.osm2world.core.target.common.rendering.TileNumber;
 import org.osm2world.core.target.frontend_pbf.FrontendPbfTarget;
 import org.osm2world.core.target.obj.ObjWriter;
 import org.osm2world.core.target.povray.POVRayWriter;
+import org.osm2world.core.target.statistics.StatisticsTarget;
+import org.osm2world.core.world.modules.building.WallSurface;
+import org.osm2world.core.world.modules.building.roof.HeightfieldRoof;
 
 public final class Output {
 
@@ -48,208 +60,213 @@ public final class Output {
 	public static void output(Configuration config,
 			CLIArgumentsGroup argumentsGroup)
 		throws IOException {
+		output(config, argumentsGroup, null);
+	}
+
+	/**
+	 * @param progressListener  an additional listener which is informed about the conversion's phases, can be null
+	 */
+	public static void output(Configuration config,
+			CLIArgumentsGroup argumentsGroup, @Nullable ProgressListener progressListener)
+		throws IOException {
 
 		long start = System.currentTimeMillis();
 
-		OSMDataReader dataReader = null;
+		/* count the triangulation cache lookups of this job separately from those of concurrent jobs */
 
-		switch (argumentsGroup.getRepresentative().getInputMode()) {
+		boolean useTriangulationCache = config.getBoolean("triangulationCache", true);
 
-		case FILE:
-			File inputFile = argumentsGroup.getRepresentative().getInput();
-			if (inputFile.getName().endsWith(".mbtiles")) {
-				dataReader = new MbtilesReader(inputFile, argumentsGroup.getRepresentative().getTile());
-			} else {
-				dataReader = new OSMFileReader(inputFile);
-			}
-			break;
+		TriangulationCache.Usage roofCacheUsage =
+				new TriangulationCache.Usage(HeightfieldRoof.TRIANGULATION_CACHE, useTriangulationCache);
+		TriangulationCache.Usage wallCacheUsage =
+				new TriangulationCache.Usage(WallSurface.TRIANGULATION_CACHE, useTriangulationCache);
 
-		case OVERPASS:
-			if (argumentsGroup.getRepresentative().isInputBoundingBox()) {
+		roofCacheUsage.activate();
+		wallCacheUsage.activate();
 
-				double minLat = POSITIVE_INFINITY;
-				double maxLat = NEGATIVE_INFINITY;
-				double minLon = POSITIVE_INFINITY;
-				double maxLon = NEGATIVE_INFINITY;
+		List<?> inputKey = ConversionCache.getInputKey(argumentsGroup.getRepresentative());
 
-				for (LatLonEle l : argumentsGroup.getRepresentative().getInputBoundingBox()) {
-					if (l.lat < minLat) {
-						minLat = l.lat;
-					}
-					if (l.lat > maxLat) {
-						maxLat = l.lat;
-					}
-					if (l.lon < minLon) {
-						minLon = l.lon;
-					}
-					if (l.lon > maxLon) {
-						maxLon = l.lon;
-					}
-				}
+		PerformanceListener perfListener =
+			new PerformanceListener(argumentsGroup.getRepresentative());
 
-				dataReader = new OverpassReader(argumentsGroup.getRepresentative().getOverpassURL(),
-						new LatLon(minLat, minLon), new LatLon(maxLat, maxLon));
+		Results results = inputKey == null ? null : ConversionCache.getResults(inputKey, config);
 
-			} else { //due to input validation, there needs to be either a query or bounding box for Overpass input mode
-				assert argumentsGroup.getRepresentative().isInputQuery();
-				dataReader = new OverpassReader(argumentsGroup.getRepresentative().getOverpassURL(),
-						argumentsGroup.getRepresentative().getInputQuery());
-			}
-			break;
+		if (results != null) {
 
-		}
+			/* the conversion is skipped, but the listeners are still informed about each phase */
 
+			for (Phase phase : Phase.values()) {
+				perfListener.updatePhase(phase);
+				if (progressListener != null) {
+					progressListener.updatePhase(phase);
+				}
+			}
 
-		ConversionFacade cf = new ConversionFacade();
-		PerformanceListener perfListener =
-			new PerformanceListener(argumentsGroup.getRepresentative());
-		cf.addProgressListener(perfListener);
+			results.getMaterialRegistry().activate();
 
-		String interpolatorType = config.getString("terrainInterpolator");
-		if ("ZeroInterpolator".equals(interpolatorType)) {
-			cf.setTerrainEleInterpolatorFactory(ZeroInterpolator::new);
-		} else if ("LeastSquaresInterpolator".equals(interpolatorType)) {
-			cf.setTerrainEleInterpolatorFactory(LeastSquaresInterpolator::new);
-		} else if ("NaturalNeighborInterpolator".equals(interpolatorType)) {
-			cf.setTerrainEleInterpolatorFactory(NaturalNeighborInterpolator::new);
+		} else {
+			results = convert(config, argumentsGroup, inputKey, perfListener, progressListener);
 		}
 
-		String enforcerType = config.getString("eleConstraintEnforcer");
-		if ("NoneEleConstraintEnforcer".equals(enforcerType)) {
-			cf.setEleConstraintEnforcerFactory(NoneEleConstraintEnforcer::new);
-		} else if ("SimpleEleConstraintEnforcer".equals(enforcerType)) {
-			cf.setEleConstraintEnforcerFactory(SimpleEleConstraintEnforcer::new);
-		}else if ("DiffusionEleConstraintEnforcer".equals(enforcerType)) {
-			cf.setEleConstraintEnforcerFactory(DiffusionEleConstraintEnforcer::new);
-		}else if ("SimpleInterpolatedEleConstraintEnforcer".equals(enforcerType)) {
-			cf.setEleConstraintEnforcerFactory(SimpleInterpolatedEleConstraintEnforcer::new);
-		}
+		/* the results may be shared with other jobs through the ConversionCache,
+		 * and world objects must not be rendered by several jobs at the same time */
 
-		Results results = cf.createRepresentations(dataReader.getData(), null, config, null);
+		synchronized (results) {
 
-		ImageExporter exporter = null;
+			ImageExporter exporter = null;
 
-		for (CLIArguments args : argumentsGroup.getCLIArgumentsList()) {
+			/* if there are several outputs, render each object once and replay the recording to each target */
 
-			/* set camera and projection */
+			RenderCache renderCache = null;
 
-			Camera camera = null;
-			Projection projection = null;
+			int outputCount = argumentsGroup.getCLIArgumentsList().stream().mapToInt(a -> a.getOutput().size()).sum();
 
-			if (args.isPviewPos()) {
+			if (outputCount > 1) {
+				renderCache = RenderCache.forConfig(config);
+			}
 
-				/* perspective projection */
+			for (CLIArguments args : argumentsGroup.getCLIArgumentsList()) {
 
-				MapProjection proj = results.getMapProjection();
+				/* set camera and projection */
 
-				LatLonEle pos = args.getPviewPos();
-				LatLonEle lookAt = args.getPviewLookat();
+				Camera camera = null;
+				Projection projection = null;
 
-				camera = new Camera();
-				VectorXYZ posV = proj.calcPos(pos.lat, pos.lon).xyz(pos.ele);
-				VectorXYZ laV =	proj.calcPos(lookAt.lat, lookAt.lon).xyz(lookAt.ele);
-				camera.setCamera(posV.x, posV.y, posV.z, laV.x, laV.y, laV.z);
+				if (args.isPviewPos()) {
 
-				projection = new Projection(false,
-						args.isPviewAspect() ? args.getPviewAspect() :
-							(double)args.getResolution().x / args.getResolution().y,
-							args.getPviewFovy(),
-						0,
-						1, 50000);
+					/* perspective projection */
 
-			} else {
+					MapProjection proj = results.getMapProjection();
 
-				/* orthographic projection */
+					LatLonEle pos = args.getPviewPos();
+					LatLonEle lookAt = args.getPviewLookat();
 
-				double angle = args.getOviewAngle();
-				CardinalDirection from = args.getOviewFrom();
+					camera = new Camera();
+					VectorXYZ posV = proj.calcPos(pos.lat, pos.lon).xyz(pos.ele);
+					VectorXYZ laV =	proj.calcPos(lookAt.lat, lookAt.lon).xyz(lookAt.ele);
+					camera.setCamera(posV.x, posV.y, posV.z, laV.x, laV.y, laV.z);
 
-				AxisAlignedRectangleXZ bounds;
+					projection = new Projection(false,
+							args.isPviewAspect() ? args.getPviewAspect() :
+								(double)args.getResolution().x / args.getResolution().y,
+								args.getPviewFovy(),
+							0,
+							1, 50000);
 
-				if (args.isOviewBoundingBox()) {
-					bounds = bbox(args.getOviewBoundingBox().stream()
-							.map(LatLonEle::latLon)
-							.map(results.getMapProjection()::calcPos)
-							.collect(toList()));
-				} else if (args.isOviewTiles()) {
-					bounds = OrthoTilesUtil.boundsForTiles(results.getMapProjection(), args.getOviewTiles());
-				} else if (args.isTile()) {
-					bounds = OrthoTilesUtil.boundsForTiles(results.getMapProjection(), singletonList(args.getTile()));
 				} else {
-					bounds = results.getMapData().getBoundary();
-				}
 
-				camera = OrthoTilesUtil.cameraForBounds(bounds, angle, from);
-				projection = OrthoTilesUtil.projectionForBounds(bounds, angle, from);
+					/* orthographic projection */
 
-			}
+					double angle = args.getOviewAngle();
+					CardinalDirection from = args.getOviewFrom();
 
-			/* perform the actual output */
+					AxisAlignedRectangleXZ bounds;
 
-			for (File outputFile : args.getOutput()) {
+					if (args.isOviewBoundingBox()) {
+						bounds = bbox(args.getOviewBoundingBox().stream()
+								.map(LatLonEle::latLon)
+								.map(results.getMapProjection()::calcPos)
+								.collect(toList()));
+					} else if (args.isOviewTiles()) {
+						bounds = OrthoTilesUtil.boundsForTiles(results.getMapProjection(), args.getOviewTiles());
+					} else if (args.isTile()) {
+						bounds = OrthoTilesUtil.boundsForTiles(results.getMapProjection(), singletonList(args.getTile()));
+					} else {
+						bounds = results.getMapData().getBoundary();
+					}
 
-				outputFile.getParentFile().mkdirs();
+					camera = OrthoTilesUtil.cameraForBounds(bounds, angle, from);
+					projection = OrthoTilesUtil.projectionForBounds(bounds, angle, from);
 
-				OutputMode outputMode = CLIArgumentsUtil.getOutputMode(outputFile);
+				}
 
-				switch (outputMode) {
+				/* perform the actual output */
 
-				case OBJ:
-					Integer primitiveThresholdOBJ =
-						config.getInteger("primitiveThresholdOBJ", null);
-					if (primitiveThresholdOBJ == null) {
-						boolean underground = config.getBoolean("renderUnderground", true);
+				for (File outputFile : args.getOutput()) {
 
-						ObjWriter.writeObjFile(outputFile,
-								results.getMapData(), results.getMapProjection(),
-								camera, projection, underground);
-					} else {
-						ObjWriter.writeObjFiles(outputFile,
-								results.getMapData(), results.getMapProjection(),
-								camera, projection, primitiveThresholdOBJ);
+					OutputMode outputMode = CLIArgumentsUtil.getOutputMode(outputFile);
+
+					if (!(outputMode == OutputMode.WEB_PBF && args.isPbfTileRange())) {
+						outputFile.getParentFile().mkdirs();
 					}
-					break;
 
-				case POV:
-					POVRayWriter.writePOVInstructionFile(outputFile,
-							results.getMapData(), camera, projection);
-					break;
+					switch (outputMode) {
+
+					case OBJ:
+						Integer primitiveThresholdOBJ =
+							config.getInteger("primitiveThresholdOBJ", null);
+						if (primitiveThresholdOBJ == null) {
+							boolean underground = config.getBoolean("renderUnderground", true);
+
+							ObjWriter.writeObjFile(outputFile,
+									results.getMapData(), results.getMapProjection(),
+									camera, projection, underground,
+									config.getInt("renderThreads", 1), renderCache);
+						} else {
+							ObjWriter.writeObjFiles(outputFile,
+									results.getMapData(), results.getMapProjection(),
+									camera, projection, primitiveThresholdOBJ);
+						}
+						break;
+
+					case POV:
+						POVRayWriter.writePOVInstructionFile(outputFile,
+								results.getMapData(), camera, projection);
+						break;
+
+					case WEB_PBF:
+						if (args.isPbfTileRange()) {
+							List<TileNumber> tiles = TileNumber.tilesInRange(
+									args.getPbfTileRange().get(0), args.getPbfTileRange().get(1));
+							FrontendPbfTarget.writePbfTiles(tile -> fileForTile(outputFile, tile),
+									results.getMapData(), tiles, results.getMapProjection(),
+									config.getInt("tileThreads", 1));
+							break;
+						}
+						AxisAlignedRectangleXZ bbox = null;
+						if (args.isTile()) {
+							bbox = OrthoTilesUtil.boundsForTiles(results.getMapProjection(), singletonList(args.getTile()));
+						}
+						FrontendPbfTarget.writePbfFile(
+								outputFile, results.getMapData(), bbox, results.getMapProjection(),
+								config.getInt("renderThreads", 1), renderCache);
+						break;
+
+					case PNG:
+					case PPM:
+					case GD:
+						if (camera == null || projection == null) {
+							System.err.println("camera or projection missing");
+						}
+						if (exporter == null) {
+							exporter = new ImageExporter(
+									config, results, argumentsGroup, renderCache);
+						}
+						exporter.writeImageFile(outputFile, outputMode,
+								args.getResolution().x, args.getResolution().y,
+								camera, projection);
+						break;
 
-				case WEB_PBF:
-					AxisAlignedRectangleXZ bbox = null;
-					if (args.isTile()) {
-						bbox = OrthoTilesUtil.boundsForTiles(results.getMapProjection(), singletonList(args.getTile()));
 					}
-					FrontendPbfTarget.writePbfFile(
-							outputFile, results.getMapData(), bbox, results.getMapProjection());
-					break;
-
-				case PNG:
-				case PPM:
-				case GD:
-					if (camera == null || projection == null) {
-						System.err.println("camera or projection missing");
-					}
-					if (exporter == null) {
-						exporter = new ImageExporter(
-								config, results, argumentsGroup);
-					}
-					exporter.writeImageFile(outputFile, outputMode,
-							args.getResolution().x, args.getResolution().y,
-							camera, projection);
-					break;
 
 				}
 
 			}
 
-		}
+			if (exporter != null) {
+				exporter.freeResources();
+				exporter = null;
+			}
 
-		if (exporter != null) {
-			exporter.freeResources();
-			exporter = null;
 		}
 
+		perfListener.updateCount(Phase.FINISHED, "roofTriangulationCacheHits", roofCacheUsage.getHits());
+		perfListener.updateCount(Phase.FINISHED, "roofTriangulationCacheMisses", roofCacheUsage.getMisses());
+		perfListener.updateCount(Phase.FINISHED, "wallTriangulationCacheHits", wallCacheUsage.getHits());
+		perfListener.updateCount(Phase.FINISHED, "wallTriangulationCacheMisses", wallCacheUsage.getMisses());
+
+		perfListener.finish();
+
 		if (argumentsGroup.getRepresentative().getPerformancePrint()) {
 			long timeSec = (System.currentTimeMillis() - start) / 1000;
 			System.out.println("finished after " + timeSec + " s");
@@ -268,55 +285,197 @@ public final class Output {
 			}
 		}
 
-	}
+		if (argumentsGroup.getRepresentative().isPerformanceReport()) {
 
-	private static class PerformanceListener implements ProgressListener {
+			/* render the objects once more to collect per-class statistics */
+
+			StatisticsTarget statisticsTarget = new StatisticsTarget();
+			synchronized (results) {
+				TargetUtil.renderWorldObjects(statisticsTarget, results.getMapData(),
+						config.getBoolean("renderUnderground", true));
+			}
+			statisticsTarget.finish();
+			perfListener.addRenderStatistics(statisticsTarget);
+
+			File reportFile = argumentsGroup.getRepresentative().getPerformanceReport();
+			try (FileWriter w = new FileWriter(reportFile)) {
+				if (reportFile.getName().endsWith(".csv")) {
+					perfListener.writeCsv(w);
+				} else {
+					perfListener.writeJson(w);
+				}
+			}
 
-		private final CLIArguments args;
-		public PerformanceListener(CLIArguments args) {
-			this.args = args;
 		}
 
-		private Phase currentPhase = null;
-		private long currentPhaseStart;
+	}
 
-		private Map<Phase, Long> phaseStarts = new HashMap<Phase, Long>();
-		private Map<Phase, Long> phaseEnds = new HashMap<Phase, Long>();
+	/**
+	 * reads the input and performs the conversion.
+	 * Uses cached input data if possible, and adds the results to the cache.
+	 */
+	private static Results convert(Configuration config, CLIArgumentsGroup argumentsGroup,
+			@Nullable List<?> inputKey, ProgressListener perfListener, @Nullable ProgressListener progressListener)
+		throws IOException {
+
+		OSMDataReader dataReader = null;
+
+		switch (argumentsGroup.getRepresentative().getInputMode()) {
+
+		case FILE:
+			File inputFile = argumentsGroup.getRepresentative().getInput();
+			LatLonBounds inputBounds = getInputBounds(argumentsGroup.getRepresentative());
+			if (inputFile.getName().endsWith(".mbtiles")) {
+				dataReader = new MbtilesReader(inputFile, argumentsGroup.getRepresentative().getTile());
+			} else if (inputFile.getName().endsWith(".pbf") && inputBounds != null) {
+				dataReader = new PbfFileReader(inputFile, inputBounds, config.getInt("inputThreads", 1));
+			} else {
+				dataReader = new OSMFileReader(inputFile);
+			}
+			break;
+
+		case OVERPASS:
+			if (argumentsGroup.getRepresentative().isInputBoundingBox()) {
+
+				LatLonBounds bounds = getInputBounds(argumentsGroup.getRepresentative());
+
+				dataReader = new OverpassReader(argumentsGroup.getRepresentative().getOverpassURL(),
+						bounds.getMin(), bounds.getMax());
+
+			} else { //due to input validation, there needs to be either a query or bounding box for Overpass input mode
+				assert argumentsGroup.getRepresentative().isInputQuery();
+				dataReader = new OverpassReader(argumentsGroup.getRepresentative().getOverpassURL(),
+						argumentsGroup.getRepresentative().getInputQuery());
+			}
+			break;
 
-		public Long getPhaseStart(Phase phase) {
-			return phaseStarts.get(phase);
 		}
 
-		public Long getPhaseEnd(Phase phase) {
-			return phaseEnds.get(phase);
+		ConversionFacade cf = new ConversionFacade();
+		cf.addProgressListener(perfListener);
+		if (progressListener != null) {
+			cf.addProgressListener(progressListener);
 		}
 
-		public Long getPhaseDuration(Phase phase) {
-			return getPhaseEnd(phase) - getPhaseStart(phase);
+		String interpolatorType = config.getString("terrainInterpolator");
+		if ("ZeroInterpolator".equals(interpolatorType)) {
+			cf.setTerrainEleInterpolatorFactory(ZeroInterpolator::new);
+		} else if ("LeastSquaresInterpolator".equals(interpolatorType)) {
+			cf.setTerrainEleInterpolatorFactory(LeastSquaresInterpolator::new);
+		} else if ("NaturalNeighborInterpolator".equals(interpolatorType)) {
+			cf.setTerrainEleInterpolatorFactory(NaturalNeighborInterpolator::new);
+		} else if ("BilinearGridInterpolator".equals(interpolatorType)) {
+			cf.setTerrainEleInterpolatorFactory(BilinearGridInterpolator::new);
 		}
 
-		@Override
-		public void updatePhase(Phase newPhase) {
+		String enforcerType = config.getString("eleConstraintEnforcer");
+		if ("NoneEleConstraintEnforcer".equals(enforcerType)) {
+			cf.setEleConstraintEnforcerFactory(NoneEleConstraintEnforcer::new);
+		} else if ("SimpleEleConstraintEnforcer".equals(enforcerType)) {
+			cf.setEleConstraintEnforcerFactory(SimpleEleConstraintEnforcer::new);
+		}else if ("DiffusionEleConstraintEnforcer".equals(enforcerType)) {
+			cf.setEleConstraintEnforcerFactory(DiffusionEleConstraintEnforcer::new);
+		}else if ("SimpleInterpolatedEleConstraintEnforcer".equals(enforcerType)) {
+			cf.setEleConstraintEnforcerFactory(SimpleInterpolatedEleConstraintEnforcer::new);
+		}
+
+		OSMData osmData = inputKey == null ? dataReader.getData() : ConversionCache.getOSMData(inputKey, dataReader);
+
+		Results results = cf.createRepresentations(osmData, null, config, null);
+
+		if (inputKey != null) {
+			ConversionCache.putResults(inputKey, config, results, osmData);
+		}
+
+		return results;
+
+	}
 
-			phaseStarts.put(newPhase, System.currentTimeMillis());
+	/**
+	 * returns the area covered by the input bounding box or, if there is none, the input tile.
+	 * Returns null if neither is available.
+	 */
+	static @Nullable LatLonBounds getInputBounds(CLIArguments args) {
 
-			if (currentPhase != null) {
+		if (args.isInputBoundingBox()) {
 
-				phaseEnds.put(currentPhase, System.currentTimeMillis());
+			double minLat = POSITIVE_INFINITY;
+			double maxLat = NEGATIVE_INFINITY;
+			double minLon = POSITIVE_INFINITY;
+			double maxLon = NEGATIVE_INFINITY;
 
-				if (args.getPerformancePrint()) {
-					long ms = System.currentTimeMillis() - currentPhaseStart;
-					System.out.println("phase " + currentPhase
-						+  " finished after " + ms + " ms");
+			for (LatLonEle l : args.getInputBoundingBox()) {
+				if (l.lat < minLat) {
+					minLat = l.lat;
 				}
+				if (l.lat > maxLat) {
+					maxLat = l.lat;
+				}
+				if (l.lon < minLon) {
+					minLon = l.lon;
+				}
+				if (l.lon > maxLon) {
+					maxLon = l.lon;
+				}
+			}
+
+			return new LatLonBounds(minLat, minLon, maxLat, maxLon);
+
+		} else if (args.isTile()) {
+			return args.getTile().latLonBounds();
+		} else {
+			return null;
+		}
+
+	}
+
+	/**
+	 * replaces the placeholders {zoom}, {x} and {y} in an output file's path with a tile's number
+	 */
+	private static File fileForTile(File outputFile, TileNumber tile) {
+		return new File(outputFile.getPath()
+				.replace("{zoom}", Integer.toString(tile.zoom))
+				.replace("{x}", Integer.toString(tile.x))
+				.replace("{y}", Integer.toString(tile.y)));
+	}
+
+	private static class PerformanceListener extends PerformanceReport {
 
+		private final CLIArguments args;
+		public PerformanceListener(CLIArguments args) {
+			this.args = args;
+		}
+
+		private Phase currentPhase = null;
+		private long currentPhaseStart;
+
+		@Override
+		public void updatePhase(Phase newPhase) {
+
+			if (currentPhase != null && args.getPerformancePrint()) {
+				long ms = System.currentTimeMillis() - currentPhaseStart;
+				System.out.println("phase " + currentPhase
+					+  " finished after " + ms + " ms");
 			}
 
+			super.updatePhase(newPhase);
+
 			currentPhase = newPhase;
 			currentPhaseStart = System.currentTimeMillis();
 
 		}
 
+		@Override
+		public void updateDuration(Phase phase, String step, long nanos) {
+
+			super.updateDuration(phase, step, nanos);
+
+			if (args.getPerformancePrint()) {
+				System.out.println("step " + step + " finished after " + nanos / 1000000 + " ms");
+			}
+
+		}
+
 	}
 
 }
@@ -1,93 +1,328 @@
 package org.osm2world.console;
 
-import static java.util.Arrays.sort;
+import static java.nio.file.StandardWatchEventKinds.*;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import com.lexicalscope.jewel.cli.CliFactory;
 
 /**
  * implementation of the mode triggered by {@link CLIArguments#isParameterFileDir()}.
  * OSM2World will read, process and delete parameter files from a directory.
  * Each of these files contains a set of command line parameters which define a conversion run.
+ *
+ * The directory is observed with a {@link WatchService}, and waiting files are processed in the order of their names.
+ * Files should be moved into the directory once they are complete, rather than being written in place.
+ * OSM2World keeps running until it is shut down (e.g. with Ctrl+C). It then finishes the jobs which have
+ * already been started. Files which have not been started yet remain in the directory.
+ *
+ * For each job, a line with the queue wait, the conversion time (both in milliseconds)
+ * and the total size of the output files (in bytes) is written to a log.
  */
 public class ParamFileDirMode {
 
-	/** maximum number of enqueued parameter files. Making it larger means waiting longer for new, high-prio files. */
-	private static final int MAX_QUEUE_LENGTH = 2;
+	/**
+	 * maximum number of waiting files which are tracked at the same time.
+	 * Files beyond this limit are found again by scanning the directory once the queue is empty.
+	 */
+	static final int MAX_QUEUE_LENGTH = 1000;
+
+	private final Path paramFileDir;
+	private final int threads;
+	private final @Nullable File jobLog;
+
+	private final WatchService watchService;
+	private final ExecutorService executor;
+
+	/** waiting files, ordered by name, with the time when they have been discovered */
+	private final TreeMap<Path, Long> queue = new TreeMap<>();
+
+	/** whether files may be missing from the queue, e.g. because it was full */
+	private boolean scanRequired = true;
+
+	private boolean shutdown = false;
 
-	public static void run(File paramFileDir) {
+	/**
+	 * @param threads  number of parameter files which are processed at the same time
+	 * @param jobLog  file to which a line is appended for each job, null to print the lines instead
+	 */
+	public static void run(File paramFileDir, int threads, @Nullable File jobLog) {
 
 		if (!paramFileDir.isDirectory()) {
 			System.err.println("parameterFileDir must be a directory!");
 			return;
 		}
 
-		int numCores = Runtime.getRuntime().availableProcessors();
-		ExecutorService executor = Executors.newFixedThreadPool(numCores);
-		AtomicInteger queueLength = new AtomicInteger();
+		ParamFileDirMode mode;
+
+		try {
+			mode = new ParamFileDirMode(paramFileDir.toPath(), threads, jobLog);
+		} catch (IOException e) {
+			System.err.println("IO issue encountered in parameter file directory mode, exiting.\n" + e);
+			return;
+		}
+
+		Runtime.getRuntime().addShutdownHook(new Thread(mode::shutdown));
+
+		mode.start();
+		mode.watch();
+		mode.shutdown();
 
-		boolean containsFiles = false;
+	}
+
+	ParamFileDirMode(Path paramFileDir, int threads, @Nullable File jobLog) throws IOException {
 
-		do {
+		this.paramFileDir = paramFileDir;
+		this.threads = threads;
+		this.jobLog = jobLog;
 
-			File[] files = paramFileDir.listFiles();
-			sort(files);
+		watchService = paramFileDir.getFileSystem().newWatchService();
+		paramFileDir.register(watchService, ENTRY_CREATE);
 
-			containsFiles = files.length > 0;
+		executor = Executors.newFixedThreadPool(threads);
+
+	}
+
+	/** starts the worker threads */
+	void start() {
+		for (int i = 0; i < threads; i++) {
+			executor.submit(this::processJobs);
+		}
+	}
 
-			if (containsFiles) {
+	/** adds new files to the queue until {@link #shutdown()} is called or the directory becomes inaccessible */
+	void watch() {
 
-				while (queueLength.get() - numCores > MAX_QUEUE_LENGTH) {
-					try {
-						Thread.sleep(500);
-					} catch (InterruptedException e) {}
+		while (true) {
+
+			WatchKey key;
+
+			try {
+				key = watchService.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				return;
+			}
+
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == OVERFLOW) {
+					requestScan();
+				} else {
+					enqueue(paramFileDir.resolve((Path) event.context()));
 				}
+			}
 
-				try {
+			if (!key.reset()) {
+				System.err.println("parameter file directory is no longer accessible");
+				return;
+			}
 
-					// create an temporary file (only to get unique names, it's immediately overwritten)
-					Path tempFilePath = File.createTempFile("osm2world-", "-" + files[0].getName()).toPath();
+		}
 
-					// move the parameter file to the temporary location
-					Files.move(files[0].toPath(), tempFilePath, StandardCopyOption.REPLACE_EXISTING);
+	}
 
-					queueLength.incrementAndGet();
+	/**
+	 * stops accepting new jobs and waits for the jobs which have already been started.
+	 * Can be called more than once.
+	 */
+	void shutdown() {
 
-					executor.submit(() -> {
+		synchronized (this) {
+			shutdown = true;
+			notifyAll();
+		}
 
-						System.out.println(tempFilePath);
-						OSM2World.main(new String[] {"--parameterFile", tempFilePath.toString()});
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			System.err.println("Warning: could not close watch service: " + e);
+		}
 
-						try {
-							Files.delete(tempFilePath);
-						} catch (IOException e) {
-							System.err.println("Warning: Could not delete temporary file " + tempFilePath);
-						}
+		executor.shutdown();
+
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+	}
+
+	private synchronized void enqueue(Path file) {
+
+		if (!Files.isRegularFile(file)) return;
+
+		queue.putIfAbsent(file, System.currentTimeMillis());
+
+		if (queue.size() > MAX_QUEUE_LENGTH) {
+			queue.pollLastEntry();
+			scanRequired = true;
+		}
+
+		notifyAll();
+
+	}
+
+	private synchronized void requestScan() {
+		scanRequired = true;
+		notifyAll();
+	}
+
+	/**
+	 * returns the next waiting file and the time when it has been discovered.
+	 * Blocks until a file is available. Returns null after {@link #shutdown()}.
+	 */
+	private synchronized @Nullable Entry<Path, Long> takeJob() {
+
+		while (!shutdown) {
 
-						queueLength.decrementAndGet();
+			if (queue.isEmpty() && scanRequired) {
 
-					});
+				scanRequired = false;
 
+				try (DirectoryStream<Path> files = Files.newDirectoryStream(paramFileDir)) {
+					files.forEach(this::enqueue);
 				} catch (IOException e) {
-					System.err.println("IO issue encountered in parameter file directory mode, exiting.\n" + e);
+					System.err.println("Warning: could not scan parameter file directory: " + e);
 				}
 
 			}
 
-		} while (containsFiles);
+			if (!queue.isEmpty()) {
+				return queue.pollFirstEntry();
+			}
 
-		executor.shutdown();
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+
+		}
+
+		return null;
+
+	}
+
+	/** worker loop, executed by each of the threads */
+	private void processJobs() {
+
+		Entry<Path, Long> job;
+
+		while ((job = takeJob()) != null) {
+			try {
+				processJob(job.getKey(), job.getValue());
+			} catch (RuntimeException e) {
+				System.err.println("Error processing parameter file " + job.getKey());
+				e.printStackTrace();
+			}
+		}
+
+	}
+
+	private void processJob(Path paramFile, long discoveryTime) {
+
+		long start = System.currentTimeMillis();
+
+		Path tempFilePath;
 
 		try {
-			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-		} catch (InterruptedException e) {}
+
+			// create an temporary file (only to get unique names, it's immediately overwritten)
+			tempFilePath = File.createTempFile("osm2world-", "-" + paramFile.getFileName()).toPath();
+
+			// move the parameter file to the temporary location
+			try {
+				Files.move(paramFile, tempFilePath, StandardCopyOption.REPLACE_EXISTING);
+			} catch (NoSuchFileException e) {
+				// the file has been removed, e.g. by another OSM2World instance using the same directory
+				Files.delete(tempFilePath);
+				return;
+			}
+
+		} catch (IOException e) {
+			System.err.println("Warning: could not take parameter file " + paramFile + ": " + e);
+			return;
+		}
+
+		System.out.println(tempFilePath);
+		OSM2World.main(new String[] {"--parameterFile", tempFilePath.toString()});
+
+		long end = System.currentTimeMillis();
+
+		long outputSize = getOutputSize(tempFilePath);
+
+		try {
+			Files.delete(tempFilePath);
+		} catch (IOException e) {
+			System.err.println("Warning: Could not delete temporary file " + tempFilePath);
+		}
+
+		logJob(paramFile.getFileName().toString(), start - discoveryTime, end - start, outputSize);
+
+	}
+
+	/** returns the total size of the output files listed in a parameter file */
+	private static long getOutputSize(Path paramFile) {
+
+		long size = 0;
+
+		try {
+			for (String[] unparsedArgs : CLIArgumentsUtil.getUnparsedParameterGroups(paramFile.toFile())) {
+				try {
+					CLIArguments args = CliFactory.parseArguments(CLIArguments.class, unparsedArgs);
+					if (args.isOutput()) {
+						List<File> outputFiles = args.getOutput();
+						for (File outputFile : outputFiles) {
+							size += outputFile.length();
+						}
+					}
+				} catch (Exception e) {
+					// invalid lines have been reported during the conversion
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Warning: could not read parameter file " + paramFile + ": " + e);
+		}
+
+		return size;
+
+	}
+
+	private synchronized void logJob(String fileName, long queueWait, long conversionTime, long outputSize) {
+
+		String line = String.format(Locale.ROOT, "%s\t%d\t%d\t%d", fileName, queueWait, conversionTime, outputSize);
+
+		if (jobLog == null) {
+			System.out.println(line);
+		} else {
+			try (PrintWriter w = new PrintWriter(new FileWriter(jobLog, true), true)) {
+				w.println(line);
+			} catch (IOException e) {
+				System.err.println("Warning: could not write to job log: " + e);
+			}
+		}
 
 	}
 
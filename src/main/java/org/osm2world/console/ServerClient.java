@@ -0,0 +1,84 @@
+package org.osm2world.console;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.function.Consumer;
+
+/**
+ * a minimal client for {@link ServerMode}.
+ *
+ * Usage: the first argument is the server's port,
+ * all other arguments are the parameters for the conversion, as for a normal OSM2World command line.
+ * Relative paths are resolved by the server, so absolute paths are safer if the working directories differ.
+ * The server's replies are printed, the exit status is 1 if the job failed.
+ */
+public final class ServerClient {
+
+	private ServerClient() {}
+
+	public static void main(String[] args) {
+
+		if (args.length < 2) {
+			System.err.println("usage: ServerClient <port> <parameters>");
+			System.exit(2);
+		}
+
+		StringBuilder parameterLine = new StringBuilder();
+
+		for (int i = 1; i < args.length; i++) {
+			if (i > 1) parameterLine.append(' ');
+			if (args[i].matches(".*[\\s'].*")) {
+				parameterLine.append('"').append(args[i]).append('"');
+			} else {
+				parameterLine.append(args[i]);
+			}
+		}
+
+		try {
+			boolean success = submit(Integer.parseInt(args[0]), parameterLine.toString(), System.out::println);
+			System.exit(success ? 0 : 1);
+		} catch (IOException e) {
+			System.err.println("could not connect to server: " + e);
+			System.exit(1);
+		}
+
+	}
+
+	/**
+	 * sends a job to a server on the local machine and waits until it is completed
+	 *
+	 * @param parameterLine  the parameters, in the format used by parameter files
+	 * @param replyHandler  receives each line of the server's reply
+	 * @return  true if the server reported success
+	 */
+	public static boolean submit(int port, String parameterLine, Consumer<String> replyHandler)
+			throws IOException {
+
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+				PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), UTF_8), true);
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8))) {
+
+			out.println(parameterLine);
+
+			String line;
+			String lastLine = null;
+
+			while ((line = in.readLine()) != null) {
+				replyHandler.accept(line);
+				lastLine = line;
+			}
+
+			return lastLine != null && lastLine.startsWith("OK");
+
+		}
+
+	}
+
+}
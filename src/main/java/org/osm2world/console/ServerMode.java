@@ -0,0 +1,211 @@
+package org.osm2world.console;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.osm2world.console.CLIArgumentsUtil.ProgramMode.CONVERT;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.osm2world.core.ConversionFacade.Phase;
+import org.osm2world.core.ConversionFacade.ProgressListener;
+
+/**
+ * implementation of the mode triggered by {@link CLIArguments#isServerPort()}.
+ * OSM2World keeps running and accepts conversion jobs from clients on the local machine, see {@link ServerClient}.
+ *
+ * For each job, a client opens a connection and sends a single line containing the same parameters
+ * as a line in a parameter file. The server replies with a line "PHASE name milliseconds" for each completed
+ * phase of the conversion, a line "OUTPUT milliseconds" for writing the output files,
+ * and finally a line starting with either "OK" or "ERROR".
+ *
+ * Because the process keeps running, the JIT compiled code and several caches are reused across jobs:
+ * configuration files (including their fonts), material registries, SRTM tiles and rasterized textures.
+ */
+public class ServerMode {
+
+	/** maximum number of accepted jobs waiting for a free thread. Further clients wait for the connection. */
+	private static final int MAX_QUEUE_LENGTH = 2;
+
+	/** loaded configuration files, with the modification time of the file when it has been loaded */
+	private static final Map<File, CachedConfig> configCache = new HashMap<>();
+
+	private static class CachedConfig {
+
+		final Configuration config;
+		final long lastModified;
+
+		CachedConfig(Configuration config, long lastModified) {
+			this.config = config;
+			this.lastModified = lastModified;
+		}
+
+	}
+
+	public static void run(int port) {
+
+		int numCores = Runtime.getRuntime().availableProcessors();
+
+		try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			System.out.println("accepting conversion jobs on port " + serverSocket.getLocalPort());
+			serve(serverSocket, numCores);
+		} catch (IOException e) {
+			System.err.println("IO issue encountered in server mode, exiting.\n" + e);
+		}
+
+	}
+
+	/**
+	 * accepts jobs until the server socket is closed, then waits for the remaining jobs to finish
+	 *
+	 * @param threads  number of jobs which are executed at the same time
+	 */
+	static void serve(ServerSocket serverSocket, int threads) {
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		Semaphore jobSlots = new Semaphore(threads + MAX_QUEUE_LENGTH);
+
+		try {
+
+			while (!serverSocket.isClosed()) {
+
+				jobSlots.acquireUninterruptibly();
+
+				Socket socket;
+
+				try {
+					socket = serverSocket.accept();
+				} catch (IOException e) {
+					jobSlots.release();
+					if (!serverSocket.isClosed()) {
+						System.err.println("Warning: could not accept connection: " + e);
+					}
+					continue;
+				}
+
+				executor.submit(() -> {
+					try {
+						handleJob(socket);
+					} finally {
+						jobSlots.release();
+					}
+				});
+
+			}
+
+		} finally {
+
+			executor.shutdown();
+
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {}
+
+		}
+
+	}
+
+	private static void handleJob(Socket socket) {
+
+		try (Socket s = socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), UTF_8));
+				PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), UTF_8), true)) {
+
+			String line = in.readLine();
+			if (line == null) return;
+
+			long start = System.currentTimeMillis();
+
+			try {
+
+				CLIArguments args = OSM2World.parseArguments(CLIArgumentsUtil.splitParameterLine(line));
+
+				if (CLIArgumentsUtil.getProgramMode(args) != CONVERT) {
+					out.println("ERROR only conversion jobs are supported");
+					return;
+				}
+
+				Configuration config = args.isConfig() ? getConfig(args.getConfig()) : new BaseConfiguration();
+
+				PhaseReporter phaseReporter = new PhaseReporter(out);
+				Output.output(config, new CLIArgumentsGroup(args), phaseReporter);
+				phaseReporter.finish();
+
+				out.println("OK " + (System.currentTimeMillis() - start));
+
+			} catch (Exception e) {
+				out.println("ERROR " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+				e.printStackTrace();
+			}
+
+		} catch (IOException e) {
+			System.err.println("Warning: could not communicate with client: " + e);
+		}
+
+	}
+
+	/**
+	 * returns the configuration from a file.
+	 * The file is only read again if it has been modified since it was last read.
+	 */
+	private static synchronized Configuration getConfig(File configFile) {
+
+		File key = configFile.getAbsoluteFile();
+
+		CachedConfig cachedConfig = configCache.get(key);
+
+		if (cachedConfig == null || cachedConfig.lastModified != key.lastModified()) {
+			cachedConfig = new CachedConfig(OSM2World.loadConfig(key), key.lastModified());
+			configCache.put(key, cachedConfig);
+		}
+
+		return cachedConfig.config;
+
+	}
+
+	/** reports the duration of each phase to the client */
+	private static class PhaseReporter implements ProgressListener {
+
+		private final PrintWriter out;
+
+		private Phase currentPhase = null;
+		private long currentPhaseStart;
+
+		public PhaseReporter(PrintWriter out) {
+			this.out = out;
+		}
+
+		@Override
+		public void updatePhase(Phase newPhase) {
+
+			if (currentPhase != null) {
+				out.println("PHASE " + currentPhase + " " + (System.currentTimeMillis() - currentPhaseStart));
+			}
+
+			currentPhase = newPhase;
+			currentPhaseStart = System.currentTimeMillis();
+
+		}
+
+		/** reports the time spent since the last phase has started, i.e. writing the output */
+		public void finish() {
+			out.println("OUTPUT " + (System.currentTimeMillis() - currentPhaseStart));
+		}
+
+	}
+
+}
@@ -10,25 +10,29 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
 
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
-import org.apache.commons.lang.time.StopWatch;
 import org.osm2world.core.map_data.creation.MapProjection;
 import org.osm2world.core.map_data.creation.MetricMapProjection;
 import org.osm2world.core.map_data.creation.OSMToMapDataConverter;
 import org.osm2world.core.map_data.creation.OriginMapProjection;
 import org.osm2world.core.map_data.data.MapData;
+import org.osm2world.core.map_elevation.creation.BilinearGridInterpolator;
 import org.osm2world.core.map_elevation.creation.DiffusionEleConstraintEnforcer;
 import org.osm2world.core.map_elevation.creation.EleConstraintEnforcer;
 import org.osm2world.core.map_elevation.creation.EleConstraintValidator;
+import org.osm2world.core.map_elevation.creation.ElevationGrid;
 import org.osm2world.core.map_elevation.creation.NoneEleConstraintEnforcer;
+import org.osm2world.core.map_elevation.creation.RasterTerrainElevationData;
 import org.osm2world.core.map_elevation.creation.SRTMData;
+import org.osm2world.core.map_elevation.creation.SiteArray;
 import org.osm2world.core.map_elevation.creation.TerrainElevationData;
+import org.osm2world.core.map_elevation.creation.TerrainInterpolationUtil;
 import org.osm2world.core.map_elevation.creation.TerrainInterpolator;
 import org.osm2world.core.map_elevation.creation.ZeroInterpolator;
 import org.osm2world.core.map_elevation.data.EleConnector;
@@ -39,9 +43,10 @@ import org.osm2world.core.math.datastructures.SpatialIndex;
 import org.osm2world.core.osm.creation.OSMDataReader;
 import org.osm2world.core.osm.creation.OSMFileReader;
 import org.osm2world.core.osm.data.OSMData;
+import org.osm2world.core.target.RenderCache;
 import org.osm2world.core.target.Target;
 import org.osm2world.core.target.TargetUtil;
-import org.osm2world.core.target.common.material.Materials;
+import org.osm2world.core.target.common.material.MaterialRegistry;
 import org.osm2world.core.util.FaultTolerantIterationUtil;
 import org.osm2world.core.util.functions.Factory;
 import org.osm2world.core.world.attachment.AttachmentConnector;
@@ -72,6 +77,7 @@ import org.osm2world.core.world.modules.WaterModule;
 import org.osm2world.core.world.modules.building.BuildingModule;
 import org.osm2world.core.world.modules.building.indoor.IndoorModule;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Streams;
 
 import de.topobyte.osm4j.core.model.iface.OsmBounds;
@@ -91,11 +97,14 @@ public class ConversionFacade {
 		private final MapProjection mapProjection;
 		private final MapData mapData;
 		private final TerrainElevationData eleData;
+		private final MaterialRegistry materialRegistry;
 
-		private Results(MapProjection mapProjection, MapData mapData, TerrainElevationData eleData) {
+		private Results(MapProjection mapProjection, MapData mapData, TerrainElevationData eleData,
+				MaterialRegistry materialRegistry) {
 			this.mapProjection = mapProjection;
 			this.mapData = mapData;
 			this.eleData = eleData;
+			this.materialRegistry = materialRegistry;
 		}
 
 		public MapProjection getMapProjection() {
@@ -110,6 +119,14 @@ public class ConversionFacade {
 			return eleData;
 		}
 
+		/**
+		 * returns the materials used by this conversion.
+		 * Threads which render the results to targets after the conversion should activate it.
+		 */
+		public MaterialRegistry getMaterialRegistry() {
+			return materialRegistry;
+		}
+
 	}
 
 	/**
@@ -237,6 +254,13 @@ public class ConversionFacade {
 			// TODO: what to do here?
 		}
 
+		if (mapData != null) {
+			updateCount("nodes", mapData.getMapNodes().size());
+			updateCount("ways", mapData.getMapWays().size());
+			updateCount("areas", mapData.getMapAreas().size());
+			updateCount("relations", mapData.getMapRelations().size());
+		}
+
 		/* apply world modules */
 		updatePhase(Phase.REPRESENTATION);
 
@@ -244,12 +268,13 @@ public class ConversionFacade {
 			worldModules = createDefaultModuleList();
 		}
 
-		Materials.configureMaterials(config);
-		// this will cause problems if multiple conversions are run
-		// at the same time, because global variables are being modified
+		MaterialRegistry materialRegistry = MaterialRegistry.forConfig(config);
+		materialRegistry.activate();
 
 		WorldCreator moduleManager = new WorldCreator(config, worldModules);
-		moduleManager.addRepresentationsTo(mapData);
+		moduleManager.addRepresentationsTo(mapData, this::updateDuration);
+
+		updateCount("worldObjects", Iterables.size(mapData.getWorldObjects()));
 
 		/* determine elevations */
 		updatePhase(Phase.ELEVATION);
@@ -265,21 +290,28 @@ public class ConversionFacade {
 		updatePhase(Phase.TERRAIN);
 
 		calculateElevations(mapData, eleData, config);
+
+		long attachStart = System.nanoTime();
 		attachConnectors(mapData);
+		updateDuration("attachConnectors", System.nanoTime() - attachStart);
 
 		/* supply results to targets and caller */
 		updatePhase(Phase.FINISHED);
 
 		boolean underground = config.getBoolean("renderUnderground", true);
+		int renderThreads = config.getInt("renderThreads", 1);
 
 		if (targets != null) {
+			RenderCache renderCache = targets.size() > 1 ? RenderCache.forConfig(config) : null;
 			for (Target target : targets) {
-				TargetUtil.renderWorldObjects(target, mapData, underground);
+				long renderStart = System.nanoTime();
+				TargetUtil.renderWorldObjects(target, mapData, underground, renderThreads, renderCache);
 				target.finish();
+				updateDuration("render " + target.getClass().getSimpleName(), System.nanoTime() - renderStart);
 			}
 		}
 
-		return new Results(mapProjection, mapData, eleData);
+		return new Results(mapProjection, mapData, eleData, materialRegistry);
 
 	}
 
@@ -298,6 +330,8 @@ public class ConversionFacade {
 
 		/* attach connectors to the surfaces */
 
+		long connectorCount = 0;
+
 		for (WorldObject object : mapData.getWorldObjects()) {
 
 			if (object.getParent() != null)
@@ -305,6 +339,8 @@ public class ConversionFacade {
 
 			for (AttachmentConnector connector : object.getAttachmentConnectors()) {
 
+				connectorCount++;
+
 				Iterable<AttachmentSurface> nearbySurfaces = attachmentSurfaceIndex
 						.probe(bbox(singleton(connector.originalPos)).pad(connector.maxDistanceXZ));
 
@@ -354,6 +390,8 @@ public class ConversionFacade {
 
 		}
 
+		updateCount("attachmentConnectors", connectorCount);
+
 	}
 
 	/**
@@ -368,51 +406,89 @@ public class ConversionFacade {
 
 		/* provide known elevations from eleData to the interpolator */
 
-		StopWatch stopWatch = new StopWatch();
-		stopWatch.start();
+		long stepStart = System.nanoTime();
 
 		if (!(interpolator instanceof ZeroInterpolator)) {
 
-			Collection<VectorXYZ> sites = emptyList();
+			if (interpolator instanceof BilinearGridInterpolator
+					&& eleData instanceof RasterTerrainElevationData) {
 
-			try {
+				/* raster data can be interpolated directly, without a collection of sites */
 
-				sites = eleData.getSites(mapData);
+				try {
 
-				System.out.println("time getSites: " + stopWatch);
-				stopWatch.reset();
-				stopWatch.start();
+					ElevationGrid grid = ((RasterTerrainElevationData)eleData).getGrid(mapData);
+					((BilinearGridInterpolator)interpolator).setKnownGrid(grid);
 
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+					updateDuration("getGrid", System.nanoTime() - stepStart);
+					stepStart = System.nanoTime();
+
+				} catch (IOException e) {
+					e.printStackTrace();
+					interpolator.setKnownSites(new SiteArray());
+				}
+
+			} else {
+
+				SiteArray sites = new SiteArray();
+
+				try {
+
+					eleData.forEachSite(mapData, sites);
 
-			interpolator.setKnownSites(sites);
+					updateDuration("getSites", System.nanoTime() - stepStart);
+					stepStart = System.nanoTime();
 
-			System.out.println("time setKnownSites: " + stopWatch);
-			stopWatch.reset();
-			stopWatch.start();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+
+				interpolator.setKnownSites(sites);
+
+				updateDuration("setKnownSites", System.nanoTime() - stepStart);
+				stepStart = System.nanoTime();
+
+			}
 
 		}
 
 		/* interpolate connectors' elevations */
 
-		final List<EleConnector> connectors = new ArrayList<EleConnector>();
+		final List<EleConnector> allConnectors = new ArrayList<EleConnector>();
 
 		FaultTolerantIterationUtil.forEach(mapData.getWorldObjects(), (WorldObject worldObject) -> {
-
 			for (EleConnector conn : worldObject.getEleConnectors()) {
-				conn.setPosXYZ(interpolator.interpolateEle(conn.pos));
-				connectors.add(conn);
+				allConnectors.add(conn);
 			}
-
 		});
 
-		System.out.println("time terrain interpolation: " + stopWatch);
-		System.out.flush();
+		double[] xs = new double[allConnectors.size()];
+		double[] zs = new double[allConnectors.size()];
+		double[] eles = new double[allConnectors.size()];
+
+		for (int i = 0; i < allConnectors.size(); i++) {
+			xs[i] = allConnectors.get(i).pos.x;
+			zs[i] = allConnectors.get(i).pos.z;
+		}
+
+		BitSet failures = TerrainInterpolationUtil.interpolateEle(interpolator, xs, zs, eles,
+				config.getInt("terrainThreads", 1));
+
+		final List<EleConnector> connectors = new ArrayList<EleConnector>(allConnectors.size());
+
+		for (int i = 0; i < allConnectors.size(); i++) {
+			if (!failures.get(i)) {
+				EleConnector conn = allConnectors.get(i);
+				conn.setPosXYZ(conn.pos.xyz(eles[i]));
+				connectors.add(conn);
+			}
+		}
+
+		updateDuration("terrainInterpolation", System.nanoTime() - stepStart);
+		updateCount("eleConnectors", allConnectors.size());
+		updateCount("eleConnectorInterpolationFailures", failures.cardinality());
 
-		stopWatch.reset();
-		stopWatch.start();
+		stepStart = System.nanoTime();
 
 		/* enforce constraints defined by WorldObjects */
 
@@ -425,7 +501,6 @@ public class ConversionFacade {
 				? new EleConstraintValidator(mapData, eleConstraintEnforcerFactory.get())
 				: eleConstraintEnforcerFactory.get();
 
-		System.out.println("calculateElevations:connectors.size()" + connectors.size());
 		enforcer.addConnectors(connectors);
 
 		if (!(enforcer instanceof NoneEleConstraintEnforcer)) {
@@ -451,17 +526,12 @@ public class ConversionFacade {
 			}
 		}
 
-		System.out.println("time add constraints: " + stopWatch);
-		System.out.flush();
-
-		stopWatch.reset();
-		stopWatch.start();
+		updateDuration("addConstraints", System.nanoTime() - stepStart);
+		stepStart = System.nanoTime();
 
 		enforcer.enforceConstraints();
 
-		System.out.println("time enforce constraints: " + stopWatch);
-		stopWatch.reset();
-		stopWatch.start();
+		updateDuration("enforceConstraints", System.nanoTime() - stepStart);
 
 	}
 
@@ -478,6 +548,21 @@ public class ConversionFacade {
 		/** announces the start of a new phase */
 		public void updatePhase(Phase newPhase);
 
+		/**
+		 * announces the duration of a step within the current phase,
+		 * such as applying a single {@link WorldModule} or a stage of the elevation calculation
+		 *
+		 * @param step   name of the step, unique within the phase
+		 * @param nanos  duration of the step in nanoseconds
+		 */
+		public default void updateDuration(Phase phase, String step, long nanos) {}
+
+		/**
+		 * announces the number of elements of some kind (such as nodes or {@link EleConnector}s)
+		 * which have been processed in the current phase
+		 */
+		public default void updateCount(Phase phase, String name, long count) {}
+
 		// /** announces the fraction of the current phase that is completed */
 		// public void updatePhaseProgress(float phaseProgress);
 
@@ -485,16 +570,31 @@ public class ConversionFacade {
 
 	private List<ProgressListener> listeners = new ArrayList<ProgressListener>();
 
+	private Phase currentPhase = null;
+
 	public void addProgressListener(ProgressListener listener) {
 		listeners.add(listener);
 	}
 
 	private void updatePhase(Phase newPhase) {
+		currentPhase = newPhase;
 		for (ProgressListener listener : listeners) {
 			listener.updatePhase(newPhase);
 		}
 	}
 
+	private void updateDuration(String step, long nanos) {
+		for (ProgressListener listener : listeners) {
+			listener.updateDuration(currentPhase, step, nanos);
+		}
+	}
+
+	private void updateCount(String name, long count) {
+		for (ProgressListener listener : listeners) {
+			listener.updateCount(currentPhase, name, count);
+		}
+	}
+
 	// private void updatePhaseProgress(float phaseProgress) {
 	// for (ProgressListener listener : listeners) {
 	// listener.updatePhaseProgress(phaseProgress);
@@ -0,0 +1,277 @@
+package org.osm2world.core;
+
+import static java.lang.management.ManagementFactory.getMemoryPoolMXBeans;
+import static java.util.stream.Collectors.toList;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.osm2world.core.ConversionFacade.Phase;
+import org.osm2world.core.ConversionFacade.ProgressListener;
+import org.osm2world.core.target.statistics.StatisticsTarget;
+import org.osm2world.core.target.statistics.StatisticsTarget.Stat;
+import org.osm2world.core.world.data.WorldObject;
+
+/**
+ * collects performance information about a conversion run:
+ * the duration and peak heap usage of each {@link Phase},
+ * the durations of individual steps and counts of elements reported by {@link ConversionFacade},
+ * and (optionally) render statistics for each class of {@link WorldObject}.
+ * The results can be written as JSON or CSV.
+ *
+ * Peak heap usage is tracked by the JVM's memory pools, which are shared by all threads.
+ * It is therefore only meaningful if no other conversion runs concurrently.
+ */
+public class PerformanceReport implements ProgressListener {
+
+	private static final List<MemoryPoolMXBean> HEAP_POOLS = getMemoryPoolMXBeans().stream()
+			.filter(p -> p.getType() == MemoryType.HEAP)
+			.collect(toList());
+
+	/** a duration or count reported during a phase */
+	private static class Entry {
+
+		final Phase phase;
+		final String name;
+		final long value;
+
+		Entry(Phase phase, String name, long value) {
+			this.phase = phase;
+			this.name = name;
+			this.value = value;
+		}
+
+	}
+
+	/** render statistics for one class of {@link WorldObject} */
+	private static class RenderEntry {
+
+		final String className;
+		final long objects;
+		final long primitives;
+		final long triangles;
+		final long nanos;
+
+		RenderEntry(String className, long objects, long primitives, long triangles, long nanos) {
+			this.className = className;
+			this.objects = objects;
+			this.primitives = primitives;
+			this.triangles = triangles;
+			this.nanos = nanos;
+		}
+
+	}
+
+	private Phase currentPhase = null;
+
+	private final Map<Phase, Long> phaseStarts = new EnumMap<>(Phase.class);
+	private final Map<Phase, Long> phaseEnds = new EnumMap<>(Phase.class);
+	private final Map<Phase, Long> phasePeakHeap = new EnumMap<>(Phase.class);
+
+	private final List<Entry> durations = new ArrayList<>();
+	private final List<Entry> counts = new ArrayList<>();
+	private final List<RenderEntry> renderEntries = new ArrayList<>();
+
+	/** returns the start of a phase in milliseconds since the epoch, or null if it has not started */
+	public Long getPhaseStart(Phase phase) {
+		return phaseStarts.get(phase);
+	}
+
+	/** returns the end of a phase in milliseconds since the epoch, or null if it has not ended */
+	public Long getPhaseEnd(Phase phase) {
+		return phaseEnds.get(phase);
+	}
+
+	/** returns the duration of a phase in milliseconds */
+	public Long getPhaseDuration(Phase phase) {
+		return getPhaseEnd(phase) - getPhaseStart(phase);
+	}
+
+	/** returns the peak heap usage during a phase in bytes, or null if it is not known */
+	public Long getPhasePeakHeap(Phase phase) {
+		return phasePeakHeap.get(phase);
+	}
+
+	@Override
+	public void updatePhase(Phase newPhase) {
+		endCurrentPhase();
+		currentPhase = newPhase;
+		phaseStarts.put(newPhase, System.currentTimeMillis());
+		for (MemoryPoolMXBean pool : HEAP_POOLS) {
+			pool.resetPeakUsage();
+		}
+	}
+
+	@Override
+	public void updateDuration(Phase phase, String step, long nanos) {
+		durations.add(new Entry(phase, step, nanos));
+	}
+
+	@Override
+	public void updateCount(Phase phase, String name, long count) {
+		counts.add(new Entry(phase, name, count));
+	}
+
+	/**
+	 * ends the last phase. Usually called after the results of the conversion have been written,
+	 * so that the duration of {@link Phase#FINISHED} includes the output.
+	 */
+	public void finish() {
+		endCurrentPhase();
+		currentPhase = null;
+	}
+
+	private void endCurrentPhase() {
+
+		if (currentPhase != null) {
+
+			phaseEnds.put(currentPhase, System.currentTimeMillis());
+
+			long peakHeap = 0;
+			for (MemoryPoolMXBean pool : HEAP_POOLS) {
+				peakHeap += pool.getPeakUsage().getUsed();
+			}
+			phasePeakHeap.put(currentPhase, peakHeap);
+
+		}
+
+	}
+
+	/**
+	 * adds the per-class statistics from a {@link StatisticsTarget}
+	 * which all {@link WorldObject}s have been rendered to
+	 */
+	public void addRenderStatistics(StatisticsTarget target) {
+
+		List<Class<?>> classes = new ArrayList<>(target.getKnownRenderableClasses());
+		classes.sort(Comparator.comparing(Class::getSimpleName));
+
+		for (Class<?> c : classes) {
+			renderEntries.add(new RenderEntry(c.getSimpleName(),
+					target.getCountForClass(c, Stat.OBJECT_COUNT),
+					target.getCountForClass(c, Stat.PRIMITIVE_COUNT),
+					target.getCountForClass(c, Stat.TOTAL_TRIANGLE_COUNT),
+					target.getRenderTimeForClass(c)));
+		}
+
+	}
+
+	public void writeJson(Writer writer) {
+
+		PrintWriter w = new PrintWriter(writer);
+
+		w.println("{");
+
+		w.println("  \"phases\": [");
+		List<Phase> phases = new ArrayList<>(phaseEnds.keySet());
+		for (int i = 0; i < phases.size(); i++) {
+			Phase phase = phases.get(i);
+			w.printf(Locale.ROOT, "    {\"phase\": %s, \"durationMs\": %d, \"peakHeapBytes\": %d}%s\n",
+					jsonString(phase.name()), getPhaseDuration(phase), getPhasePeakHeap(phase),
+					i + 1 < phases.size() ? "," : "");
+		}
+		w.println("  ],");
+
+		w.println("  \"durations\": [");
+		for (int i = 0; i < durations.size(); i++) {
+			Entry e = durations.get(i);
+			w.printf(Locale.ROOT, "    {\"phase\": %s, \"step\": %s, \"durationMs\": %.3f}%s\n",
+					jsonString(String.valueOf(e.phase)), jsonString(e.name), e.value / 1e6,
+					i + 1 < durations.size() ? "," : "");
+		}
+		w.println("  ],");
+
+		w.println("  \"counts\": [");
+		for (int i = 0; i < counts.size(); i++) {
+			Entry e = counts.get(i);
+			w.printf(Locale.ROOT, "    {\"phase\": %s, \"name\": %s, \"count\": %d}%s\n",
+					jsonString(String.valueOf(e.phase)), jsonString(e.name), e.value,
+					i + 1 < counts.size() ? "," : "");
+		}
+		w.println("  ],");
+
+		w.println("  \"rendering\": [");
+		for (int i = 0; i < renderEntries.size(); i++) {
+			RenderEntry e = renderEntries.get(i);
+			w.printf(Locale.ROOT, "    {\"class\": %s, \"objects\": %d, \"primitives\": %d, \"triangles\": %d, "
+					+ "\"durationMs\": %.3f}%s\n",
+					jsonString(e.className), e.objects, e.primitives, e.triangles, e.nanos / 1e6,
+					i + 1 < renderEntries.size() ? "," : "");
+		}
+		w.println("  ]");
+
+		w.println("}");
+
+		w.flush();
+
+	}
+
+	/**
+	 * writes the report as CSV with the columns category, phase, name and value.
+	 * Durations are in milliseconds, heap usage in bytes.
+	 */
+	public void writeCsv(Writer writer) {
+
+		PrintWriter w = new PrintWriter(writer);
+
+		w.println("category,phase,name,value");
+
+		for (Phase phase : phaseEnds.keySet()) {
+			w.printf(Locale.ROOT, "phaseDurationMs,%s,,%d\n", phase, getPhaseDuration(phase));
+			w.printf(Locale.ROOT, "phasePeakHeapBytes,%s,,%d\n", phase, getPhasePeakHeap(phase));
+		}
+
+		for (Entry e : durations) {
+			w.printf(Locale.ROOT, "durationMs,%s,%s,%.3f\n", e.phase, csvString(e.name), e.value / 1e6);
+		}
+
+		for (Entry e : counts) {
+			w.printf(Locale.ROOT, "count,%s,%s,%d\n", e.phase, csvString(e.name), e.value);
+		}
+
+		for (RenderEntry e : renderEntries) {
+			w.printf(Locale.ROOT, "renderObjects,,%s,%d\n", csvString(e.className), e.objects);
+			w.printf(Locale.ROOT, "renderPrimitives,,%s,%d\n", csvString(e.className), e.primitives);
+			w.printf(Locale.ROOT, "renderTriangles,,%s,%d\n", csvString(e.className), e.triangles);
+			w.printf(Locale.ROOT, "renderDurationMs,,%s,%.3f\n", csvString(e.className), e.nanos / 1e6);
+		}
+
+		w.flush();
+
+	}
+
+	private static String jsonString(String s) {
+
+		StringBuilder result = new StringBuilder("\"");
+
+		for (char c : s.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				result.append('\\').append(c);
+			} else if (c < 0x20) {
+				result.append(String.format("\\u%04x", (int) c));
+			} else {
+				result.append(c);
+			}
+		}
+
+		return result.append('"').toString();
+
+	}
+
+	private static String csvString(String s) {
+		if (s.contains(",") || s.contains("\"")) {
+			return "\"" + s.replace("\"", "\"\"") + "\"";
+		} else {
+			return s;
+		}
+	}
+
+}
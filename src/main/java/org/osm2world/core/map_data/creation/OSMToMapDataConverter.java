@@ -1,7 +1,10 @@
 package org.osm2world.core.map_data.creation;
 
 import static de.topobyte.osm4j.core.model.util.OsmModelUtil.*;
+import static java.lang.Math.max;
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
 import static org.osm2world.core.math.AxisAlignedRectangleXZ.bbox;
 import static org.osm2world.core.math.VectorXZ.distance;
 import static org.osm2world.core.util.FaultTolerantIterationUtil.forEach;
@@ -10,10 +13,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.configuration.Configuration;
 import org.osm2world.core.map_data.data.MapArea;
@@ -25,13 +31,16 @@ import org.osm2world.core.map_data.data.MapRelation;
 import org.osm2world.core.map_data.data.MapRelation.Element;
 import org.osm2world.core.map_data.data.MapWay;
 import org.osm2world.core.map_data.data.MapWaySegment;
+import org.osm2world.core.map_data.data.TagPool;
 import org.osm2world.core.map_data.data.TagSet;
 import org.osm2world.core.map_data.data.overlaps.MapIntersectionWW;
+import org.osm2world.core.map_data.data.overlaps.MapOverlap;
 import org.osm2world.core.map_data.data.overlaps.MapOverlapAA;
 import org.osm2world.core.map_data.data.overlaps.MapOverlapNA;
 import org.osm2world.core.map_data.data.overlaps.MapOverlapType;
 import org.osm2world.core.map_data.data.overlaps.MapOverlapWA;
 import org.osm2world.core.math.AxisAlignedRectangleXZ;
+import org.osm2world.core.math.BoundedObject;
 import org.osm2world.core.math.GeometryUtil;
 import org.osm2world.core.math.InvalidGeometryException;
 import org.osm2world.core.math.LineSegmentXZ;
@@ -85,7 +94,7 @@ public class OSMToMapDataConverter {
 		MapData mapData = new MapData(mapNodes, mapWays, mapAreas, mapRelations,
 				calculateFileBoundary(osmData.getBounds()));
 
-		calculateIntersectionsInMapData(mapData);
+		calculateIntersectionsInMapData(mapData, config.getInt("mapDataThreads", 1));
 
 		return mapData;
 
@@ -102,13 +111,15 @@ public class OSMToMapDataConverter {
 			final List<MapNode> mapNodes, final List<MapWay> mapWays,
 			final List<MapArea> mapAreas, List<MapRelation> mapRelations) throws EntityNotFoundException {
 
+		final TagPool tagPool = new TagPool();
+
 		/* create MapNode for each OSM node */
 
 		final TLongObjectMap<MapNode> nodeIdMap = new TLongObjectHashMap<MapNode>();
 
 		for (OsmNode node : osmData.getNodes()) {
 			VectorXZ nodePos = mapProjection.calcPos(node.getLatitude(), node.getLongitude());
-			MapNode mapNode = new MapNode(node.getId(), tagsOfEntity(node), nodePos);
+			MapNode mapNode = new MapNode(node.getId(), tagsOfEntity(node, tagPool), nodePos);
 			mapNodes.add(mapNode);
 			nodeIdMap.put(node.getId(), mapNode);
 		}
@@ -169,7 +180,7 @@ public class OSMToMapDataConverter {
 
 						try {
 
-							MapArea mapArea = new MapArea(way.getId(), false, tagsOfEntity(way), nodes);
+							MapArea mapArea = new MapArea(way.getId(), false, tagsOfEntity(way, tagPool), nodes);
 
 							mapAreas.add(mapArea);
 							areaMap.put(way.getId(), mapArea);
@@ -219,7 +230,7 @@ public class OSMToMapDataConverter {
 					nodes.add(nodeIdMap.get(id));
 				}
 
-				MapWay way = new MapWay(osmWay.getId(), tagsOfEntity(osmWay), nodes);
+				MapWay way = new MapWay(osmWay.getId(), tagsOfEntity(osmWay, tagPool), nodes);
 				mapWays.add(way);
 
 			}
@@ -246,7 +257,7 @@ public class OSMToMapDataConverter {
 			boolean hasTags = osmRelation.getNumberOfTags() != 0;
 			if (hasTags && !relationIdMap.containsKey(osmRelation.getId())) {
 
-				MapRelation relation = new MapRelation(osmRelation.getId(), tagsOfEntity(osmRelation));
+				MapRelation relation = new MapRelation(osmRelation.getId(), tagsOfEntity(osmRelation, tagPool));
 
 				List<OsmRelationMember> incompleteMembers = null;
 
@@ -316,82 +327,277 @@ public class OSMToMapDataConverter {
 
 	}
 
+	/** variant of {@link #tagsOfEntity(OsmEntity)} which shares tags and tag sets using a {@link TagPool} */
+	static TagSet tagsOfEntity(OsmEntity osmNode, TagPool tagPool) {
+
+		if (osmNode.getNumberOfTags() == 0) return TagSet.of();
+
+		org.osm2world.core.map_data.data.Tag[] tags =
+				new org.osm2world.core.map_data.data.Tag[osmNode.getNumberOfTags()];
+		for (int i = 0; i < osmNode.getNumberOfTags(); i++) {
+			tags[i] = tagPool.tag(osmNode.getTag(i).getKey(), osmNode.getTag(i).getValue());
+		}
+		return tagPool.tagSet(tags);
+
+	}
+
 	/**
 	 * calculates intersections and adds the information to the
-	 * {@link MapElement}s
+	 * {@link MapElement}s.
+	 *
+	 * The overlaps are added in a deterministic order, which does not depend on the number of threads:
+	 * Ordered by the position of the later element in {@link MapData#getMapElements()},
+	 * then by the position of the earlier element.
+	 *
+	 * @param threads  number of threads to use. If this is greater than 1,
+	 * {@link #calculateIntersectionsInMapDataParallel(MapData, int)} will be used.
 	 */
-	private static void calculateIntersectionsInMapData(MapData mapData) {
+	static void calculateIntersectionsInMapData(MapData mapData, int threads) {
+
+		if (threads > 1) {
+			calculateIntersectionsInMapDataParallel(mapData, threads);
+			return;
+		}
 
 		AxisAlignedRectangleXZ bounds = mapData.getDataBoundary().pad(10);
-		SpatialIndex<MapElement> index = new IndexGrid<>(bounds, bounds.sizeX() / 1000, bounds.sizeZ() / 1000);
+		SpatialIndex<IndexedElement> index = new IndexGrid<>(bounds, bounds.sizeX() / 1000, bounds.sizeZ() / 1000);
+
+		int i = 0;
+		for (MapElement e : mapData.getMapElements()) {
 
-		for (MapElement e1 : mapData.getMapElements()) {
+			IndexedElement e1 = new IndexedElement(i++, e);
 
-			/* collect all nearby elements */
+			/* collect all nearby elements, sorted by position
+			 * (elements found in several cells of the index are returned in hash order) */
 
-			Iterable<MapElement> nearbyElements = index.insertAndProbe(e1);
+			List<IndexedElement> nearbyElements = new ArrayList<>();
+			index.insertAndProbe(e1).forEach(nearbyElements::add);
+			nearbyElements.sort(IndexedElement.ORDER);
 
-			for (MapElement e2 : nearbyElements) {
+			for (IndexedElement e2 : nearbyElements) {
 
 				if (e1 == e2) { continue; }
 
-				addOverlapBetween(e1, e2);
+				MapOverlap<?, ?> overlap = calculateOverlapBetween(e1.element, e2.element);
+
+				if (overlap != null) {
+					addOverlapToElements(overlap);
+				}
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * parallel variant of {@link #calculateIntersectionsInMapData(MapData, int)}.
+	 *
+	 * All elements are inserted into an {@link IndexGrid} first.
+	 * The grid's cells are then processed on a {@link ForkJoinPool},
+	 * with each candidate pair being tested only in the first cell shared by both elements.
+	 * Finally, the overlaps are sorted and added to the elements in the same order as in the serial implementation.
+	 */
+	private static void calculateIntersectionsInMapDataParallel(MapData mapData, int threads) {
+
+		AxisAlignedRectangleXZ bounds = mapData.getDataBoundary().pad(10);
+		IndexGrid<IndexedElement> index = new IndexGrid<>(bounds, bounds.sizeX() / 1000, bounds.sizeZ() / 1000);
+
+		int i = 0;
+		for (MapElement e : mapData.getMapElements()) {
+			index.insert(new IndexedElement(i++, e));
+		}
+
+		/* collect the non-empty cells */
+
+		Collection<IndexedElement>[][] cellArray = index.getCellArray();
+
+		List<int[]> cells = new ArrayList<>();
+
+		for (int x = 0; x < cellArray.length; x++) {
+			for (int z = 0; z < cellArray[x].length; z++) {
+				if (cellArray[x][z] != null && cellArray[x][z].size() > 1) {
+					cells.add(new int[] {x, z});
+				}
+			}
+		}
+
+		/* calculate the overlaps for each cell in parallel */
+
+		List<PendingOverlap> overlaps;
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+
+		try {
+			overlaps = pool.submit(() -> cells.parallelStream()
+					.flatMap(cell -> calculateOverlapsInCell(index, cell[0], cell[1]).stream())
+					.collect(toList())).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else {
+				throw new RuntimeException(e.getCause());
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		/* add the overlaps to the elements in a deterministic order */
+
+		overlaps.sort(PendingOverlap.ORDER);
+
+		for (PendingOverlap overlap : overlaps) {
+			addOverlapToElements(overlap.overlap);
+		}
+
+	}
+
+	/**
+	 * calculates the overlaps between all pairs of elements in a cell of the index grid.
+	 * Pairs which also share a cell with lower x or z index are skipped,
+	 * they are handled by that cell instead.
+	 */
+	private static List<PendingOverlap> calculateOverlapsInCell(IndexGrid<IndexedElement> index,
+			int cellX, int cellZ) {
+
+		List<IndexedElement> cell = new ArrayList<>(index.getCellArray()[cellX][cellZ]);
+
+		List<PendingOverlap> result = new ArrayList<>();
+
+		for (IndexedElement e1 : cell) {
+			for (IndexedElement e2 : cell) {
+
+				if (e2.index >= e1.index) { continue; }
+
+				int firstSharedCellX = max(index.cellXForCoord(e1.bbox.minX), index.cellXForCoord(e2.bbox.minX));
+				int firstSharedCellZ = max(index.cellZForCoord(e1.bbox.minZ), index.cellZForCoord(e2.bbox.minZ));
+
+				if (firstSharedCellX != cellX || firstSharedCellZ != cellZ) { continue; }
+
+				MapOverlap<?, ?> overlap = calculateOverlapBetween(e1.element, e2.element);
+
+				if (overlap != null) {
+					result.add(new PendingOverlap(e1.index, e2.index, overlap));
+				}
 
 			}
+		}
+
+		return result;
+
+	}
+
+	/** a {@link MapElement} together with its position in {@link MapData#getMapElements()} */
+	private static class IndexedElement implements BoundedObject {
+
+		static final Comparator<IndexedElement> ORDER = Comparator.comparingInt(e -> e.index);
+
+		final int index;
+		final MapElement element;
+		final AxisAlignedRectangleXZ bbox;
+
+		IndexedElement(int index, MapElement element) {
+			this.index = index;
+			this.element = element;
+			this.bbox = element.boundingBox();
+		}
+
+		@Override
+		public AxisAlignedRectangleXZ boundingBox() {
+			return bbox;
+		}
 
+	}
+
+	/** an overlap which has been calculated, but not yet added to the elements */
+	private static class PendingOverlap {
+
+		static final Comparator<PendingOverlap> ORDER =
+				Comparator.<PendingOverlap>comparingInt(o -> o.index1).thenComparingInt(o -> o.index2);
+
+		final int index1;
+		final int index2;
+		final MapOverlap<?, ?> overlap;
+
+		PendingOverlap(int index1, int index2, MapOverlap<?, ?> overlap) {
+			this.index1 = index1;
+			this.index2 = index2;
+			this.overlap = overlap;
 		}
 
 	}
 
 	/**
-	 * adds the overlap between two {@link MapElement}s
-	 * to both, if it exists. It calls the appropriate
-	 * subtype-specific addOverlapBetween method
+	 * adds an overlap to those of its elements which store overlaps
+	 * ({@link MapWaySegment}s and {@link MapArea}s)
+	 */
+	private static void addOverlapToElements(MapOverlap<?, ?> overlap) {
+		for (MapElement e : asList(overlap.e1, overlap.e2)) {
+			if (e instanceof MapWaySegment) {
+				((MapWaySegment) e).addOverlap(overlap);
+			} else if (e instanceof MapArea) {
+				((MapArea) e).addOverlap(overlap);
+			}
+		}
+	}
+
+	/**
+	 * calculates the overlap between two {@link MapElement}s, if it exists.
+	 * It calls the appropriate subtype-specific calculateOverlapBetween method.
+	 * Does not modify the elements, and can therefore be called from multiple threads at once.
+	 *
+	 * @return  the overlap, or null if there is none
 	 */
-	private static void addOverlapBetween(MapElement e1, MapElement e2) {
+	private static MapOverlap<?, ?> calculateOverlapBetween(MapElement e1, MapElement e2) {
 
 		if (e1 instanceof MapWaySegment
 				&& e2 instanceof MapWaySegment) {
 
-			addOverlapBetween((MapWaySegment) e1, (MapWaySegment) e2);
+			return calculateOverlapBetween((MapWaySegment) e1, (MapWaySegment) e2);
 
 		} else if (e1 instanceof MapWaySegment
 				&& e2 instanceof MapArea) {
 
-			addOverlapBetween((MapWaySegment) e1, (MapArea) e2);
+			return calculateOverlapBetween((MapWaySegment) e1, (MapArea) e2);
 
 		} else if (e1 instanceof MapArea
 				&& e2 instanceof MapWaySegment) {
 
-			addOverlapBetween((MapWaySegment) e2, (MapArea) e1);
+			return calculateOverlapBetween((MapWaySegment) e2, (MapArea) e1);
 
 		} else if (e1 instanceof MapArea
 				&& e2 instanceof MapArea) {
 
-			addOverlapBetween((MapArea) e1, (MapArea) e2);
+			return calculateOverlapBetween((MapArea) e1, (MapArea) e2);
 
 		} else if (e1 instanceof MapNode
 				&& e2 instanceof MapArea) {
 
-			addOverlapBetween((MapNode) e1, (MapArea) e2);
+			return calculateOverlapBetween((MapNode) e1, (MapArea) e2);
 
 		} else if (e1 instanceof MapArea
 				&& e2 instanceof MapNode) {
 
-			addOverlapBetween((MapNode) e2, (MapArea) e1);
+			return calculateOverlapBetween((MapNode) e2, (MapArea) e1);
+
+		} else {
+
+			return null;
 
 		}
 
 	}
 
 	/**
-	 * adds the overlap between two {@link MapWaySegment}s
-	 * to both, if it exists
+	 * calculates the overlap between two {@link MapWaySegment}s, if it exists
 	 */
-	private static void addOverlapBetween(
+	private static MapIntersectionWW calculateOverlapBetween(
 			MapWaySegment line1, MapWaySegment line2) {
 
-		if (line1.isConnectedTo(line2)) { return; }
+		if (line1.isConnectedTo(line2)) { return null; }
 
 		VectorXZ intersection = GeometryUtil.getLineSegmentIntersection(
 				line1.getStartNode().getPos(),
@@ -400,43 +606,35 @@ public class OSMToMapDataConverter {
 				line2.getEndNode().getPos());
 
 		if (intersection != null) {
-
-			/* add the intersection */
-
-			MapIntersectionWW newIntersection =
-				new MapIntersectionWW(line1, line2, intersection);
-
-			line1.addOverlap(newIntersection);
-			line2.addOverlap(newIntersection);
-
+			return new MapIntersectionWW(line1, line2, intersection);
+		} else {
+			return null;
 		}
 
 	}
 
 	/**
-	 * adds the overlap between a {@link MapWaySegment}
-	 * and a {@link MapArea} to both, if it exists
+	 * calculates the overlap between a {@link MapWaySegment}
+	 * and a {@link MapArea}, if it exists
 	 */
-	private static void addOverlapBetween(
+	private static MapOverlapWA calculateOverlapBetween(
 			MapWaySegment line, MapArea area) {
 
-		final LineSegmentXZ segmentXZ = line.getLineSegment();
+		if (!boundingBoxesTouch(line, area)) return null;
 
-		/* check whether the line corresponds to one of the area segments */
+		final LineSegmentXZ segmentXZ = line.getLineSegment();
 
-		for (MapAreaSegment areaSegment : area.getAreaSegments()) {
-			if (areaSegment.sharesBothNodes(line)) {
+		/* check whether the line corresponds to one of the area segments
+		 * (only possible if both of the line's nodes are part of the area) */
 
-				MapOverlapWA newOverlap =
-					new MapOverlapWA(line, area, MapOverlapType.SHARE_SEGMENT,
+		if (line.getStartNode().getAdjacentAreas().contains(area)
+				&& line.getEndNode().getAdjacentAreas().contains(area)) {
+			for (MapAreaSegment areaSegment : area.getAreaSegments()) {
+				if (areaSegment.sharesBothNodes(line)) {
+					return new MapOverlapWA(line, area, MapOverlapType.SHARE_SEGMENT,
 							Collections.<VectorXZ>emptyList(),
 							Collections.<MapAreaSegment>emptyList());
-
-				line.addOverlap(newOverlap);
-				area.addOverlap(newOverlap);
-
-				return;
-
+				}
 			}
 		}
 
@@ -482,7 +680,7 @@ public class OSMToMapDataConverter {
 
 		}
 
-		/* add an overlap if detected */
+		/* return an overlap if detected */
 
 		if (contains || intersects) {
 
@@ -511,38 +709,34 @@ public class OSMToMapDataConverter {
 
 			}
 
-			/* add the overlap */
-
-			MapOverlapWA newOverlap = new MapOverlapWA(line, area,
-						intersects ? MapOverlapType.INTERSECT : MapOverlapType.CONTAIN,
-						intersectionPositions, intersectingSegments);
-
-			line.addOverlap(newOverlap);
-			area.addOverlap(newOverlap);
+			return new MapOverlapWA(line, area,
+					intersects ? MapOverlapType.INTERSECT : MapOverlapType.CONTAIN,
+					intersectionPositions, intersectingSegments);
 
+		} else {
+			return null;
 		}
 
 	}
 
-	/** adds the overlap between two {@link MapArea}s to both, if it exists */
-	private static void addOverlapBetween(MapArea area1, MapArea area2) {
+	/** calculates the overlap between two {@link MapArea}s, if it exists */
+	private static MapOverlapAA calculateOverlapBetween(MapArea area1, MapArea area2) {
 
-		/* check whether the areas have a shared segment */
+		if (!boundingBoxesTouch(area1, area2)) return null;
+
+		/* check whether the areas have a shared segment
+		 * (only segments where both nodes are part of the other area are candidates) */
 
 		Collection<MapAreaSegment> area1Segments = area1.getAreaSegments();
 		Collection<MapAreaSegment> area2Segments = area2.getAreaSegments();
 
 		for (MapAreaSegment area1Segment : area1Segments) {
-			for (MapAreaSegment area2Segment : area2Segments) {
-				if (area1Segment.sharesBothNodes(area2Segment)) {
-
-					MapOverlapAA newOverlap =
-						new MapOverlapAA(area1, area2, MapOverlapType.SHARE_SEGMENT);
-					area1.addOverlap(newOverlap);
-					area2.addOverlap(newOverlap);
-
-					return;
-
+			if (area1Segment.getStartNode().getAdjacentAreas().contains(area2)
+					&& area1Segment.getEndNode().getAdjacentAreas().contains(area2)) {
+				for (MapAreaSegment area2Segment : area2Segments) {
+					if (area1Segment.sharesBothNodes(area2Segment)) {
+						return new MapOverlapAA(area1, area2, MapOverlapType.SHARE_SEGMENT);
+					}
 				}
 			}
 		}
@@ -599,40 +793,38 @@ public class OSMToMapDataConverter {
 
 		}
 
-		/* add an overlap if detected */
-
-		if (contains1 || contains2 || intersects) {
-
-			/* add the overlap */
-
-			MapOverlapAA newOverlap = null;
-
-			if (contains1) {
-				newOverlap = new MapOverlapAA(area2, area1, MapOverlapType.CONTAIN);
-			} else if (contains2) {
-				newOverlap = new MapOverlapAA(area1, area2, MapOverlapType.CONTAIN);
-			} else {
-				newOverlap = new MapOverlapAA(area1, area2, MapOverlapType.INTERSECT);
-			}
-
-			area1.addOverlap(newOverlap);
-			area2.addOverlap(newOverlap);
+		/* return an overlap if detected */
 
+		if (contains1) {
+			return new MapOverlapAA(area2, area1, MapOverlapType.CONTAIN);
+		} else if (contains2) {
+			return new MapOverlapAA(area1, area2, MapOverlapType.CONTAIN);
+		} else if (intersects) {
+			return new MapOverlapAA(area1, area2, MapOverlapType.INTERSECT);
+		} else {
+			return null;
 		}
 
 	}
 
-	private static void addOverlapBetween(MapNode node, MapArea area) {
-
-		if (area.getPolygon().contains(node.getPos())) {
-
-			/* add the overlap */
-
-			MapOverlapNA newOverlap =
-					new MapOverlapNA(node, area, MapOverlapType.CONTAIN);
+	/**
+	 * checks whether the bounding boxes of two elements overlap or touch.
+	 * Elements can only share segments, intersect or contain each other if this is the case.
+	 */
+	private static boolean boundingBoxesTouch(MapElement e1, MapElement e2) {
+		AxisAlignedRectangleXZ box1 = e1.boundingBox();
+		AxisAlignedRectangleXZ box2 = e2.boundingBox();
+		return box1.minX <= box2.maxX && box2.minX <= box1.maxX
+				&& box1.minZ <= box2.maxZ && box2.minZ <= box1.maxZ;
+	}
 
-			area.addOverlap(newOverlap);
+	/** calculates the overlap between a {@link MapNode} and a {@link MapArea}, if it exists */
+	private static MapOverlapNA calculateOverlapBetween(MapNode node, MapArea area) {
 
+		if (area.getPolygon().contains(node.getPos())) {
+			return new MapOverlapNA(node, area, MapOverlapType.CONTAIN);
+		} else {
+			return null;
 		}
 
 	}
@@ -205,9 +205,10 @@ public class MapArea extends MapRelation.Element implements MapElement {
 	}
 
 	/**
-	 * adds a visual representation for this area
+	 * adds a visual representation for this area.
+	 * Can be called from world modules which are applied in parallel.
 	 */
-	public void addRepresentation(AreaWorldObject representation) {
+	public synchronized void addRepresentation(AreaWorldObject representation) {
 		this.representations.add(representation);
 	}
 
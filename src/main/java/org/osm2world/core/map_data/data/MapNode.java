@@ -184,9 +184,10 @@ public class MapNode extends MapRelation.Element implements MapElement {
 	}
 
 	/**
-	 * adds a visual representation for this node
+	 * adds a visual representation for this node.
+	 * Can be called from world modules which are applied in parallel.
 	 */
-	public void addRepresentation(NodeWorldObject representation) {
+	public synchronized void addRepresentation(NodeWorldObject representation) {
 		this.representations.add(representation);
 	}
 
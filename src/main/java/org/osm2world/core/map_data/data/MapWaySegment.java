@@ -83,9 +83,10 @@ public class MapWaySegment extends MapSegment implements MapElement {
 	}
 
 	/**
-	 * adds a visual representation for this way segment
+	 * adds a visual representation for this way segment.
+	 * Can be called from world modules which are applied in parallel.
 	 */
-	public void addRepresentation(WaySegmentWorldObject representation) {
+	public synchronized void addRepresentation(WaySegmentWorldObject representation) {
 		this.representations.add(representation);
 	}
 
@@ -19,7 +19,9 @@ public class Tag {
 
 	@Override
 	public boolean equals(Object obj) {
-		if (!(obj instanceof Tag)) {
+		if (obj == this) {
+			return true;
+		} else if (!(obj instanceof Tag)) {
 			return false;
 		} else {
 			Tag otherTag = (Tag)obj;
@@ -0,0 +1,61 @@
+package org.osm2world.core.map_data.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * canonicalizes {@link Tag}s and small {@link TagSet}s while map data is being created.
+ * OSM data contains the same keys, values and tag combinations over and over again,
+ * so sharing these instances noticeably reduces memory use for large datasets.
+ *
+ * A pool is meant to be used for a single conversion and is not thread-safe.
+ */
+public class TagPool {
+
+	/** tag sets with at most this many tags are shared, larger ones are usually unique anyway */
+	static final int MAX_POOLED_SET_SIZE = 3;
+
+	private final Map<String, String> strings = new HashMap<>();
+	private final Map<Tag, Tag> tags = new HashMap<>();
+	private final Map<TagSet, TagSet> tagSets = new HashMap<>();
+
+	/** returns a shared {@link Tag} instance with the given key and value */
+	public Tag tag(String key, String value) {
+
+		Tag tag = tags.get(new Tag(key, value));
+
+		if (tag == null) {
+			tag = new Tag(string(key), string(value));
+			tags.put(tag, tag);
+		}
+
+		return tag;
+
+	}
+
+	/**
+	 * returns a {@link TagSet} containing the given tags,
+	 * which is shared with previous calls for the same tags if the set is small.
+	 * The tags should have been obtained using {@link #tag(String, String)}.
+	 *
+	 * @throws IllegalArgumentException  if keys are not unique
+	 */
+	public TagSet tagSet(Tag... tags) {
+
+		TagSet tagSet = TagSet.of(tags);
+
+		if (tagSet.size() > MAX_POOLED_SET_SIZE) {
+			return tagSet;
+		}
+
+		TagSet existingSet = tagSets.putIfAbsent(tagSet, tagSet);
+		return existingSet != null ? existingSet : tagSet;
+
+	}
+
+	private String string(String s) {
+		String existingString = strings.putIfAbsent(s, s);
+		return existingString != null ? existingString : s;
+	}
+
+}
@@ -20,13 +20,15 @@ public final class TagSet implements Iterable<Tag> {
 
 	private static final TagSet EMPTY_SET = new TagSet(new Tag[0]);
 
+	private static final Comparator<Tag> TAG_ORDER = Comparator.comparing((Tag t) -> t.key).thenComparing(t -> t.value);
+
 	/** the backing array. Will not be modified after construction. Sorted alphabetically (for equality behavior). */
 	private final Tag[] tags;
 
 	private TagSet(Tag[] tags) {
 
 		this.tags = tags;
-		sort(tags, Comparator.comparing((Tag t) -> t.key).thenComparing(t -> t.value));
+		sort(tags, TAG_ORDER);
 
 		// validate uniqueness of keys (relies on sort order)
 		for (int i = 0; i + 1 < tags.length; i++) {
@@ -100,12 +102,8 @@ public final class TagSet implements Iterable<Tag> {
 	 */
 	public String getValue(String key) {
 		assert key != null;
-		for (Tag tag : tags) {
-			if (tag.key.equals(key)) {
-				return tag.value;
-			}
-		}
-		return null;
+		int index = indexOfKey(key);
+		return index < 0 ? null : tags[index].value;
 	}
 
 	/**
@@ -114,12 +112,8 @@ public final class TagSet implements Iterable<Tag> {
 	 */
 	public boolean contains(Tag tag) {
 		assert tag != null;
-		for (Tag t : tags) {
-			if (t.equals(tag)) {
-				return true;
-			}
-		}
-		return false;
+		int index = indexOfKey(tag.key);
+		return index >= 0 && tags[index].value.equals(tag.value);
 	}
 
 	/**
@@ -128,7 +122,9 @@ public final class TagSet implements Iterable<Tag> {
 	 * @param value  value of the tag to check for; != null
 	 */
 	public boolean contains(String key, String value) {
-		return contains(new Tag(key, value));
+		assert key != null && value != null;
+		int index = indexOfKey(key);
+		return index >= 0 && tags[index].value.equals(value);
 	}
 
 	/**
@@ -136,12 +132,7 @@ public final class TagSet implements Iterable<Tag> {
 	 * @param key  key to check for; != null
 	 */
 	public boolean containsKey(String key) {
-		for (Tag tag : tags) {
-			if (tag.key.equals(key)) {
-				return true;
-			}
-		}
-		return false;
+		return indexOfKey(key) >= 0;
 	}
 
 	/**
@@ -185,6 +176,31 @@ public final class TagSet implements Iterable<Tag> {
 		return false;
 	}
 
+	/**
+	 * returns the index of the tag with the given key in the sorted array, or -1 if there is no such tag.
+	 * Uses a binary search, which relies on the keys being unique.
+	 */
+	private int indexOfKey(String key) {
+
+		int low = 0;
+		int high = tags.length - 1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int comparison = tags[mid].key.compareTo(key);
+			if (comparison < 0) {
+				low = mid + 1;
+			} else if (comparison > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+
+		return -1;
+
+	}
+
 	/** returns a stream of all tags in this set */
 	public Stream<Tag> stream() {
 		return Arrays.stream(tags);
@@ -211,7 +227,7 @@ public final class TagSet implements Iterable<Tag> {
 
 	@Override
 	public int hashCode() {
-		return tags.hashCode();
+		return Arrays.hashCode(tags);
 	}
 
 	@Override
@@ -0,0 +1,51 @@
+package org.osm2world.core.map_elevation.creation;
+
+import java.util.Collection;
+
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+
+/**
+ * bilinear interpolation on an {@link ElevationGrid}.
+ * This is only possible for {@link RasterTerrainElevationData}, but avoids building a collection of sites.
+ * For other sources, it falls back to an {@link InverseDistanceWeightingInterpolator}.
+ */
+public class BilinearGridInterpolator implements TerrainInterpolator {
+
+	private ElevationGrid grid = null;
+	private TerrainInterpolator fallback = null;
+
+	public void setKnownGrid(ElevationGrid grid) {
+		this.grid = grid;
+		this.fallback = null;
+	}
+
+	@Override
+	public void setKnownSites(Collection<VectorXYZ> sites) {
+		this.grid = null;
+		this.fallback = new InverseDistanceWeightingInterpolator();
+		fallback.setKnownSites(sites);
+	}
+
+	@Override
+	public void setKnownSites(SiteArray sites) {
+		this.grid = null;
+		this.fallback = new InverseDistanceWeightingInterpolator();
+		fallback.setKnownSites(sites);
+	}
+
+	@Override
+	public VectorXYZ interpolateEle(VectorXZ pos) {
+		if (grid != null) {
+			return pos.xyz(grid.getEle(pos));
+		} else {
+			return fallback.interpolateEle(pos);
+		}
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
+}
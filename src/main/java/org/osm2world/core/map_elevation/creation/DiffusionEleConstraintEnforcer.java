@@ -13,13 +13,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
-import javax.annotation.Nullable;
-
-import com.google.common.base.Stopwatch;
-
-import org.apache.batik.bridge.Bridge;
-import org.apache.commons.lang.time.StopWatch;
 import org.osm2world.core.map_data.data.MapNode;
 import org.osm2world.core.map_data.data.MapWaySegment;
 import org.osm2world.core.map_elevation.data.EleConnector;
@@ -31,6 +26,9 @@ import org.osm2world.core.world.modules.RoadModule;
 import org.osm2world.core.world.modules.RoadModule.Road;
 import org.osm2world.core.world.modules.RoadModule.RoadConnector;
 
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+
 /**
  * enforcer implementation that ignores many of the constraints, but is much
  * faster than the typical full implementation.
@@ -43,8 +41,30 @@ import org.osm2world.core.world.modules.RoadModule.RoadConnector;
 // This enforcer configures elavation using Diffusion equation (Heat equation)
 public final class DiffusionEleConstraintEnforcer implements EleConstraintEnforcer {
 
+	/** time step of the diffusion simulation */
+	static final double DT = 0.01;
+
+	/** simulated time after which the diffusion is stopped even if it has not converged */
+	static final double MAX_DURATION = 100;
+
+	/**
+	 * the diffusion is considered converged once no height changes by more than this value
+	 * (in meters) within a single time step.
+	 *
+	 * As long as {@link #DT} times the sum of a connector's edge weights is at most 1
+	 * (i.e. for connectors with up to 500 edges), each time step replaces a height change with
+	 * a weighted average of changes, so the largest change never grows from one step to the next.
+	 * The result therefore differs from running the simulation for the full {@link #MAX_DURATION}
+	 * by at most MAX_DURATION / DT * CONVERGENCE_THRESHOLD = 1e-4 m.
+	 */
+	static final double CONVERGENCE_THRESHOLD = 1e-8;
+
+	static final double CONDUCTANCE = 1;
+
 	private Collection<EleConnector> connectors = new ArrayList<EleConnector>();
 
+	private final EleConnectorPositionIndex connectorIndex = new EleConnectorPositionIndex();
+
 	/**
 	 * associates each EleConnector with the {@link StiffConnectorSet} it is part of
 	 * (if any)
@@ -53,7 +73,7 @@ public final class DiffusionEleConstraintEnforcer implements EleConstraintEnforc
 
 	int connectedCount = 0;
 
-	class RoadNetworkEdge {
+	static class RoadNetworkEdge {
 		public EleConnector a;
 		public EleConnector b;
 		public double distance;
@@ -67,158 +87,16 @@ public final class DiffusionEleConstraintEnforcer implements EleConstraintEnforc
 
 	Map<EleConnector, List<RoadNetworkEdge>> roadGraph = new HashMap<EleConnector, List<RoadNetworkEdge>>();;
 
-	// axis aligned boundary boxes
-	class AABB {
-		public int x1;
-		public int z1;
-		public int x2;
-		public int z2;
-
-		public AABB(int x1, int z1, int x2, int z2) {
-			this.x1 = x1;
-			this.x2 = x2;
-			this.z1 = z1;
-			this.z2 = z2;
-			if (x1 > x2) {
-				throw new RuntimeException("x2 should be greater than x1");
-			}
-			if (z1 > z2) {
-				throw new RuntimeException("z2 should be greater than z1s");
-			}
-		}
-
-		public boolean isInside(double x, double z) {
-			return isInsideMargin(x, z, 0);
-		}
-
-		// more likely to be true
-		public boolean isInsideMargin(double x, double z, int margin) {
-			return (x1 - margin - x) * (x2 + margin - x) < 0 && (z1 - margin - z) * (z2 + margin - z) < 0;
-		}
-
-		public boolean equalsTo(AABB aabb1) {
-			return aabb1.x1 == x1 && aabb1.x2 == x2 && aabb1.z1 == z1 && aabb1.z1 == z1;
-		}
-	}
-
-	private AABB gridPoint(double x, double z, int size) {
-		int x1 = (int) Math.floor(x / size) * size;
-		int z1 = (int) Math.floor(z / size) * size;
-		return new AABB(x1, z1, x1 + size, z1 + size);
-	}
-
-	private Map<AABB, List<EleConnector>> createAABBMap(Iterable<EleConnector> newConnectors) {
-		Map<AABB, List<EleConnector>> aabbs = new HashMap<AABB, List<EleConnector>>();
-		// construct aabbs
-		int eleconnectorCount = 0;
-		{
-			StopWatch stopWatch = new StopWatch();
-			stopWatch.start();
-			long last = System.currentTimeMillis();
-			int count = 0;
-			for (EleConnector c : newConnectors) {
-				VectorXYZ pos = c.getPosXYZ();
-				count++;
-				boolean found = false;
-				for (AABB aabb : aabbs.keySet()) {
-					if (aabb.isInside(pos.x, pos.z)) {
-						found = true;
-						break;
-					}
-				}
-				if (!found) {
-					List<EleConnector> cons = new ArrayList<EleConnector>();
-					AABB aabb = gridPoint(pos.x, pos.z, 100);
-					aabbs.put(aabb, cons);
-				}
-				long current = System.currentTimeMillis();
-				if (current - last > 5000) {
-					last = current;
-					System.out.println("AABB contstruction loop: " + count + " :" + stopWatch);
-				}
-			}
-			eleconnectorCount = count;
-		}
-		{
-			StopWatch stopWatch = new StopWatch();
-			stopWatch.start();
-			long last = System.currentTimeMillis();
-			int count = 0;
-			// add EleConnectors to map
-			for (EleConnector c : newConnectors) {
-				VectorXYZ pos = c.getPosXYZ();
-				for (AABB aabb : aabbs.keySet()) {
-					if (aabb.isInsideMargin(pos.x, pos.z, 1)) {
-						aabbs.get(aabb).add(c);
-					}
-				}
-				long current = System.currentTimeMillis();
-				count++;
-				if (current - last > 5000) {
-					last = current;
-					System.out.println(
-							"AABB contstruction loop 2: " + count + "/" + eleconnectorCount + " :" + stopWatch);
-				}
-			}
-		}
-		return aabbs;
-	}
-
 	@Override
 	public void addConnectors(Iterable<EleConnector> newConnectors) {
 
-		StopWatch stopWatch = new StopWatch();
-		stopWatch.start();
-		{
-			long last = System.currentTimeMillis();
-			long count = 0;
-			System.out.println("connectors.add(c)" + count + " :" + stopWatch);
-			System.out.flush();
-			for (EleConnector c : newConnectors) {
-				connectors.add(c);
-				count++;
-				long current = System.currentTimeMillis();
-				// System.out.println(current - last);
-				if (current - last > 5000) {
-					last = current;
-					System.out.println("connectors.add(c)" + count + " :" + stopWatch);
-				}
-			}
+		for (EleConnector c : newConnectors) {
+			connectors.add(c);
 		}
 
 		/* connect connectors */
 
-		// old implementation O(n^2)
-
-		// for (EleConnector c1 : newConnectors) {
-		// for (EleConnector c2 : connectors) {
-
-		// if (c1 != c2 && c1.connectsTo(c2)) {
-		// requireSameEle(c1, c2);
-		// }
-
-		// }
-		// }
-		{
-			long last = System.currentTimeMillis();
-			System.out.println("createAABBMap");
-			Map<AABB, List<EleConnector>> map = createAABBMap(connectors);
-			for (List<EleConnector> pconnectors : map.values()) {// parts of connector list
-				for (EleConnector c1 : pconnectors) {
-					for (EleConnector c2 : pconnectors) {
-						if (c1 != c2 && c1.connectsTo(c2)) {
-							requireSameEle(c1, c2);
-						}
-					}
-				}
-				long current = System.currentTimeMillis();
-				if (current - last > 5000) {
-					last = current;
-					System.out.println("AABB:" + stopWatch + "/" + map.size());
-					System.out.flush();
-				}
-			}
-		}
+		connectorIndex.addAndConnect(newConnectors, this::requireSameEle);
 
 	}
 
@@ -345,8 +223,6 @@ public final class DiffusionEleConstraintEnforcer implements EleConstraintEnforc
 		System.out.flush();
 
 		Map<MapNode, EleConnector> mapNodeToEleconnector = new HashMap<MapNode, EleConnector>();
-		Map<EleConnector, Double> heightMap = new HashMap<EleConnector, Double>();
-		Map<EleConnector, Double> heightMap1 = new HashMap<EleConnector, Double>();
 
 		// initialize height map
 
@@ -412,69 +288,31 @@ public final class DiffusionEleConstraintEnforcer implements EleConstraintEnforc
 			System.out.println("creating graph:" + (System.currentTimeMillis() - startTime) + "ms");
 			System.out.flush();
 		}
-		for (EleConnector c : connectors) {
-			double h = 0;
-			if (c == null || c.groundState == null) {
-				heightMap.put(c, h);
-				heightMap1.put(c, h);
-				continue;
-			}
-			switch (c.groundState) {
-				case ABOVE:
-					h = 5.0;
-					break;
-				case BELOW:
-					h = -5.0;
-					break;
-				default: // stay at ground elevation
-			}
-			heightMap.put(c, h);
-			heightMap1.put(c, h);
-		}
-		double dt = 0.01;
-		double conductance = 1;
-		{
-			long startTime = System.currentTimeMillis();
-			long lastTime = startTime;
-			for (double t = 0; t < 100; t += dt) {
-				for (EleConnector c : connectors) {
-					double h = heightMap.get(c);
-					if (c == null || c.groundState == null) {
-						heightMap.put(c, h);
-						heightMap1.put(c, h);
-						continue;
-					}
-					switch (c.groundState) {
-						case ABOVE:
-							h = 5.0;
-							break;
-						case BELOW:
-							h = -5.0;
-							break;
-						default: // stay at ground elevation
-					}
-					// heightMap.put(c, h);
-					// heightMap1.put(c, h);
-				}
-				for (EleConnector a : roadGraph.keySet()) {
-					double dhdt = 0;
-					double h = heightMap.get(a);
-					for (RoadNetworkEdge edge : roadGraph.get(a)) {
-						dhdt -= conductance / Math.max(edge.distance * edge.distance, 5) * (h - heightMap.get(edge.b));
-					}
-					heightMap1.put(a, dhdt * dt + h);
-				}
-				for (EleConnector c : connectors) {
-					heightMap.put(c, heightMap1.get(c));
-				}
-				long current = System.currentTimeMillis();
-				if (current - lastTime > 5000) {
-					lastTime = current;
-					System.out.println("t=" + t + "diffusion time:" + (System.currentTimeMillis() - startTime) + "ms");
-					System.out.flush();
+		/* compile the graph and initialize the height buffer */
+
+		CompiledRoadGraph graph = new CompiledRoadGraph(connectors, roadGraph, CONDUCTANCE);
+
+		double[] heights = new double[graph.size()];
+
+		for (int i = 0; i < graph.size(); i++) {
+			EleConnector c = graph.connectors[i];
+			if (c != null && c.groundState != null) {
+				switch (c.groundState) {
+					case ABOVE:
+						heights[i] = 5.0;
+						break;
+					case BELOW:
+						heights[i] = -5.0;
+						break;
+					default: // stay at ground elevation
 				}
 			}
 		}
+
+		/* run the diffusion until it converges (or the maximum duration has been reached) */
+
+		graph.diffuse(heights, DT, (int) Math.ceil(MAX_DURATION / DT), CONVERGENCE_THRESHOLD);
+
 		// apply heights to side lane
 		for (EleConnector c : connectors) {
 			if (c.reference instanceof MapNode) {
@@ -502,7 +340,7 @@ public final class DiffusionEleConstraintEnforcer implements EleConstraintEnforc
 						if (left.size() != center.size()) {
 							// System.out.println(left.size() + "," + center.size());
 						}
-						copyLane(heightMap, center, left);
+						copyLane(graph, heights, center, left);
 					} catch (Exception e) {
 					}
 					try {
@@ -510,19 +348,19 @@ public final class DiffusionEleConstraintEnforcer implements EleConstraintEnforc
 						if (right.size() != center.size()) {
 							// System.out.println(right.size() + "," + center.size());
 						}
-						copyLane(heightMap, center, right);
+						copyLane(graph, heights, center, right);
 					} catch (Exception e) {
 					}
 				});
 			}
 		}
 		for (EleConnector c : connectors) {
-			double h = heightMap.get(c);
+			double h = heights[graph.indexOf(c)];
 			c.setPosXYZ(c.getPosXYZ().addY(h));
 		}
 	}
 
-	private void copyLane(Map<EleConnector, Double> heightMap, List<EleConnector> from, List<EleConnector> to) {
+	private void copyLane(CompiledRoadGraph graph, double[] heights, List<EleConnector> from, List<EleConnector> to) {
 		if (to.size() == 0) {
 			return;
 		}
@@ -534,25 +372,19 @@ public final class DiffusionEleConstraintEnforcer implements EleConstraintEnforc
 		for (int i = 0; i < to.size(); i++) {
 			int i_from = (int) Math.round((double) (i * conversionratio));
 			i_from = i_from >= from.size() ? from.size() : i_from;
-			heightMap.put(to.get(i), heightMap.get(from.get(i_from)));
+			double h = heights[graph.indexOf(from.get(i_from))];
+			int toIndex = graph.indexOf(to.get(i));
+			if (toIndex >= 0) {
+				heights[toIndex] = h;
+			}
 		}
 	}
 
-	private void interpolateConnection(Map<EleConnector, Double> heightMap, List<EleConnector> center,
+	private void interpolateConnection(CompiledRoadGraph graph, double[] heights, List<EleConnector> center,
 			EleConnector start, EleConnector end, boolean isSide) {
 		if (center.size() == 0) {
 			return;
 		}
-		RoadNetworkEdge edge = null;
-		for (RoadNetworkEdge e : roadGraph.get(start)) {
-			if (e.b == end) {
-				edge = e;
-				break;
-			}
-		}
-		if (edge != null) {
-			System.out.println(edge.h);
-		}
 		// calculate length of road
 		// length will be used to calculate weights for linear interpolation
 		double length = 0;
@@ -576,13 +408,13 @@ public final class DiffusionEleConstraintEnforcer implements EleConstraintEnforc
 
 		{
 			double pos = 0;
-			double startHeight = heightMap.get(start);
-			double endHeight = heightMap.get(end);
+			double startHeight = heights[graph.indexOf(start)];
+			double endHeight = heights[graph.indexOf(end)];
 			EleConnector before = isSide ? center.get(0) : start;
 			for (int i = 0; i < center.size(); i++) {
 				EleConnector segment = center.get(i);
 				pos += segment.getPosXYZ().distanceToXZ(before.getPosXYZ());
-				heightMap.put(segment, endHeight * pos / length + startHeight * (1 - pos / length));
+				heights[graph.indexOf(segment)] = endHeight * pos / length + startHeight * (1 - pos / length);
 				before = segment;
 			}
 		}
@@ -624,6 +456,138 @@ public final class DiffusionEleConstraintEnforcer implements EleConstraintEnforc
 		}
 	}
 
+	/**
+	 * compact representation of the road graph for the diffusion simulation.
+	 * Connectors are numbered, and the edges are stored in compressed sparse row (CSR) format:
+	 * The edges of connector i are stored at the positions from {@code rowStart[i]} (inclusive)
+	 * to {@code rowStart[i+1]} (exclusive) of {@link #neighbors} and {@link #weights}.
+	 */
+	static final class CompiledRoadGraph {
+
+		/** graphs with at least this many connectors are simulated in parallel */
+		static final int PARALLEL_THRESHOLD = 10000;
+
+		final EleConnector[] connectors;
+		private final TObjectIntMap<EleConnector> indexMap;
+
+		private final int[] rowStart;
+		private final int[] neighbors;
+		private final double[] weights;
+
+		CompiledRoadGraph(Collection<EleConnector> connectors,
+				Map<EleConnector, List<RoadNetworkEdge>> roadGraph, double conductance) {
+
+			/* number the connectors, including any graph nodes which are not among the known connectors */
+
+			List<EleConnector> connectorList = new ArrayList<>(connectors.size());
+			indexMap = new TObjectIntHashMap<>(connectors.size() * 2, 0.5f, -1);
+
+			for (EleConnector c : connectors) {
+				if (!indexMap.containsKey(c)) {
+					indexMap.put(c, connectorList.size());
+					connectorList.add(c);
+				}
+			}
+
+			for (List<RoadNetworkEdge> edges : roadGraph.values()) {
+				for (RoadNetworkEdge edge : edges) {
+					for (EleConnector c : asList(edge.a, edge.b)) {
+						if (!indexMap.containsKey(c)) {
+							indexMap.put(c, connectorList.size());
+							connectorList.add(c);
+						}
+					}
+				}
+			}
+
+			this.connectors = connectorList.toArray(new EleConnector[0]);
+
+			/* build the CSR arrays */
+
+			rowStart = new int[this.connectors.length + 1];
+
+			for (Map.Entry<EleConnector, List<RoadNetworkEdge>> entry : roadGraph.entrySet()) {
+				rowStart[indexOf(entry.getKey()) + 1] = entry.getValue().size();
+			}
+
+			for (int i = 0; i < this.connectors.length; i++) {
+				rowStart[i + 1] += rowStart[i];
+			}
+
+			neighbors = new int[rowStart[this.connectors.length]];
+			weights = new double[rowStart[this.connectors.length]];
+
+			for (Map.Entry<EleConnector, List<RoadNetworkEdge>> entry : roadGraph.entrySet()) {
+				int pos = rowStart[indexOf(entry.getKey())];
+				for (RoadNetworkEdge edge : entry.getValue()) {
+					neighbors[pos] = indexOf(edge.b);
+					weights[pos] = conductance / Math.max(edge.distance * edge.distance, 5);
+					pos++;
+				}
+			}
+
+		}
+
+		/** returns the number of connectors in this graph */
+		int size() {
+			return connectors.length;
+		}
+
+		/** returns the index of a connector, or -1 if it is not part of this graph */
+		int indexOf(EleConnector c) {
+			return indexMap.get(c);
+		}
+
+		/**
+		 * simulates diffusion along the graph's edges using explicit (Jacobi-style) time steps.
+		 *
+		 * @param heights  the initial heights, indexed like the connectors. Will contain the results afterwards.
+		 * @return  the number of time steps which have been performed
+		 */
+		int diffuse(double[] heights, double dt, int maxSteps, double convergenceThreshold) {
+
+			double[] current = heights;
+			double[] next = new double[heights.length];
+
+			int step = 0;
+
+			while (step < maxSteps) {
+
+				final double[] h = current;
+				final double[] h1 = next;
+
+				IntStream indices = IntStream.range(0, h.length);
+				if (h.length >= PARALLEL_THRESHOLD) {
+					indices = indices.parallel();
+				}
+
+				double maxChange = indices.mapToDouble(i -> {
+					double dhdt = 0;
+					for (int e = rowStart[i]; e < rowStart[i + 1]; e++) {
+						dhdt -= weights[e] * (h[i] - h[neighbors[e]]);
+					}
+					h1[i] = h[i] + dhdt * dt;
+					return Math.abs(dhdt * dt);
+				}).max().orElse(0);
+
+				current = h1;
+				next = h;
+				step++;
+
+				if (maxChange < convergenceThreshold) break;
+
+			}
+
+			if (current != heights) {
+				System.arraycopy(current, 0, heights, 0, heights.length);
+			}
+
+			return step;
+
+		}
+
+	}
+
 	/**
 	 * a set of connectors that are required to have the same elevation TODO or a
 	 * precise vertical offset
@@ -0,0 +1,70 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.osm2world.core.map_elevation.data.EleConnector;
+import org.osm2world.core.math.VectorXZ;
+
+/**
+ * index of {@link EleConnector}s by their exact xz position.
+ *
+ * Because {@link EleConnector#connectsTo(EleConnector)} requires identical positions,
+ * this allows {@link EleConstraintEnforcer}s to find all pairs of connected connectors
+ * in expected linear time instead of comparing each pair of connectors.
+ */
+class EleConnectorPositionIndex {
+
+	private final Map<VectorXZ, List<EleConnector>> connectorMap = new HashMap<>();
+
+	/** adds a connector to the index */
+	public void add(EleConnector connector) {
+		connectorMap.computeIfAbsent(key(connector.pos), k -> new ArrayList<>(2)).add(connector);
+	}
+
+	/** returns all connectors in the index which are located at exactly the given position */
+	public List<EleConnector> getConnectorsAt(VectorXZ pos) {
+		return connectorMap.getOrDefault(key(pos), emptyList());
+	}
+
+	/**
+	 * adds connectors to the index, then calls an action for each pair of connectors
+	 * where the first connector is one of the new connectors, the second one is any connector in the index,
+	 * and the first {@link EleConnector#connectsTo(EleConnector)} the second.
+	 * This produces the same pairs as a comparison of each new connector with all connectors in the index.
+	 */
+	public void addAndConnect(Iterable<EleConnector> newConnectors, BiConsumer<EleConnector, EleConnector> action) {
+
+		for (EleConnector c : newConnectors) {
+			add(c);
+		}
+
+		for (EleConnector c1 : newConnectors) {
+			for (EleConnector c2 : getConnectorsAt(c1.pos)) {
+				if (c1 != c2 && c1.connectsTo(c2)) {
+					action.accept(c1, c2);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * returns the key used for a position.
+	 * Necessary because {@link VectorXZ#equals(Object)} considers 0.0 and -0.0 to be equal,
+	 * but they have different hash codes.
+	 */
+	private static VectorXZ key(VectorXZ pos) {
+		if (pos.x == 0 || pos.z == 0) {
+			return new VectorXZ(pos.x + 0.0, pos.z + 0.0);
+		} else {
+			return pos;
+		}
+	}
+
+}
@@ -0,0 +1,110 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static java.lang.Double.isNaN;
+import static java.lang.Math.*;
+
+import org.osm2world.core.map_data.creation.MapProjection;
+import org.osm2world.core.math.VectorXZ;
+
+/**
+ * a regular raster of elevation values in latitude/longitude space,
+ * such as the pixels of one or more SRTM tiles.
+ * Values are stored row by row (from south to north) in a primitive array,
+ * with {@link Double#NaN} for samples without data. Instances are immutable.
+ */
+public final class ElevationGrid {
+
+	private final MapProjection projection;
+
+	/** longitude and latitude of the sample at column 0, row 0 */
+	private final double originLon, originLat;
+
+	/** distance between adjacent samples in degrees */
+	private final double spacing;
+
+	private final int columns, rows;
+	private final double[] values;
+
+	/**
+	 * @param projection  the projection used to convert positions to lat/lon for {@link #getEle(VectorXZ)}
+	 * @param values  elevations for columns * rows samples, stored row by row
+	 */
+	public ElevationGrid(MapProjection projection, double originLon, double originLat, double spacing,
+			int columns, int rows, double[] values) {
+
+		if (columns < 1 || rows < 1 || values.length != columns * rows) {
+			throw new IllegalArgumentException("invalid grid dimensions");
+		}
+
+		this.projection = projection;
+		this.originLon = originLon;
+		this.originLat = originLat;
+		this.spacing = spacing;
+		this.columns = columns;
+		this.rows = rows;
+		this.values = values;
+
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public double getValue(int column, int row) {
+		return values[row * columns + column];
+	}
+
+	/**
+	 * returns the bilinearly interpolated elevation at a position.
+	 * Samples without data are left out and the weights of the remaining samples are renormalized.
+	 * Positions outside the grid are clamped to its border.
+	 *
+	 * @return  the elevation, or {@link Double#NaN} if none of the surrounding samples has data
+	 */
+	public double getEle(VectorXZ pos) {
+		return getEle(projection.calcLat(pos), projection.calcLon(pos));
+	}
+
+	/** lat/lon variant of {@link #getEle(VectorXZ)} */
+	public double getEle(double lat, double lon) {
+
+		double fx = min(max((lon - originLon) / spacing, 0), columns - 1);
+		double fy = min(max((lat - originLat) / spacing, 0), rows - 1);
+
+		int x0 = (int) fx;
+		int y0 = (int) fy;
+		int x1 = min(x0 + 1, columns - 1);
+		int y1 = min(y0 + 1, rows - 1);
+
+		double tx = fx - x0;
+		double ty = fy - y0;
+
+		double v00 = values[y0 * columns + x0];
+		double v10 = values[y0 * columns + x1];
+		double v01 = values[y1 * columns + x0];
+		double v11 = values[y1 * columns + x1];
+
+		double w00 = isNaN(v00) ? 0 : (1 - tx) * (1 - ty);
+		double w10 = isNaN(v10) ? 0 : tx * (1 - ty);
+		double w01 = isNaN(v01) ? 0 : (1 - tx) * ty;
+		double w11 = isNaN(v11) ? 0 : tx * ty;
+
+		double weightSum = w00 + w10 + w01 + w11;
+
+		if (weightSum == 0) return Double.NaN;
+
+		double eleSum = 0;
+		if (w00 > 0) eleSum += w00 * v00;
+		if (w10 > 0) eleSum += w10 * v10;
+		if (w01 > 0) eleSum += w01 * v01;
+		if (w11 > 0) eleSum += w11 * v11;
+
+		return eleSum / weightSum;
+
+	}
+
+}
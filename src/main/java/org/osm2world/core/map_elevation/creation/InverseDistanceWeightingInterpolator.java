@@ -1,22 +1,31 @@
 package org.osm2world.core.map_elevation.creation;
 
 import static java.lang.Math.*;
-import static org.osm2world.core.math.AxisAlignedRectangleXZ.bbox;
 
 import java.util.Collection;
 
+import org.osm2world.core.math.AxisAlignedRectangleXZ;
 import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
-import org.osm2world.core.math.datastructures.IndexGrid;
-
 
+/**
+ * uses inverse distance weighting of the sites within a cutoff distance.
+ * Sites are kept in primitive arrays, sorted by the grid cell they are located in.
+ */
 public class InverseDistanceWeightingInterpolator implements TerrainInterpolator {
 
 	private static final double CUTOFF = 300;
 
 	private final double negExp;
-	private Collection<VectorXYZ> sites;
-	private IndexGrid<VectorXYZ> siteGrid; //TODO: rename IntersectionGrid to something more generic
+
+	private AxisAlignedRectangleXZ gridBounds;
+	private int cellCountX, cellCountZ;
+	private double cellSizeX, cellSizeZ;
+
+	/** index of the first site of each cell in the site arrays, with an additional end index */
+	private int[] cellStart;
+
+	private double[] siteX, siteY, siteZ;
 
 	public InverseDistanceWeightingInterpolator() {
 		this(2);
@@ -28,44 +37,90 @@ public class InverseDistanceWeightingInterpolator implements TerrainInterpolator
 
 	@Override
 	public void setKnownSites(Collection<VectorXYZ> sites) {
+		setKnownSites(SiteArray.of(sites));
+	}
+
+	@Override
+	public void setKnownSites(SiteArray sites) {
+
+		gridBounds = sites.boundingBox().pad(CUTOFF/2);
+
+		cellCountX = ((int) (gridBounds.sizeX() / CUTOFF)) + 1;
+		cellCountZ = ((int) (gridBounds.sizeZ() / CUTOFF)) + 1;
+		cellSizeX = gridBounds.sizeX() / cellCountX;
+		cellSizeZ = gridBounds.sizeZ() / cellCountZ;
+
+		/* sort the sites by cell (counting sort) */
+
+		int[] siteCell = new int[sites.size()];
+		cellStart = new int[cellCountX * cellCountZ + 1];
+
+		for (int s = 0; s < sites.size(); s++) {
+			int cell = cellIndex(cellXForCoord(sites.getX(s)), cellZForCoord(sites.getZ(s)));
+			siteCell[s] = cell;
+			cellStart[cell + 1] ++;
+		}
+
+		for (int c = 0; c < cellCountX * cellCountZ; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
 
-		this.sites = sites;
+		int[] insertPos = cellStart.clone();
 
-		siteGrid = new IndexGrid<VectorXYZ>(
-				bbox(sites).pad(CUTOFF/2),
-				CUTOFF, CUTOFF);
+		siteX = new double[sites.size()];
+		siteY = new double[sites.size()];
+		siteZ = new double[sites.size()];
 
-		for (VectorXYZ site : sites) {
-			siteGrid.insert(site);
+		for (int s = 0; s < sites.size(); s++) {
+			int i = insertPos[siteCell[s]] ++;
+			siteX[i] = sites.getX(s);
+			siteY[i] = sites.getY(s);
+			siteZ[i] = sites.getZ(s);
 		}
 
 	}
 
 	@Override
 	public VectorXYZ interpolateEle(VectorXZ pos) {
+		return pos.xyz(interpolateEle(pos.x, pos.z));
+	}
+
+	@Override
+	public void interpolateEle(double[] xs, double[] zs, double[] out) {
+		for (int i = 0; i < xs.length; i++) {
+			out[i] = interpolateEle(xs[i], zs[i]);
+		}
+	}
+
+	/** reads only the site arrays, so concurrent calls are possible */
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
+	private double interpolateEle(double x, double z) {
 
 		double weightSum = 0;
 		double eleSum = 0;
 
-		Collection<VectorXYZ>[][] cellArray = siteGrid.getCellArray();
-		int cellX = siteGrid.cellXForCoord(pos.x);
-		int cellZ = siteGrid.cellZForCoord(pos.z);
-
-		for (int i = max(cellX-1, 0); i < min(cellX+2, cellArray.length); i++) {
-			for (int j = max(cellZ-1, 0); j < min(cellZ+2, cellArray[i].length); j++) {
+		int cellX = cellXForCoord(x);
+		int cellZ = cellZForCoord(z);
 
-				Collection<VectorXYZ> sitesInCell = cellArray[i][j];
+		for (int i = max(cellX-1, 0); i < min(cellX+2, cellCountX); i++) {
+			for (int j = max(cellZ-1, 0); j < min(cellZ+2, cellCountZ); j++) {
 
-				if (sitesInCell == null) continue;
+				int cell = cellIndex(i, j);
 
-				for (VectorXYZ site : sitesInCell) {
+				for (int s = cellStart[cell]; s < cellStart[cell + 1]; s++) {
 
-					double distance = site.distanceToXZ(pos);
+					double dx = siteX[s] - x;
+					double dz = siteZ[s] - z;
+					double distance = sqrt(dx * dx + dz * dz);
 
 					if (distance < CUTOFF) {
 						double weight = pow(distance, negExp);
 						weightSum += weight;
-						eleSum += site.y * weight;
+						eleSum += siteY[s] * weight;
 					}
 
 				}
@@ -73,10 +128,20 @@ public class InverseDistanceWeightingInterpolator implements TerrainInterpolator
 			}
 		}
 
-		//System.out.println(pos + ": " + eleSum + ", " + weightSum + ", " + eleSum / weightSum);
+		return eleSum / weightSum;
+
+	}
 
-		return pos.xyz(eleSum / weightSum);
+	private int cellXForCoord(double x) {
+		return (int) ((x - gridBounds.minX) / cellSizeX);
+	}
+
+	private int cellZForCoord(double z) {
+		return (int) ((z - gridBounds.minZ) / cellSizeZ);
+	}
 
+	private int cellIndex(int cellX, int cellZ) {
+		return cellX * cellCountZ + cellZ;
 	}
 
 }
@@ -41,18 +41,41 @@ public class LeastSquaresInterpolator implements TerrainInterpolator {
 	@Override
 	public void setKnownSites(Collection<VectorXYZ> siteVectors) {
 
+		List<SiteWithPolynomial> newSites = new ArrayList<SiteWithPolynomial>(siteVectors.size());
+
+		for (VectorXYZ siteVector : siteVectors) {
+			newSites.add(new SiteWithPolynomial(siteVector));
+		}
+
+		setKnownSites(newSites, bbox(siteVectors));
+
+	}
+
+	@Override
+	public void setKnownSites(SiteArray siteArray) {
+
+		List<SiteWithPolynomial> newSites = new ArrayList<SiteWithPolynomial>(siteArray.size());
+
+		for (int i = 0; i < siteArray.size(); i++) {
+			newSites.add(new SiteWithPolynomial(siteArray.get(i)));
+		}
+
+		setKnownSites(newSites, siteArray.boundingBox());
+
+	}
+
+	private void setKnownSites(List<SiteWithPolynomial> newSites, AxisAlignedRectangleXZ bounds) {
+
 		StopWatch stopWatch = new StopWatch();
 		stopWatch.start();
 
-		sites = new ArrayList<SiteWithPolynomial>(siteVectors.size());
+		sites = newSites;
 
 		siteGrid = new IndexGrid<SiteWithPolynomial>(
-				bbox(siteVectors).pad(CELL_SIZE/2),
+				bounds.pad(CELL_SIZE/2),
 				CELL_SIZE, CELL_SIZE);
 
-		for (VectorXYZ siteVector : siteVectors) {
-			SiteWithPolynomial s = new SiteWithPolynomial(siteVector);
-			sites.add(s);
+		for (SiteWithPolynomial s : sites) {
 			siteGrid.insert(s);
 		}
 
@@ -142,6 +165,12 @@ public class LeastSquaresInterpolator implements TerrainInterpolator {
 
 	}
 
+	/** the sites and polynomials are only read during interpolation, so concurrent calls are possible */
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	/**
 	 * provides access to the polynomials approximated internally.
 	 * This is usually only interesting for debugging or similar tasks.
@@ -43,4 +43,13 @@ public class LinearInterpolator implements TerrainInterpolator {
 
 	}
 
+	/**
+	 * the triangulation is only walked, not modified, during interpolation.
+	 * (The triangles' lazily created TriangleXYZ instances are immutable, so racing to create them is harmless.)
+	 */
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 }
@@ -10,7 +10,8 @@ import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
 
 /**
- * uses natural neighbor interpolation of heights
+ * uses natural neighbor interpolation of heights.
+ * Not thread-safe, because each interpolation temporarily inserts the position into the triangulation.
  */
 public class NaturalNeighborInterpolator implements TerrainInterpolator {
 
@@ -37,6 +38,21 @@ public class NaturalNeighborInterpolator implements TerrainInterpolator {
 
 	}
 
+	/**
+	 * variant of {@link #setKnownSites(Collection)} which skips the intermediate collection.
+	 * The triangulation still needs a {@link VectorXYZ} for each site.
+	 */
+	@Override
+	public void setKnownSites(SiteArray sites) {
+
+		triangulation = new DelaunayTriangulation(sites.boundingBox().pad(100));
+
+		for (int i = 0; i < sites.size(); i++) {
+			triangulation.insert(sites.get(i));
+		}
+
+	}
+
 	@Override
 	public VectorXYZ interpolateEle(VectorXZ pos) {
 
@@ -0,0 +1,18 @@
+package org.osm2world.core.map_elevation.creation;
+
+import java.io.IOException;
+
+import org.osm2world.core.map_data.data.MapData;
+
+/**
+ * terrain elevation data which is available as a regular raster,
+ * and can therefore be interpolated directly without building a collection of sites
+ */
+public interface RasterTerrainElevationData extends TerrainElevationData {
+
+	/**
+	 * returns a grid covering (at least) the bounds of a {@link MapData} instance
+	 */
+	ElevationGrid getGrid(MapData mapData) throws IOException;
+
+}
@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 
+import org.osm2world.core.map_data.creation.LatLonBounds;
 import org.osm2world.core.map_data.creation.MapProjection;
 import org.osm2world.core.map_data.data.MapData;
 import org.osm2world.core.map_data.data.MapNode;
@@ -15,18 +16,24 @@ import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
 
 /**
- * SRTM data for a part of the planet
+ * SRTM data for a part of the planet.
+ * Tiles are obtained from the process-wide {@link SRTMTileCache},
+ * so they are shared between instances and only loaded once for a batch of conversions.
  */
-public class SRTMData implements TerrainElevationData {
+public class SRTMData implements RasterTerrainElevationData {
 
 	private final File tileDirectory;
 	private final MapProjection projection;
-	private final SRTMTile[][] tiles;
+	private final SRTMTileCache tileCache;
 
 	public SRTMData(File tileDirectory, MapProjection projection) {
+		this(tileDirectory, projection, SRTMTileCache.getSharedInstance());
+	}
+
+	SRTMData(File tileDirectory, MapProjection projection, SRTMTileCache tileCache) {
 		this.tileDirectory = tileDirectory;
 		this.projection = projection;
-		this.tiles = new SRTMTile[360][180];
+		this.tileCache = tileCache;
 	}
 
 	@Override
@@ -35,6 +42,38 @@ public class SRTMData implements TerrainElevationData {
 
 		Collection<VectorXYZ> result = new ArrayList<VectorXYZ>();
 
+		forEachSite(minLon, minLat, maxLon, maxLat,
+				(x, y, z) -> result.add(new VectorXYZ(x, y, z)));
+
+		return result;
+
+	}
+
+	/**
+	 * variant of getSites which calculates minimum and maximum lat/lon
+	 * from the bounds of a {@link MapData} instance
+	 *
+	 * TODO: make projection reversible, then replace both getSites methods
+	 *       with a single getSite(AxisAlignedBoundingBox dataBounds) method
+	 */
+	@Override
+	public Collection<VectorXYZ> getSites(MapData mapData) throws IOException {
+		LatLonBounds bounds = calculateBounds(mapData);
+		return getSites(bounds.minlon, bounds.minlat, bounds.maxlon, bounds.maxlat);
+	}
+
+	@Override
+	public void forEachSite(MapData mapData, SiteConsumer consumer) throws IOException {
+		LatLonBounds bounds = calculateBounds(mapData);
+		forEachSite(bounds.minlon, bounds.minlat, bounds.maxlon, bounds.maxlat, consumer);
+	}
+
+	/**
+	 * streaming variant of {@link #getSites(double, double, double, double)}
+	 */
+	public void forEachSite(double minLon, double minLat,
+			double maxLon, double maxLat, SiteConsumer consumer) throws IOException {
+
 		int minLonInt = (int)floor(minLon);
 		int minLatInt = (int)floor(minLat);
 		int maxLonInt = (int)ceil(maxLon);
@@ -43,27 +82,114 @@ public class SRTMData implements TerrainElevationData {
 		for (int lon = minLonInt; lon < maxLonInt; lon++) {
 			for (int lat = minLatInt; lat < maxLatInt; lat++) {
 
-				loadTileIfNecessary(lon, lat);
+				SRTMTile tile = acquireTile(lon, lat);
 
-				addTileSites(result, lon, lat,
-						minLon, minLat, maxLon, maxLat);
+				if (tile != null) {
+					try {
+						addTileSites(consumer, tile, lon, lat,
+								minLon, minLat, maxLon, maxLat);
+					} finally {
+						tileCache.release(tile);
+					}
+				}
 
 			}
 		}
 
-		return result;
-
 	}
 
 	/**
-	 * variant of getSites which calculates minimum and maximum lat/lon
-	 * from the bounds of a {@link MapData} instance
-	 *
-	 * TODO: make projection reversible, then replace both getSites methods
-	 *       with a single getSite(AxisAlignedBoundingBox dataBounds) method
+	 * returns a grid of SRTM pixels covering the bounds of a {@link MapData} instance.
+	 * The grid uses the resolution of the finest tile within the bounds.
+	 * Samples are placed at the same positions as the sites returned by {@link #getSites(MapData)}.
 	 */
 	@Override
-	public Collection<VectorXYZ> getSites(MapData mapData) throws IOException {
+	public ElevationGrid getGrid(MapData mapData) throws IOException {
+
+		LatLonBounds bounds = calculateBounds(mapData);
+
+		int minLonInt = (int)floor(bounds.minlon);
+		int minLatInt = (int)floor(bounds.minlat);
+		int maxLonInt = (int)ceil(bounds.maxlon);
+		int maxLatInt = (int)ceil(bounds.maxlat);
+
+		SRTMTile[][] tiles = new SRTMTile[maxLonInt - minLonInt][maxLatInt - minLatInt];
+
+		try {
+
+			int pixels = SRTMTile.PIXELS;
+
+			for (int lon = minLonInt; lon < maxLonInt; lon++) {
+				for (int lat = minLatInt; lat < maxLatInt; lat++) {
+					SRTMTile tile = acquireTile(lon, lat);
+					tiles[lon - minLonInt][lat - minLatInt] = tile;
+					if (tile != null) {
+						pixels = max(pixels, tile.pixels);
+					}
+				}
+			}
+
+			/* samples are at pixel centers, i.e. at (k + 0.5) / pixels degrees for integer k */
+
+			int minColumn = (int)ceil(bounds.minlon * pixels - 0.5);
+			int maxColumn = (int)floor(bounds.maxlon * pixels - 0.5);
+			int minRow = (int)ceil(bounds.minlat * pixels - 0.5);
+			int maxRow = (int)floor(bounds.maxlat * pixels - 0.5);
+
+			int columns = maxColumn - minColumn + 1;
+			int rows = maxRow - minRow + 1;
+
+			double[] values = new double[columns * rows];
+
+			for (int row = 0; row < rows; row++) {
+
+				double lat = (minRow + row + 0.5) / pixels;
+				int tileLat = min((int)floor(lat), maxLatInt - 1);
+
+				for (int column = 0; column < columns; column++) {
+
+					double lon = (minColumn + column + 0.5) / pixels;
+					int tileLon = min((int)floor(lon), maxLonInt - 1);
+
+					SRTMTile tile = tiles[tileLon - minLonInt][tileLat - minLatInt];
+
+					double value = Double.NaN;
+
+					if (tile != null) {
+						int x = min(tile.pixels - 1, (int)floor((lon - tileLon) * tile.pixels));
+						int y = min(tile.pixels - 1, (int)floor((lat - tileLat) * tile.pixels));
+						short data = tile.getData(x, y);
+						if (data != SRTMTile.BLANK_VALUE) {
+							value = data;
+						}
+					}
+
+					values[row * columns + column] = value;
+
+				}
+
+			}
+
+			return new ElevationGrid(projection,
+					(minColumn + 0.5) / pixels, (minRow + 0.5) / pixels, 1.0 / pixels,
+					columns, rows, values);
+
+		} finally {
+			for (SRTMTile[] tileColumn : tiles) {
+				for (SRTMTile tile : tileColumn) {
+					if (tile != null) {
+						tileCache.release(tile);
+					}
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * calculates minimum and maximum lat/lon from the nodes of a {@link MapData} instance
+	 */
+	private LatLonBounds calculateBounds(MapData mapData) {
 
 		double minLon = Double.POSITIVE_INFINITY;
 		double minLat = Double.POSITIVE_INFINITY;
@@ -96,78 +222,75 @@ public class SRTMData implements TerrainElevationData {
 		maxLon += 0.005; maxLat += 0.005;
 		*/
 
-		/* retrieve the sites for the query */
-
-		return getSites(minLon, minLat, maxLon, maxLat);
+		return new LatLonBounds(minLat, minLon, maxLat, maxLon);
 
 	}
 
-	private void loadTileIfNecessary(int lon, int lat) throws IOException {
-
-		if (getTile(lon, lat) == null) {
-
-			String fileName = tileDirectory.getPath() + File.separator;
+	/**
+	 * returns the tile for the given coordinates from the cache, or null if no such tile exists.
+	 * A non-null result needs to be released after use.
+	 */
+	private SRTMTile acquireTile(int lon, int lat) throws IOException {
 
-			if (lat >= 0) {
-				fileName += String.format("N%02d", lat);
-			} else {
-				fileName += String.format("S%02d", -lat);
-			}
+		String fileName = tileDirectory.getPath() + File.separator;
 
-			if (lon >= 0) {
-				fileName += String.format("E%03d", lon);
-			} else {
-				fileName += String.format("W%03d", -lon);
-			}
+		if (lat >= 0) {
+			fileName += String.format("N%02d", lat);
+		} else {
+			fileName += String.format("S%02d", -lat);
+		}
 
-			fileName += ".hgt";
+		if (lon >= 0) {
+			fileName += String.format("E%03d", lon);
+		} else {
+			fileName += String.format("W%03d", -lon);
+		}
 
-			File file = new File(fileName);
+		fileName += ".hgt";
 
-			if (file.exists()) {
-				setTile(lon, lat, new SRTMTile(file));
-			} else {
-				System.err.println("warning: missing SRTM tile " + file.getName());
-			}
+		File file = new File(fileName);
 
+		if (file.exists()) {
+			return tileCache.acquire(file);
+		} else {
+			System.err.println("warning: missing SRTM tile " + file.getName());
+			return null;
 		}
 
 	}
 
-	private void addTileSites(Collection<VectorXYZ> result,
+	private void addTileSites(SiteConsumer consumer, SRTMTile tile,
 			int tileLon, int tileLat,
 			double minLon, double minLat, double maxLon, double maxLat) {
 
-		SRTMTile tile = getTile(tileLon, tileLat);
-
-		if (tile == null) return;
+		int pixels = tile.pixels;
 
 		/* add a site for each SRTM pixel (except last line and column,
 		 * which is duplicated in adjacent tiles) */
 
 		int minX = max(0,
-				(int)ceil(SRTMTile.PIXELS * (minLon - tileLon)));
-		int maxX = min(SRTMTile.PIXELS - 1,
-				(int)floor(SRTMTile.PIXELS * (maxLon - tileLon)));
+				(int)ceil(pixels * (minLon - tileLon)));
+		int maxX = min(pixels - 1,
+				(int)floor(pixels * (maxLon - tileLon)));
 
 		int minY = max(0,
-				(int)ceil(SRTMTile.PIXELS * (minLat - tileLat)));
-		int maxY = min(SRTMTile.PIXELS - 1,
-				(int)floor(SRTMTile.PIXELS * (maxLat - tileLat)));
+				(int)ceil(pixels * (minLat - tileLat)));
+		int maxY = min(pixels - 1,
+				(int)floor(pixels * (maxLat - tileLat)));
 
 		for (int x = minX; x < maxX; x++) {
 			for (int y = minY; y < maxY; y++) {
 
 				short value = tile.getData(x, y);
 
-				double lat = tileLat + 1.0 / SRTMTile.PIXELS * (y + 0.5);
-				double lon = tileLon + 1.0 / SRTMTile.PIXELS * (x + 0.5);
+				double lat = tileLat + 1.0 / pixels * (y + 0.5);
+				double lon = tileLon + 1.0 / pixels * (x + 0.5);
 
 				VectorXZ pos = projection.calcPos(lat, lon);
 
 				if (value != SRTMTile.BLANK_VALUE &&
 						!Double.isNaN(pos.x) && !Double.isNaN(pos.z)) {
-					result.add(pos.xyz(value));
+					consumer.accept(pos.x, value, pos.z);
 				}
 
 			}
@@ -175,12 +298,4 @@ public class SRTMData implements TerrainElevationData {
 
 	}
 
-	private SRTMTile getTile(int tileLon, int tileLat) {
-		return tiles[tileLon+180][tileLat+90];
-	}
-
-	private void setTile(int tileLon, int tileLat, SRTMTile tile) {
-		tiles[tileLon+180][tileLat+90] = tile;
-	}
-
 }
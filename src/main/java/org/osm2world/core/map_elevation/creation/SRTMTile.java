@@ -1,50 +1,58 @@
 package org.osm2world.core.map_elevation.creation;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.Buffer;
-import java.nio.ByteBuffer;
+import java.io.RandomAccessFile;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.ShortBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 
 /**
  * a single SRTM data tile.
  *
  * Multiple such tiles are used by {@link SRTMData} to build coverage
- * for larger regions.
+ * for larger regions. The file is memory-mapped read-only rather than copied
+ * into the heap, and the resolution (3 or 1 arcsecond) is derived from the file size.
+ * Tiles are immutable after construction and can be read from multiple threads.
  */
 class SRTMTile {
 
 	/** value indicating a lack of data */
 	public static final short BLANK_VALUE = -32768;
 
-	/** length of each dimension of an SRTM tile in pixels */
+	/** length of each dimension of a 3-arcsecond SRTM tile in pixels */
 	static final int PIXELS = 1201;
 
+	/** length of each dimension of a 1-arcsecond SRTM tile in pixels */
+	static final int PIXELS_1_ARCSECOND = 3601;
+
 	public final File file;
+
+	/** length of each dimension of this tile in pixels */
+	final int pixels;
+
 	private final ShortBuffer data;
 
 	public SRTMTile(File file) throws IOException {
 
 		this.file = file;
 
-		data = loadDataFromFile(file);
+		data = mapFile(file);
+		pixels = pixelsForLength(data.capacity(), file);
 
 	}
 
-	private static ShortBuffer loadDataFromFile(File file) throws IOException {
+	private static ShortBuffer mapFile(File file) throws IOException {
 
 		try (
-			FileInputStream fis = new FileInputStream(file);
-			FileChannel fc = fis.getChannel();
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			FileChannel fc = raf.getChannel();
 		) {
 
-			ByteBuffer bb = ByteBuffer.allocateDirect((int) fc.size());
-			while (bb.remaining() > 0) fc.read(bb);
-
-			((Buffer)bb).flip();
+			// the mapping remains valid after the channel has been closed
+			MappedByteBuffer bb = fc.map(MapMode.READ_ONLY, 0, fc.size());
 
 			// choose the right endianness
 			return bb.order(ByteOrder.BIG_ENDIAN).asShortBuffer();
@@ -53,9 +61,20 @@ class SRTMTile {
 
 	}
 
+	private static int pixelsForLength(int numValues, File file) throws IOException {
+		if (numValues == PIXELS * PIXELS) {
+			return PIXELS;
+		} else if (numValues == PIXELS_1_ARCSECOND * PIXELS_1_ARCSECOND) {
+			return PIXELS_1_ARCSECOND;
+		} else {
+			throw new IOException("unexpected size of SRTM tile " + file.getName()
+					+ ": " + numValues + " values");
+		}
+	}
+
 	public final short getData(int x, int y) {
-		assert 0 <= x && x < PIXELS && 0 <= y && y < PIXELS;
-		return data.get((1200 - y) * 1201 + x);
+		assert 0 <= x && x < pixels && 0 <= y && y < pixels;
+		return data.get((pixels - 1 - y) * pixels + x);
 	}
 
 	@Override
@@ -0,0 +1,108 @@
+package org.osm2world.core.map_elevation.creation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * a bounded, thread-safe cache of {@link SRTMTile}s which is shared by all {@link SRTMData} instances.
+ *
+ * Tiles are reference counted: a tile returned by {@link #acquire(File)} stays in the cache
+ * until the matching {@link #release(SRTMTile)} call. Once the cache holds more tiles than its capacity,
+ * the least recently used tiles which are not in use are evicted.
+ */
+class SRTMTileCache {
+
+	/** default maximum number of unused tiles kept by the shared cache */
+	static final int DEFAULT_CAPACITY = 64;
+
+	private static final SRTMTileCache SHARED_INSTANCE = new SRTMTileCache(DEFAULT_CAPACITY);
+
+	private final int capacity;
+
+	/** entries in least-recently-used order, keyed by absolute file */
+	private final Map<File, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private static class Entry {
+
+		final SRTMTile tile;
+		int refCount = 0;
+
+		Entry(SRTMTile tile) {
+			this.tile = tile;
+		}
+
+	}
+
+	SRTMTileCache(int capacity) {
+		if (capacity < 0) throw new IllegalArgumentException("negative capacity: " + capacity);
+		this.capacity = capacity;
+	}
+
+	/** returns the cache shared by the whole process */
+	static SRTMTileCache getSharedInstance() {
+		return SHARED_INSTANCE;
+	}
+
+	/**
+	 * returns the tile for an .hgt file, loading it if necessary.
+	 * Each call needs to be matched by a call to {@link #release(SRTMTile)}.
+	 */
+	synchronized SRTMTile acquire(File file) throws IOException {
+
+		File key = file.getAbsoluteFile();
+
+		Entry entry = entries.get(key);
+
+		if (entry == null) {
+			entry = new Entry(new SRTMTile(key));
+			entries.put(key, entry);
+		}
+
+		entry.refCount += 1;
+
+		evictUnusedTiles();
+
+		return entry.tile;
+
+	}
+
+	/** signals that a tile previously returned by {@link #acquire(File)} is no longer used by the caller */
+	synchronized void release(SRTMTile tile) {
+
+		Entry entry = entries.get(tile.file);
+
+		if (entry == null || entry.tile != tile || entry.refCount <= 0) {
+			throw new IllegalStateException("tile has not been acquired: " + tile);
+		}
+
+		entry.refCount -= 1;
+
+		evictUnusedTiles();
+
+	}
+
+	/** returns the number of tiles currently held by the cache, including tiles which are in use */
+	synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * removes least recently used tiles until the capacity is respected.
+	 * Tiles which are in use are never evicted. The mapped memory is freed once the tile is garbage collected.
+	 */
+	private void evictUnusedTiles() {
+
+		Iterator<Entry> it = entries.values().iterator();
+
+		while (entries.size() > capacity && it.hasNext()) {
+			if (it.next().refCount == 0) {
+				it.remove();
+			}
+		}
+
+	}
+
+}
@@ -25,6 +25,8 @@ public final class SimpleEleConstraintEnforcer implements EleConstraintEnforcer
 
 	private Collection<EleConnector> connectors = new ArrayList<EleConnector>();
 
+	private final EleConnectorPositionIndex connectorIndex = new EleConnectorPositionIndex();
+
 	/**
 	 * associates each EleConnector with the {@link StiffConnectorSet}
 	 * it is part of (if any)
@@ -41,15 +43,7 @@ public final class SimpleEleConstraintEnforcer implements EleConstraintEnforcer
 
 		/* connect connectors */
 
-		for (EleConnector c1 : newConnectors) {
-			for (EleConnector c2 : connectors) {
-
-				if (c1 != c2 && c1.connectsTo(c2)) {
-					requireSameEle(c1, c2);
-				}
-
-			}
-		}
+		connectorIndex.addAndConnect(newConnectors, this::requireSameEle);
 
 	}
 
@@ -0,0 +1,105 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static java.util.Arrays.copyOf;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.osm2world.core.map_elevation.creation.TerrainElevationData.SiteConsumer;
+import org.osm2world.core.math.AxisAlignedRectangleXZ;
+import org.osm2world.core.math.VectorXYZ;
+
+/**
+ * a growable collection of sites with known elevation.
+ * Coordinates are stored in primitive arrays instead of one {@link VectorXYZ} per site,
+ * which keeps large raster inputs cheap to collect and to pass to a {@link TerrainInterpolator}.
+ */
+public final class SiteArray implements SiteConsumer {
+
+	private double[] xs;
+	private double[] ys;
+	private double[] zs;
+	private int size = 0;
+
+	private double minX = Double.POSITIVE_INFINITY;
+	private double minZ = Double.POSITIVE_INFINITY;
+	private double maxX = Double.NEGATIVE_INFINITY;
+	private double maxZ = Double.NEGATIVE_INFINITY;
+
+	public SiteArray() {
+		this(1024);
+	}
+
+	public SiteArray(int initialCapacity) {
+		xs = new double[initialCapacity];
+		ys = new double[initialCapacity];
+		zs = new double[initialCapacity];
+	}
+
+	public static SiteArray of(Collection<VectorXYZ> sites) {
+		SiteArray result = new SiteArray(sites.size());
+		for (VectorXYZ site : sites) {
+			result.accept(site.x, site.y, site.z);
+		}
+		return result;
+	}
+
+	@Override
+	public void accept(double x, double y, double z) {
+
+		if (size == xs.length) {
+			int newCapacity = Math.max(16, xs.length * 2);
+			xs = copyOf(xs, newCapacity);
+			ys = copyOf(ys, newCapacity);
+			zs = copyOf(zs, newCapacity);
+		}
+
+		xs[size] = x;
+		ys[size] = y;
+		zs[size] = z;
+		size += 1;
+
+		minX = Math.min(minX, x);
+		minZ = Math.min(minZ, z);
+		maxX = Math.max(maxX, x);
+		maxZ = Math.max(maxZ, z);
+
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double getX(int i) {
+		return xs[i];
+	}
+
+	public double getY(int i) {
+		return ys[i];
+	}
+
+	public double getZ(int i) {
+		return zs[i];
+	}
+
+	public VectorXYZ get(int i) {
+		return new VectorXYZ(xs[i], ys[i], zs[i]);
+	}
+
+	/** returns the bounding box of all sites, or null if there are no sites */
+	public AxisAlignedRectangleXZ boundingBox() {
+		if (size == 0) return null;
+		return new AxisAlignedRectangleXZ(minX, minZ, maxX, maxZ);
+	}
+
+	/** creates a {@link VectorXYZ} for each site, for consumers which need objects */
+	public List<VectorXYZ> toVectors() {
+		List<VectorXYZ> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			result.add(get(i));
+		}
+		return result;
+	}
+
+}
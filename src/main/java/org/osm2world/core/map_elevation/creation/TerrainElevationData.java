@@ -17,4 +17,21 @@ public interface TerrainElevationData {
 
 	Collection<VectorXYZ> getSites(MapData mapData) throws IOException;
 
+	/**
+	 * streaming variant of {@link #getSites(MapData)}.
+	 * Passes each site's coordinates to the consumer without creating an object for it.
+	 * Implementations for large data sets should override the default, which materializes the sites.
+	 */
+	default void forEachSite(MapData mapData, SiteConsumer consumer) throws IOException {
+		for (VectorXYZ site : getSites(mapData)) {
+			consumer.accept(site.x, site.y, site.z);
+		}
+	}
+
+	/** receives the coordinates of a site with known elevation */
+	@FunctionalInterface
+	public static interface SiteConsumer {
+		void accept(double x, double y, double z);
+	}
+
 }
@@ -0,0 +1,138 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static java.util.Arrays.copyOfRange;
+import static java.util.stream.Collectors.toList;
+import static org.osm2world.core.util.FaultTolerantIterationUtil.DEFAULT_EXCEPTION_HANDLER;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.osm2world.core.math.VectorXZ;
+
+/**
+ * utility class for interpolating the elevations of many positions with a {@link TerrainInterpolator}
+ */
+public final class TerrainInterpolationUtil {
+
+	/** number of positions passed to a single batch call of the interpolator */
+	static final int CHUNK_SIZE = 1024;
+
+	private TerrainInterpolationUtil() { }
+
+	/**
+	 * interpolates the elevation for each position (xs[i], zs[i]) and writes it to out[i].
+	 *
+	 * The positions are split into chunks which are passed to the interpolator's batch method.
+	 * If the interpolator is {@link TerrainInterpolator#isThreadSafe()} and more than one thread is requested,
+	 * the chunks are processed on a {@link ForkJoinPool}. The results do not depend on the number of threads.
+	 *
+	 * Exceptions are handled in the style of FaultTolerantIterationUtil:
+	 * If a chunk fails, its positions are interpolated one by one,
+	 * and exceptions for individual positions are reported and do not stop the calculation.
+	 *
+	 * @return  indices of the positions for which interpolation failed, their output is {@link Double#NaN}
+	 */
+	public static BitSet interpolateEle(TerrainInterpolator interpolator,
+			double[] xs, double[] zs, double[] out, int threads) {
+
+		if (xs.length != zs.length || xs.length != out.length) {
+			throw new IllegalArgumentException("arrays must have the same length");
+		}
+
+		int numChunks = (xs.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+		List<int[]> failuresPerChunk;
+
+		if (threads > 1 && numChunks > 1 && interpolator.isThreadSafe()) {
+
+			ForkJoinPool pool = new ForkJoinPool(threads);
+
+			try {
+				failuresPerChunk = pool.submit(() -> IntStream.range(0, numChunks).parallel()
+						.mapToObj(c -> interpolateChunk(interpolator, xs, zs, out, c))
+						.collect(toList())).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				} else {
+					throw new RuntimeException(e.getCause());
+				}
+			} finally {
+				pool.shutdown();
+			}
+
+		} else {
+
+			failuresPerChunk = new ArrayList<>(numChunks);
+
+			for (int c = 0; c < numChunks; c++) {
+				failuresPerChunk.add(interpolateChunk(interpolator, xs, zs, out, c));
+			}
+
+		}
+
+		BitSet failures = new BitSet(xs.length);
+
+		for (int[] chunkFailures : failuresPerChunk) {
+			for (int i : chunkFailures) {
+				failures.set(i);
+			}
+		}
+
+		return failures;
+
+	}
+
+	/**
+	 * interpolates one chunk of positions
+	 *
+	 * @return  indices of the positions for which interpolation failed
+	 */
+	private static int[] interpolateChunk(TerrainInterpolator interpolator,
+			double[] xs, double[] zs, double[] out, int chunk) {
+
+		int start = chunk * CHUNK_SIZE;
+		int end = Math.min(start + CHUNK_SIZE, xs.length);
+
+		double[] chunkXs = copyOfRange(xs, start, end);
+		double[] chunkZs = copyOfRange(zs, start, end);
+		double[] chunkOut = new double[end - start];
+
+		try {
+
+			interpolator.interpolateEle(chunkXs, chunkZs, chunkOut);
+			System.arraycopy(chunkOut, 0, out, start, end - start);
+
+			return new int[0];
+
+		} catch (Exception chunkException) {
+
+			/* retry each position individually to find the ones which fail */
+
+			List<Integer> failures = new ArrayList<>();
+
+			for (int i = start; i < end; i++) {
+				VectorXZ pos = new VectorXZ(xs[i], zs[i]);
+				try {
+					out[i] = interpolator.interpolateEle(pos).y;
+				} catch (Exception e) {
+					DEFAULT_EXCEPTION_HANDLER.accept(e, pos);
+					out[i] = Double.NaN;
+					failures.add(i);
+				}
+			}
+
+			return failures.stream().mapToInt(i -> i).toArray();
+
+		}
+
+	}
+
+}
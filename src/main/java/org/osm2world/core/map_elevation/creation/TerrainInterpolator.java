@@ -12,6 +12,32 @@ public interface TerrainInterpolator {
 
 	void setKnownSites(Collection<VectorXYZ> sites);
 
+	/**
+	 * variant of {@link #setKnownSites(Collection)} for sites stored in primitive arrays.
+	 * Implementations should override the default, which creates a {@link VectorXYZ} for each site.
+	 */
+	default void setKnownSites(SiteArray sites) {
+		setKnownSites(sites.toVectors());
+	}
+
 	VectorXYZ interpolateEle(VectorXZ pos);
 
+	/**
+	 * batch variant of {@link #interpolateEle(VectorXZ)}.
+	 * Writes the elevation for the position (xs[i], zs[i]) to out[i].
+	 */
+	default void interpolateEle(double[] xs, double[] zs, double[] out) {
+		for (int i = 0; i < xs.length; i++) {
+			out[i] = interpolateEle(new VectorXZ(xs[i], zs[i])).y;
+		}
+	}
+
+	/**
+	 * returns true if the interpolateEle methods can be called concurrently from multiple threads
+	 * once the known sites have been set. Setting the known sites must not overlap with interpolation.
+	 */
+	default boolean isThreadSafe() {
+		return false;
+	}
+
 }
@@ -1,5 +1,6 @@
 package org.osm2world.core.map_elevation.creation;
 
+import java.util.Arrays;
 import java.util.Collection;
 
 import org.osm2world.core.math.VectorXYZ;
@@ -20,4 +21,14 @@ public class ZeroInterpolator implements TerrainInterpolator {
 		return pos.xyz(0);
 	}
 
+	@Override
+	public void interpolateEle(double[] xs, double[] zs, double[] out) {
+		Arrays.fill(out, 0, xs.length, 0);
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 }
@@ -8,6 +8,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.osm2world.core.math.PolygonWithHolesXZ;
 import org.osm2world.core.math.PolygonXYZ;
 import org.osm2world.core.math.SimplePolygonXZ;
@@ -25,9 +27,22 @@ import org.osm2world.core.math.VectorXZ;
  */
 public class EleConnectorGroup implements Iterable<EleConnector> {
 
+	/**
+	 * groups with more connectors than this use a {@link PositionIndex} for {@link #getConnector(VectorXZ)}.
+	 * Smaller groups are searched linearly.
+	 */
+	static final int INDEX_THRESHOLD = 16;
+
 	//TODO make private
 	public final List<EleConnector> eleConnectors;
 
+	/**
+	 * index for the connectors in {@link #eleConnectors}, created lazily.
+	 * Replaced by a new instance whenever it has become outdated,
+	 * so that groups which are already in use can be read by multiple threads.
+	 */
+	private volatile @Nullable PositionIndex positionIndex = null;
+
 	public EleConnectorGroup() {
 		this(new ArrayList<EleConnector>());
 	}
@@ -89,6 +104,12 @@ public class EleConnectorGroup implements Iterable<EleConnector> {
 	public EleConnector getConnector(VectorXZ pos) {
 		//TODO review this method (parameters sufficient? necessary at all?)
 
+		PositionIndex index = getPositionIndex();
+
+		if (index != null) {
+			return index.get(pos, eleConnectors);
+		}
+
 		for (EleConnector eleConnector : eleConnectors) {
 			if (eleConnector.pos.equals(pos)) {
 				return eleConnector;
@@ -100,6 +121,29 @@ public class EleConnectorGroup implements Iterable<EleConnector> {
 
 	}
 
+	/**
+	 * returns an index covering all current connectors, or null if the group is small enough for a linear search
+	 */
+	private @Nullable PositionIndex getPositionIndex() {
+
+		if (eleConnectors.size() <= INDEX_THRESHOLD) return null;
+
+		PositionIndex index = positionIndex;
+
+		if (index == null || index.size != eleConnectors.size()) {
+			synchronized (this) {
+				index = positionIndex;
+				if (index == null || index.size != eleConnectors.size()) {
+					index = new PositionIndex(eleConnectors);
+					positionIndex = index;
+				}
+			}
+		}
+
+		return index;
+
+	}
+
 	public List<EleConnector> getConnectors(Iterable<VectorXZ> positions) {
 
 		List<EleConnector> connectors = new ArrayList<EleConnector>();
@@ -117,8 +161,10 @@ public class EleConnectorGroup implements Iterable<EleConnector> {
 	}
 
 	public VectorXYZ getPosXYZ(VectorXZ pos) {
+		return posXYZ(getConnector(pos), pos);
+	}
 
-		EleConnector c = getConnector(pos);
+	private static VectorXYZ posXYZ(@Nullable EleConnector c, VectorXZ pos) {
 
 		if (c != null) {
 
@@ -149,15 +195,29 @@ public class EleConnectorGroup implements Iterable<EleConnector> {
 		return new PolygonXYZ(getPosXYZ(polygon.getVertexLoop()));
 	}
 
+	/**
+	 * returns 3d versions of triangles, with the elevations of the connectors at their vertices.
+	 * Uses a single {@link PositionIndex} for all vertices if the group is large.
+	 */
 	public List<TriangleXYZ> getTriangulationXYZ(List<? extends TriangleXZ> trianglesXZ) {
 
 		List<TriangleXYZ> trianglesXYZ = new ArrayList<>(trianglesXZ.size());
 
+		PositionIndex index = getPositionIndex();
+
 		for (TriangleXZ triangleXZ : trianglesXZ) {
 
-			VectorXYZ v1 = getPosXYZ(triangleXZ.v1);
-			VectorXYZ v2 = getPosXYZ(triangleXZ.v2);
-			VectorXYZ v3 = getPosXYZ(triangleXZ.v3);
+			VectorXYZ v1, v2, v3;
+
+			if (index != null) {
+				v1 = posXYZ(index.get(triangleXZ.v1, eleConnectors), triangleXZ.v1);
+				v2 = posXYZ(index.get(triangleXZ.v2, eleConnectors), triangleXZ.v2);
+				v3 = posXYZ(index.get(triangleXZ.v3, eleConnectors), triangleXZ.v3);
+			} else {
+				v1 = getPosXYZ(triangleXZ.v1);
+				v2 = getPosXYZ(triangleXZ.v2);
+				v3 = getPosXYZ(triangleXZ.v3);
+			}
 
 			if (triangleXZ.isClockwise()) { //TODO: ccw test should not be in here, but maybe in triangulation util
 				trianglesXYZ.add(new TriangleXYZ(v3, v2, v1));
@@ -176,6 +236,70 @@ public class EleConnectorGroup implements Iterable<EleConnector> {
 		return eleConnectors.iterator();
 	}
 
+	/**
+	 * open addressing hash table from exact xz positions to the first connector at that position.
+	 * Immutable after construction.
+	 */
+	private static final class PositionIndex {
+
+		/** number of connectors covered by this index */
+		final int size;
+
+		/** connector index + 1 for each slot, 0 for empty slots. Length is a power of two. */
+		private final int[] slots;
+
+		PositionIndex(List<EleConnector> connectors) {
+
+			size = connectors.size();
+
+			int capacity = Integer.highestOneBit(size * 2 - 1) << 1;
+			slots = new int[capacity];
+
+			for (int i = 0; i < size; i++) {
+
+				VectorXZ pos = connectors.get(i).pos;
+
+				for (int slot = hash(pos.x, pos.z) & (capacity - 1); ; slot = (slot + 1) & (capacity - 1)) {
+					if (slots[slot] == 0) {
+						slots[slot] = i + 1;
+						break;
+					} else if (connectors.get(slots[slot] - 1).pos.equals(pos)) {
+						break; // keep the first connector at this position, like a linear search would
+					}
+				}
+
+			}
+
+		}
+
+		/** returns the first connector at a position, or null if there is none */
+		@Nullable EleConnector get(VectorXZ pos, List<EleConnector> connectors) {
+
+			for (int slot = hash(pos.x, pos.z) & (slots.length - 1); ; slot = (slot + 1) & (slots.length - 1)) {
+				if (slots[slot] == 0) {
+					return null;
+				}
+				EleConnector c = connectors.get(slots[slot] - 1);
+				if (c.pos.equals(pos)) {
+					return c;
+				}
+			}
+
+		}
+
+		/**
+		 * hash function for positions.
+		 * Adding 0.0 maps -0.0 to 0.0, because {@link VectorXZ#equals(Object)} treats them as equal.
+		 */
+		private static int hash(double x, double z) {
+			long h = Double.doubleToLongBits(x + 0.0) * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(z + 0.0);
+			h ^= (h >>> 32);
+			h *= 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 29));
+		}
+
+	}
+
 	public static final EleConnectorGroup EMPTY = new EleConnectorGroup(
 			Collections.<EleConnector>emptyList());
 
@@ -49,6 +49,12 @@ public class PolygonWithHolesXZ implements PolygonShapeXZ {
 		return result;
 	}
 
+	/** checks if the outer ring intersects the line segment, see {@link PolygonShapeXZ#intersects(VectorXZ, VectorXZ)} */
+	@Override
+	public boolean intersects(VectorXZ segmentP1, VectorXZ segmentP2) {
+		return outerPolygon.intersects(segmentP1, segmentP2);
+	}
+
 	public TriangleXZ asTriangleXZ() {
 		if (!holes.isEmpty()) {
 			throw new InvalidGeometryException("polygon has holes, it cannot be used as a triangle");
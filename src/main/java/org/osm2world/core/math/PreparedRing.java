@@ -0,0 +1,322 @@
+package org.osm2world.core.math;
+
+import static java.lang.Math.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.osm2world.core.math.shapes.SimplePolygonShapeXZ;
+
+/**
+ * a "prepared" polygon ring which speeds up point-in-polygon and segment intersection tests for rings
+ * with many vertices.
+ *
+ * The ring's coordinates are stored in primitive arrays, and its segments are indexed in a uniform grid
+ * with roughly one cell per segment. Each cell contains the indices of the segments passing through it
+ * (with a margin of one cell to each side, to be robust against rounding errors).
+ * A test only needs to look at the segments in the cells touched by the query.
+ * The results are the same as those of the brute-force implementations in {@link SimplePolygonShapeXZ}.
+ *
+ * Instances are immutable and can be used by multiple threads.
+ */
+final class PreparedRing {
+
+	/** rings with more vertices than this are worth preparing */
+	static final int VERTEX_THRESHOLD = 64;
+
+	/** padding for bounding box tests, makes them robust against rounding errors in intersection calculations */
+	private static final double PADDING = 1e-6;
+
+	/** the ring's vertices; first and last vertex are equal */
+	private final List<VectorXZ> vertexLoop;
+
+	/** coordinates of the vertices in {@link #vertexLoop}. Segment i connects vertex i and vertex i+1. */
+	private final double[] xs, zs;
+
+	private final AxisAlignedRectangleXZ bbox;
+
+	private final int cellCountX, cellCountZ;
+	private final double cellSizeX, cellSizeZ;
+
+	/** ascending segment indices for each cell, indexed by cellX * cellCountZ + cellZ. Null for empty cells. */
+	private final int[][] cells;
+
+	PreparedRing(List<VectorXZ> vertexLoop) {
+
+		this.vertexLoop = vertexLoop;
+
+		int n = vertexLoop.size();
+
+		xs = new double[n];
+		zs = new double[n];
+
+		double minX = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+
+		for (int i = 0; i < n; i++) {
+			VectorXZ v = vertexLoop.get(i);
+			xs[i] = v.x;
+			zs[i] = v.z;
+			minX = min(minX, v.x); minZ = min(minZ, v.z);
+			maxX = max(maxX, v.x); maxZ = max(maxZ, v.z);
+		}
+
+		bbox = new AxisAlignedRectangleXZ(minX, minZ, maxX, maxZ);
+
+		/* choose the grid dimensions based on the number of segments and the ring's aspect ratio */
+
+		int segmentCount = n - 1;
+
+		double sizeX = max(bbox.sizeX(), PADDING);
+		double sizeZ = max(bbox.sizeZ(), PADDING);
+
+		cellCountX = max(1, min(segmentCount, (int) round(sqrt(segmentCount * sizeX / sizeZ))));
+		cellCountZ = max(1, min(segmentCount, (int) round(segmentCount / (double) cellCountX)));
+
+		cellSizeX = sizeX / cellCountX;
+		cellSizeZ = sizeZ / cellCountZ;
+
+		/* fill the cells (first count the segments per cell, then insert them) */
+
+		int[] cellSizes = new int[cellCountX * cellCountZ];
+
+		for (int i = 0; i < segmentCount; i++) {
+			for (int cellZ = minCellZ(i); cellZ <= maxCellZ(i); cellZ++) {
+				for (int cellX = minCellX(i, cellZ); cellX <= maxCellX(i, cellZ); cellX++) {
+					cellSizes[cellX * cellCountZ + cellZ] ++;
+				}
+			}
+		}
+
+		cells = new int[cellSizes.length][];
+
+		for (int c = 0; c < cells.length; c++) {
+			if (cellSizes[c] > 0) {
+				cells[c] = new int[cellSizes[c]];
+				cellSizes[c] = 0;
+			}
+		}
+
+		for (int i = 0; i < segmentCount; i++) {
+			for (int cellZ = minCellZ(i); cellZ <= maxCellZ(i); cellZ++) {
+				for (int cellX = minCellX(i, cellZ); cellX <= maxCellX(i, cellZ); cellX++) {
+					int c = cellX * cellCountZ + cellZ;
+					cells[c][cellSizes[c] ++] = i;
+				}
+			}
+		}
+
+	}
+
+	AxisAlignedRectangleXZ boundingBox() {
+		return bbox;
+	}
+
+	/** @see SimplePolygonShapeXZ#contains(VectorXZ) */
+	boolean contains(VectorXZ v) {
+
+		/* a point outside the bounding box cannot be inside, and the brute force ray casting agrees with that */
+
+		if (!bbox.contains(v)) return false;
+
+		/* count the crossings of a ray with the ring's outline, using only the cells in the ray's row.
+		 * A segment can be in several cells of the row, so it's only counted in the cell containing the crossing.
+		 * Crossings to the right of v cannot be assigned to a cell more than one column to the left of v. */
+
+		int cellZ = cellZForCoord(v.z);
+
+		boolean c = false;
+
+		for (int cellX = max(0, cellXForCoord(v.x) - 1); cellX < cellCountX; cellX++) {
+
+			int[] cell = cells[cellX * cellCountZ + cellZ];
+			if (cell == null) continue;
+
+			for (int j : cell) {
+
+				int i = j + 1;
+
+				if ((zs[i] > v.z) != (zs[j] > v.z)) {
+
+					double crossingX = (xs[j] - xs[i]) * (v.z - zs[i]) / (zs[j] - zs[i]) + xs[i];
+
+					int crossingCellX = min(max(cellXForCoord(crossingX), minCellX(j, cellZ)), maxCellX(j, cellZ));
+
+					if (crossingCellX == cellX && v.x < crossingX) {
+						c = !c;
+					}
+
+				}
+
+			}
+
+		}
+
+		return c;
+
+	}
+
+	/** @see SimplePolygonShapeXZ#intersects(VectorXZ, VectorXZ) */
+	boolean intersects(VectorXZ segmentP1, VectorXZ segmentP2) {
+
+		AxisAlignedRectangleXZ segmentBox = segmentBox(segmentP1, segmentP2);
+
+		if (!overlaps(bbox, segmentBox)) return false;
+
+		for (int cellX = cellXForCoord(segmentBox.minX); cellX <= cellXForCoord(segmentBox.maxX); cellX++) {
+			for (int cellZ = cellZForCoord(segmentBox.minZ); cellZ <= cellZForCoord(segmentBox.maxZ); cellZ++) {
+
+				int[] cell = cells[cellX * cellCountZ + cellZ];
+				if (cell == null) continue;
+
+				for (int i : cell) {
+					if (segmentOverlaps(i, segmentBox)
+							&& GeometryUtil.getTrueLineSegmentIntersection(segmentP1, segmentP2,
+									vertexLoop.get(i), vertexLoop.get(i + 1)) != null) {
+						return true;
+					}
+				}
+
+			}
+		}
+
+		return false;
+
+	}
+
+	/**
+	 * @see SimplePolygonShapeXZ#intersectionPositions(LineSegmentXZ)
+	 * @return  the intersection positions, in the order of the ring's segments
+	 */
+	List<VectorXZ> intersectionPositions(LineSegmentXZ lineSegment) {
+
+		AxisAlignedRectangleXZ segmentBox = segmentBox(lineSegment.p1, lineSegment.p2);
+
+		if (!overlaps(bbox, segmentBox)) return new ArrayList<>();
+
+		/* collect candidate segments */
+
+		int[] candidates = new int[16];
+		int candidateCount = 0;
+
+		for (int cellX = cellXForCoord(segmentBox.minX); cellX <= cellXForCoord(segmentBox.maxX); cellX++) {
+			for (int cellZ = cellZForCoord(segmentBox.minZ); cellZ <= cellZForCoord(segmentBox.maxZ); cellZ++) {
+
+				int[] cell = cells[cellX * cellCountZ + cellZ];
+				if (cell == null) continue;
+
+				for (int i : cell) {
+					if (segmentOverlaps(i, segmentBox)) {
+						if (candidateCount == candidates.length) {
+							candidates = Arrays.copyOf(candidates, candidates.length * 2);
+						}
+						candidates[candidateCount++] = i;
+					}
+				}
+
+			}
+		}
+
+		/* test the candidates in the order of the segments, skipping duplicates */
+
+		Arrays.sort(candidates, 0, candidateCount);
+
+		List<VectorXZ> result = new ArrayList<>();
+
+		for (int c = 0; c < candidateCount; c++) {
+
+			if (c > 0 && candidates[c] == candidates[c - 1]) continue;
+
+			int i = candidates[c];
+
+			VectorXZ intersection = GeometryUtil.getTrueLineSegmentIntersection(
+					lineSegment.p1, lineSegment.p2,
+					vertexLoop.get(i), vertexLoop.get(i + 1));
+
+			if (intersection != null) {
+				result.add(intersection);
+			}
+
+		}
+
+		return result;
+
+	}
+
+	private static AxisAlignedRectangleXZ segmentBox(VectorXZ p1, VectorXZ p2) {
+		return new AxisAlignedRectangleXZ(
+				min(p1.x, p2.x) - PADDING, min(p1.z, p2.z) - PADDING,
+				max(p1.x, p2.x) + PADDING, max(p1.z, p2.z) + PADDING);
+	}
+
+	/** like {@link AxisAlignedRectangleXZ#overlaps(AxisAlignedRectangleXZ)}, but also true for touching boxes */
+	private static boolean overlaps(AxisAlignedRectangleXZ box1, AxisAlignedRectangleXZ box2) {
+		return box1.minX <= box2.maxX && box2.minX <= box1.maxX
+				&& box1.minZ <= box2.maxZ && box2.minZ <= box1.maxZ;
+	}
+
+	/** checks whether the bounding box of segment i touches a box */
+	private boolean segmentOverlaps(int i, AxisAlignedRectangleXZ box) {
+		return min(xs[i], xs[i + 1]) <= box.maxX && max(xs[i], xs[i + 1]) >= box.minX
+				&& min(zs[i], zs[i + 1]) <= box.maxZ && max(zs[i], zs[i + 1]) >= box.minZ;
+	}
+
+	private int minCellX(int segment) {
+		return cellXForCoord(min(xs[segment], xs[segment + 1]));
+	}
+
+	private int maxCellX(int segment) {
+		return cellXForCoord(max(xs[segment], xs[segment + 1]));
+	}
+
+	/** returns the first cell column in a row which a segment is stored in */
+	private int minCellX(int segment, int cellZ) {
+		if (zs[segment] == zs[segment + 1]) {
+			return minCellX(segment);
+		} else {
+			double x1 = xAtRowBoundary(segment, cellZ), x2 = xAtRowBoundary(segment, cellZ + 1);
+			return max(minCellX(segment), cellXForCoord(min(x1, x2)) - 1);
+		}
+	}
+
+	/** returns the last cell column in a row which a segment is stored in */
+	private int maxCellX(int segment, int cellZ) {
+		if (zs[segment] == zs[segment + 1]) {
+			return maxCellX(segment);
+		} else {
+			double x1 = xAtRowBoundary(segment, cellZ), x2 = xAtRowBoundary(segment, cellZ + 1);
+			return min(maxCellX(segment), cellXForCoord(max(x1, x2)) + 1);
+		}
+	}
+
+	/**
+	 * returns the x coordinate of a non-horizontal segment where it crosses the lower boundary of a cell row.
+	 * If the segment does not reach that boundary, the x coordinate of the nearest end point is returned.
+	 */
+	private double xAtRowBoundary(int segment, int cellZ) {
+		double z = bbox.minZ + cellZ * cellSizeZ;
+		double t = (z - zs[segment]) / (zs[segment + 1] - zs[segment]);
+		t = min(max(t, 0), 1);
+		return xs[segment] + t * (xs[segment + 1] - xs[segment]);
+	}
+
+	private int minCellZ(int segment) {
+		return cellZForCoord(min(zs[segment], zs[segment + 1]));
+	}
+
+	private int maxCellZ(int segment) {
+		return cellZForCoord(max(zs[segment], zs[segment + 1]));
+	}
+
+	/** returns the cell column for a coordinate, clamped to the grid */
+	private int cellXForCoord(double x) {
+		return min(max((int) floor((x - bbox.minX) / cellSizeX), 0), cellCountX - 1);
+	}
+
+	/** returns the cell row for a coordinate, clamped to the grid */
+	private int cellZForCoord(double z) {
+		return min(max((int) floor((z - bbox.minZ) / cellSizeZ), 0), cellCountZ - 1);
+	}
+
+}
@@ -33,6 +33,9 @@ public class SimplePolygonXZ implements SimplePolygonShapeXZ {
 	/** stores the result for {@link #isClockwise()} */
 	private Boolean clockwise;
 
+	/** index structure for fast geometric tests, created on demand for large polygons */
+	private PreparedRing preparedRing;
+
 	/**
 	 * @param vertexLoop  vertices defining the polygon; first and last vertex must be equal.
 	 * @throws InvalidGeometryException  if the polygon self-intersects or produces invalid area calculation results
@@ -233,6 +236,49 @@ public class SimplePolygonXZ implements SimplePolygonShapeXZ {
 	}
 
 
+	/**
+	 * returns a {@link PreparedRing} for this polygon,
+	 * or null if the polygon is small enough for brute-force tests
+	 */
+	private PreparedRing getPreparedRing() {
+		if (size() <= PreparedRing.VERTEX_THRESHOLD) {
+			return null;
+		} else {
+			if (preparedRing == null) {
+				preparedRing = new PreparedRing(vertexLoop);
+			}
+			return preparedRing;
+		}
+	}
+
+	@Override
+	public AxisAlignedRectangleXZ boundingBox() {
+		PreparedRing prepared = getPreparedRing();
+		return prepared != null ? prepared.boundingBox() : SimplePolygonShapeXZ.super.boundingBox();
+	}
+
+	@Override
+	public boolean contains(VectorXZ v) {
+		PreparedRing prepared = getPreparedRing();
+		return prepared != null ? prepared.contains(v) : SimplePolygonShapeXZ.super.contains(v);
+	}
+
+	@Override
+	public boolean intersects(VectorXZ segmentP1, VectorXZ segmentP2) {
+		PreparedRing prepared = getPreparedRing();
+		return prepared != null
+				? prepared.intersects(segmentP1, segmentP2)
+				: SimplePolygonShapeXZ.super.intersects(segmentP1, segmentP2);
+	}
+
+	@Override
+	public List<VectorXZ> intersectionPositions(LineSegmentXZ lineSegment) {
+		PreparedRing prepared = getPreparedRing();
+		return prepared != null
+				? prepared.intersectionPositions(lineSegment)
+				: SimplePolygonShapeXZ.super.intersectionPositions(lineSegment);
+	}
+
 	/**
 	 * returns a triangle with the same vertices as this polygon.
 	 * Requires that the polygon is triangular!
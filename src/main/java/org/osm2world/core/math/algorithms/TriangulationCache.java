@@ -0,0 +1,402 @@
+package org.osm2world.core.math.algorithms;
+
+import static java.lang.Math.round;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.osm2world.core.math.TriangleXZ;
+import org.osm2world.core.math.VectorXZ;
+
+/**
+ * memoizes triangulations of geometrically identical inputs,
+ * such as the roofs and walls of many identical buildings in a housing estate.
+ *
+ * Inputs are compared after normalizing their position and rotation:
+ * The input starts with a ring of vertices, such as the outline of a roof. That ring is rotated
+ * (and reversed if necessary) to start with the vertex and direction which result in the
+ * lexicographically smallest sequence of normalized coordinates. That vertex is moved to the origin,
+ * the direction towards the next vertex of the ring becomes the x axis,
+ * and coordinates are rounded to {@link #QUANTUM}. As a result, equal rings match
+ * regardless of their first vertex and winding.
+ * Cached triangles are transformed back into place. Vertices which are among the input vertices
+ * use that input vertex exactly. Only vertices created by the triangulation itself
+ * (e.g. at intersections) are subject to rounding differences.
+ *
+ * Hits and misses are counted for the lifetime of the cache, and for the {@link Usage} which is active
+ * for the current thread. A usage also decides whether the cache is used at all.
+ *
+ * This class is thread-safe.
+ */
+public class TriangulationCache {
+
+	/** precision of the comparison between inputs */
+	public static final double QUANTUM = 1e-4;
+
+	private static final int DEFAULT_MAX_ENTRIES = 10000;
+
+	/**
+	 * number of calls of a {@link Usage} after which it stops using the cache if none of them were hits.
+	 * Computing and storing keys has a cost of its own, which is not worth paying for inputs that don't repeat.
+	 */
+	static final int BYPASS_THRESHOLD = 200;
+
+	/**
+	 * settings and hit and miss counts of the calls belonging to one conversion.
+	 * A usage is activated for a thread with {@link #activate()}.
+	 * Threads started by that thread (e.g. the workers of a ForkJoinPool created during rendering)
+	 * inherit the usage. Threads without a usage always use the cache.
+	 */
+	public static class Usage {
+
+		private final TriangulationCache cache;
+		private final boolean enabled;
+
+		private final AtomicLong hits = new AtomicLong();
+		private final AtomicLong misses = new AtomicLong();
+
+		/**
+		 * @param enabled  whether calls use the cache at all.
+		 *                 Even if this is true, the cache stops being used after {@link #BYPASS_THRESHOLD}
+		 *                 calls without a hit.
+		 */
+		public Usage(TriangulationCache cache, boolean enabled) {
+			this.cache = cache;
+			this.enabled = enabled;
+		}
+
+		/** makes this the active usage of its cache for the current thread and the threads it starts */
+		public void activate() {
+			cache.threadUsage.set(this);
+		}
+
+		/** returns the number of calls which used a cached triangulation */
+		public long getHits() {
+			return hits.get();
+		}
+
+		/** returns the number of calls which had to calculate the triangulation */
+		public long getMisses() {
+			return misses.get();
+		}
+
+		private boolean usesCache() {
+			return enabled && (hits.get() > 0 || misses.get() < BYPASS_THRESHOLD);
+		}
+
+	}
+
+	/** a triangulation stored in normalized form */
+	private static class Entry {
+
+		/**
+		 * for each vertex of each triangle: index of the input vertex at that position,
+		 * or -1 if the vertex is not an input vertex
+		 */
+		final int[] vertexIndices;
+
+		/** normalized x and z coordinates of each vertex which isn't an input vertex, in order */
+		final double[] otherVertices;
+
+		Entry(int[] vertexIndices, double[] otherVertices) {
+			this.vertexIndices = vertexIndices;
+			this.otherVertices = otherVertices;
+		}
+
+	}
+
+	/** key of an {@link Entry}, consisting of the rounded normalized vertices and additional information */
+	private static class Key {
+
+		final long[] coords;
+		final Object extraKey;
+
+		Key(long[] coords, Object extraKey) {
+			this.coords = coords;
+			this.extraKey = extraKey;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key
+					&& Arrays.equals(coords, ((Key) obj).coords)
+					&& extraKey.equals(((Key) obj).extraKey);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * Arrays.hashCode(coords) + extraKey.hashCode();
+		}
+
+	}
+
+	private final Map<Key, Entry> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	private final InheritableThreadLocal<Usage> threadUsage = new InheritableThreadLocal<>();
+
+	public TriangulationCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param maxEntries  number of triangulations to keep, the least recently used one is discarded after that
+	 */
+	public TriangulationCache(int maxEntries) {
+		entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * returns the triangulation of an input, using a cached result for an equivalent input if possible.
+	 *
+	 * @param vertices      all vertices of the input, in an order which is defined by the caller
+	 * @param ringSize      number of vertices at the start of vertices which form a closed ring,
+	 *                      such as the outline of a polygon (without repeating the first vertex).
+	 *                      The ring may start at any of its vertices and run in either direction.
+	 * @param extraKey      any further information the result depends on,
+	 *                      such as the number of vertices belonging to each part of the input.
+	 *                      Needs to implement {@link Object#equals(Object)} and {@link Object#hashCode()}.
+	 * @param triangulator  calculates the triangulation if it isn't cached
+	 */
+	public List<TriangleXZ> triangulate(List<VectorXZ> vertices, int ringSize, Object extraKey,
+			Supplier<? extends Collection<TriangleXZ>> triangulator) {
+
+		@Nullable Usage usage = threadUsage.get();
+
+		if (usage != null && !usage.usesCache()) {
+			countMiss(usage);
+			return new ArrayList<>(triangulator.get());
+		}
+
+		/* determine the transformation into the normalized coordinate system */
+
+		Frame frame = ringSize >= 2 ? canonicalFrame(vertices, ringSize) : null;
+
+		if (frame == null) {
+			countMiss(usage);
+			return new ArrayList<>(triangulator.get());
+		}
+
+		int[] order = frame.order(vertices.size(), ringSize);
+
+		long[] coords = new long[vertices.size() * 2];
+
+		for (int i = 0; i < vertices.size(); i++) {
+			VectorXZ v = vertices.get(order[i]).subtract(frame.origin);
+			coords[2 * i] = round(v.dot(frame.xAxis) / QUANTUM);
+			coords[2 * i + 1] = round(v.dot(frame.zAxis) / QUANTUM);
+		}
+
+		Key key = new Key(coords, extraKey);
+
+		/* use the cached result if available */
+
+		Entry entry;
+
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+
+		if (entry != null) {
+			hits.incrementAndGet();
+			if (usage != null) {
+				usage.hits.incrementAndGet();
+			}
+			return restore(entry, vertices, order, frame);
+		}
+
+		/* otherwise calculate the triangulation and add it to the cache */
+
+		countMiss(usage);
+
+		List<TriangleXZ> result = new ArrayList<>(triangulator.get());
+
+		Map<VectorXZ, Integer> vertexIndexMap = new HashMap<>();
+		for (int i = vertices.size() - 1; i >= 0; i--) {
+			vertexIndexMap.put(vertices.get(order[i]), i);
+		}
+
+		int[] vertexIndices = new int[result.size() * 3];
+		double[] otherVertices = new double[result.size() * 6];
+		int otherVertexCount = 0;
+
+		for (int t = 0; t < result.size(); t++) {
+			TriangleXZ triangle = result.get(t);
+			VectorXZ[] triangleVertices = {triangle.v1, triangle.v2, triangle.v3};
+			for (int i = 0; i < 3; i++) {
+				Integer index = vertexIndexMap.get(triangleVertices[i]);
+				if (index != null) {
+					vertexIndices[3 * t + i] = index;
+				} else {
+					VectorXZ v = triangleVertices[i].subtract(frame.origin);
+					vertexIndices[3 * t + i] = -1;
+					otherVertices[otherVertexCount * 2] = v.dot(frame.xAxis);
+					otherVertices[otherVertexCount * 2 + 1] = v.dot(frame.zAxis);
+					otherVertexCount++;
+				}
+			}
+		}
+
+		entry = new Entry(vertexIndices, Arrays.copyOf(otherVertices, otherVertexCount * 2));
+
+		synchronized (entries) {
+			entries.put(key, entry);
+		}
+
+		return result;
+
+	}
+
+	private void countMiss(@Nullable Usage usage) {
+		misses.incrementAndGet();
+		if (usage != null) {
+			usage.misses.incrementAndGet();
+		}
+	}
+
+	/**
+	 * the normalized coordinate system of an input. It is defined by a start vertex of the ring
+	 * and the direction in which the ring is traversed from there.
+	 */
+	private static class Frame {
+
+		final int start;
+		final int direction;
+
+		final VectorXZ origin;
+		final VectorXZ xAxis;
+		final VectorXZ zAxis;
+
+		Frame(List<VectorXZ> vertices, int ringSize, int start, int direction) {
+			this.start = start;
+			this.direction = direction;
+			this.origin = vertices.get(start);
+			this.xAxis = vertices.get(ringIndex(start, direction, 1, ringSize)).subtract(origin).normalize();
+			this.zAxis = xAxis.rightNormal();
+		}
+
+		/** returns the rounded normalized coordinate (0 for x, 1 for z) of the k-th vertex of the ring */
+		long ringCoord(List<VectorXZ> vertices, int ringSize, int k, int axis) {
+			VectorXZ v = vertices.get(ringIndex(start, direction, k, ringSize)).subtract(origin);
+			return round(v.dot(axis == 0 ? xAxis : zAxis) / QUANTUM);
+		}
+
+		/** returns the index in the input for each position in the normalized order */
+		int[] order(int vertexCount, int ringSize) {
+			int[] result = new int[vertexCount];
+			for (int k = 0; k < vertexCount; k++) {
+				result[k] = k < ringSize ? ringIndex(start, direction, k, ringSize) : k;
+			}
+			return result;
+		}
+
+		private static int ringIndex(int start, int direction, int k, int ringSize) {
+			return Math.floorMod(start + direction * k, ringSize);
+		}
+
+	}
+
+	/**
+	 * finds the start vertex and direction of the ring which result in the lexicographically smallest
+	 * sequence of normalized ring coordinates.
+	 *
+	 * @return  the frame for that start and direction, null if the ring only contains a single point
+	 */
+	private static @Nullable Frame canonicalFrame(List<VectorXZ> vertices, int ringSize) {
+
+		Frame best = null;
+
+		for (int direction : new int[] {1, -1}) {
+			for (int start = 0; start < ringSize; start++) {
+
+				VectorXZ next = vertices.get(Frame.ringIndex(start, direction, 1, ringSize));
+				if (next.equals(vertices.get(start))) continue;
+
+				Frame candidate = new Frame(vertices, ringSize, start, direction);
+
+				if (best == null || compareRings(candidate, best, vertices, ringSize) < 0) {
+					best = candidate;
+				}
+
+			}
+		}
+
+		return best;
+
+	}
+
+	/** compares the normalized ring coordinates of two frames, stopping at the first difference */
+	private static int compareRings(Frame a, Frame b, List<VectorXZ> vertices, int ringSize) {
+		for (int k = 1; k < ringSize; k++) {
+			for (int axis = 0; axis < 2; axis++) {
+				int result = Long.compare(a.ringCoord(vertices, ringSize, k, axis),
+						b.ringCoord(vertices, ringSize, k, axis));
+				if (result != 0) {
+					return result;
+				}
+			}
+		}
+		return 0;
+	}
+
+	private static List<TriangleXZ> restore(Entry entry, List<VectorXZ> vertices, int[] order, Frame frame) {
+
+		List<TriangleXZ> result = new ArrayList<>(entry.vertexIndices.length / 3);
+
+		VectorXZ[] triangleVertices = new VectorXZ[3];
+		int otherVertexIndex = 0;
+
+		for (int t = 0; t < entry.vertexIndices.length / 3; t++) {
+			for (int i = 0; i < 3; i++) {
+				int index = entry.vertexIndices[3 * t + i];
+				if (index >= 0) {
+					triangleVertices[i] = vertices.get(order[index]);
+				} else {
+					double x = entry.otherVertices[otherVertexIndex * 2];
+					double z = entry.otherVertices[otherVertexIndex * 2 + 1];
+					triangleVertices[i] = frame.origin.add(frame.xAxis.mult(x)).add(frame.zAxis.mult(z));
+					otherVertexIndex++;
+				}
+			}
+			result.add(new TriangleXZ(triangleVertices[0], triangleVertices[1], triangleVertices[2]));
+		}
+
+		return result;
+
+	}
+
+	/** discards all cached triangulations. Does not reset the hit and miss counts. */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/** returns the number of calls which used a cached triangulation, across all usages */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/** returns the number of calls which had to calculate the triangulation, across all usages */
+	public long getMisses() {
+		return misses.get();
+	}
+
+}
@@ -0,0 +1,225 @@
+package org.osm2world.core.math.datastructures;
+
+import static java.lang.Math.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.osm2world.core.math.GeometryUtil;
+import org.osm2world.core.math.LineSegmentXZ;
+import org.osm2world.core.math.VectorXZ;
+
+/**
+ * an immutable set of line segments which can be queried for the segment closest to a point.
+ *
+ * Segment end points are stored in primitive arrays. Segments are sorted into the cells of a uniform grid
+ * covering all segments, and a query examines rings of cells around the point until no closer segment is possible.
+ * For small numbers of segments, a single cell is used, which amounts to a linear scan.
+ *
+ * Results are identical to a linear scan using {@link GeometryUtil#distanceFromLineSegment(VectorXZ, LineSegmentXZ)}:
+ * If several segments have the same distance, the one which comes first in the input is returned.
+ */
+public class NearestSegmentIndex {
+
+	/** below this number of segments, no grid is built */
+	static final int GRID_THRESHOLD = 16;
+
+	private final List<LineSegmentXZ> segments;
+
+	/** end point coordinates, 4 values (x1, z1, x2, z2) for each segment */
+	private final double[] coords;
+
+	private final double minX, minZ;
+	private final double cellSizeX, cellSizeZ;
+	private final int cellCountX, cellCountZ;
+
+	/** segment indices for cell i are at positions cellStarts[i] to cellStarts[i+1] - 1 of {@link #cellContent} */
+	private final int[] cellStarts;
+	private final int[] cellContent;
+
+	public NearestSegmentIndex(Collection<LineSegmentXZ> segments) {
+
+		this.segments = new ArrayList<>(segments);
+
+		int n = this.segments.size();
+
+		/* store the coordinates and determine the bounds */
+
+		coords = new double[n * 4];
+
+		double minX = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+
+		for (int i = 0; i < n; i++) {
+			LineSegmentXZ s = this.segments.get(i);
+			coords[4 * i] = s.p1.x;
+			coords[4 * i + 1] = s.p1.z;
+			coords[4 * i + 2] = s.p2.x;
+			coords[4 * i + 3] = s.p2.z;
+			minX = min(minX, min(s.p1.x, s.p2.x));
+			minZ = min(minZ, min(s.p1.z, s.p2.z));
+			maxX = max(maxX, max(s.p1.x, s.p2.x));
+			maxZ = max(maxZ, max(s.p1.z, s.p2.z));
+		}
+
+		/* choose the grid dimensions, aiming for roughly one segment per cell */
+
+		int cellsPerAxis = (n < GRID_THRESHOLD) ? 1 : (int) ceil(sqrt(n));
+
+		this.minX = (n > 0) ? minX : 0;
+		this.minZ = (n > 0) ? minZ : 0;
+		this.cellCountX = (n > 0 && maxX > minX) ? cellsPerAxis : 1;
+		this.cellCountZ = (n > 0 && maxZ > minZ) ? cellsPerAxis : 1;
+		this.cellSizeX = (n > 0) ? (maxX - minX) / cellCountX : 0;
+		this.cellSizeZ = (n > 0) ? (maxZ - minZ) / cellCountZ : 0;
+
+		/* sort each segment into all cells covered by its bounding box */
+
+		int[] cellSizes = new int[cellCountX * cellCountZ];
+
+		for (int i = 0; i < n; i++) {
+			for (int x = cellXMin(i); x <= cellXMax(i); x++) {
+				for (int z = cellZMin(i); z <= cellZMax(i); z++) {
+					cellSizes[x * cellCountZ + z]++;
+				}
+			}
+		}
+
+		cellStarts = new int[cellSizes.length + 1];
+		for (int c = 0; c < cellSizes.length; c++) {
+			cellStarts[c + 1] = cellStarts[c] + cellSizes[c];
+		}
+
+		cellContent = new int[cellStarts[cellSizes.length]];
+		int[] fillPositions = Arrays.copyOf(cellStarts, cellSizes.length);
+
+		for (int i = 0; i < n; i++) {
+			for (int x = cellXMin(i); x <= cellXMax(i); x++) {
+				for (int z = cellZMin(i); z <= cellZMax(i); z++) {
+					cellContent[fillPositions[x * cellCountZ + z]++] = i;
+				}
+			}
+		}
+
+	}
+
+	public int size() {
+		return segments.size();
+	}
+
+	/**
+	 * returns the segment with the smallest distance to a point, or null if the index is empty.
+	 */
+	public LineSegmentXZ getClosestSegment(VectorXZ p) {
+
+		if (segments.isEmpty()) return null;
+
+		int cx = cellX(p.x);
+		int cz = cellZ(p.z);
+
+		int closestIndex = -1;
+		double closestDistance = Double.POSITIVE_INFINITY;
+
+		int maxRing = max(max(cx, cellCountX - 1 - cx), max(cz, cellCountZ - 1 - cz));
+
+		for (int ring = 0; ring <= maxRing; ring++) {
+
+			/* stop if no cell in this or any later ring can contain a closer segment */
+
+			if (ring > 0) {
+				double minCellSize = Double.POSITIVE_INFINITY;
+				if (cellCountX > 1) minCellSize = min(minCellSize, cellSizeX);
+				if (cellCountZ > 1) minCellSize = min(minCellSize, cellSizeZ);
+				if (closestDistance < (ring - 1) * minCellSize) break;
+			}
+
+			/* examine all cells in the ring */
+
+			for (int x = max(cx - ring, 0); x <= min(cx + ring, cellCountX - 1); x++) {
+
+				boolean edgeColumn = (x == cx - ring || x == cx + ring);
+				int zStep = edgeColumn ? 1 : 2 * ring;
+
+				for (int z = cz - ring; z <= cz + ring; z += zStep) {
+
+					if (z < 0 || z >= cellCountZ) continue;
+
+					int cell = x * cellCountZ + z;
+
+					for (int k = cellStarts[cell]; k < cellStarts[cell + 1]; k++) {
+						int i = cellContent[k];
+						double distance = distance(p.x, p.z, i);
+						if (distance < closestDistance
+								|| (distance == closestDistance && i < closestIndex)) {
+							closestIndex = i;
+							closestDistance = distance;
+						}
+					}
+
+				}
+
+			}
+
+		}
+
+		return segments.get(closestIndex);
+
+	}
+
+	/**
+	 * distance between a point and the segment with index i.
+	 * Uses the same calculation as JTS, which {@link GeometryUtil#distanceFromLineSegment(VectorXZ, LineSegmentXZ)}
+	 * relies on, so that distances can be compared exactly.
+	 */
+	private double distance(double px, double pz, int i) {
+
+		double ax = coords[4 * i], az = coords[4 * i + 1];
+		double bx = coords[4 * i + 2], bz = coords[4 * i + 3];
+
+		if (ax == bx && az == bz) {
+			return sqrt((px - ax) * (px - ax) + (pz - az) * (pz - az));
+		}
+
+		double len2 = (bx - ax) * (bx - ax) + (bz - az) * (bz - az);
+		double r = ((px - ax) * (bx - ax) + (pz - az) * (bz - az)) / len2;
+
+		if (r <= 0.0) {
+			return sqrt((px - ax) * (px - ax) + (pz - az) * (pz - az));
+		} else if (r >= 1.0) {
+			return sqrt((px - bx) * (px - bx) + (pz - bz) * (pz - bz));
+		}
+
+		double s = ((az - pz) * (bx - ax) - (ax - px) * (bz - az)) / len2;
+		return abs(s) * sqrt(len2);
+
+	}
+
+	private int cellX(double x) {
+		if (cellSizeX == 0) return 0;
+		return max(0, min(cellCountX - 1, (int) floor((x - minX) / cellSizeX)));
+	}
+
+	private int cellZ(double z) {
+		if (cellSizeZ == 0) return 0;
+		return max(0, min(cellCountZ - 1, (int) floor((z - minZ) / cellSizeZ)));
+	}
+
+	private int cellXMin(int i) {
+		return cellX(min(coords[4 * i], coords[4 * i + 2]));
+	}
+
+	private int cellXMax(int i) {
+		return cellX(max(coords[4 * i], coords[4 * i + 2]));
+	}
+
+	private int cellZMin(int i) {
+		return cellZ(min(coords[4 * i + 1], coords[4 * i + 3]));
+	}
+
+	private int cellZMax(int i) {
+		return cellZ(max(coords[4 * i + 1], coords[4 * i + 3]));
+	}
+
+}
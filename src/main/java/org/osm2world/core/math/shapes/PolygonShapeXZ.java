@@ -5,6 +5,7 @@ import static java.util.stream.Collectors.toList;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 
 import org.osm2world.core.math.GeometryUtil;
@@ -87,7 +88,11 @@ public interface PolygonShapeXZ extends ClosedShapeXZ {
 	/** returns true if this polygon contains the parameter polygon */
 	public default boolean contains(PolygonShapeXZ p) {
 		//FIXME: it is possible that a polygon contains all vertices of another polygon, but still not the entire polygon
-		List<VectorXZ> vertexLoop = getVertexList();
+		Collection<VectorXZ> vertexLoop = getVertexList();
+		if (vertexLoop.size() > 64) {
+			// avoids a linear search for each vertex of p
+			vertexLoop = new HashSet<>(vertexLoop);
+		}
 		for (VectorXZ v : p.getVertexList()) {
 			if (!vertexLoop.contains(v) && !this.contains(v)) {
 				return false;
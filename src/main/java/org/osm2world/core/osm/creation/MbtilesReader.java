@@ -9,12 +9,11 @@ import java.util.Map;
 import org.imintel.mbtiles4j.MBTilesReadException;
 import org.imintel.mbtiles4j.MBTilesReader;
 import org.imintel.mbtiles4j.Tile;
+import org.osm2world.core.osm.data.CompactOSMData;
 import org.osm2world.core.osm.data.OSMData;
 import org.osm2world.core.target.common.rendering.TileNumber;
 
 import de.topobyte.osm4j.core.access.OsmIterator;
-import de.topobyte.osm4j.core.dataset.InMemoryMapDataSet;
-import de.topobyte.osm4j.core.dataset.MapDataSetLoader;
 import de.topobyte.osm4j.pbf.seq.PbfIterator;
 
 /**
@@ -62,8 +61,7 @@ public class MbtilesReader implements OSMDataReader {
 
 				OsmIterator iterator = new PbfIterator(is, true);
 
-				InMemoryMapDataSet data = MapDataSetLoader.read(iterator, true, true, true);
-				return new OSMData(data);
+				return CompactOSMData.read(iterator);
 
 			}
 
@@ -0,0 +1,348 @@
+package org.osm2world.core.osm.creation;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
+
+import org.osm2world.core.map_data.creation.LatLonBounds;
+import org.osm2world.core.osm.data.CompactOSMData;
+import org.osm2world.core.osm.data.OSMData;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.core.model.iface.EntityContainer;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.impl.Bounds;
+import de.topobyte.osm4j.core.model.util.OsmModelUtil;
+import de.topobyte.osm4j.pbf.seq.PbfIterator;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+
+/**
+ * {@link OSMDataReader} extracting the data within a bounding box from a (possibly large) .osm.pbf file,
+ * such as a regional or country extract. The result contains the nodes within the bounding box,
+ * all ways using at least one of these nodes and all relations with at least one of these nodes or ways as members.
+ * Ways and the outer and inner ways of multipolygons are complete, i.e. they include all their nodes.
+ *
+ * The file is streamed several times, once for each of these steps. Only the entities which are part of the result
+ * (and the ids of some entities) are kept in memory. The file's blocks are decoded in parallel.
+ */
+public class PbfFileReader implements OSMDataReader {
+
+	/** maximum size of a blob header according to the .osm.pbf specification */
+	private static final int MAX_BLOB_HEADER_SIZE = 64 * 1024;
+
+	/** maximum size of a blob according to the .osm.pbf specification */
+	private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+	private final File file;
+	private final LatLonBounds bounds;
+	private final int threads;
+
+	/**
+	 * @param threads  number of threads decoding the file's blocks
+	 */
+	public PbfFileReader(File file, LatLonBounds bounds, int threads) throws FileNotFoundException {
+
+		this.file = file;
+		this.bounds = bounds;
+		this.threads = threads;
+
+		if (!file.exists()) {
+			throw new FileNotFoundException(file.toString());
+		}
+
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public LatLonBounds getBounds() {
+		return bounds;
+	}
+
+	@Override
+	public OSMData getData() throws IOException {
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try {
+
+			/* find the nodes within the bounds */
+
+			List<OsmNode> nodes = readEntities(executor, EntityType.Node, n -> isInBounds((OsmNode) n));
+
+			TLongSet nodeIds = new TLongHashSet();
+			nodes.forEach(n -> nodeIds.add(n.getId()));
+
+			/* find the ways using these nodes */
+
+			List<OsmWay> ways = readEntities(executor, EntityType.Way, w -> usesAnyNode((OsmWay) w, nodeIds));
+
+			TLongSet wayIds = new TLongHashSet();
+			ways.forEach(w -> wayIds.add(w.getId()));
+
+			/* find the relations with these nodes or ways as members */
+
+			List<OsmRelation> relations = readEntities(executor, EntityType.Relation,
+					r -> hasAnyMember((OsmRelation) r, nodeIds, wayIds));
+
+			/* add the missing ways of multipolygons */
+
+			TLongSet missingWayIds = new TLongHashSet();
+
+			for (OsmRelation relation : relations) {
+				if ("multipolygon".equals(OsmModelUtil.getTagsAsMap(relation).get("type"))) {
+					for (int i = 0; i < relation.getNumberOfMembers(); i++) {
+						OsmRelationMember member = relation.getMember(i);
+						if (member.getType() == EntityType.Way && !wayIds.contains(member.getId())) {
+							missingWayIds.add(member.getId());
+						}
+					}
+				}
+			}
+
+			if (!missingWayIds.isEmpty()) {
+				ways.addAll(readEntities(executor, EntityType.Way, w -> missingWayIds.contains(w.getId())));
+			}
+
+			/* add the missing nodes of ways */
+
+			TLongSet missingNodeIds = new TLongHashSet();
+
+			for (OsmWay way : ways) {
+				for (int i = 0; i < way.getNumberOfNodes(); i++) {
+					if (!nodeIds.contains(way.getNodeId(i))) {
+						missingNodeIds.add(way.getNodeId(i));
+					}
+				}
+			}
+
+			if (!missingNodeIds.isEmpty()) {
+				nodes.addAll(readEntities(executor, EntityType.Node, n -> missingNodeIds.contains(n.getId())));
+			}
+
+			CompactOSMData.Builder builder = new CompactOSMData.Builder();
+			builder.addBounds(new Bounds(bounds.minlon, bounds.maxlon, bounds.maxlat, bounds.minlat));
+			nodes.forEach(builder::add);
+			ways.forEach(builder::add);
+			relations.forEach(builder::add);
+			return builder.build();
+
+		} finally {
+			executor.shutdown();
+		}
+
+	}
+
+	private boolean isInBounds(OsmNode node) {
+		return node.getLatitude() >= bounds.minlat && node.getLatitude() <= bounds.maxlat
+				&& node.getLongitude() >= bounds.minlon && node.getLongitude() <= bounds.maxlon;
+	}
+
+	private static boolean usesAnyNode(OsmWay way, TLongSet nodeIds) {
+		for (int i = 0; i < way.getNumberOfNodes(); i++) {
+			if (nodeIds.contains(way.getNodeId(i))) return true;
+		}
+		return false;
+	}
+
+	private static boolean hasAnyMember(OsmRelation relation, TLongSet nodeIds, TLongSet wayIds) {
+		for (int i = 0; i < relation.getNumberOfMembers(); i++) {
+			OsmRelationMember member = relation.getMember(i);
+			if (member.getType() == EntityType.Node && nodeIds.contains(member.getId())
+					|| member.getType() == EntityType.Way && wayIds.contains(member.getId())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * streams the file and returns all entities of a type which match a filter.
+	 * The data blocks are decoded in parallel, but at most two blocks per thread are kept in memory at any time.
+	 * The filter may be called from several threads at the same time.
+	 */
+	private <T extends OsmEntity> List<T> readEntities(ExecutorService executor, EntityType type,
+			Predicate<OsmEntity> filter) throws IOException {
+
+		Semaphore blockSlots = new Semaphore(2 * threads);
+
+		List<Future<List<T>>> results = new ArrayList<>();
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+
+			byte[] block;
+
+			while ((block = readDataBlock(in)) != null) {
+
+				blockSlots.acquireUninterruptibly();
+
+				byte[] finalBlock = block;
+
+				results.add(executor.submit(() -> {
+					try {
+						return decodeEntities(finalBlock, type, filter);
+					} finally {
+						blockSlots.release();
+					}
+				}));
+
+			}
+
+		}
+
+		List<T> result = new ArrayList<>();
+
+		try {
+			for (Future<List<T>> future : results) {
+				result.addAll(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else {
+				throw new IOException("could not decode " + file, e.getCause());
+			}
+		}
+
+		return result;
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends OsmEntity> List<T> decodeEntities(byte[] block, EntityType type,
+			Predicate<OsmEntity> filter) {
+
+		List<T> result = new ArrayList<>();
+
+		OsmIterator iterator = new PbfIterator(new ByteArrayInputStream(block), true);
+
+		while (iterator.hasNext()) {
+			EntityContainer container = iterator.next();
+			if (container.getType() == type && filter.test(container.getEntity())) {
+				result.add((T) container.getEntity());
+			}
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * reads the next data block from the file and returns it in the .osm.pbf format,
+	 * i.e. as a file consisting of only that block. Other blocks, such as the header block, are skipped.
+	 *
+	 * @return  the block, or null at the end of the file
+	 */
+	private static @Nullable byte[] readDataBlock(DataInputStream in) throws IOException {
+
+		while (true) {
+
+			int headerSize;
+
+			try {
+				headerSize = in.readInt();
+			} catch (EOFException e) {
+				return null;
+			}
+
+			if (headerSize < 0 || headerSize > MAX_BLOB_HEADER_SIZE) {
+				throw new IOException("invalid blob header size: " + headerSize);
+			}
+
+			byte[] header = new byte[headerSize];
+			in.readFully(header);
+
+			/* parse the blob header (a protobuf message with the fields type = 1 and datasize = 3) */
+
+			String blobType = null;
+			int blobSize = -1;
+
+			ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+
+			while (headerBuffer.hasRemaining()) {
+
+				long key = readVarint(headerBuffer);
+				int field = (int) (key >>> 3);
+				int wireType = (int) (key & 0x7);
+
+				if (wireType == 0) {
+					long value = readVarint(headerBuffer);
+					if (field == 3) {
+						blobSize = (int) value;
+					}
+				} else if (wireType == 2) {
+					int length = (int) readVarint(headerBuffer);
+					if (field == 1) {
+						blobType = new String(header, headerBuffer.position(), length, UTF_8);
+					}
+					headerBuffer.position(headerBuffer.position() + length);
+				} else {
+					throw new IOException("invalid blob header");
+				}
+
+			}
+
+			if (blobSize < 0 || blobSize > MAX_BLOB_SIZE) {
+				throw new IOException("invalid blob size: " + blobSize);
+			}
+
+			if ("OSMData".equals(blobType)) {
+
+				byte[] block = new byte[4 + headerSize + blobSize];
+				ByteBuffer.wrap(block).putInt(headerSize).put(header);
+				in.readFully(block, 4 + headerSize, blobSize);
+				return block;
+
+			} else if (in.skipBytes(blobSize) < blobSize) {
+				throw new EOFException("unexpected end of file");
+			}
+
+		}
+
+	}
+
+	private static long readVarint(ByteBuffer buffer) throws IOException {
+
+		long result = 0;
+
+		for (int shift = 0; shift < 64 && buffer.hasRemaining(); shift += 7) {
+			byte b = buffer.get();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+
+		throw new IOException("invalid varint");
+
+	}
+
+}
@@ -5,11 +5,10 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 
+import org.osm2world.core.osm.data.CompactOSMData;
 import org.osm2world.core.osm.data.OSMData;
 
 import de.topobyte.osm4j.core.access.OsmIterator;
-import de.topobyte.osm4j.core.dataset.InMemoryMapDataSet;
-import de.topobyte.osm4j.core.dataset.MapDataSetLoader;
 import de.topobyte.osm4j.pbf.seq.PbfIterator;
 import de.topobyte.osm4j.xml.dynsax.OsmXmlIterator;
 
@@ -59,8 +58,7 @@ public class StrictOSMFileReader implements OSMDataReader {
 
 				OsmIterator iterator = new PbfIterator(is, true);
 
-				InMemoryMapDataSet data = MapDataSetLoader.read(iterator, true, true, true);
-				return new OSMData(data);
+				return CompactOSMData.read(iterator);
 
 			}
 
@@ -69,8 +67,7 @@ public class StrictOSMFileReader implements OSMDataReader {
 			// TODO: handle compression!
 			OsmIterator iterator = new OsmXmlIterator(file, true);
 
-			InMemoryMapDataSet data = MapDataSetLoader.read(iterator, true, true, true);
-			return new OSMData(data);
+			return CompactOSMData.read(iterator);
 
 		}
 
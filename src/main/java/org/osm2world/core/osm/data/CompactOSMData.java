@@ -0,0 +1,554 @@
+package org.osm2world.core.osm.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.topobyte.osm4j.core.access.OsmIterator;
+import de.topobyte.osm4j.core.dataset.InMemoryMapDataSet;
+import de.topobyte.osm4j.core.model.iface.EntityContainer;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmBounds;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.iface.OsmMetadata;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmRelationMember;
+import de.topobyte.osm4j.core.model.iface.OsmTag;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.impl.RelationMember;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+
+/**
+ * {@link OSMData} which stores its entities in primitive arrays instead of one object per entity.
+ * This uses considerably less memory than osm4j's {@link InMemoryMapDataSet}, especially for nodes.
+ *
+ * Entities are sorted by id and looked up with a binary search. Tag keys and values,
+ * as well as the roles of relation members, are interned during construction.
+ * The entities returned by this class are lightweight views of the arrays, created on each access.
+ * Metadata (such as versions and timestamps) is not stored.
+ *
+ * Instances are created with a {@link Builder}, or directly from an osm4j iterator using {@link #read(OsmIterator)}.
+ */
+public class CompactOSMData extends OSMData {
+
+	/* nodes, sorted by id */
+
+	private final long[] nodeIds;
+	private final double[] nodeLats;
+	private final double[] nodeLons;
+	private final int[] nodeTagOffsets;
+
+	/* ways, sorted by id */
+
+	private final long[] wayIds;
+	private final int[] wayNodeOffsets;
+	private final long[] wayNodeIds;
+	private final int[] wayTagOffsets;
+
+	/* relations, sorted by id */
+
+	private final long[] relationIds;
+	private final int[] memberOffsets;
+	private final long[] memberIds;
+	private final EntityType[] memberTypes;
+	private final String[] memberRoles;
+	private final int[] relationTagOffsets;
+
+	/* tags of all entities. Each entity's tags are the range between its offset and the next entity's offset. */
+
+	private final String[] tagKeys;
+	private final String[] tagValues;
+
+	private CompactOSMData(Builder b) {
+
+		super(new ArrayList<>(b.bounds));
+
+		/* tags are copied in the new order of the entities, so a new tag array is built */
+
+		int totalTags = b.tagKeys.size();
+		tagKeys = new String[totalTags];
+		tagValues = new String[totalTags];
+		int tagCount = 0;
+
+		/* nodes */
+
+		int[] nodeOrder = sortedOrder(b.nodeIds);
+
+		nodeIds = new long[nodeOrder.length];
+		nodeLats = new double[nodeOrder.length];
+		nodeLons = new double[nodeOrder.length];
+		nodeTagOffsets = new int[nodeOrder.length + 1];
+
+		for (int i = 0; i < nodeOrder.length; i++) {
+			int n = nodeOrder[i];
+			nodeIds[i] = b.nodeIds.get(n);
+			nodeLats[i] = b.nodeLats.get(n);
+			nodeLons[i] = b.nodeLons.get(n);
+			nodeTagOffsets[i] = tagCount;
+			tagCount = copyTags(b, b.nodeTagStarts.get(n), b.nodeTagCounts.get(n), tagCount);
+		}
+
+		nodeTagOffsets[nodeOrder.length] = tagCount;
+
+		/* ways */
+
+		int[] wayOrder = sortedOrder(b.wayIds);
+
+		wayIds = new long[wayOrder.length];
+		wayNodeOffsets = new int[wayOrder.length + 1];
+		wayNodeIds = new long[b.wayNodeIds.size()];
+		wayTagOffsets = new int[wayOrder.length + 1];
+
+		int wayNodeCount = 0;
+
+		for (int i = 0; i < wayOrder.length; i++) {
+
+			int w = wayOrder[i];
+			wayIds[i] = b.wayIds.get(w);
+
+			wayNodeOffsets[i] = wayNodeCount;
+			for (int j = b.wayNodeStarts.get(w); j < b.wayNodeStarts.get(w + 1); j++) {
+				wayNodeIds[wayNodeCount++] = b.wayNodeIds.get(j);
+			}
+
+			wayTagOffsets[i] = tagCount;
+			tagCount = copyTags(b, b.wayTagStarts.get(w), b.wayTagCounts.get(w), tagCount);
+
+		}
+
+		wayNodeOffsets[wayOrder.length] = wayNodeCount;
+		wayTagOffsets[wayOrder.length] = tagCount;
+
+		/* relations */
+
+		int[] relationOrder = sortedOrder(b.relationIds);
+
+		relationIds = new long[relationOrder.length];
+		memberOffsets = new int[relationOrder.length + 1];
+		memberIds = new long[b.memberIds.size()];
+		memberTypes = new EntityType[b.memberIds.size()];
+		memberRoles = new String[b.memberIds.size()];
+		relationTagOffsets = new int[relationOrder.length + 1];
+
+		int memberCount = 0;
+
+		for (int i = 0; i < relationOrder.length; i++) {
+
+			int r = relationOrder[i];
+			relationIds[i] = b.relationIds.get(r);
+
+			memberOffsets[i] = memberCount;
+			for (int j = b.memberStarts.get(r); j < b.memberStarts.get(r + 1); j++) {
+				memberIds[memberCount] = b.memberIds.get(j);
+				memberTypes[memberCount] = b.memberTypes.get(j);
+				memberRoles[memberCount] = b.memberRoles.get(j);
+				memberCount++;
+			}
+
+			relationTagOffsets[i] = tagCount;
+			tagCount = copyTags(b, b.relationTagStarts.get(r), b.relationTagCounts.get(r), tagCount);
+
+		}
+
+		memberOffsets[relationOrder.length] = memberCount;
+		relationTagOffsets[relationOrder.length] = tagCount;
+
+	}
+
+	/**
+	 * copies an entity's tags from the builder to the end of the tag arrays
+	 *
+	 * @param tagCount  number of tags which have already been copied
+	 * @return  the new number of copied tags
+	 */
+	private int copyTags(Builder b, int start, int count, int tagCount) {
+		for (int t = start; t < start + count; t++) {
+			tagKeys[tagCount] = b.tagKeys.get(t);
+			tagValues[tagCount] = b.tagValues.get(t);
+			tagCount++;
+		}
+		return tagCount;
+	}
+
+	/**
+	 * returns the indices of entities in the order of their ids.
+	 * If an id appears more than once, only the last of these entities is kept.
+	 */
+	private static int[] sortedOrder(TLongArrayList ids) {
+
+		int size = ids.size();
+
+		boolean sorted = true;
+		for (int i = 1; i < size && sorted; i++) {
+			sorted = ids.get(i - 1) < ids.get(i);
+		}
+
+		if (sorted) {
+			int[] result = new int[size];
+			Arrays.setAll(result, i -> i);
+			return result;
+		}
+
+		/* sort the indices (the sort is stable, so duplicates remain in their original order) */
+
+		Integer[] order = new Integer[size];
+		Arrays.setAll(order, i -> i);
+		Arrays.sort(order, Comparator.comparingLong(ids::get));
+
+		TIntArrayList result = new TIntArrayList(size);
+
+		for (int i = 0; i < size; i++) {
+			if (i + 1 == size || ids.get(order[i]) != ids.get(order[i + 1])) {
+				result.add(order[i]);
+			}
+		}
+
+		return result.toArray();
+
+	}
+
+	/**
+	 * reads all entities and the bounds (if any) from an osm4j iterator.
+	 * The entities are only referenced until they have been added, so they do not need to be in memory all at once.
+	 */
+	public static CompactOSMData read(OsmIterator iterator) {
+
+		Builder builder = new Builder();
+
+		if (iterator.hasBounds()) {
+			builder.addBounds(iterator.getBounds());
+		}
+
+		while (iterator.hasNext()) {
+			EntityContainer container = iterator.next();
+			switch (container.getType()) {
+			case Node: builder.add((OsmNode) container.getEntity()); break;
+			case Way: builder.add((OsmWay) container.getEntity()); break;
+			case Relation: builder.add((OsmRelation) container.getEntity()); break;
+			}
+		}
+
+		return builder.build();
+
+	}
+
+	@Override
+	public Collection<OsmNode> getNodes() {
+		return new AbstractList<OsmNode>() {
+			@Override public OsmNode get(int index) { return new NodeView(index); }
+			@Override public int size() { return nodeIds.length; }
+		};
+	}
+
+	@Override
+	public OsmNode getNode(long id) throws EntityNotFoundException {
+		int index = Arrays.binarySearch(nodeIds, id);
+		if (index < 0) throw new EntityNotFoundException("unable to find node with id: " + id);
+		return new NodeView(index);
+	}
+
+	@Override
+	public Collection<OsmWay> getWays() {
+		return new AbstractList<OsmWay>() {
+			@Override public OsmWay get(int index) { return new WayView(index); }
+			@Override public int size() { return wayIds.length; }
+		};
+	}
+
+	@Override
+	public OsmWay getWay(long id) throws EntityNotFoundException {
+		int index = Arrays.binarySearch(wayIds, id);
+		if (index < 0) throw new EntityNotFoundException("unable to find way with id: " + id);
+		return new WayView(index);
+	}
+
+	@Override
+	public Collection<OsmRelation> getRelations() {
+		return new AbstractList<OsmRelation>() {
+			@Override public OsmRelation get(int index) { return new RelationView(index); }
+			@Override public int size() { return relationIds.length; }
+		};
+	}
+
+	@Override
+	public OsmRelation getRelation(long id) throws EntityNotFoundException {
+		int index = Arrays.binarySearch(relationIds, id);
+		if (index < 0) throw new EntityNotFoundException("unable to find relation with id: " + id);
+		return new RelationView(index);
+	}
+
+	/**
+	 * creates an osm4j dataset containing this data's entities.
+	 * This is only intended for compatibility with code which needs an {@link InMemoryMapDataSet},
+	 * as it creates a map entry for each entity.
+	 */
+	@Override
+	public InMemoryMapDataSet getData() {
+
+		InMemoryMapDataSet data = new InMemoryMapDataSet();
+
+		for (OsmNode node : getNodes()) {
+			data.getNodes().put(node.getId(), node);
+		}
+		for (OsmWay way : getWays()) {
+			data.getWays().put(way.getId(), way);
+		}
+		for (OsmRelation relation : getRelations()) {
+			data.getRelations().put(relation.getId(), relation);
+		}
+
+		return data;
+
+	}
+
+	/** common implementation of the views of nodes, ways and relations */
+	private abstract class EntityView implements OsmEntity {
+
+		protected final int index;
+
+		EntityView(int index) {
+			this.index = index;
+		}
+
+		/** returns the offsets of all entities of this type in the tag arrays */
+		protected abstract int[] tagOffsets();
+
+		@Override
+		public int getNumberOfTags() {
+			return tagOffsets()[index + 1] - tagOffsets()[index];
+		}
+
+		@Override
+		public OsmTag getTag(int n) {
+			int t = tagOffsets()[index] + n;
+			return new Tag(tagKeys[t], tagValues[t]);
+		}
+
+		@Override
+		public OsmMetadata getMetadata() {
+			return null;
+		}
+
+	}
+
+	private class NodeView extends EntityView implements OsmNode {
+
+		NodeView(int index) {
+			super(index);
+		}
+
+		@Override
+		protected int[] tagOffsets() {
+			return nodeTagOffsets;
+		}
+
+		@Override
+		public long getId() {
+			return nodeIds[index];
+		}
+
+		public EntityType getType() {
+			return EntityType.Node;
+		}
+
+		@Override
+		public double getLatitude() {
+			return nodeLats[index];
+		}
+
+		@Override
+		public double getLongitude() {
+			return nodeLons[index];
+		}
+
+	}
+
+	private class WayView extends EntityView implements OsmWay {
+
+		WayView(int index) {
+			super(index);
+		}
+
+		@Override
+		protected int[] tagOffsets() {
+			return wayTagOffsets;
+		}
+
+		@Override
+		public long getId() {
+			return wayIds[index];
+		}
+
+		public EntityType getType() {
+			return EntityType.Way;
+		}
+
+		@Override
+		public int getNumberOfNodes() {
+			return wayNodeOffsets[index + 1] - wayNodeOffsets[index];
+		}
+
+		@Override
+		public long getNodeId(int n) {
+			return wayNodeIds[wayNodeOffsets[index] + n];
+		}
+
+	}
+
+	private class RelationView extends EntityView implements OsmRelation {
+
+		RelationView(int index) {
+			super(index);
+		}
+
+		@Override
+		protected int[] tagOffsets() {
+			return relationTagOffsets;
+		}
+
+		@Override
+		public long getId() {
+			return relationIds[index];
+		}
+
+		public EntityType getType() {
+			return EntityType.Relation;
+		}
+
+		@Override
+		public int getNumberOfMembers() {
+			return memberOffsets[index + 1] - memberOffsets[index];
+		}
+
+		@Override
+		public OsmRelationMember getMember(int n) {
+			int m = memberOffsets[index] + n;
+			return new RelationMember(memberIds[m], memberTypes[m], memberRoles[m]);
+		}
+
+	}
+
+	/**
+	 * collects entities for a {@link CompactOSMData} instance.
+	 * Entities can be added in any order. The builder does not keep references to the added entities.
+	 */
+	public static class Builder {
+
+		private final List<OsmBounds> bounds = new ArrayList<>();
+
+		private final TLongArrayList nodeIds = new TLongArrayList();
+		private final TDoubleArrayList nodeLats = new TDoubleArrayList();
+		private final TDoubleArrayList nodeLons = new TDoubleArrayList();
+		private final TIntArrayList nodeTagStarts = new TIntArrayList();
+		private final TIntArrayList nodeTagCounts = new TIntArrayList();
+
+		private final TLongArrayList wayIds = new TLongArrayList();
+		private final TIntArrayList wayNodeStarts = new TIntArrayList();
+		private final TLongArrayList wayNodeIds = new TLongArrayList();
+		private final TIntArrayList wayTagStarts = new TIntArrayList();
+		private final TIntArrayList wayTagCounts = new TIntArrayList();
+
+		private final TLongArrayList relationIds = new TLongArrayList();
+		private final TIntArrayList memberStarts = new TIntArrayList();
+		private final TLongArrayList memberIds = new TLongArrayList();
+		private final List<EntityType> memberTypes = new ArrayList<>();
+		private final List<String> memberRoles = new ArrayList<>();
+		private final TIntArrayList relationTagStarts = new TIntArrayList();
+		private final TIntArrayList relationTagCounts = new TIntArrayList();
+
+		private final List<String> tagKeys = new ArrayList<>();
+		private final List<String> tagValues = new ArrayList<>();
+
+		/** pool of strings used for interning */
+		private final Map<String, String> strings = new HashMap<>();
+
+		private boolean built = false;
+
+		public Builder addBounds(OsmBounds bounds) {
+			this.bounds.add(bounds);
+			return this;
+		}
+
+		public Builder add(OsmNode node) {
+			nodeIds.add(node.getId());
+			nodeLats.add(node.getLatitude());
+			nodeLons.add(node.getLongitude());
+			nodeTagStarts.add(tagKeys.size());
+			nodeTagCounts.add(node.getNumberOfTags());
+			addTags(node);
+			return this;
+		}
+
+		public Builder add(OsmWay way) {
+			wayIds.add(way.getId());
+			wayNodeStarts.add(wayNodeIds.size());
+			for (int i = 0; i < way.getNumberOfNodes(); i++) {
+				wayNodeIds.add(way.getNodeId(i));
+			}
+			wayTagStarts.add(tagKeys.size());
+			wayTagCounts.add(way.getNumberOfTags());
+			addTags(way);
+			return this;
+		}
+
+		public Builder add(OsmRelation relation) {
+			relationIds.add(relation.getId());
+			memberStarts.add(memberIds.size());
+			for (int i = 0; i < relation.getNumberOfMembers(); i++) {
+				OsmRelationMember member = relation.getMember(i);
+				memberIds.add(member.getId());
+				memberTypes.add(member.getType());
+				memberRoles.add(intern(member.getRole()));
+			}
+			relationTagStarts.add(tagKeys.size());
+			relationTagCounts.add(relation.getNumberOfTags());
+			addTags(relation);
+			return this;
+		}
+
+		private void addTags(OsmEntity entity) {
+			for (int i = 0; i < entity.getNumberOfTags(); i++) {
+				OsmTag tag = entity.getTag(i);
+				tagKeys.add(intern(tag.getKey()));
+				tagValues.add(intern(tag.getValue()));
+			}
+		}
+
+		private String intern(String s) {
+			String result = strings.putIfAbsent(s, s);
+			return result != null ? result : s;
+		}
+
+		/**
+		 * creates the {@link CompactOSMData}. Can only be called once.
+		 */
+		public CompactOSMData build() {
+
+			if (built) {
+				throw new IllegalStateException("build has already been called");
+			}
+
+			built = true;
+
+			/* add the end of the last entity's range to the lists of way nodes and members */
+
+			wayNodeStarts.add(wayNodeIds.size());
+			memberStarts.add(memberIds.size());
+
+			return new CompactOSMData(this);
+
+		}
+
+	}
+
+}
@@ -50,6 +50,15 @@ public class OSMData implements OsmEntityProvider {
 
 	}
 
+	/**
+	 * constructor for subclasses which store the entities themselves, such as {@link CompactOSMData}.
+	 * These need to override all methods which access entities.
+	 */
+	protected OSMData(Collection<OsmBounds> bounds) {
+		this.bounds = bounds;
+		this.data = null;
+	}
+
 	public Collection<OsmBounds> getBounds() {
 		return bounds;
 	}
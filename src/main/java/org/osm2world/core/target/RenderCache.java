@@ -0,0 +1,84 @@
+package org.osm2world.core.target;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.configuration.Configuration;
+import org.osm2world.core.target.TargetUtil.RecordedObject;
+import org.osm2world.core.target.common.RecordingTarget;
+import org.osm2world.core.target.frontend_pbf.ModelTarget;
+import org.osm2world.core.world.data.WorldObject;
+
+/**
+ * stores the output of {@link WorldObject}s recorded with {@link RecordingTarget}s,
+ * so that each object only needs to be rendered once when the same data is written to several targets.
+ * Used by
+ * {@link TargetUtil#renderWorldObjects(Target, org.osm2world.core.map_data.data.MapData, boolean, int, RenderCache)}.
+ *
+ * Objects render differently depending on whether the target is a {@link ModelTarget},
+ * so separate recordings are kept for both kinds of target.
+ * Once the estimated size of the recordings would exceed the memory budget,
+ * additional objects are still recorded for the current target, but no longer stored.
+ *
+ * This class is thread-safe.
+ */
+public class RenderCache {
+
+	private final long memoryBudget;
+	private final AtomicLong usedMemory = new AtomicLong();
+
+	private final Map<WorldObject, RecordedObject> recordings = new ConcurrentHashMap<>();
+	private final Map<WorldObject, RecordedObject> modelRecordings = new ConcurrentHashMap<>();
+
+	/**
+	 * @param memoryBudget  maximum estimated size of the stored recordings in bytes,
+	 *                      see {@link RecordingTarget#getEstimatedSize()}
+	 */
+	public RenderCache(long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+	}
+
+	/**
+	 * creates a cache with the memory budget from the "renderCacheMemory" config key (in MiB, i.e. 1024 * 1024 bytes).
+	 * The default is a quarter of the maximum heap size.
+	 */
+	public static RenderCache forConfig(Configuration config) {
+		long defaultBudgetMiB = Runtime.getRuntime().maxMemory() / 4 / (1024L * 1024L);
+		return new RenderCache(config.getLong("renderCacheMemory", defaultBudgetMiB) * 1024L * 1024L);
+	}
+
+	/** returns the estimated size of all stored recordings in bytes */
+	public long getUsedMemory() {
+		return usedMemory.get();
+	}
+
+	/**
+	 * returns the recorded output of an object which is suitable for replaying into a target.
+	 * Renders the object if no such recording has been stored yet.
+	 */
+	RecordedObject getRecording(WorldObject object, Target target) {
+
+		Map<WorldObject, RecordedObject> map = (target instanceof ModelTarget) ? modelRecordings : recordings;
+
+		RecordedObject result = map.get(object);
+
+		if (result == null) {
+
+			result = new RecordedObject(object, RecordingTarget.createFor(target));
+
+			long size = result.recording.getEstimatedSize();
+
+			if (usedMemory.addAndGet(size) <= memoryBudget) {
+				map.put(object, result);
+			} else {
+				usedMemory.addAndGet(-size);
+			}
+
+		}
+
+		return result;
+
+	}
+
+}
@@ -1,19 +1,34 @@
 package org.osm2world.core.target;
 
+import static java.lang.Math.min;
+import static java.util.stream.Collectors.toList;
 import static org.osm2world.core.target.statistics.StatisticsTarget.Stat.PRIMITIVE_COUNT;
 import static org.osm2world.core.util.FaultTolerantIterationUtil.*;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
 
+import javax.annotation.Nullable;
+
 import org.osm2world.core.map_data.data.MapData;
 import org.osm2world.core.map_data.data.MapElement;
 import org.osm2world.core.map_elevation.data.GroundState;
+import org.osm2world.core.target.common.FaceTarget;
+import org.osm2world.core.target.common.RecordingTarget;
+import org.osm2world.core.target.povray.POVRayTarget;
 import org.osm2world.core.target.statistics.StatisticsTarget;
 import org.osm2world.core.world.data.WorldObject;
 
 public final class TargetUtil {
 
+	/** number of objects which are rendered in parallel before their recorded output is replayed */
+	static final int RENDER_BATCH_SIZE = 256;
+
 	private TargetUtil() {}
 
 	/**
@@ -33,6 +48,162 @@ public final class TargetUtil {
 		}
 	}
 
+	/**
+	 * variant of {@link #renderWorldObjects(Target, MapData, boolean)} which renders objects on multiple threads.
+	 *
+	 * Objects are rendered into {@link RecordingTarget}s on worker threads, one batch at a time.
+	 * The recorded calls are then replayed into the target on the calling thread,
+	 * in the same order as with serial rendering, so the target does not need to be thread-safe.
+	 * The next batch is rendered while the previous one is being replayed.
+	 *
+	 * Targets which do not only depend on the calls to their drawing methods
+	 * (such as {@link POVRayTarget} and {@link FaceTarget}s reconstructing faces) are always rendered serially.
+	 *
+	 * @param threads  number of threads for rendering, 1 disables parallel rendering
+	 */
+	public static void renderWorldObjects(Target target, MapData mapData, boolean renderUnderground, int threads) {
+		renderWorldObjects(target, mapData, renderUnderground, threads, null);
+	}
+
+	/**
+	 * variant of {@link #renderWorldObjects(Target, MapData, boolean, int)}
+	 * which reuses recorded output from a {@link RenderCache}.
+	 * Objects which are not in the cache yet are recorded and added to it (within the cache's memory budget).
+	 *
+	 * @param cache  cache shared by all targets which the same data is rendered to; can be null
+	 */
+	public static void renderWorldObjects(Target target, MapData mapData, boolean renderUnderground, int threads,
+			@Nullable RenderCache cache) {
+
+		if (!supportsRecording(target) || (threads <= 1 && cache == null)) {
+			renderWorldObjects(target, mapData, renderUnderground);
+			return;
+		}
+
+		/* collect the objects in the order in which they would be rendered */
+
+		List<WorldObject> objects = new ArrayList<>();
+
+		for (MapElement mapElement : mapData.getMapElements()) {
+			forEach(mapElement.getRepresentations(), (WorldObject r) -> {
+				if (r.getParent() == null) {
+					if (renderUnderground || r.getGroundState() != GroundState.BELOW) {
+						objects.add(r);
+					}
+				}
+			}, (e, r) -> DEFAULT_EXCEPTION_HANDLER.accept(e, r.getPrimaryMapElement()));
+		}
+
+		if (threads <= 1) {
+
+			/* use the cached output where available, and render the remaining objects serially */
+
+			forEach(objects, (WorldObject o) -> replay(cache.getRecording(o, target), target),
+					(e, o) -> DEFAULT_EXCEPTION_HANDLER.accept(e, o.getPrimaryMapElement()));
+
+			return;
+
+		}
+
+		/* render the objects in batches, and replay each batch while the next one is being rendered */
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+
+		try {
+
+			ForkJoinTask<List<RecordedObject>> nextBatch = submitBatch(pool, target, objects, 0, cache);
+
+			for (int start = 0; start < objects.size(); start += RENDER_BATCH_SIZE) {
+
+				List<RecordedObject> batch = nextBatch.get();
+
+				if (start + RENDER_BATCH_SIZE < objects.size()) {
+					nextBatch = submitBatch(pool, target, objects, start + RENDER_BATCH_SIZE, cache);
+				}
+
+				forEach(batch, (RecordedObject r) -> replay(r, target),
+						(e, r) -> DEFAULT_EXCEPTION_HANDLER.accept(e, r.object.getPrimaryMapElement()));
+
+			}
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else {
+				throw new RuntimeException(e.getCause());
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+	}
+
+	/**
+	 * starts rendering the batch of objects beginning at a given index into {@link RecordingTarget}s,
+	 * or retrieving their recordings from the cache
+	 */
+	private static ForkJoinTask<List<RecordedObject>> submitBatch(ForkJoinPool pool, Target target,
+			List<WorldObject> objects, int start, @Nullable RenderCache cache) {
+		List<WorldObject> batch = objects.subList(start, min(start + RENDER_BATCH_SIZE, objects.size()));
+		return pool.submit(() -> batch.parallelStream()
+				.map(o -> cache != null
+						? cache.getRecording(o, target)
+						: new RecordedObject(o, RecordingTarget.createFor(target)))
+				.collect(toList()));
+	}
+
+	/** replays the recorded output of an object into the target, and reports exceptions from rendering it */
+	public static void replay(RecordedObject r, Target target) {
+		target.beginObject(r.object);
+		r.recording.replay(target);
+		if (r.exception != null) {
+			DEFAULT_EXCEPTION_HANDLER.accept(r.exception, r.object.getPrimaryMapElement());
+		}
+	}
+
+	/**
+	 * checks whether rendering to {@link RecordingTarget}s and replaying the calls
+	 * produces the same result for a target as rendering to it directly
+	 */
+	static boolean supportsRecording(Target target) {
+		return !(target instanceof POVRayTarget)
+				&& !(target instanceof FaceTarget && ((FaceTarget) target).reconstructFaces());
+	}
+
+	/**
+	 * the recorded output of one {@link WorldObject}
+	 */
+	public static class RecordedObject {
+
+		final WorldObject object;
+		final RecordingTarget recording;
+
+		/** exception thrown while rendering the object, the recording contains the output until that point */
+		final Exception exception;
+
+		/** renders the object into the recording target */
+		public RecordedObject(WorldObject object, RecordingTarget recording) {
+
+			this.object = object;
+			this.recording = recording;
+
+			Exception exception = null;
+
+			try {
+				object.renderTo(recording);
+			} catch (Exception e) {
+				exception = e;
+			}
+
+			this.exception = exception;
+
+		}
+
+	}
+
 	/**
 	 * render all world objects to a target instances
 	 * that are compatible with that target type.
@@ -0,0 +1,185 @@
+package org.osm2world.core.target.common;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.osm2world.core.math.TriangleXYZ;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.math.shapes.ClosedShapeXZ;
+import org.osm2world.core.math.shapes.ShapeXZ;
+import org.osm2world.core.target.Target;
+import org.osm2world.core.target.common.material.Material;
+import org.osm2world.core.target.common.model.Model;
+import org.osm2world.core.target.frontend_pbf.ModelTarget;
+
+/**
+ * a target which records the calls to its drawing methods,
+ * so that they can later be replayed into another target.
+ *
+ * This makes it possible to render objects on a different thread than the one which owns the actual target.
+ * Calls are recorded at the level of the {@link Target} interface, so the target receiving the replayed calls
+ * can use its own implementations of e.g. {@link #drawExtrudedShape(Material, ShapeXZ, List, List, List, List, Set)}.
+ * Lists passed to the drawing methods are copied, because callers may modify them after the call.
+ */
+public class RecordingTarget extends AbstractTarget {
+
+	/** rough estimates of the memory used by recorded data, in bytes */
+	private static final int CALL_SIZE = 64, VECTOR_XYZ_SIZE = 40, VECTOR_XZ_SIZE = 32, TRIANGLE_SIZE = 32;
+
+	protected final List<Consumer<Target>> calls = new ArrayList<>();
+
+	/** estimated memory used by the recorded calls, in bytes */
+	protected long estimatedSize = 0;
+
+	/**
+	 * creates a recording target which is suitable for later replaying into a particular target.
+	 * The result implements {@link ModelTarget} if the target does.
+	 */
+	public static RecordingTarget createFor(Target target) {
+		if (target instanceof ModelTarget) {
+			return new RecordingModelTarget();
+		} else {
+			return new RecordingTarget();
+		}
+	}
+
+	/** replays all recorded calls into another target, in the order in which they have been recorded */
+	public void replay(Target target) {
+		for (Consumer<Target> call : calls) {
+			call.accept(target);
+		}
+	}
+
+	/** returns true if no calls have been recorded */
+	public boolean isEmpty() {
+		return calls.isEmpty();
+	}
+
+	/** discards all recorded calls */
+	public void clear() {
+		calls.clear();
+		estimatedSize = 0;
+	}
+
+	/**
+	 * returns a rough estimate of the memory used by the recorded calls, in bytes.
+	 * Objects shared with other parts of the program (such as materials and shapes) are not included.
+	 */
+	public long getEstimatedSize() {
+		return estimatedSize;
+	}
+
+	@Override
+	public void drawTriangles(Material material, List<? extends TriangleXYZ> triangles,
+			List<List<VectorXZ>> texCoordLists) {
+		List<TriangleXYZ> trianglesCopy = new ArrayList<>(triangles);
+		List<List<VectorXZ>> texCoordListsCopy = copy(texCoordLists);
+		calls.add(t -> t.drawTriangles(material, trianglesCopy, texCoordListsCopy));
+		estimatedSize += CALL_SIZE + trianglesCopy.size() * (TRIANGLE_SIZE + 3 * VECTOR_XYZ_SIZE)
+				+ size(texCoordListsCopy);
+	}
+
+	@Override
+	public void drawTriangleStrip(Material material, List<VectorXYZ> vs,
+			List<List<VectorXZ>> texCoordLists) {
+		List<VectorXYZ> vsCopy = new ArrayList<>(vs);
+		List<List<VectorXZ>> texCoordListsCopy = copy(texCoordLists);
+		calls.add(t -> t.drawTriangleStrip(material, vsCopy, texCoordListsCopy));
+		estimatedSize += CALL_SIZE + vsCopy.size() * VECTOR_XYZ_SIZE + size(texCoordListsCopy);
+	}
+
+	@Override
+	public void drawTriangleFan(Material material, List<VectorXYZ> vs,
+			List<List<VectorXZ>> texCoordLists) {
+		List<VectorXYZ> vsCopy = new ArrayList<>(vs);
+		List<List<VectorXZ>> texCoordListsCopy = copy(texCoordLists);
+		calls.add(t -> t.drawTriangleFan(material, vsCopy, texCoordListsCopy));
+		estimatedSize += CALL_SIZE + vsCopy.size() * VECTOR_XYZ_SIZE + size(texCoordListsCopy);
+	}
+
+	@Override
+	public void drawConvexPolygon(Material material, List<VectorXYZ> vs,
+			List<List<VectorXZ>> texCoordLists) {
+		List<VectorXYZ> vsCopy = new ArrayList<>(vs);
+		List<List<VectorXZ>> texCoordListsCopy = copy(texCoordLists);
+		calls.add(t -> t.drawConvexPolygon(material, vsCopy, texCoordListsCopy));
+		estimatedSize += CALL_SIZE + vsCopy.size() * VECTOR_XYZ_SIZE + size(texCoordListsCopy);
+	}
+
+	@Override
+	public void drawShape(Material material, ClosedShapeXZ shape, VectorXYZ point,
+			VectorXYZ frontVector, VectorXYZ upVector, double scaleFactor) {
+		calls.add(t -> t.drawShape(material, shape, point, frontVector, upVector, scaleFactor));
+		estimatedSize += CALL_SIZE;
+	}
+
+	@Override
+	public void drawExtrudedShape(Material material, ShapeXZ shape, List<VectorXYZ> path,
+			List<VectorXYZ> upVectors, List<Double> scaleFactors,
+			List<List<VectorXZ>> texCoordLists, Set<ExtrudeOption> options) {
+		List<VectorXYZ> pathCopy = new ArrayList<>(path);
+		List<VectorXYZ> upVectorsCopy = upVectors == null ? null : new ArrayList<>(upVectors);
+		List<Double> scaleFactorsCopy = scaleFactors == null ? null : new ArrayList<>(scaleFactors);
+		List<List<VectorXZ>> texCoordListsCopy = copy(texCoordLists);
+		Set<ExtrudeOption> optionsCopy = options == null ? null
+				: options.isEmpty() ? EnumSet.noneOf(ExtrudeOption.class) : EnumSet.copyOf(options);
+		calls.add(t -> t.drawExtrudedShape(material, shape, pathCopy, upVectorsCopy, scaleFactorsCopy,
+				texCoordListsCopy, optionsCopy));
+		estimatedSize += CALL_SIZE + pathCopy.size() * VECTOR_XYZ_SIZE
+				+ (upVectorsCopy == null ? 0 : upVectorsCopy.size() * VECTOR_XYZ_SIZE)
+				+ (scaleFactorsCopy == null ? 0 : scaleFactorsCopy.size() * 16)
+				+ size(texCoordListsCopy);
+	}
+
+	@Override
+	public void drawBox(Material material, VectorXYZ bottomCenter, VectorXZ faceDirection,
+			double height, double width, double depth) {
+		calls.add(t -> t.drawBox(material, bottomCenter, faceDirection, height, width, depth));
+		estimatedSize += CALL_SIZE;
+	}
+
+	@Override
+	public void drawColumn(Material material, Integer corners, VectorXYZ base,
+			double height, double radiusBottom, double radiusTop, boolean drawBottom, boolean drawTop) {
+		calls.add(t -> t.drawColumn(material, corners, base, height, radiusBottom, radiusTop, drawBottom, drawTop));
+		estimatedSize += CALL_SIZE;
+	}
+
+	private static List<List<VectorXZ>> copy(List<List<VectorXZ>> texCoordLists) {
+		if (texCoordLists == null) return null;
+		List<List<VectorXZ>> result = new ArrayList<>(texCoordLists.size());
+		for (List<VectorXZ> texCoordList : texCoordLists) {
+			result.add(texCoordList == null ? null : new ArrayList<>(texCoordList));
+		}
+		return result;
+	}
+
+	private static long size(List<List<VectorXZ>> texCoordLists) {
+		long result = 0;
+		if (texCoordLists != null) {
+			for (List<VectorXZ> texCoordList : texCoordLists) {
+				result += texCoordList == null ? 0 : texCoordList.size() * VECTOR_XZ_SIZE;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * variant of {@link RecordingTarget} for targets which support instanced models
+	 */
+	private static class RecordingModelTarget extends RecordingTarget implements ModelTarget {
+
+		@Override
+		public void drawModel(Model model, VectorXYZ position,
+				double direction, Double height, Double width, Double length) {
+			calls.add(t -> ((ModelTarget) t).drawModel(model, position, direction, height, width, length));
+			estimatedSize += CALL_SIZE;
+		}
+
+	}
+
+}
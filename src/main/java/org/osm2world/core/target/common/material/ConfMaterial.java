@@ -1,59 +1,83 @@
 package org.osm2world.core.target.common.material;
 
+import static java.util.Collections.emptyList;
+
 import java.awt.Color;
 import java.util.List;
 
 
 /**
  * a material whose attributes can be configured at runtime.
+ *
+ * The attributes passed to the constructor are defaults.
+ * The getters return the attributes from the {@link MaterialRegistry} which is active for the current thread,
+ * so the same instance can be used by several conversions with different configurations at the same time.
  */
 public class ConfMaterial extends Material {
 
+	/** the attributes of this material if it has not been configured */
+	private final ImmutableMaterial defaults;
+
 	public ConfMaterial(Interpolation interpolation, Color color, boolean doubleSided,
 			Transparency transparency, Shadow shadow, AmbientOcclusion ambientOcclusion,
 			List<TextureLayer> textureLayers) {
 		super(interpolation, color, doubleSided,
 				transparency, shadow, ambientOcclusion, textureLayers);
+		defaults = new ImmutableMaterial(interpolation, color, doubleSided,
+				transparency, shadow, ambientOcclusion, textureLayers);
 	}
 
 	public ConfMaterial(Interpolation interpolation, Color color,
 			Transparency transparency, List<TextureLayer> textureLayers) {
-		super(interpolation, color, transparency, textureLayers);
+		this(interpolation, color, false, transparency, Shadow.TRUE, AmbientOcclusion.TRUE, textureLayers);
 	}
 
 	public ConfMaterial(Interpolation interpolation, Color color) {
-		super(interpolation, color);
+		this(interpolation, color, Transparency.FALSE, emptyList());
 	}
 
-	public void setInterpolation(Interpolation interpolation) {
-		this.interpolation = interpolation;
+	ImmutableMaterial getDefaults() {
+		return defaults;
 	}
 
-	public void setColor(Color color) {
-		this.color = color;
+	/** returns the attributes of this material in the current thread's {@link MaterialRegistry} */
+	private Material attributes() {
+		return MaterialRegistry.current().getAttributes(this);
 	}
 
-	public void setDoubleSided(boolean doubleSided) {
-		this.doubleSided = doubleSided;
+	@Override
+	public Interpolation getInterpolation() {
+		return attributes().getInterpolation();
 	}
 
-	public void setTransparency(Transparency transparency) {
-		this.transparency = transparency;
+	@Override
+	public Color getColor() {
+		return attributes().getColor();
 	}
 
-	public void setShadow(Shadow shadow) {
-		this.shadow = shadow;
+	@Override
+	public boolean isDoubleSided() {
+		return attributes().isDoubleSided();
 	}
 
-	public void setAmbientOcclusion(AmbientOcclusion ambientOcclusion) {
-		this.ambientOcclusion = ambientOcclusion;
+	@Override
+	public Transparency getTransparency() {
+		return attributes().getTransparency();
 	}
 
-	public void setTextureLayers(List<TextureLayer> textureLayers) {
-		if (textureLayers.size() > MAX_TEXTURE_LAYERS) {
-			throw new IllegalArgumentException("too many texture layers: " + textureLayers.size());
-		}
-		this.textureLayers = textureLayers;
+	@Override
+	public Shadow getShadow() {
+		return attributes().getShadow();
+	}
+
+	@Override
+	public AmbientOcclusion getAmbientOcclusion() {
+		return attributes().getAmbientOcclusion();
+	}
+
+	@Override
+	public List<TextureLayer> getTextureLayers() {
+		return attributes().getTextureLayers();
 	}
 
 	@Override
@@ -24,6 +24,9 @@ public class ImageTexture extends TextureData {
 
 	private File convertedToPng = null;
 
+	/** cached result of {@link #getDataUri()}, textures can be used by many conversions in the same process */
+	private String dataUri = null;
+
 	public ImageTexture(File file, double width, double height, @Nullable Double widthPerEntity, @Nullable Double heightPerEntity,
 			Wrap wrap, TexCoordFunction texCoordFunction) {
 		super(width, height, widthPerEntity, heightPerEntity, wrap, texCoordFunction);
@@ -35,7 +38,7 @@ public class ImageTexture extends TextureData {
 	}
 
 	@Override
-	public File getRasterImage() {
+	public synchronized File getRasterImage() {
 
 		if (this.file.getName().endsWith(".svg")) {
 
@@ -50,6 +53,14 @@ public class ImageTexture extends TextureData {
 
 	}
 
+	@Override
+	public synchronized String getDataUri() {
+		if (dataUri == null) {
+			dataUri = super.getDataUri();
+		}
+		return dataUri;
+	}
+
 	/**
 	 * Converts an .svg image file into a (temporary) .png
 	 *
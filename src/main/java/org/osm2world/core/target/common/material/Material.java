@@ -197,6 +197,7 @@ public abstract class Material {
 	}
 
 	public int getNumTextureLayers() {
+		List<TextureLayer> textureLayers = getTextureLayers();
 		if (textureLayers == null) {
 			return 0;
 		} else {
@@ -206,7 +207,8 @@ public abstract class Material {
 
 	@Override
 	public String toString() {
-		String colorString = String.format(Locale.ROOT, "#%06x", color.getRGB() & 0x00ffffff);
+		List<TextureLayer> textureLayers = getTextureLayers();
+		String colorString = String.format(Locale.ROOT, "#%06x", getColor().getRGB() & 0x00ffffff);
 		if (textureLayers.isEmpty() || textureLayers.stream().anyMatch(it -> it.colorable)) {
 			return colorString + ", " + textureLayers;
 		} else {
@@ -0,0 +1,111 @@
+package org.osm2world.core.target.common.material;
+
+import static java.util.Collections.emptyMap;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.configuration.Configuration;
+
+/**
+ * the attributes of all {@link ConfMaterial}s for one configuration.
+ *
+ * The constants in {@link Materials} act as keys into a registry.
+ * Registries are immutable, so conversions with different configurations can run at the same time.
+ *
+ * A registry is activated for a thread with {@link #activate()}.
+ * Threads started by that thread (e.g. the workers of a ForkJoinPool created during the conversion)
+ * inherit the registry. Threads without a registry use {@link #DEFAULT}, so code which renders
+ * on a thread other than the one which ran the conversion (such as the viewer's rendering thread)
+ * needs to activate the registry from {@link org.osm2world.core.ConversionFacade.Results} itself.
+ */
+public final class MaterialRegistry {
+
+	/** registry for an empty configuration, which uses the default attributes of all materials */
+	public static final MaterialRegistry DEFAULT = new MaterialRegistry(emptyMap(), emptyMap());
+
+	/** maximum number of registries in {@link #cache} */
+	private static final int CACHE_SIZE = 16;
+
+	/** recently created registries, by the material-related entries of the configuration they were created from */
+	private static final Map<Map<String, Object>, MaterialRegistry> cache =
+			new LinkedHashMap<Map<String, Object>, MaterialRegistry>(CACHE_SIZE, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Map<String, Object>, MaterialRegistry> eldest) {
+					return size() > CACHE_SIZE;
+				}
+			};
+
+	private static final InheritableThreadLocal<MaterialRegistry> threadRegistry = new InheritableThreadLocal<>();
+
+	/** configured attributes; materials which are not contained here use their defaults */
+	private final Map<ConfMaterial, ImmutableMaterial> configuredAttributes;
+
+	/** materials which are defined by the configuration, but not in {@link Materials} */
+	private final Map<String, ConfMaterial> externalMaterials;
+
+	MaterialRegistry(Map<ConfMaterial, ImmutableMaterial> configuredAttributes,
+			Map<String, ConfMaterial> externalMaterials) {
+		this.configuredAttributes = configuredAttributes;
+		this.externalMaterials = externalMaterials;
+	}
+
+	/**
+	 * returns the registry for a configuration.
+	 * Registries are cached, so this is cheap if it has already been called for an equivalent configuration.
+	 */
+	public static MaterialRegistry forConfig(Configuration config) {
+
+		Map<String, Object> materialEntries = new HashMap<>();
+
+		Iterator<String> keyIterator = config.getKeys();
+
+		while (keyIterator.hasNext()) {
+			String key = keyIterator.next();
+			if (key.startsWith("material_")) {
+				materialEntries.put(key, config.getProperty(key));
+			}
+		}
+
+		if (materialEntries.isEmpty()) {
+			return DEFAULT;
+		}
+
+		synchronized (cache) {
+			MaterialRegistry registry = cache.get(materialEntries);
+			if (registry == null) {
+				registry = Materials.createRegistry(config);
+				cache.put(materialEntries, registry);
+			}
+			return registry;
+		}
+
+	}
+
+	/** returns the registry which is active for the current thread, {@link #DEFAULT} if there is none */
+	public static MaterialRegistry current() {
+		MaterialRegistry registry = threadRegistry.get();
+		return registry != null ? registry : DEFAULT;
+	}
+
+	/** makes this the active registry for the current thread and the threads it starts */
+	public void activate() {
+		threadRegistry.set(this);
+	}
+
+	/** returns the attributes of a material according to this registry */
+	ImmutableMaterial getAttributes(ConfMaterial material) {
+		ImmutableMaterial attributes = configuredAttributes.get(material);
+		return attributes != null ? attributes : material.getDefaults();
+	}
+
+	/** returns a material which is only defined by the configuration, null if it doesn't exist */
+	@Nullable ConfMaterial getExternalMaterial(String name) {
+		return externalMaterials.get(name);
+	}
+
+}
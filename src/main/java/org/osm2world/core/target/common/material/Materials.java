@@ -266,7 +266,6 @@ public final class Materials {
 
 	private static final Map<String, ConfMaterial> surfaceMaterialMap = new HashMap<>();
 	private static final Map<ConfMaterial, String> fieldNameMap = new HashMap<>();
-	private static final Map<String, ConfMaterial> externalMaterials = new HashMap<>();
 
 	static {
 
@@ -316,24 +315,28 @@ public final class Materials {
 		return fieldNameMap.keySet();
 	}
 
-	/** returns a material defined here based on its field name */
+	/**
+	 * returns a material defined here based on its field name.
+	 * Also returns materials defined only in the configuration of the current {@link MaterialRegistry}.
+	 */
 	public static final ConfMaterial getMaterial(String fieldName) {
+
+		ConfMaterial material = getFieldMaterial(fieldName);
+
+		if (material == null) {
+			material = MaterialRegistry.current().getExternalMaterial(fieldName);
+		}
+
+		return material;
+
+	}
+
+	private static final @Nullable ConfMaterial getFieldMaterial(String fieldName) {
 		for (Entry<ConfMaterial, String> entry : fieldNameMap.entrySet()) {
 			if (entry.getValue().equalsIgnoreCase(fieldName)) {
 				return entry.getKey();
 			}
 		}
-
-		/*
-		 * If the material is not defined in Materials.java, loop
-		 * through externalMaterials map
-		 */
-		for (String key : externalMaterials.keySet()) {
-			if(fieldName.equals(key)) {
-				return externalMaterials.get(fieldName);
-			}
-		}
-
 		return null;
 	}
 
@@ -366,11 +369,23 @@ public final class Materials {
 
 	/**
 	 * configures the attributes of the materials within this class
-	 * based on external configuration settings
+	 * based on external configuration settings.
+	 * This activates the {@link MaterialRegistry} for the configuration in the current thread.
 	 */
 	public static final void configureMaterials(Configuration config) {
+		MaterialRegistry.forConfig(config).activate();
+	}
 
-		Map<String, ConfMaterial> texturePrefixMap = new HashMap<>();
+	/**
+	 * creates a {@link MaterialRegistry} with the attributes of the materials within this class
+	 * based on external configuration settings
+	 */
+	static final MaterialRegistry createRegistry(Configuration config) {
+
+		Map<ConfMaterial, MaterialAttributes> attributeMap = new HashMap<>();
+		Map<String, ConfMaterial> externalMaterials = new HashMap<>();
+
+		Map<String, MaterialAttributes> texturePrefixMap = new HashMap<>();
 
 		Iterator<String> keyIterator = config.getKeys();
 
@@ -383,15 +398,18 @@ public final class Materials {
 			if (matcher.matches()) {
 
 				String materialName = matcher.group(1);
-				ConfMaterial material = getMaterial(materialName);
+				ConfMaterial confMaterial = getFieldMaterial(materialName);
 
 				/* If material is not defined in Materials.java, create new material
 				 * and add it to externalMaterials map */
-				if (material == null) {
-					material = new ConfMaterial(Interpolation.FLAT, Color.white);
-					externalMaterials.put(materialName, material);
+				if (confMaterial == null) {
+					confMaterial = externalMaterials.computeIfAbsent(materialName,
+							n -> new ConfMaterial(Interpolation.FLAT, Color.white));
 				}
 
+				MaterialAttributes material = attributeMap.computeIfAbsent(confMaterial,
+						m -> new MaterialAttributes(m.getDefaults()));
+
 				String attribute = matcher.group(2);
 
 				if ("interpolation".equals(attribute)) {
@@ -400,7 +418,7 @@ public final class Materials {
 					Interpolation interpolation = Interpolation.valueOf(value);
 
 					if (interpolation != null) {
-						material.setInterpolation(interpolation);
+						material.interpolation = interpolation;
 					}
 
 				} else if ("color".equals(attribute)) {
@@ -409,7 +427,7 @@ public final class Materials {
 							config.getString(key));
 
 					if (color != null) {
-						material.setColor(color);
+						material.color = color;
 					} else {
 						System.err.println("incorrect color value: "
 								+ config.getString(key));
@@ -418,7 +436,7 @@ public final class Materials {
 				} else if ("doubleSided".equals(attribute)) {
 
 					boolean doubleSided = config.getBoolean(key);
-					material.setDoubleSided(doubleSided);
+					material.doubleSided = doubleSided;
 
 				} else if ("shadow".equals(attribute)) {
 
@@ -426,7 +444,7 @@ public final class Materials {
 					Shadow shadow = Shadow.valueOf(value);
 
 					if (shadow != null) {
-						material.setShadow(shadow);
+						material.shadow = shadow;
 					}
 
 				} else if ("ssao".equals(attribute)) {
@@ -435,7 +453,7 @@ public final class Materials {
 					AmbientOcclusion ao = AmbientOcclusion.valueOf(value);
 
 					if (ao != null) {
-						material.setAmbientOcclusion(ao);
+						material.ambientOcclusion = ao;
 					}
 
 				} else if ("transparency".equals(attribute)) {
@@ -444,7 +462,7 @@ public final class Materials {
 					Transparency transparency = Transparency.valueOf(value);
 
 					if (transparency != null) {
-						material.setTransparency(transparency);
+						material.transparency = transparency;
 					}
 
 				} else if (attribute.startsWith("texture")) {
@@ -476,10 +494,17 @@ public final class Materials {
 				}
 			}
 
-			texturePrefixMap.get(texturePrefix).setTextureLayers(textureLayers);
+			texturePrefixMap.get(texturePrefix).textureLayers = textureLayers;
 
 		}
 
+		/* create the immutable registry */
+
+		Map<ConfMaterial, ImmutableMaterial> configuredAttributes = new HashMap<>();
+		attributeMap.forEach((m, attributes) -> configuredAttributes.put(m, attributes.build()));
+
+		return new MaterialRegistry(configuredAttributes, externalMaterials);
+
 	}
 
 	private static @Nullable TextureLayer createTextureLayer(Configuration config, String keyPrefix) {
@@ -693,4 +718,32 @@ public final class Materials {
 		return coordFunction;
 	}
 
+	/** mutable attributes of a material, used while reading the configuration */
+	private static class MaterialAttributes {
+
+		Interpolation interpolation;
+		Color color;
+		boolean doubleSided;
+		Transparency transparency;
+		Shadow shadow;
+		AmbientOcclusion ambientOcclusion;
+		List<TextureLayer> textureLayers;
+
+		MaterialAttributes(ImmutableMaterial defaults) {
+			interpolation = defaults.getInterpolation();
+			color = defaults.getColor();
+			doubleSided = defaults.isDoubleSided();
+			transparency = defaults.getTransparency();
+			shadow = defaults.getShadow();
+			ambientOcclusion = defaults.getAmbientOcclusion();
+			textureLayers = defaults.getTextureLayers();
+		}
+
+		ImmutableMaterial build() {
+			return new ImmutableMaterial(interpolation, color, doubleSided,
+					transparency, shadow, ambientOcclusion, textureLayers);
+		}
+
+	}
+
 }
@@ -50,7 +50,7 @@ public class TextTexture extends TextureData {
 	}
 
 	@Override
-	public File getRasterImage() {
+	public synchronized File getRasterImage() {
 
 		if (file == null) {
 			BufferedImage image = createBufferedImage();
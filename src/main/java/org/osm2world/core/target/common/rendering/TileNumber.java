@@ -1,8 +1,14 @@
 package org.osm2world.core.target.common.rendering;
 
+import static java.lang.Math.*;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.osm2world.core.map_data.creation.LatLonBounds;
+
 /**
  * immutable tile number with zoom level.
  * Tile coords follow the common XYZ convention, with an Y axis that points southward.
@@ -95,6 +101,43 @@ public class TileNumber {
 		return (1 << zoom) - 1 - y;
 	}
 
+	/** returns the area covered by this tile */
+	public LatLonBounds latLonBounds() {
+		return new LatLonBounds(tile2lat(y + 1, zoom), tile2lon(x, zoom), tile2lat(y, zoom), tile2lon(x + 1, zoom));
+	}
+
+	static final double tile2lon(int x, int z) {
+		return x / Math.pow(2.0, z) * 360.0 - 180;
+	}
+
+	static final double tile2lat(int y, int z) {
+		double n = Math.PI - (2.0 * Math.PI * y) / Math.pow(2.0, z);
+		return Math.toDegrees(Math.atan(Math.sinh(n)));
+	}
+
+	/**
+	 * returns all tiles in the rectangular range spanned by two corner tiles (inclusive)
+	 *
+	 * @throws IllegalArgumentException  if the corner tiles have different zoom levels
+	 */
+	public static List<TileNumber> tilesInRange(TileNumber corner1, TileNumber corner2) {
+
+		if (corner1.zoom != corner2.zoom) {
+			throw new IllegalArgumentException("tiles must have the same zoom level: " + corner1 + ", " + corner2);
+		}
+
+		List<TileNumber> result = new ArrayList<>();
+
+		for (int x = min(corner1.x, corner2.x); x <= max(corner1.x, corner2.x); x++) {
+			for (int y = min(corner1.y, corner2.y); y <= max(corner1.y, corner2.y); y++) {
+				result.add(new TileNumber(corner1.zoom, x, y));
+			}
+		}
+
+		return result;
+
+	}
+
 	/** formats this tile number as a string that matches {@link #PATTERN} */
 	@Override
 	public String toString() {
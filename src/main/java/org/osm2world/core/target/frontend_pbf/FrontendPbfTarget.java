@@ -3,24 +3,39 @@ package org.osm2world.core.target.frontend_pbf;
 import static java.lang.Math.round;
 import static java.util.Arrays.asList;
 import static java.util.Collections.*;
+import static java.util.Comparator.comparingInt;
 import static org.osm2world.core.map_data.creation.EmptyTerrainBuilder.EMPTY_SURFACE_VALUE;
+import static org.osm2world.core.math.AxisAlignedRectangleXZ.bboxUnion;
 import static org.osm2world.core.math.VectorXYZ.*;
 import static org.osm2world.core.target.common.ExtrudeOption.*;
 import static org.osm2world.core.target.common.material.Materials.*;
 import static org.osm2world.core.target.common.material.NamedTexCoordFunction.GLOBAL_X_Z;
 import static org.osm2world.core.target.common.material.TexCoordUtil.triangleTexCoordLists;
+import static org.osm2world.core.util.FaultTolerantIterationUtil.*;
 import static org.osm2world.core.world.modules.common.WorldModuleParseUtil.parseDirection;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+import javax.annotation.Nullable;
 
 import org.locationtech.jts.geom.TopologyException;
 import org.locationtech.jts.triangulate.ConstraintEnforcementException;
@@ -31,20 +46,26 @@ import org.osm2world.core.map_data.data.MapElement;
 import org.osm2world.core.map_data.data.MapNode;
 import org.osm2world.core.map_data.data.MapWaySegment;
 import org.osm2world.core.map_data.data.Tag;
+import org.osm2world.core.map_elevation.data.GroundState;
 import org.osm2world.core.math.AxisAlignedRectangleXZ;
+import org.osm2world.core.math.BoundedObject;
 import org.osm2world.core.math.InvalidGeometryException;
 import org.osm2world.core.math.TriangleXYZ;
 import org.osm2world.core.math.TriangleXZ;
 import org.osm2world.core.math.Vector3D;
 import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.math.datastructures.IndexGrid;
 import org.osm2world.core.math.shapes.CircleXZ;
 import org.osm2world.core.math.shapes.PolygonShapeXZ;
 import org.osm2world.core.math.shapes.ShapeXZ;
+import org.osm2world.core.target.RenderCache;
 import org.osm2world.core.target.Target;
 import org.osm2world.core.target.TargetUtil;
+import org.osm2world.core.target.TargetUtil.RecordedObject;
 import org.osm2world.core.target.common.AbstractTarget;
 import org.osm2world.core.target.common.ExtrudeOption;
+import org.osm2world.core.target.common.RecordingTarget;
 import org.osm2world.core.target.common.material.ImageTexture;
 import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.target.common.material.Material.Shadow;
@@ -52,6 +73,8 @@ import org.osm2world.core.target.common.material.TextureData;
 import org.osm2world.core.target.common.model.ExternalResourceModel;
 import org.osm2world.core.target.common.model.InstanceParameters;
 import org.osm2world.core.target.common.model.Model;
+import org.osm2world.core.target.common.rendering.OrthoTilesUtil;
+import org.osm2world.core.target.common.rendering.TileNumber;
 import org.osm2world.core.target.frontend_pbf.FrontendPbf.Animation;
 import org.osm2world.core.target.frontend_pbf.FrontendPbf.Animation.AnimationType;
 import org.osm2world.core.target.frontend_pbf.FrontendPbf.ExtrusionGeometry;
@@ -84,11 +107,11 @@ import org.osm2world.core.world.modules.StreetFurnitureModule.VendingMachineVice
 import org.osm2world.core.world.modules.StreetFurnitureModule.WasteBasket;
 import org.osm2world.core.world.modules.TreeModule.Forest;
 
-import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.protobuf.CodedOutputStream;
 
-public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
+public class FrontendPbfTarget extends AbstractTarget implements ModelTarget, AutoCloseable {
 
 	/**
 	 * whether empty terrain should be faked as a big rectangle slightly below other ground-level geometries.
@@ -163,55 +186,154 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 
 	/**
 	 * implementation of {@link Block} that's optimized for {@link Vector3D} instances.
+	 * Vectors are identified by their coordinates after rounding with {@link #COORD_PRECISION_FACTOR},
+	 * i.e. by the values that will be written to the protobuf.
+	 * These are stored in a primitive array and indexed with an open addressing hash table.
 	 */
 	static class VectorBlock<T extends Vector3D> implements Block<T> {
 
-		private static class Entry<T extends Vector3D> implements Comparable<Entry<T>> {
+		/** number of coordinates per vector, 3 for (x, y, z) or 2 for (x, z) */
+		private final int dimensions;
 
-			private final T element;
-			private final int index;
+		/** creates vectors from rounded coordinates for {@link #getElements()} */
+		private final Function<long[], T> vectorFactory;
 
-			public Entry(T element, int index) {
-				this.element = element;
-				this.index = index;
-			}
+		/** rounded coordinates of all elements, in order of their indices */
+		private long[] coords;
+		private int size = 0;
 
-			@Override
-			public int compareTo(Entry<T> o) {
-				return ComparisonChain.start()
-						.compare(this.element.getX(), o.element.getX())
-						.compare(this.element.getY(), o.element.getY())
-						.compare(this.element.getZ(), o.element.getZ())
-						.result();
-			}
+		/** hash table containing index + 1 for each element, or 0 for empty slots */
+		private int[] table = new int[64];
 
+		/** creates a block for {@link VectorXYZ} elements */
+		static VectorBlock<VectorXYZ> vector3dBlock() {
+			return new VectorBlock<>(3, c -> new VectorXYZ(
+					c[0] / (double)COORD_PRECISION_FACTOR,
+					c[1] / (double)COORD_PRECISION_FACTOR,
+					c[2] / (double)COORD_PRECISION_FACTOR));
 		}
 
-		List<T> elements = new ArrayList<T>();
-		List<Entry<T>> sortedEntrys = new ArrayList<Entry<T>>();
+		/** creates a block for {@link VectorXZ} elements */
+		static VectorBlock<VectorXZ> vector2dBlock() {
+			return new VectorBlock<>(2, c -> new VectorXZ(
+					c[0] / (double)COORD_PRECISION_FACTOR,
+					c[1] / (double)COORD_PRECISION_FACTOR));
+		}
+
+		private VectorBlock(int dimensions, Function<long[], T> vectorFactory) {
+			this.dimensions = dimensions;
+			this.vectorFactory = vectorFactory;
+			this.coords = new long[dimensions * table.length / 2];
+		}
 
+		/**
+		 * returns the elements of this block.
+		 * These are created from the rounded coordinates, so they are usually not the instances passed to
+		 * {@link #toIndex(Vector3D)}. Prefer {@link #forEachCoord(LongConsumer)} where possible.
+		 */
 		public List<T> getElements() {
-			return elements;
+			List<T> result = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				result.add(vectorFactory.apply(Arrays.copyOfRange(coords, i * dimensions, (i + 1) * dimensions)));
+			}
+			return result;
+		}
+
+		/** returns the number of elements in this block */
+		public int size() {
+			return size;
+		}
+
+		/** passes the rounded coordinates of all elements to the consumer, in the order they are written */
+		public void forEachCoord(LongConsumer consumer) {
+			for (int i = 0; i < size * dimensions; i++) {
+				consumer.accept(coords[i]);
+			}
 		}
 
 		/** adds the element to the block if necessary, and returns its index */
 		public int toIndex(T element) {
 
-			int index = binarySearch(sortedEntrys, new Entry<T>(element, -1));
+			long x = round(element.getX() * COORD_PRECISION_FACTOR);
+			long y = dimensions == 3 ? round(element.getY() * COORD_PRECISION_FACTOR) : 0;
+			long z = round(element.getZ() * COORD_PRECISION_FACTOR);
 
-			if (index >= 0) {
-				return sortedEntrys.get(index).index;
-			} else {
+			int mask = table.length - 1;
+			int slot = hash(x, y, z) & mask;
 
-				elements.add(element);
+			while (table[slot] != 0) {
+
+				int index = table[slot] - 1;
+
+				if (hasCoords(index, x, y, z)) {
+					return index;
+				}
+
+				slot = (slot + 1) & mask;
 
-				Entry<T> entry = new Entry<T>(element, elements.size() - 1);
-				sortedEntrys.add(-(index + 1), entry);
+			}
+
+			/* add a new element */
+
+			int index = size;
+
+			if ((index + 1) * dimensions > coords.length) {
+				coords = Arrays.copyOf(coords, coords.length * 2);
+			}
+
+			coords[index * dimensions] = x;
+			if (dimensions == 3) {
+				coords[index * dimensions + 1] = y;
+			}
+			coords[index * dimensions + dimensions - 1] = z;
 
-				return entry.index;
+			size += 1;
+			table[slot] = index + 1;
 
+			if (size * 2 > table.length) {
+				growTable();
 			}
 
+			return index;
+
+		}
+
+		private boolean hasCoords(int index, long x, long y, long z) {
+			int offset = index * dimensions;
+			return coords[offset] == x
+					&& (dimensions == 2 || coords[offset + 1] == y)
+					&& coords[offset + dimensions - 1] == z;
+		}
+
+		private void growTable() {
+
+			table = new int[table.length * 2];
+			int mask = table.length - 1;
+
+			for (int index = 0; index < size; index++) {
+
+				int offset = index * dimensions;
+				long x = coords[offset];
+				long y = dimensions == 3 ? coords[offset + 1] : 0;
+				long z = coords[offset + dimensions - 1];
+
+				int slot = hash(x, y, z) & mask;
+
+				while (table[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+
+				table[slot] = index + 1;
+
+			}
+
+		}
+
+		private static int hash(long x, long y, long z) {
+			long h = x * 0x9E3779B97F4A7C15L;
+			h = (h ^ y) * 0xC2B2AE3D27D4EB4FL;
+			h = (h ^ z) * 0x165667B19E3779F9L;
+			return (int) (h ^ (h >>> 32));
 		}
 
 	}
@@ -401,15 +523,7 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 
 				Model model3DMR = new ExternalResourceModel("3dmr:" + id3DMR);
 
-				VectorXZ center = null;
-
-				if (element instanceof MapNode) {
-					center = ((MapNode) element).getPos();
-				} else if (element instanceof MapWaySegment) {
-					center = ((MapWaySegment) element).getCenter();
-				} else if (element instanceof MapArea) {
-					center = ((MapArea) element).getOuterPolygon().getCenter();
-				}
+				VectorXZ center = centerOf(element);
 
 				double direction = parseDirection(element.getTags(), 0);
 
@@ -565,7 +679,7 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 	private static final String TEXTURE_BASE_URL = "textures/";
 
 	/** factor applied to coordinate values before rounding to integers */
-	private final int COORD_PRECISION_FACTOR = 1000;
+	private static final int COORD_PRECISION_FACTOR = 1000;
 
 	private static final Tag EMPTY_SURFACE_TAG = new Tag("surface", EMPTY_SURFACE_VALUE);
 
@@ -573,14 +687,26 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 	private final AxisAlignedRectangleXZ bbox;
 	private final MapProjection projection;
 
-	private final Block<VectorXYZ> vector3dBlock = new VectorBlock<>();
-	private final Block<VectorXZ> vector2dBlock = new VectorBlock<>();
+	private final VectorBlock<VectorXYZ> vector3dBlock = VectorBlock.vector3dBlock();
+	private final VectorBlock<VectorXZ> vector2dBlock = VectorBlock.vector2dBlock();
 	private final Block<String> stringBlock = new SimpleBlock<>();
 	private final Block<ShapeXZ> shapeBlock = new SimpleBlock<>();
 	private final Block<Material> materialBlock = new SimpleBlock<>();
 	private final Block<Model> modelBlock = new SimpleBlock<>();
 
-	private final List<FrontendPbf.WorldObject> objects = new ArrayList<>();
+	/**
+	 * converted materials, keyed by material instance.
+	 * Can be shared between several targets, e.g. when writing multiple tiles in {@link #writePbfTiles}.
+	 */
+	private final Map<Material, FrontendPbf.Material> convertedMaterials;
+
+	/**
+	 * temporary file which the serialized objects are written to as soon as they are complete.
+	 * This avoids keeping the objects in memory until the blocks are written in {@link #finish()}.
+	 */
+	private File objectSpoolFile = null;
+	private OutputStream objectSpoolStream = null;
+	private CodedOutputStream objectSpool = null;
 
 	private WorldObjectBuilder currentObjectBuilder = new WorldObjectBuilder(null);
 
@@ -592,10 +718,21 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 	 *              Objects are part of the output if their center is inside this box.
 	 */
 	public FrontendPbfTarget(OutputStream outputStream, AxisAlignedRectangleXZ bbox, MapProjection projection) {
+		this(outputStream, bbox, projection, new HashMap<>());
+	}
+
+	/**
+	 * Creates a {@link FrontendPbfTarget} which shares already converted materials with other targets.
+	 *
+	 * @param convertedMaterials  cache for converted materials, must be thread-safe if it is used concurrently
+	 */
+	FrontendPbfTarget(OutputStream outputStream, AxisAlignedRectangleXZ bbox, MapProjection projection,
+			Map<Material, FrontendPbf.Material> convertedMaterials) {
 
 		this.outputStream = outputStream;
 		this.bbox = bbox;
 		this.projection = projection;
+		this.convertedMaterials = convertedMaterials;
 
 		/* reserve index 0 for optional strings */
 
@@ -774,6 +911,23 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 
 	}
 
+	/**
+	 * returns the position which decides about the tile an element's objects belong to
+	 *
+	 * @return  the element's center, null for unsupported element types
+	 */
+	private static VectorXZ centerOf(MapElement element) {
+		if (element instanceof MapNode) {
+			return ((MapNode) element).getPos();
+		} else if (element instanceof MapWaySegment) {
+			return ((MapWaySegment) element).getCenter();
+		} else if (element instanceof MapArea) {
+			return ((MapArea) element).getOuterPolygon().getCenter();
+		} else {
+			return null;
+		}
+	}
+
 	/**
 	 * completes the {@link FrontendPbf.WorldObject} for which information is currently
 	 * being collected in {@link #currentObjectBuilder}
@@ -789,15 +943,7 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 
 			MapElement mapElement = currentObjectBuilder.worldObject.getPrimaryMapElement();
 
-			VectorXZ center = null;
-
-			if (mapElement instanceof MapNode) {
-				center = ((MapNode) mapElement).getPos();
-			} else if (mapElement instanceof MapWaySegment) {
-				center = ((MapWaySegment) mapElement).getCenter();
-			} else if (mapElement instanceof MapArea) {
-				center = ((MapArea) mapElement).getOuterPolygon().getCenter();
-			}
+			VectorXZ center = centerOf(mapElement);
 
 			// ignore objects (mostly) outside the bbox, except forests (which are filtered on a per-tree level)
 			ignoreCurrentObject |= !bbox.contains(center) && !(currentObjectBuilder.worldObject instanceof Forest);
@@ -810,7 +956,30 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 		/* build the current object */
 
 		if (!ignoreCurrentObject) {
-			objects.add(currentObjectBuilder.build());
+			writeObject(currentObjectBuilder.build());
+		}
+
+	}
+
+	/**
+	 * appends an object to the {@link #objectSpool}, opening it if necessary.
+	 * The object is written exactly like an element of {@link Tile}'s objects field.
+	 */
+	private void writeObject(FrontendPbf.WorldObject object) {
+
+		try {
+
+			if (objectSpool == null) {
+				objectSpoolFile = File.createTempFile("osm2world-", ".pbf.tmp");
+				objectSpoolStream = new BufferedOutputStream(new FileOutputStream(objectSpoolFile));
+				objectSpool = CodedOutputStream.newInstance(objectSpoolStream);
+			}
+
+			objectSpool.writeMessage(Tile.OBJECTS_FIELD_NUMBER, object);
+
+		} catch (IOException e) {
+			//TODO proper error handling
+			throw new Error(e);
 		}
 
 	}
@@ -840,6 +1009,41 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 
 	@Override
 	public void finish() {
+		try {
+			writeTile();
+		} finally {
+			close();
+		}
+	}
+
+	/**
+	 * deletes the temporary file of the {@link #objectSpool}, if any.
+	 * This happens at the end of {@link #finish()}, but needs to be done explicitly if a target is abandoned
+	 * without finishing it, e.g. because an exception occurred during rendering. Can be called more than once.
+	 */
+	@Override
+	public void close() {
+
+		if (objectSpoolStream != null) {
+			try {
+				objectSpoolStream.close();
+			} catch (IOException e) {
+				// the file is deleted anyway
+			}
+		}
+
+		if (objectSpoolFile != null) {
+			objectSpoolFile.delete();
+		}
+
+		objectSpoolFile = null;
+		objectSpoolStream = null;
+		objectSpool = null;
+
+	}
+
+	/** writes the blocks and the spooled objects to the {@link #outputStream} */
+	private void writeTile() {
 
 		/* build the last object */
 
@@ -849,7 +1053,7 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 
 		if (USE_FLOOR_PLATE) {
 			try {
-				objects.add(buildFloorPlate());
+				writeObject(buildFloorPlate());
 			} catch (InvalidGeometryException | IllegalStateException | TopologyException | ConstraintEnforcementException e) {
 				System.err.println("Error while producing the floor plate: " + e);
 			}
@@ -865,19 +1069,10 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 		}
 
 		Vector3dBlock.Builder vector3dBlockBuilder = Vector3dBlock.newBuilder();
-
-		for (VectorXYZ v : vector3dBlock.getElements()) {
-			vector3dBlockBuilder.addCoords(round(v.x*COORD_PRECISION_FACTOR));
-			vector3dBlockBuilder.addCoords(round(v.y*COORD_PRECISION_FACTOR));
-			vector3dBlockBuilder.addCoords(round(v.z*COORD_PRECISION_FACTOR));
-		}
+		vector3dBlock.forEachCoord(vector3dBlockBuilder::addCoords);
 
 		Vector2dBlock.Builder vector2dBlockBuilder = Vector2dBlock.newBuilder();
-
-		for (VectorXZ v : vector2dBlock.getElements()) {
-			vector2dBlockBuilder.addCoords(round(v.x*COORD_PRECISION_FACTOR));
-			vector2dBlockBuilder.addCoords(round(v.z*COORD_PRECISION_FACTOR));
-		}
+		vector2dBlock.forEachCoord(vector2dBlockBuilder::addCoords);
 
 		StringBlock.Builder stringBlockBuilder = StringBlock.newBuilder();
 		stringBlockBuilder.addAllStrings(stringBlock.getElements());
@@ -891,26 +1086,32 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 		MaterialBlock.Builder materialBlockBuilder = MaterialBlock.newBuilder();
 
 		for (Material m : materialBlock.getElements()) {
-			materialBlockBuilder.addMaterials(convertMaterial(m));
+			materialBlockBuilder.addMaterials(convertedMaterials.computeIfAbsent(m, this::convertMaterial));
 		}
 
-		/* build the tile */
+		/* write the tile.
+		 * This produces the same bytes as building a Tile message with the blocks and objects:
+		 * The blocks are written in the order of their field numbers, followed by the spooled objects. */
 
-		Tile.Builder tileBuilder = Tile.newBuilder();
+		try {
 
-		tileBuilder.setVector3DBlock(vector3dBlockBuilder);
-		tileBuilder.setVector2DBlock(vector2dBlockBuilder);
-		tileBuilder.setStringBlock(stringBlockBuilder);
-		tileBuilder.setShapeBlock(shapeBlockBuilder);
-		tileBuilder.setMaterialBlock(materialBlockBuilder);
-		tileBuilder.setModelBlock(modelBlockBuilder);
+			CodedOutputStream tileOutput = CodedOutputStream.newInstance(outputStream);
 
-		tileBuilder.addAllObjects(objects);
+			tileOutput.writeMessage(Tile.VECTOR3DBLOCK_FIELD_NUMBER, vector3dBlockBuilder.build());
+			tileOutput.writeMessage(Tile.VECTOR2DBLOCK_FIELD_NUMBER, vector2dBlockBuilder.build());
+			tileOutput.writeMessage(Tile.STRINGBLOCK_FIELD_NUMBER, stringBlockBuilder.build());
+			tileOutput.writeMessage(Tile.SHAPEBLOCK_FIELD_NUMBER, shapeBlockBuilder.build());
+			tileOutput.writeMessage(Tile.MATERIALBLOCK_FIELD_NUMBER, materialBlockBuilder.build());
+			tileOutput.writeMessage(Tile.MODELBLOCK_FIELD_NUMBER, modelBlockBuilder.build());
 
-		/* write the protobuf */
+			tileOutput.flush();
+
+			if (objectSpool != null) {
+				objectSpool.flush();
+				objectSpoolStream.close();
+				Files.copy(objectSpoolFile.toPath(), outputStream);
+			}
 
-		try {
-			tileBuilder.build().writeTo(outputStream);
 		} catch (IOException e) {
 			//TODO proper error handling
 			throw new Error(e);
@@ -920,6 +1121,25 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 
 	public static void writePbfFile(File outputFile, MapData mapData,
 			AxisAlignedRectangleXZ bbox, MapProjection projection) throws IOException {
+		writePbfFile(outputFile, mapData, bbox, projection, 1);
+	}
+
+	/**
+	 * @param threads  number of threads used for rendering the objects,
+	 *                 see {@link TargetUtil#renderWorldObjects(Target, MapData, boolean, int)}
+	 */
+	public static void writePbfFile(File outputFile, MapData mapData,
+			AxisAlignedRectangleXZ bbox, MapProjection projection, int threads) throws IOException {
+		writePbfFile(outputFile, mapData, bbox, projection, threads, null);
+	}
+
+	/**
+	 * @param threads      number of threads used for rendering the objects,
+	 *                     see {@link TargetUtil#renderWorldObjects(Target, MapData, boolean, int)}
+	 * @param renderCache  cache for output which is shared with other targets; can be null
+	 */
+	public static void writePbfFile(File outputFile, MapData mapData, AxisAlignedRectangleXZ bbox,
+			MapProjection projection, int threads, @Nullable RenderCache renderCache) throws IOException {
 
 		FileOutputStream output = null;
 
@@ -927,7 +1147,7 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 
 			output = new FileOutputStream(outputFile);
 
-			writePbfStream(output, mapData, bbox, projection);
+			writePbfStream(output, mapData, bbox, projection, threads, renderCache);
 
 		} finally {
 			if (output != null) {
@@ -939,16 +1159,260 @@ public class FrontendPbfTarget extends AbstractTarget implements ModelTarget {
 
 	public static void writePbfStream(OutputStream output, MapData mapData,
 			AxisAlignedRectangleXZ bbox, MapProjection projection) throws IOException {
+		writePbfStream(output, mapData, bbox, projection, 1);
+	}
+
+	/**
+	 * @param threads  number of threads used for rendering the objects,
+	 *                 see {@link TargetUtil#renderWorldObjects(Target, MapData, boolean, int)}
+	 */
+	public static void writePbfStream(OutputStream output, MapData mapData,
+			AxisAlignedRectangleXZ bbox, MapProjection projection, int threads) throws IOException {
+		writePbfStream(output, mapData, bbox, projection, threads, null);
+	}
+
+	/**
+	 * @param threads      number of threads used for rendering the objects,
+	 *                     see {@link TargetUtil#renderWorldObjects(Target, MapData, boolean, int)}
+	 * @param renderCache  cache for output which is shared with other targets; can be null
+	 */
+	public static void writePbfStream(OutputStream output, MapData mapData, AxisAlignedRectangleXZ bbox,
+			MapProjection projection, int threads, @Nullable RenderCache renderCache) throws IOException {
 
 		if (bbox == null) {
 			bbox = mapData.getBoundary();
 		}
 
-		FrontendPbfTarget target = new FrontendPbfTarget(output, bbox, projection);
+		try (FrontendPbfTarget target = new FrontendPbfTarget(output, bbox, projection)) {
+			TargetUtil.renderWorldObjects(target, mapData, false, threads, renderCache);
+			target.finish();
+		}
+
+	}
+
+	/**
+	 * writes one file for each of a number of tiles, based on a single conversion run.
+	 *
+	 * The root {@link WorldObject}s are spatially indexed once.
+	 * Each tile is then written with its own {@link FrontendPbfTarget},
+	 * which only receives the objects relevant to that tile.
+	 * Converted materials are shared between the tiles.
+	 * Objects which are written to more than one tile are only rendered once,
+	 * and their recorded output is replayed into each of these tiles.
+	 * Therefore, no object is rendered by several threads at the same time.
+	 *
+	 * @param outputFileForTile  provides the file to write for each tile, parent directories are created as needed
+	 * @param threads  number of tiles which are written in parallel
+	 */
+	public static void writePbfTiles(Function<TileNumber, File> outputFileForTile, MapData mapData,
+			List<TileNumber> tiles, MapProjection projection, int threads) throws IOException {
+
+		if (tiles.isEmpty()) return;
+
+		/* collect the objects which would be rendered by writePbfStream, in the same order */
+
+		List<TileObject> objects = new ArrayList<>();
+		List<TileObject> unlocatedObjects = new ArrayList<>();
+
+		for (MapElement mapElement : mapData.getMapElements()) {
+			for (WorldObject r : mapElement.getRepresentations()) {
+				if (r.getParent() == null && r.getGroundState() != GroundState.BELOW) {
+					TileObject object = new TileObject(objects.size() + unlocatedObjects.size(), r);
+					if (object.box == null) {
+						unlocatedObjects.add(object);
+					} else {
+						objects.add(object);
+					}
+				}
+			}
+		}
+
+		/* build a spatial index, using approximately one cell per tile */
+
+		AxisAlignedRectangleXZ firstTileBounds = OrthoTilesUtil.boundsForTiles(projection, tiles.subList(0, 1));
+
+		List<BoundedObject> boxes = new ArrayList<>(objects);
+		boxes.add(OrthoTilesUtil.boundsForTiles(projection, tiles));
+		AxisAlignedRectangleXZ gridBounds = bboxUnion(boxes).pad(1);
+
+		IndexGrid<TileObject> index = new IndexGrid<>(gridBounds, firstTileBounds.sizeX(), firstTileBounds.sizeZ());
+		objects.forEach(index::insert);
+
+		/* find the objects for each tile, and count the tiles each object is written to */
+
+		Map<TileNumber, List<TileObject>> objectsForTile = new HashMap<>();
+
+		for (TileNumber tile : tiles) {
+
+			AxisAlignedRectangleXZ tileBounds = OrthoTilesUtil.boundsForTiles(projection, singletonList(tile));
+
+			List<TileObject> tileObjects = new ArrayList<>(unlocatedObjects);
+			index.probe(tileBounds).forEach(o -> {
+				if (o.isRelevantFor(tileBounds)) {
+					tileObjects.add(o);
+				}
+			});
+			tileObjects.sort(comparingInt(o -> o.index));
+
+			tileObjects.forEach(o -> o.remainingTiles ++);
+
+			objectsForTile.put(tile, tileObjects);
+
+		}
+
+		/* write the tiles */
+
+		Map<Material, FrontendPbf.Material> convertedMaterials = new ConcurrentHashMap<>();
+
+		Consumer<TileNumber> writeTile = tile -> {
+
+			AxisAlignedRectangleXZ tileBounds = OrthoTilesUtil.boundsForTiles(projection, singletonList(tile));
+
+			List<TileObject> tileObjects = objectsForTile.get(tile);
+
+			File outputFile = outputFileForTile.apply(tile);
+
+			if (outputFile.getParentFile() != null) {
+				outputFile.getParentFile().mkdirs();
+			}
+
+			try (OutputStream output = new BufferedOutputStream(new FileOutputStream(outputFile));
+					FrontendPbfTarget target = new FrontendPbfTarget(output, tileBounds, projection, convertedMaterials)) {
+
+				forEach(tileObjects, o -> o.renderTo(target),
+						(e, o) -> DEFAULT_EXCEPTION_HANDLER.accept(e, o.object.getPrimaryMapElement()));
+
+				target.finish();
+
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+		};
+
+		try {
+
+			if (threads > 1 && tiles.size() > 1) {
+
+				ForkJoinPool pool = new ForkJoinPool(threads);
+
+				try {
+					pool.submit(() -> tiles.stream().parallel().forEach(writeTile)).get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException(e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					} else {
+						throw new RuntimeException(e.getCause());
+					}
+				} finally {
+					pool.shutdown();
+				}
+
+			} else {
+				tiles.forEach(writeTile);
+			}
+
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+	}
+
+	/**
+	 * a root {@link WorldObject} in the spatial index used by {@link #writePbfTiles}
+	 */
+	private static class TileObject implements BoundedObject {
+
+		/** position of the object in the rendering order */
+		final int index;
+
+		final WorldObject object;
+
+		/** the object's center, or null if the object is not associated with a location */
+		final VectorXZ center;
 
-		TargetUtil.renderWorldObjects(target, mapData, false);
+		/** the area covered by the object, or null if it is not associated with a location */
+		final AxisAlignedRectangleXZ box;
 
-		target.finish();
+		/** number of tiles which the object still needs to be written to */
+		private int remainingTiles = 0;
+
+		/** the recorded output of the object, only used if it is written to several tiles */
+		private RecordedObject recording = null;
+
+		TileObject(int index, WorldObject object) {
+
+			this.index = index;
+			this.object = object;
+
+			MapElement element = object.getPrimaryMapElement();
+			center = element == null ? null : centerOf(element);
+
+			if (center == null) {
+				box = null;
+			} else if (object instanceof Forest) {
+				box = element.boundingBox();
+			} else {
+				box = new AxisAlignedRectangleXZ(center.x, center.z, center.x, center.z);
+			}
+
+		}
+
+		/**
+		 * decides whether the object is written to a tile.
+		 * Uses the same criteria as {@link FrontendPbfTarget#finishCurrentObject()},
+		 * except that forests only need to overlap the tile.
+		 */
+		boolean isRelevantFor(AxisAlignedRectangleXZ tileBounds) {
+			if (object instanceof Forest) {
+				return tileBounds.overlaps(box);
+			} else {
+				return tileBounds.contains(center);
+			}
+		}
+
+		/**
+		 * writes the object to one of the tiles' targets.
+		 * If the object is written to several tiles, it is rendered into a {@link RecordingTarget}
+		 * when it is needed for the first time. The recording is replayed into each tile's target
+		 * and discarded after the last tile has received it.
+		 */
+		void renderTo(FrontendPbfTarget target) {
+
+			RecordedObject r;
+
+			synchronized (this) {
+
+				if (recording == null && remainingTiles == 1) {
+					remainingTiles = 0;
+					r = null;
+				} else {
+					if (recording == null) {
+						recording = new RecordedObject(object, RecordingTarget.createFor(target));
+					}
+					r = recording;
+					if (--remainingTiles == 0) {
+						recording = null;
+					}
+				}
+
+			}
+
+			if (r == null) {
+				TargetUtil.renderObject(target, object);
+			} else {
+				TargetUtil.replay(r, target);
+			}
+
+		}
+
+		@Override
+		public AxisAlignedRectangleXZ boundingBox() {
+			return box;
+		}
 
 	}
 
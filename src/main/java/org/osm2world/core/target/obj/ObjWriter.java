@@ -9,11 +9,14 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.Iterator;
 
+import javax.annotation.Nullable;
+
 import org.osm2world.core.GlobalValues;
 import org.osm2world.core.map_data.creation.MapProjection;
 import org.osm2world.core.map_data.data.MapData;
 import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.RenderCache;
 import org.osm2world.core.target.TargetUtil;
 import org.osm2world.core.target.common.rendering.Camera;
 import org.osm2world.core.target.common.rendering.Projection;
@@ -31,6 +34,33 @@ public final class ObjWriter {
 			MapProjection mapProjection,
 			Camera camera, Projection projection, boolean underground)
 			throws IOException {
+		writeObjFile(objFile, mapData, mapProjection, camera, projection, underground, 1);
+	}
+
+	/**
+	 * @param threads  number of threads used for rendering the objects,
+	 *                 see {@link TargetUtil#renderWorldObjects(org.osm2world.core.target.Target, MapData, boolean, int)}
+	 */
+	public static final void writeObjFile(
+			File objFile, MapData mapData,
+			MapProjection mapProjection,
+			Camera camera, Projection projection, boolean underground,
+			int threads)
+			throws IOException {
+		writeObjFile(objFile, mapData, mapProjection, camera, projection, underground, threads, null);
+	}
+
+	/**
+	 * @param threads      number of threads used for rendering the objects,
+	 *                     see {@link TargetUtil#renderWorldObjects(org.osm2world.core.target.Target, MapData, boolean, int)}
+	 * @param renderCache  cache for output which is shared with other targets; can be null
+	 */
+	public static final void writeObjFile(
+			File objFile, MapData mapData,
+			MapProjection mapProjection,
+			Camera camera, Projection projection, boolean underground,
+			int threads, @Nullable RenderCache renderCache)
+			throws IOException {
 
 		if (!objFile.exists()) {
 			objFile.createNewFile();
@@ -60,7 +90,7 @@ public final class ObjWriter {
 
 			ObjTarget target = new ObjTarget(objStream, mtlStream);
 
-			TargetUtil.renderWorldObjects(target, mapData, underground);
+			TargetUtil.renderWorldObjects(target, mapData, underground, threads, renderCache);
 
 		}
 
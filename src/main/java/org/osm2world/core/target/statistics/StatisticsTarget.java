@@ -16,14 +16,18 @@ import org.osm2world.core.world.data.WorldObject;
 /**
  * a target that simply counts the primitives that are sent to it
  * to create statistics.
+ * Also measures the time spent rendering each class of {@link WorldObject}
+ * (the time between one {@link #beginObject(WorldObject)} call and the next, or {@link #finish()}).
  */
 public class StatisticsTarget extends PrimitiveTarget {
 
 	private long[] globalCounts = new long[Stat.values().length];
 	private Map<Material, long[]> countsPerMaterial = new HashMap<Material, long[]>();
 	private Map<Class<?>, long[]> countsPerClass = new HashMap<Class<?>, long[]>();
+	private Map<Class<?>, Long> renderNanosPerClass = new HashMap<Class<?>, Long>();
 
 	private WorldObject currentObject = null;
+	private long currentObjectStart;
 
 	private static abstract class StatImpl {
 
@@ -129,6 +133,8 @@ public class StatisticsTarget extends PrimitiveTarget {
 	@Override
 	public void beginObject(WorldObject object) {
 
+		endCurrentObject();
+
 		currentObject = object;
 
 		if (currentObject != null) {
@@ -157,6 +163,22 @@ public class StatisticsTarget extends PrimitiveTarget {
 
 		super.beginObject(object);
 
+		currentObjectStart = System.nanoTime();
+
+	}
+
+	@Override
+	public void finish() {
+		endCurrentObject();
+		currentObject = null;
+		super.finish();
+	}
+
+	private void endCurrentObject() {
+		if (currentObject != null) {
+			long nanos = System.nanoTime() - currentObjectStart;
+			renderNanosPerClass.merge(currentObject.getClass(), nanos, Long::sum);
+		}
 	}
 
 	@Override
@@ -193,6 +215,7 @@ public class StatisticsTarget extends PrimitiveTarget {
 		}
 		countsPerMaterial.clear();
 		countsPerClass.clear();
+		renderNanosPerClass.clear();
 		currentObject = null;
 	}
 
@@ -216,4 +239,9 @@ public class StatisticsTarget extends PrimitiveTarget {
 		return countsPerClass.get(c)[stat.ordinal()];
 	}
 
+	/** returns the total time in nanoseconds spent rendering objects of a class */
+	public long getRenderTimeForClass(Class<?> c) {
+		return renderNanosPerClass.getOrDefault(c, 0L);
+	}
+
 }
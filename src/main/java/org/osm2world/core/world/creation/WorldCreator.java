@@ -2,6 +2,9 @@ package org.osm2world.core.world.creation;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+import javax.annotation.Nullable;
 
 import org.apache.commons.configuration.Configuration;
 import org.osm2world.core.map_data.data.MapData;
@@ -22,13 +25,36 @@ public class WorldCreator {
 		}
 	}
 
+	/**
+	 * applies the modules in the order in which they have been passed to the constructor.
+	 * Each module is applied after the previous one has been completed (even if the modules use multiple threads),
+	 * so the first module to add a representation to an element still has priority.
+	 */
 	public void addRepresentationsTo(MapData mapData) {
+		addRepresentationsTo(mapData, null);
+	}
+
+	/**
+	 * variant of {@link #addRepresentationsTo(MapData)} which reports how long each step took.
+	 *
+	 * @param durationListener  receives the class name of each module (and "NetworkCalculator")
+	 *                          along with its duration in nanoseconds; can be null
+	 */
+	public void addRepresentationsTo(MapData mapData, @Nullable ObjLongConsumer<String> durationListener) {
 
 		for (WorldModule module : modules) {
+			long start = System.nanoTime();
 			module.applyTo(mapData);
+			if (durationListener != null) {
+				durationListener.accept(module.getClass().getSimpleName(), System.nanoTime() - start);
+			}
 		}
 
+		long start = System.nanoTime();
 		NetworkCalculator.calculateNetworkInformationInMapData(mapData);
+		if (durationListener != null) {
+			durationListener.accept("NetworkCalculator", System.nanoTime() - start);
+		}
 
 	}
 
@@ -31,6 +31,7 @@ import org.osm2world.core.math.TriangleXZ;
 import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.math.algorithms.FaceDecompositionUtil;
+import org.osm2world.core.math.algorithms.TriangulationCache;
 import org.osm2world.core.math.shapes.PolygonShapeXZ;
 import org.osm2world.core.math.shapes.PolylineXZ;
 import org.osm2world.core.math.shapes.ShapeXZ;
@@ -52,6 +53,12 @@ import org.osm2world.core.target.common.material.TextureLayer;
  */
 public class WallSurface {
 
+	/**
+	 * shared by all wall surfaces. Because wall surface coordinates are local to each wall,
+	 * identical walls of different buildings are only triangulated once.
+	 */
+	public static final TriangulationCache TRIANGULATION_CACHE = new TriangulationCache();
+
 	private final Material material;
 
 	private final List<VectorXZ> lowerBoundary;
@@ -206,18 +213,23 @@ public class WallSurface {
 				.map(p -> new LineSegmentXZ(new VectorXZ(p.x, minZ - 1.0), new VectorXZ(p.x, maxZ + 1.0)))
 				.collect(toList());
 
-		List<ShapeXZ> shapes = new ArrayList<>(holes);
-		shapes.addAll(verticalLines);
+		List<VectorXZ> vertices = new ArrayList<>(wallOutline.getVertices());
+		List<Integer> partSizes = new ArrayList<>();
+		partSizes.add(vertices.size());
 
-		Collection<? extends PolygonShapeXZ> faces = shapes.isEmpty()
-				? singletonList(wallOutline)
-				: FaceDecompositionUtil.splitPolygonIntoFaces(wallOutline, shapes);
+		for (SimplePolygonXZ hole : holes) {
+			vertices.addAll(hole.getVertices());
+			partSizes.add(hole.size());
+		}
 
-		if (!holes.isEmpty()) {
-			faces.removeIf(f -> holes.stream().anyMatch(hole -> hole.contains(f.getPointInside())));
+		for (LineSegmentXZ line : verticalLines) {
+			vertices.add(line.p1);
+			vertices.add(line.p2);
 		}
+		partSizes.add(verticalLines.size());
 
-		List<TriangleXZ> triangles = faces.stream().flatMap(f -> f.getTriangulation().stream()).collect(toList());
+		List<TriangleXZ> triangles = TRIANGULATION_CACHE.triangulate(vertices, partSizes.get(0), partSizes,
+				() -> triangulateSurface(holes, verticalLines));
 		List<TriangleXYZ> trianglesXYZ = triangles.stream().map(t -> convertTo3D(t)).collect(toList());
 
 		/* determine the material depending on whether a window texture should be applied */
@@ -260,6 +272,27 @@ public class WallSurface {
 
 	}
 
+	/**
+	 * splits the wall outline into faces which do not overlap with the holes,
+	 * and triangulates these faces
+	 */
+	private List<TriangleXZ> triangulateSurface(List<SimplePolygonXZ> holes, List<LineSegmentXZ> verticalLines) {
+
+		List<ShapeXZ> shapes = new ArrayList<>(holes);
+		shapes.addAll(verticalLines);
+
+		Collection<? extends PolygonShapeXZ> faces = shapes.isEmpty()
+				? singletonList(wallOutline)
+				: FaceDecompositionUtil.splitPolygonIntoFaces(wallOutline, shapes);
+
+		if (!holes.isEmpty()) {
+			faces.removeIf(f -> holes.stream().anyMatch(hole -> hole.contains(f.getPointInside())));
+		}
+
+		return faces.stream().flatMap(f -> f.getTriangulation().stream()).collect(toList());
+
+	}
+
 	public VectorXYZ convertTo3D(VectorXZ v) {
 
 		double ratio = v.x / getLength();
@@ -9,6 +9,7 @@ import org.osm2world.core.target.Renderable;
 import org.osm2world.core.target.Target;
 import org.osm2world.core.world.attachment.AttachmentSurface;
 import org.osm2world.core.world.modules.building.BuildingPart;
+import org.osm2world.core.world.modules.building.indoor.IndoorWall.SegmentLevelPair;
 
 /**
  * the features (rooms, interior walls, etc.) inside a {@link BuildingPart}.
@@ -89,11 +90,14 @@ public class BuildingPartInterior implements Renderable {
 	@Override
 	public void renderTo(Target target) {
 
-		IndoorWall.allRenderedWallSegments = new ArrayList<>(); //FIXME this is not thread-safe!
+		/* wall segments shared by several walls or rooms are only rendered once.
+		 * The list is local to this call, so interiors can be rendered concurrently. */
 
-		walls.forEach(w -> w.renderTo(target));
+		List<SegmentLevelPair> allRenderedWallSegments = new ArrayList<>();
 
-		rooms.forEach(r -> r.renderTo(target));
+		walls.forEach(w -> w.renderTo(target, allRenderedWallSegments));
+
+		rooms.forEach(r -> r.renderTo(target, allRenderedWallSegments));
 
 		areas.forEach(a -> a.renderTo(target));
 
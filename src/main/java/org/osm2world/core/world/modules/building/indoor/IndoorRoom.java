@@ -13,6 +13,7 @@ import org.osm2world.core.world.attachment.AttachmentSurface;
 import org.osm2world.core.world.data.AreaWorldObject;
 import org.osm2world.core.world.data.WorldObject;
 import org.osm2world.core.world.modules.building.BuildingDefaults;
+import org.osm2world.core.world.modules.building.indoor.IndoorWall.SegmentLevelPair;
 
 public class IndoorRoom implements AreaWorldObject {
 
@@ -66,8 +67,16 @@ public class IndoorRoom implements AreaWorldObject {
 
     @Override
     public void renderTo(Target target) {
+        renderTo(target, new ArrayList<>());
+    }
+
+    /**
+     * renders the room, see {@link IndoorWall#renderTo(Target, List)}
+     * for the meaning of the list of rendered wall segments
+     */
+    void renderTo(Target target, List<SegmentLevelPair> allRenderedWallSegments) {
 
-        wall.renderTo(target);
+        wall.renderTo(target, allRenderedWallSegments);
 
         floor.renderTo(target);
 
@@ -64,8 +64,6 @@ public class IndoorWall implements Renderable {
     private List<MapNode> nodes;
     private List<SegmentNodes> wallSegmentNodes = new ArrayList<>();
 
-    static List<SegmentLevelPair> allRenderedWallSegments = new ArrayList<>();
-
     private final IndoorObjectData data;
 
     private List<AttachmentSurface> attachmentSurfacesList;
@@ -168,7 +166,7 @@ public class IndoorWall implements Renderable {
 
 		if (attachmentSurfacesList == null) {
 			attachmentSurfacesList = new ArrayList<>();
-			this.renderTo(null, false, true);
+			this.renderTo(null, false, true, new ArrayList<>());
 		}
 
 		return attachmentSurfacesList;
@@ -218,7 +216,8 @@ public class IndoorWall implements Renderable {
 
 	}
 
-    private class SegmentLevelPair {
+    /** a wall segment on a level, used to avoid rendering segments shared by several walls more than once */
+    static class SegmentLevelPair {
 
         LineSegmentXZ segment;
         Integer level;
@@ -818,7 +817,8 @@ public class IndoorWall implements Renderable {
 		}
 	}
 
-	private void renderTo(Target target, Boolean renderSides, Boolean attachmentSurfaces) {
+	private void renderTo(Target target, Boolean renderSides, Boolean attachmentSurfaces,
+			List<SegmentLevelPair> allRenderedWallSegments) {
 
 		double baseEle = data.getBuildingPart().getBuilding().getGroundLevelEle();
 
@@ -987,7 +987,17 @@ public class IndoorWall implements Renderable {
 
     @Override
     public void renderTo(Target target) {
-    	renderTo(target, true, false);
+    	renderTo(target, new ArrayList<>());
     }
 
+	/**
+	 * renders the wall, skipping segments which have already been rendered as part of another wall.
+	 *
+	 * @param allRenderedWallSegments  the segments rendered so far, shared by all walls of a {@link BuildingPartInterior}.
+	 *                                 Segments rendered by this wall are added to it.
+	 */
+	void renderTo(Target target, List<SegmentLevelPair> allRenderedWallSegments) {
+		renderTo(target, true, false, allRenderedWallSegments);
+	}
+
 }
@@ -217,11 +217,7 @@ public class ComplexRoof extends HeightfieldRoof {
 
 	@Override
 	public Double getRoofHeightAt_noInterpolation(VectorXZ pos) {
-		if (roofHeightMap.containsKey(pos)) {
-			return roofHeightMap.get(pos);
-		} else {
-			return null;
-		}
+		return roofHeightMap.get(pos);
 	}
 
 	public static final boolean hasComplexRoof(MapArea area) {
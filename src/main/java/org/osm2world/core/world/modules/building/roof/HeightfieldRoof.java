@@ -17,6 +17,8 @@ import org.osm2world.core.math.TriangleXYZ;
 import org.osm2world.core.math.TriangleXZ;
 import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.math.algorithms.JTSTriangulationUtil;
+import org.osm2world.core.math.algorithms.TriangulationCache;
+import org.osm2world.core.math.datastructures.NearestSegmentIndex;
 import org.osm2world.core.target.Target;
 import org.osm2world.core.target.common.material.Material;
 import org.osm2world.core.util.exception.TriangulationException;
@@ -30,6 +32,12 @@ abstract public class HeightfieldRoof extends Roof {
 	/** if {@link #getPolygon()} has additional roofs inserted, this is the threshold for snapping to existing points */
 	protected static final double SNAP_DISTANCE = 0.01;
 
+	/** shared by all roofs, so that identical roofs of different buildings are only triangulated once */
+	public static final TriangulationCache TRIANGULATION_CACHE = new TriangulationCache();
+
+	/** lazily created by {@link #getSegmentIndex()} */
+	private volatile NearestSegmentIndex segmentIndex = null;
+
 	public HeightfieldRoof(PolygonWithHolesXZ originalPolygon, TagSet tags, double height, Material material) {
 		super(originalPolygon, tags, height, material);
 	}
@@ -54,9 +62,28 @@ abstract public class HeightfieldRoof extends Roof {
 			return ele;
 		} else {
 
-			// get all segments from the roof
+			// use the segment with the closest distance to the node for height interpolation
 
-			//TODO (performance): avoid doing this for every node
+			LineSegmentXZ closestSegment = getSegmentIndex().getClosestSegment(v);
+
+			return interpolateValue(v,
+					closestSegment.p1,
+					getRoofHeightAt_noInterpolation(closestSegment.p1),
+					closestSegment.p2,
+					getRoofHeightAt_noInterpolation(closestSegment.p2));
+
+		}
+	}
+
+	/**
+	 * returns an index of all segments of the roof (inner segments, outline and holes).
+	 * Built on first use, as the roof's shape is only fully known after the subclass constructor has run.
+	 */
+	private NearestSegmentIndex getSegmentIndex() {
+
+		NearestSegmentIndex index = segmentIndex;
+
+		if (index == null) {
 
 			Collection<LineSegmentXZ> segments = new ArrayList<>();
 
@@ -66,28 +93,13 @@ abstract public class HeightfieldRoof extends Roof {
 				segments.addAll(hole.getSegments());
 			}
 
-			// find the segment with the closest distance to the node
-
-			LineSegmentXZ closestSegment = null;
-			double closestSegmentDistance = Double.MAX_VALUE;
-
-			for (LineSegmentXZ segment : segments) {
-				double segmentDistance = distanceFromLineSegment(v, segment);
-				if (segmentDistance < closestSegmentDistance) {
-					closestSegment = segment;
-					closestSegmentDistance = segmentDistance;
-				}
-			}
+			index = new NearestSegmentIndex(segments);
+			segmentIndex = index;
 
-			// use that segment for height interpolation
+		}
 
-			return interpolateValue(v,
-					closestSegment.p1,
-					getRoofHeightAt_noInterpolation(closestSegment.p1),
-					closestSegment.p2,
-					getRoofHeightAt_noInterpolation(closestSegment.p2));
+		return index;
 
-		}
 	}
 
 	@Override
@@ -95,25 +107,29 @@ abstract public class HeightfieldRoof extends Roof {
 
 		/* create the triangulation of the roof */
 
-		Collection<TriangleXZ> triangles;
+		Collection<LineSegmentXZ> innerSegments = getInnerSegments();
+		Collection<VectorXZ> innerPoints = getInnerPoints();
 
-		try {
+		List<VectorXZ> vertices = new ArrayList<>(getPolygon().getOuter().getVertices());
+		List<Integer> partSizes = new ArrayList<>();
+		partSizes.add(vertices.size());
 
-			triangles = Poly2TriUtil.triangulate(
-					getPolygon().getOuter(),
-				    getPolygon().getHoles(),
-				    getInnerSegments(),
-				    getInnerPoints());
+		for (SimplePolygonXZ hole : getPolygon().getHoles()) {
+			vertices.addAll(hole.getVertices());
+			partSizes.add(hole.size());
+		}
 
-		} catch (TriangulationException e) {
+		for (LineSegmentXZ segment : innerSegments) {
+			vertices.add(segment.p1);
+			vertices.add(segment.p2);
+		}
+		partSizes.add(innerSegments.size());
 
-			triangles = JTSTriangulationUtil.triangulate(
-					getPolygon().getOuter(),
-					getPolygon().getHoles(),
-					getInnerSegments(),
-					getInnerPoints());
+		vertices.addAll(innerPoints);
+		partSizes.add(innerPoints.size());
 
-		}
+		Collection<TriangleXZ> triangles = TRIANGULATION_CACHE.triangulate(vertices, partSizes.get(0), partSizes,
+				() -> triangulate(innerSegments, innerPoints));
 
 		List<TriangleXYZ> trianglesXYZ = new ArrayList<>(triangles.size());
 
@@ -135,4 +151,27 @@ abstract public class HeightfieldRoof extends Roof {
 
 	}
 
+	private Collection<TriangleXZ> triangulate(Collection<LineSegmentXZ> innerSegments,
+			Collection<VectorXZ> innerPoints) {
+
+		try {
+
+			return Poly2TriUtil.triangulate(
+					getPolygon().getOuter(),
+				    getPolygon().getHoles(),
+				    innerSegments,
+				    innerPoints);
+
+		} catch (TriangulationException e) {
+
+			return JTSTriangulationUtil.triangulate(
+					getPolygon().getOuter(),
+					getPolygon().getHoles(),
+					innerSegments,
+					innerPoints);
+
+		}
+
+	}
+
 }
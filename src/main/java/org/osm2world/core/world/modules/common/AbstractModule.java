@@ -1,5 +1,8 @@
 package org.osm2world.core.world.modules.common;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
 import org.osm2world.core.map_data.data.MapArea;
 import org.osm2world.core.map_data.data.MapData;
 import org.osm2world.core.map_data.data.MapElement;
@@ -15,12 +18,25 @@ import org.osm2world.core.world.data.WorldObject;
  * Subclasses need to be able to create {@link WorldObject}s
  * for each {@link MapElement} in isolation.
  * This can make parallel application of the module possible.
+ *
+ * If the configuration's "moduleThreads" value is greater than 1, the elements are processed in parallel.
+ * Nodes, ways, segments and areas are still handled one after the other,
+ * so methods for one element type can rely on the representations of other element types.
+ * Each element is only processed by a single thread, so the order of its representations does not change.
+ * Modules which cannot work on elements in isolation can opt out by overriding {@link #isParallelizable()}.
  */
 public abstract class AbstractModule extends ConfigurableWorldModule {
 
 	@Override
 	public final void applyTo(MapData mapData) {
 
+		int threads = isParallelizable() ? config.getInt("moduleThreads", 1) : 1;
+
+		if (threads > 1) {
+			applyInParallel(mapData, threads);
+			return;
+		}
+
 		for (MapNode node : mapData.getMapNodes()) {
 			applyToNode(node);
 		}
@@ -39,6 +55,42 @@ public abstract class AbstractModule extends ConfigurableWorldModule {
 
 	}
 
+	private void applyInParallel(MapData mapData, int threads) {
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+
+		try {
+			pool.submit(() -> {
+				mapData.getMapNodes().parallelStream().forEach(this::applyToNode);
+				mapData.getMapWays().parallelStream().forEach(this::applyToWay);
+				mapData.getMapWaySegments().parallelStream().forEach(this::applyToWaySegment);
+				mapData.getMapAreas().parallelStream().forEach(this::applyToArea);
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else {
+				throw new RuntimeException(e.getCause());
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+	}
+
+	/**
+	 * returns whether the module's methods may be called for several elements of the same type at the same time.
+	 * This requires that a method only adds representations to the element it has been called for,
+	 * and only reads representations of elements with a different type.
+	 * Can be overwritten by subclasses. The default implementation returns true.
+	 */
+	protected boolean isParallelizable() {
+		return true;
+	}
+
 	/**
 	 * create {@link WorldObject}s for a {@link MapElement}.
 	 * Can be overwritten by subclasses.
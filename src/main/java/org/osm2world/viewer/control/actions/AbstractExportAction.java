@@ -132,6 +132,8 @@ public abstract class AbstractExportAction
 			progressDialog.setProgress(null);
 			progressDialog.setText("Writing file: " + file.getAbsolutePath());
 
+			data.getConversionResults().getMaterialRegistry().activate();
+
 			performExport(file);
 
 			progressDialog.dispose();
@@ -45,6 +45,8 @@ public class StatisticsAction extends AbstractAction implements Observer {
 
 		StatisticsTarget stats = new StatisticsTarget();
 
+		conversionResults.getMaterialRegistry().activate();
+
 		TargetUtil.renderWorldObjects(stats, conversionResults.getMapData(), true);
 		new StatisticsDialog(viewerFrame, stats).setVisible(true);
 
@@ -13,6 +13,7 @@ import org.osm2world.core.map_elevation.creation.TerrainElevationData;
 import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.target.common.material.ImmutableMaterial;
+import org.osm2world.core.target.common.material.MaterialRegistry;
 import org.osm2world.core.target.common.material.Material.Interpolation;
 import org.osm2world.core.target.common.rendering.Camera;
 import org.osm2world.core.target.common.rendering.Projection;
@@ -31,6 +32,9 @@ public abstract class DebugView {
 	protected MapData map;
 	protected TerrainElevationData eleData;
 
+	/** the materials of the conversion, activated for the rendering thread */
+	private MaterialRegistry materialRegistry = MaterialRegistry.DEFAULT;
+
 	protected Camera camera;
 	protected Projection projection;
 
@@ -64,6 +68,7 @@ public abstract class DebugView {
 
 		this.map = conversionResults.getMapData();
 		this.eleData = conversionResults.getEleData();
+		this.materialRegistry = conversionResults.getMaterialRegistry();
 
 		targetNeedsReset = true;
 	}
@@ -95,6 +100,8 @@ public abstract class DebugView {
 
 		if (canBeUsed() && camera != null && projection != null) {
 
+			materialRegistry.activate();
+
 			if (target == null) {
 				if ("shader".equals(config.getString("joglImplementation"))) {
 					target = new JOGLTargetShader(gl.getGL3(), new JOGLRenderingParameters(), null);
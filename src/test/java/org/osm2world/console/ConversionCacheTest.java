@@ -0,0 +1,87 @@
+package org.osm2world.console;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.After;
+import org.junit.Test;
+import org.osm2world.core.ConversionFacade;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.osm.creation.OSMDataReader;
+import org.osm2world.core.osm.creation.OSMFileReader;
+import org.osm2world.core.osm.data.OSMData;
+
+public class ConversionCacheTest {
+
+	@After
+	public void resetBudget() {
+		ConversionCache.setMemoryBudget(0);
+		ConversionCache.setMemoryBudget(Runtime.getRuntime().maxMemory() / 4);
+	}
+
+	private static File getTestFile() {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		return new File(classLoader.getResource("mp_two_holes.osm").getFile());
+	}
+
+	@Test
+	public void testInputKey() throws Exception {
+
+		File inputFile = getTestFile();
+
+		List<?> key1 = ConversionCache.getInputKey(OSM2World.parseArguments(
+				new String[] {"-i", inputFile.getPath(), "-o", "a.obj"}));
+		List<?> key2 = ConversionCache.getInputKey(OSM2World.parseArguments(
+				new String[] {"-i", inputFile.getAbsolutePath(), "-o", "b.obj"}));
+
+		assertNotNull(key1);
+		assertEquals(key1, key2);
+
+	}
+
+	@Test
+	public void testCachedData() throws Exception {
+
+		File inputFile = getTestFile();
+		List<?> inputKey = ConversionCache.getInputKey(OSM2World.parseArguments(
+				new String[] {"-i", inputFile.getPath(), "-o", "a.obj"}));
+
+		AtomicInteger readCount = new AtomicInteger();
+
+		OSMDataReader reader = () -> {
+			readCount.incrementAndGet();
+			return new OSMFileReader(inputFile).getData();
+		};
+
+		OSMData osmData = ConversionCache.getOSMData(inputKey, reader);
+		assertSame(osmData, ConversionCache.getOSMData(inputKey, reader));
+		assertEquals(1, readCount.get());
+
+		Configuration config1 = new BaseConfiguration();
+		Configuration config2 = new BaseConfiguration();
+		config2.setProperty("renderUnderground", false);
+
+		assertNull(ConversionCache.getResults(inputKey, config1));
+
+		Results results = new ConversionFacade().createRepresentations(osmData, null, config1, null);
+		ConversionCache.putResults(inputKey, config1, results, osmData);
+
+		assertSame(results, ConversionCache.getResults(inputKey, new BaseConfiguration()));
+		assertNull(ConversionCache.getResults(inputKey, config2));
+
+		/* entries are removed when the budget is reduced */
+
+		ConversionCache.setMemoryBudget(0);
+
+		assertNull(ConversionCache.getResults(inputKey, config1));
+		ConversionCache.getOSMData(inputKey, reader);
+		assertEquals(2, readCount.get());
+
+	}
+
+}
@@ -0,0 +1,73 @@
+package org.osm2world.console;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ParamFileDirModeTest {
+
+	@Test
+	public void testJob() throws Exception {
+
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		File inputFile = new File(classLoader.getResource("mp_two_holes.osm").getFile());
+
+		File outputFile = File.createTempFile("unittest", ".obj");
+		outputFile.deleteOnExit();
+		outputFile.delete();
+
+		File jobLog = File.createTempFile("unittest", ".log");
+		jobLog.deleteOnExit();
+
+		Path paramFileDir = Files.createTempDirectory("unittest");
+		paramFileDir.toFile().deleteOnExit();
+
+		ParamFileDirMode mode = new ParamFileDirMode(paramFileDir, 2, jobLog);
+		mode.start();
+
+		Thread watchThread = new Thread(mode::watch);
+		watchThread.start();
+
+		/* write the parameter file elsewhere and move it into the directory once it is complete */
+
+		Path tempParamFile = Files.createTempFile("unittest", ".txt");
+		Files.write(tempParamFile, Collections.singletonList(
+				"-i \"" + inputFile.getAbsolutePath() + "\" -o \"" + outputFile.getAbsolutePath() + "\""), UTF_8);
+
+		Path paramFile = paramFileDir.resolve("job1.txt");
+		Files.move(tempParamFile, paramFile);
+
+		/* wait for the job to be logged */
+
+		long timeout = System.currentTimeMillis() + 60000;
+
+		while (Files.readAllLines(jobLog.toPath(), UTF_8).isEmpty()) {
+			assertTrue("job has not been processed in time", System.currentTimeMillis() < timeout);
+			Thread.sleep(100);
+		}
+
+		mode.shutdown();
+		watchThread.join();
+
+		assertFalse(Files.exists(paramFile));
+		assertTrue(outputFile.length() > 0);
+
+		List<String> logLines = Files.readAllLines(jobLog.toPath(), UTF_8);
+		assertEquals(1, logLines.size());
+
+		String[] fields = logLines.get(0).split("\t");
+		assertEquals("job1.txt", fields[0]);
+		assertTrue(Long.parseLong(fields[1]) >= 0);
+		assertTrue(Long.parseLong(fields[2]) >= 0);
+		assertEquals(outputFile.length(), Long.parseLong(fields[3]));
+
+	}
+
+}
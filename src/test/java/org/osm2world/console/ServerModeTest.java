@@ -0,0 +1,60 @@
+package org.osm2world.console;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ServerModeTest {
+
+	@Test
+	public void testJobs() throws Exception {
+
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		File inputFile = new File(classLoader.getResource("mp_two_holes.osm").getFile());
+
+		File outputFile = File.createTempFile("unittest", ".obj");
+		outputFile.deleteOnExit();
+
+		try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+
+			Thread serverThread = new Thread(() -> ServerMode.serve(serverSocket, 2));
+			serverThread.start();
+
+			int port = serverSocket.getLocalPort();
+
+			/* a valid job, submitted twice to reuse the warm caches */
+
+			for (int i = 0; i < 2; i++) {
+
+				List<String> replies = new ArrayList<>();
+
+				assertTrue(ServerClient.submit(port,
+						"-i \"" + inputFile.getAbsolutePath() + "\" -o \"" + outputFile.getAbsolutePath() + "\"",
+						replies::add));
+
+				assertTrue(replies.stream().anyMatch(r -> r.startsWith("PHASE MAP_DATA ")));
+				assertTrue(replies.stream().anyMatch(r -> r.startsWith("OUTPUT ")));
+				assertTrue(outputFile.length() > 0);
+
+			}
+
+			/* an invalid job */
+
+			List<String> replies = new ArrayList<>();
+			assertFalse(ServerClient.submit(port, "-o foo.obj", replies::add));
+			assertTrue(replies.get(replies.size() - 1).startsWith("ERROR"));
+
+			serverSocket.close();
+			serverThread.join();
+
+		}
+
+	}
+
+}
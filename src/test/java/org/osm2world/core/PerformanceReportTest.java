@@ -0,0 +1,41 @@
+package org.osm2world.core;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+import org.osm2world.core.ConversionFacade.Phase;
+
+public class PerformanceReportTest {
+
+	@Test
+	public void testPhasesAndEntries() {
+
+		PerformanceReport report = new PerformanceReport();
+
+		report.updatePhase(Phase.MAP_DATA);
+		report.updateCount(Phase.MAP_DATA, "nodes", 42);
+		report.updatePhase(Phase.REPRESENTATION);
+		report.updateDuration(Phase.REPRESENTATION, "Road\"Module", 2500000);
+		report.finish();
+
+		assertNotNull(report.getPhaseDuration(Phase.MAP_DATA));
+		assertNotNull(report.getPhaseDuration(Phase.REPRESENTATION));
+		assertNull(report.getPhaseEnd(Phase.TERRAIN));
+		assertTrue(report.getPhasePeakHeap(Phase.MAP_DATA) >= 0);
+
+		StringWriter json = new StringWriter();
+		report.writeJson(json);
+		assertTrue(json.toString().contains("{\"phase\": \"MAP_DATA\", \"name\": \"nodes\", \"count\": 42}"));
+		assertTrue(json.toString().contains("\"step\": \"Road\\\"Module\", \"durationMs\": 2.500}"));
+
+		StringWriter csv = new StringWriter();
+		report.writeCsv(csv);
+		assertTrue(csv.toString().startsWith("category,phase,name,value"));
+		assertTrue(csv.toString().contains("count,MAP_DATA,nodes,42"));
+		assertTrue(csv.toString().contains("durationMs,REPRESENTATION,\"Road\"\"Module\",2.500"));
+
+	}
+
+}
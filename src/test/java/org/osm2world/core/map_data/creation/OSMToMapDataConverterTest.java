@@ -7,12 +7,15 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.osm2world.core.map_data.data.MapArea;
 import org.osm2world.core.map_data.data.MapData;
+import org.osm2world.core.map_data.data.MapElement;
 import org.osm2world.core.map_data.data.MapNode;
 import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.osm.creation.StrictOSMFileReader;
@@ -27,6 +30,15 @@ public class OSMToMapDataConverterTest {
 	 * @throws EntityNotFoundException
 	 */
 	private static MapData loadMapData(String filename) throws IOException, EntityNotFoundException {
+		return loadMapData(filename, new BaseConfiguration());
+	}
+
+	/**
+	 * loads {@link MapData} from a file in the test files directory using a specific configuration
+	 * @throws EntityNotFoundException
+	 */
+	private static MapData loadMapData(String filename, Configuration config)
+			throws IOException, EntityNotFoundException {
 
 		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 		File testFile = new File(classLoader.getResource(filename).getFile());
@@ -35,7 +47,7 @@ public class OSMToMapDataConverterTest {
 		OriginMapProjection mapProjection = new MetricMapProjection();
 		mapProjection.setOrigin(osmData);
 
-		OSMToMapDataConverter converter = new OSMToMapDataConverter(mapProjection, new BaseConfiguration());
+		OSMToMapDataConverter converter = new OSMToMapDataConverter(mapProjection, config);
 		return converter.createMapData(osmData);
 
 	}
@@ -216,4 +228,53 @@ public class OSMToMapDataConverterTest {
 
 	}
 
+	/**
+	 * checks that the parallel overlap calculation produces the same overlaps as the serial one,
+	 * in the same order for each element
+	 * @throws EntityNotFoundException
+	 */
+	@Test
+	public void testParallelOverlapCalculation() throws IOException, EntityNotFoundException {
+
+		for (String filename : asList("coastline_islands_and_coast.osm", "mp_two_holes_advanced.osm")) {
+
+			MapData serialData = loadMapData(filename);
+
+			Configuration parallelConfig = new BaseConfiguration();
+			parallelConfig.addProperty("mapDataThreads", 4);
+			MapData parallelData = loadMapData(filename, parallelConfig);
+
+			List<MapElement> serialElements = new ArrayList<>();
+			serialData.getMapElements().forEach(serialElements::add);
+			List<MapElement> parallelElements = new ArrayList<>();
+			parallelData.getMapElements().forEach(parallelElements::add);
+
+			assertEquals(serialElements.size(), parallelElements.size());
+
+			for (int i = 0; i < serialElements.size(); i++) {
+				assertEquals(overlapStrings(serialElements, i), overlapStrings(parallelElements, i));
+			}
+
+		}
+
+	}
+
+	/**
+	 * describes the overlaps of one element, in order.
+	 * The participating elements are identified by their position in the list of all elements.
+	 */
+	private static List<String> overlapStrings(List<MapElement> elements, int elementIndex) {
+		return elements.get(elementIndex).getOverlaps().stream()
+				.map(o -> o.getClass().getSimpleName() + " " + o.type
+						+ " " + indexOf(elements, o.e1) + " " + indexOf(elements, o.e2))
+				.collect(Collectors.toList());
+	}
+
+	private static int indexOf(List<MapElement> elements, MapElement element) {
+		for (int i = 0; i < elements.size(); i++) {
+			if (elements.get(i) == element) return i;
+		}
+		return -1;
+	}
+
 }
@@ -0,0 +1,42 @@
+package org.osm2world.core.map_data.data;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TagPoolTest {
+
+	@Test
+	public void testSharedTags() {
+
+		TagPool pool = new TagPool();
+
+		Tag t1 = pool.tag(new String("highway"), new String("primary"));
+		Tag t2 = pool.tag(new String("highway"), new String("primary"));
+		Tag t3 = pool.tag(new String("highway"), new String("secondary"));
+
+		assertSame(t1, t2);
+		assertNotSame(t1, t3);
+		assertSame(t1.key, t3.key);
+
+	}
+
+	@Test
+	public void testSharedTagSets() {
+
+		TagPool pool = new TagPool();
+
+		TagSet s1 = pool.tagSet(pool.tag("natural", "tree"), pool.tag("leaf_type", "broadleaved"));
+		TagSet s2 = pool.tagSet(pool.tag("leaf_type", "broadleaved"), pool.tag("natural", "tree"));
+
+		assertSame(s1, s2);
+		assertEquals(TagSet.of("natural", "tree", "leaf_type", "broadleaved"), s1);
+
+		TagSet large1 = pool.tagSet(pool.tag("a", "1"), pool.tag("b", "2"), pool.tag("c", "3"), pool.tag("d", "4"));
+		TagSet large2 = pool.tagSet(pool.tag("a", "1"), pool.tag("b", "2"), pool.tag("c", "3"), pool.tag("d", "4"));
+
+		assertEquals(large1, large2);
+
+	}
+
+}
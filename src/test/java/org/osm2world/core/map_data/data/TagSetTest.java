@@ -63,6 +63,44 @@ public class TagSetTest {
 
 	}
 
+	@Test
+	public void testHashCode() {
+
+		assertEquals(TagSet.of("keyA", "valueA", "keyB", "valueB").hashCode(),
+				TagSet.of("keyB", "valueB", "keyA", "valueA").hashCode());
+
+		assertEquals(TagSet.of().hashCode(), TagSet.of(emptyList()).hashCode());
+
+	}
+
+	@Test
+	public void testLookup() {
+
+		TagSet tags = TagSet.of(
+				"highway", "crossing",
+				"crossing", "uncontrolled",
+				"kerb", "lowered",
+				"tactile_paving", "yes");
+
+		assertEquals("crossing", tags.getValue("highway"));
+		assertEquals("uncontrolled", tags.getValue("crossing"));
+		assertEquals("lowered", tags.getValue("kerb"));
+		assertEquals("yes", tags.getValue("tactile_paving"));
+		assertNull(tags.getValue("button_operated"));
+		assertNull(tags.getValue("zzz"));
+
+		assertTrue(tags.contains("kerb", "lowered"));
+		assertTrue(tags.contains(new Tag("tactile_paving", "yes")));
+		assertFalse(tags.contains("kerb", "raised"));
+		assertFalse(tags.contains("surface", "asphalt"));
+
+		assertTrue(tags.containsKey("crossing"));
+		assertFalse(tags.containsKey("aaa"));
+
+		assertFalse(TagSet.of().containsKey("highway"));
+
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void testUniqueness() {
 		TagSet.of("highway", "primary", "highway", "secondary");
@@ -0,0 +1,149 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static org.junit.Assert.*;
+import static org.osm2world.core.map_elevation.creation.DiffusionEleConstraintEnforcer.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.osm2world.core.map_elevation.creation.DiffusionEleConstraintEnforcer.CompiledRoadGraph;
+import org.osm2world.core.map_elevation.creation.DiffusionEleConstraintEnforcer.RoadNetworkEdge;
+import org.osm2world.core.map_elevation.data.EleConnector;
+import org.osm2world.core.map_elevation.data.GroundState;
+import org.osm2world.core.math.VectorXZ;
+
+public class DiffusionEleConstraintEnforcerTest {
+
+	/** bound for the difference caused by stopping the diffusion early, see {@link DiffusionEleConstraintEnforcer} */
+	private static final double TOLERANCE = MAX_DURATION / DT * CONVERGENCE_THRESHOLD;
+
+	/**
+	 * a grid of connectors, with some bridge and tunnel connectors.
+	 * The grid is divided into square blocks, and neighboring connectors within a block are connected by roads.
+	 * Additional isolated connectors represent features which are not part of the road network.
+	 */
+	private static class RoadNetwork {
+
+		final List<EleConnector> connectors = new ArrayList<>();
+		final Map<EleConnector, List<RoadNetworkEdge>> roadGraph = new HashMap<>();
+
+		RoadNetwork(int size, int blockSize, double spacing, int isolatedConnectors, long seed) {
+
+			Random random = new Random(seed);
+
+			EleConnector[][] grid = new EleConnector[size][size];
+
+			for (int x = 0; x < size; x++) {
+				for (int z = 0; z < size; z++) {
+					double r = random.nextDouble();
+					GroundState groundState = r < 0.1 ? GroundState.ABOVE : r < 0.2 ? GroundState.BELOW : GroundState.ON;
+					grid[x][z] = new EleConnector(new VectorXZ(x * spacing, z * spacing), null, groundState);
+					connectors.add(grid[x][z]);
+				}
+			}
+
+			for (int x = 0; x < size; x++) {
+				for (int z = 0; z < size; z++) {
+					if ((x + 1) % blockSize != 0 && x + 1 < size) addEdge(grid[x][z], grid[x + 1][z], spacing);
+					if ((z + 1) % blockSize != 0 && z + 1 < size) addEdge(grid[x][z], grid[x][z + 1], spacing);
+				}
+			}
+
+			for (int i = 0; i < isolatedConnectors; i++) {
+				connectors.add(new EleConnector(new VectorXZ(-1 - i, -1), null, GroundState.ON));
+			}
+
+		}
+
+		private void addEdge(EleConnector a, EleConnector b, double distance) {
+			roadGraph.computeIfAbsent(a, c -> new ArrayList<>()).add(new RoadNetworkEdge(a, b, distance));
+			roadGraph.computeIfAbsent(b, c -> new ArrayList<>()).add(new RoadNetworkEdge(b, a, distance));
+		}
+
+	}
+
+	private static double initialHeight(EleConnector c) {
+		switch (c.groundState) {
+			case ABOVE: return 5.0;
+			case BELOW: return -5.0;
+			default: return 0;
+		}
+	}
+
+	/**
+	 * the diffusion of the original implementation:
+	 * a fixed number of time steps, with heights stored in hash maps
+	 */
+	private static Map<EleConnector, Double> diffuseReference(RoadNetwork network) {
+
+		Map<EleConnector, Double> heightMap = new HashMap<EleConnector, Double>();
+		Map<EleConnector, Double> heightMap1 = new HashMap<EleConnector, Double>();
+
+		for (EleConnector c : network.connectors) {
+			heightMap.put(c, initialHeight(c));
+			heightMap1.put(c, initialHeight(c));
+		}
+
+		double dt = 0.01;
+		double conductance = 1;
+
+		for (double t = 0; t < 100; t += dt) {
+			for (EleConnector a : network.roadGraph.keySet()) {
+				double dhdt = 0;
+				double h = heightMap.get(a);
+				for (RoadNetworkEdge edge : network.roadGraph.get(a)) {
+					dhdt -= conductance / Math.max(edge.distance * edge.distance, 5) * (h - heightMap.get(edge.b));
+				}
+				heightMap1.put(a, dhdt * dt + h);
+			}
+			for (EleConnector c : network.connectors) {
+				heightMap.put(c, heightMap1.get(c));
+			}
+		}
+
+		return heightMap;
+
+	}
+
+	/** runs the diffusion with the same parameters as {@link DiffusionEleConstraintEnforcer} */
+	private static void assertMatchesReference(RoadNetwork network, boolean expectEarlyConvergence) {
+
+		CompiledRoadGraph graph = new CompiledRoadGraph(network.connectors, network.roadGraph, CONDUCTANCE);
+
+		double[] heights = new double[graph.size()];
+		for (int i = 0; i < graph.size(); i++) {
+			heights[i] = initialHeight(graph.connectors[i]);
+		}
+
+		int maxSteps = (int) Math.ceil(MAX_DURATION / DT);
+		int steps = graph.diffuse(heights, DT, maxSteps, CONVERGENCE_THRESHOLD);
+
+		if (expectEarlyConvergence) {
+			assertTrue(steps < maxSteps);
+		}
+
+		Map<EleConnector, Double> reference = diffuseReference(network);
+
+		for (EleConnector c : network.connectors) {
+			assertEquals(reference.get(c), heights[graph.indexOf(c)], TOLERANCE);
+		}
+
+	}
+
+	@Test
+	public void testSmallNetwork() {
+		assertMatchesReference(new RoadNetwork(12, 3, 1, 0, 1), true);
+		assertMatchesReference(new RoadNetwork(12, 12, 3, 0, 2), false);
+	}
+
+	@Test
+	public void testLargeNetwork() {
+		/* enough connectors for the parallel simulation */
+		assertMatchesReference(new RoadNetwork(20, 10, 3, CompiledRoadGraph.PARALLEL_THRESHOLD, 3), false);
+	}
+
+}
@@ -0,0 +1,52 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static org.osm2world.core.map_elevation.data.GroundState.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.osm2world.core.map_elevation.data.EleConnector;
+import org.osm2world.core.math.VectorXZ;
+
+public class EleConnectorPositionIndexTest {
+
+	@Test
+	public void testAddAndConnect() {
+
+		Object reference = new Object();
+
+		EleConnector c1 = new EleConnector(new VectorXZ(1, 2), null, ON);
+		EleConnector c2 = new EleConnector(new VectorXZ(1, 2), null, ON);
+		EleConnector c3 = new EleConnector(new VectorXZ(1, 2), null, ABOVE);
+		EleConnector c4 = new EleConnector(new VectorXZ(5, 5), reference, ABOVE);
+		EleConnector c5 = new EleConnector(new VectorXZ(5, 5), reference, ABOVE);
+		EleConnector c6 = new EleConnector(new VectorXZ(5, 5.001), reference, ABOVE);
+
+		EleConnectorPositionIndex index = new EleConnectorPositionIndex();
+
+		List<List<EleConnector>> pairs = new ArrayList<>();
+		index.addAndConnect(asList(c1, c3, c4), (a, b) -> pairs.add(asList(a, b)));
+		assertTrue(pairs.isEmpty());
+
+		index.addAndConnect(asList(c2, c5, c6), (a, b) -> pairs.add(asList(a, b)));
+		assertEquals(asList(asList(c2, c1), asList(c5, c4)), pairs);
+
+	}
+
+	@Test
+	public void testNegativeZero() {
+
+		EleConnector c1 = new EleConnector(new VectorXZ(0.0, 3), null, ON);
+		EleConnector c2 = new EleConnector(new VectorXZ(-0.0, 3), null, ON);
+
+		EleConnectorPositionIndex index = new EleConnectorPositionIndex();
+		index.add(c1);
+
+		assertEquals(asList(c1), index.getConnectorsAt(c2.pos));
+
+	}
+
+}
@@ -0,0 +1,57 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ElevationGridTest {
+
+	private static final double NaN = Double.NaN;
+
+	@Test
+	public void testBilinearInterpolation() {
+
+		ElevationGrid grid = new ElevationGrid(null, 10, 50, 0.5, 3, 2, new double[] {
+				0, 10, 20,
+				30, 40, 50});
+
+		assertEquals(0, grid.getEle(50, 10), 1e-9);
+		assertEquals(50, grid.getEle(50.5, 11), 1e-9);
+		assertEquals(5, grid.getEle(50, 10.25), 1e-9);
+		assertEquals(15, grid.getEle(50.25, 10), 1e-9);
+		assertEquals(25, grid.getEle(50.25, 10.5), 1e-9);
+
+	}
+
+	@Test
+	public void testClampedOutsideGrid() {
+
+		ElevationGrid grid = new ElevationGrid(null, 10, 50, 0.5, 2, 2, new double[] {
+				0, 10,
+				30, 40});
+
+		assertEquals(0, grid.getEle(49, 9), 1e-9);
+		assertEquals(40, grid.getEle(52, 12), 1e-9);
+		assertEquals(5, grid.getEle(40, 10.25), 1e-9);
+
+	}
+
+	@Test
+	public void testMissingValues() {
+
+		ElevationGrid grid = new ElevationGrid(null, 10, 50, 0.5, 2, 2, new double[] {
+				NaN, 10,
+				30, NaN});
+
+		assertEquals(20, grid.getEle(50.25, 10.25), 1e-9);
+		assertEquals(10, grid.getEle(50, 10.5), 1e-9);
+		assertTrue(Double.isNaN(grid.getEle(50, 10)));
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidDimensions() {
+		new ElevationGrid(null, 0, 0, 1, 2, 2, new double[3]);
+	}
+
+}
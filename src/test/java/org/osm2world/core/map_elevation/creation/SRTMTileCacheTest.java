@@ -0,0 +1,108 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class SRTMTileCacheTest {
+
+	@Test
+	public void testTileResolutions() throws IOException {
+
+		SRTMTileCache cache = new SRTMTileCache(2);
+
+		File file3 = createTileFile(SRTMTile.PIXELS);
+		File file1 = createTileFile(SRTMTile.PIXELS_1_ARCSECOND);
+
+		SRTMTile tile3 = cache.acquire(file3);
+		SRTMTile tile1 = cache.acquire(file1);
+
+		assertEquals(SRTMTile.PIXELS, tile3.pixels);
+		assertEquals(SRTMTile.PIXELS_1_ARCSECOND, tile1.pixels);
+
+		/* the first row in the file is the northernmost one */
+
+		assertEquals(expectedValue(SRTMTile.PIXELS, 0, 0), tile3.getData(0, SRTMTile.PIXELS - 1));
+		assertEquals(expectedValue(SRTMTile.PIXELS, 5, 7), tile3.getData(5, SRTMTile.PIXELS - 1 - 7));
+		assertEquals(expectedValue(SRTMTile.PIXELS_1_ARCSECOND, 3600, 3600), tile1.getData(3600, 0));
+
+		cache.release(tile3);
+		cache.release(tile1);
+
+	}
+
+	@Test
+	public void testSharingAndEviction() throws IOException {
+
+		SRTMTileCache cache = new SRTMTileCache(1);
+
+		File fileA = createTileFile(SRTMTile.PIXELS);
+		File fileB = createTileFile(SRTMTile.PIXELS);
+
+		SRTMTile a1 = cache.acquire(fileA);
+		SRTMTile a2 = cache.acquire(fileA);
+		assertSame(a1, a2);
+
+		/* tiles in use are not evicted even if the capacity is exceeded */
+
+		SRTMTile b = cache.acquire(fileB);
+		assertEquals(2, cache.size());
+
+		cache.release(a1);
+		cache.release(a2);
+		assertEquals(1, cache.size());
+
+		/* the unused tile remains cached up to the capacity */
+
+		cache.release(b);
+		assertEquals(1, cache.size());
+		assertSame(b, cache.acquire(fileB));
+		cache.release(b);
+
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testReleaseWithoutAcquire() throws IOException {
+
+		SRTMTileCache cache = new SRTMTileCache(1);
+
+		SRTMTile tile = cache.acquire(createTileFile(SRTMTile.PIXELS));
+		cache.release(tile);
+		cache.release(tile);
+
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidSize() throws IOException {
+		new SRTMTileCache(1).acquire(createTileFile(100));
+	}
+
+	private static short expectedValue(int pixels, int column, int row) {
+		return (short)((row * pixels + column) % 10000);
+	}
+
+	private static File createTileFile(int pixels) throws IOException {
+
+		File file = File.createTempFile("unittest", ".hgt");
+		file.deleteOnExit();
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file)))) {
+			for (int row = 0; row < pixels; row++) {
+				for (int column = 0; column < pixels; column++) {
+					out.writeShort(expectedValue(pixels, column, row));
+				}
+			}
+		}
+
+		return file;
+
+	}
+
+}
@@ -0,0 +1,111 @@
+package org.osm2world.core.map_elevation.creation;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+
+public class TerrainInterpolationUtilTest {
+
+	@Test
+	public void testParallelMatchesSerial() {
+
+		List<TerrainInterpolator> interpolators = asList(
+				new ZeroInterpolator(),
+				new InverseDistanceWeightingInterpolator(),
+				new LeastSquaresInterpolator(),
+				new LinearInterpolator());
+
+		Random random = new Random(42);
+
+		Collection<VectorXYZ> sites = new ArrayList<>();
+
+		for (int x = -500; x <= 500; x += 50) {
+			for (int z = -500; z <= 500; z += 50) {
+				double siteX = x + 10 * random.nextDouble();
+				double siteZ = z + 10 * random.nextDouble();
+				sites.add(new VectorXYZ(siteX, 20 * Math.sin(siteX / 200.0) + siteZ / 100.0, siteZ));
+			}
+		}
+
+		int numPositions = 5 * TerrainInterpolationUtil.CHUNK_SIZE + 17;
+
+		double[] xs = new double[numPositions];
+		double[] zs = new double[numPositions];
+
+		for (int i = 0; i < numPositions; i++) {
+			xs[i] = -300 + 600 * random.nextDouble();
+			zs[i] = -300 + 600 * random.nextDouble();
+		}
+
+		for (TerrainInterpolator interpolator : interpolators) {
+
+			assertTrue(interpolator.isThreadSafe());
+
+			interpolator.setKnownSites(sites);
+
+			double[] out = new double[numPositions];
+			BitSet failures = TerrainInterpolationUtil.interpolateEle(interpolator, xs, zs, out, 4);
+
+			assertTrue(failures.isEmpty());
+
+			for (int i = 0; i < numPositions; i++) {
+				double expected = interpolator.interpolateEle(new VectorXZ(xs[i], zs[i])).y;
+				assertEquals(interpolator.getClass().getSimpleName(), expected, out[i], 1e-9);
+			}
+
+		}
+
+	}
+
+	@Test
+	public void testNaturalNeighborIsNotThreadSafe() {
+		assertFalse(new NaturalNeighborInterpolator().isThreadSafe());
+	}
+
+	@Test
+	public void testFailures() {
+
+		TerrainInterpolator interpolator = new ZeroInterpolator() {
+
+			@Override
+			public VectorXYZ interpolateEle(VectorXZ pos) {
+				if (pos.x < 0) throw new IllegalArgumentException("test exception");
+				return pos.xyz(pos.x);
+			}
+
+			@Override
+			public void interpolateEle(double[] xs, double[] zs, double[] out) {
+				for (int i = 0; i < xs.length; i++) {
+					out[i] = interpolateEle(new VectorXZ(xs[i], zs[i])).y;
+				}
+			}
+
+		};
+
+		double[] xs = {1, -1, 2, -2, 3};
+		double[] zs = new double[5];
+		double[] out = new double[5];
+
+		BitSet failures = TerrainInterpolationUtil.interpolateEle(interpolator, xs, zs, out, 2);
+
+		assertEquals(2, failures.cardinality());
+		assertTrue(failures.get(1));
+		assertTrue(failures.get(3));
+
+		assertEquals(1, out[0], 0);
+		assertTrue(Double.isNaN(out[1]));
+		assertEquals(2, out[2], 0);
+		assertEquals(3, out[4], 0);
+
+	}
+
+}
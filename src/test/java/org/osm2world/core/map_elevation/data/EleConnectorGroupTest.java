@@ -0,0 +1,83 @@
+package org.osm2world.core.map_elevation.data;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static org.osm2world.core.map_elevation.data.GroundState.ON;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.osm2world.core.math.TriangleXYZ;
+import org.osm2world.core.math.TriangleXZ;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+
+public class EleConnectorGroupTest {
+
+	@Test
+	public void testGetConnector() {
+
+		for (int size : asList(EleConnectorGroup.INDEX_THRESHOLD / 2, EleConnectorGroup.INDEX_THRESHOLD * 10)) {
+
+			EleConnectorGroup group = new EleConnectorGroup();
+
+			List<VectorXZ> positions = new ArrayList<>();
+			for (int i = 0; i < size; i++) {
+				positions.add(new VectorXZ(i % 7, i / 7));
+			}
+			group.addConnectorsFor(positions, null, ON);
+
+			for (int i = 0; i < size; i++) {
+				assertSame(group.eleConnectors.get(i), group.getConnector(positions.get(i)));
+			}
+
+			assertNull(group.getConnector(new VectorXZ(0.5, 0)));
+
+			/* connectors added after the first lookup are found as well */
+
+			EleConnector newConnector = new EleConnector(new VectorXZ(-1, -1), null, ON);
+			group.add(newConnector);
+			assertSame(newConnector, group.getConnector(new VectorXZ(-1, -1)));
+
+			/* the first connector at a position is returned, -0.0 equals 0.0 */
+
+			group.add(new EleConnector(new VectorXZ(0, 0), null, ON));
+			assertSame(group.eleConnectors.get(0), group.getConnector(new VectorXZ(-0.0, 0)));
+
+		}
+
+	}
+
+	@Test
+	public void testGetTriangulationXYZ() {
+
+		EleConnectorGroup group = new EleConnectorGroup();
+
+		List<TriangleXZ> triangles = new ArrayList<>();
+
+		for (int x = 0; x < 10; x++) {
+			for (int z = 0; z < 10; z++) {
+				triangles.add(new TriangleXZ(new VectorXZ(x, z), new VectorXZ(x + 1, z), new VectorXZ(x, z + 1)));
+			}
+		}
+
+		group.addConnectorsForTriangulation(triangles, null, ON);
+
+		for (EleConnector c : group) {
+			c.setPosXYZ(c.pos.xyz(c.pos.x + c.pos.z));
+		}
+
+		List<TriangleXYZ> result = group.getTriangulationXYZ(triangles);
+
+		assertEquals(triangles.size(), result.size());
+
+		for (TriangleXYZ t : result) {
+			for (VectorXYZ v : asList(t.v1, t.v2, t.v3)) {
+				assertEquals(v.x + v.z, v.y, 0);
+			}
+		}
+
+	}
+
+}
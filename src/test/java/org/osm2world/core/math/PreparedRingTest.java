@@ -0,0 +1,134 @@
+package org.osm2world.core.math;
+
+import static java.lang.Math.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.osm2world.core.math.shapes.SimplePolygonShapeXZ;
+
+public class PreparedRingTest {
+
+	/** creates a large star-shaped (and therefore non-self-intersecting) polygon */
+	private static List<VectorXZ> createStarLoop(Random random, int numVertices) {
+
+		List<VectorXZ> vertexLoop = new ArrayList<>();
+
+		for (int i = 0; i < numVertices; i++) {
+			double angle = 2 * PI * i / numVertices;
+			double radius = 50 + 40 * random.nextDouble();
+			vertexLoop.add(new VectorXZ(radius * sin(angle), 0.3 * radius * cos(angle)));
+		}
+
+		vertexLoop.add(vertexLoop.get(0));
+
+		return vertexLoop;
+
+	}
+
+	/** wraps a vertex loop, without overriding the brute-force implementations of {@link SimplePolygonShapeXZ} */
+	private static SimplePolygonShapeXZ bruteForcePolygon(List<VectorXZ> vertexLoop) {
+		return new SimplePolygonShapeXZ() {
+			@Override public List<VectorXZ> getVertexList() { return vertexLoop; }
+			@Override public Collection<TriangleXZ> getTriangulation() { return null; }
+		};
+	}
+
+	@Test
+	public void testSameResultsAsBruteForce() {
+
+		Random random = new Random(42);
+
+		List<VectorXZ> vertexLoop = createStarLoop(random, 2000);
+
+		PreparedRing prepared = new PreparedRing(vertexLoop);
+		SimplePolygonShapeXZ bruteForce = bruteForcePolygon(vertexLoop);
+
+		assertEquals(bruteForce.boundingBox().minX, prepared.boundingBox().minX, 0);
+		assertEquals(bruteForce.boundingBox().maxZ, prepared.boundingBox().maxZ, 0);
+
+		/* test points, including the vertices themselves */
+
+		List<VectorXZ> points = new ArrayList<>(vertexLoop);
+
+		for (int i = 0; i < 5000; i++) {
+			points.add(new VectorXZ(-100 + 200 * random.nextDouble(), -40 + 80 * random.nextDouble()));
+		}
+
+		for (VectorXZ point : points) {
+			assertEquals(point.toString(), bruteForce.contains(point), prepared.contains(point));
+		}
+
+		/* test segments, including some which start at vertices */
+
+		for (int i = 0; i < 2000; i++) {
+
+			VectorXZ p1 = i % 4 == 0
+					? vertexLoop.get(random.nextInt(vertexLoop.size()))
+					: new VectorXZ(-100 + 200 * random.nextDouble(), -40 + 80 * random.nextDouble());
+			VectorXZ p2 = p1.add(new VectorXZ(-30 + 60 * random.nextDouble(), -30 + 60 * random.nextDouble()));
+
+			LineSegmentXZ segment = new LineSegmentXZ(p1, p2);
+
+			assertEquals(segment.toString(), bruteForce.intersects(p1, p2), prepared.intersects(p1, p2));
+			assertEquals(segment.toString(), bruteForce.intersectionPositions(segment),
+					prepared.intersectionPositions(segment));
+
+		}
+
+	}
+
+	@Test
+	public void testSimplePolygonUsesPreparedRing() {
+
+		Random random = new Random(0);
+
+		List<VectorXZ> vertexLoop = createStarLoop(random, 500);
+
+		SimplePolygonXZ polygon = new SimplePolygonXZ(vertexLoop);
+		SimplePolygonShapeXZ bruteForce = bruteForcePolygon(vertexLoop);
+
+		for (int i = 0; i < 1000; i++) {
+
+			VectorXZ p1 = new VectorXZ(-100 + 200 * random.nextDouble(), -40 + 80 * random.nextDouble());
+			VectorXZ p2 = new VectorXZ(-100 + 200 * random.nextDouble(), -40 + 80 * random.nextDouble());
+
+			assertEquals(bruteForce.contains(p1), polygon.contains(p1));
+			assertEquals(bruteForce.intersects(p1, p2), polygon.intersects(p1, p2));
+
+		}
+
+	}
+
+	@Test
+	public void testDegenerateBoundingBox() {
+
+		/* a thin polygon with many vertices on a nearly horizontal line */
+
+		List<VectorXZ> vertexLoop = new ArrayList<>();
+
+		for (int i = 0; i <= 100; i++) {
+			vertexLoop.add(new VectorXZ(i, 0));
+		}
+
+		vertexLoop.add(new VectorXZ(50, 1e-3));
+		vertexLoop.add(vertexLoop.get(0));
+
+		PreparedRing prepared = new PreparedRing(vertexLoop);
+		SimplePolygonShapeXZ bruteForce = bruteForcePolygon(vertexLoop);
+
+		for (VectorXZ point : new VectorXZ[] {
+				new VectorXZ(50, 1e-4), new VectorXZ(50, -1), new VectorXZ(10, 1e-5), new VectorXZ(200, 0)}) {
+			assertEquals(bruteForce.contains(point), prepared.contains(point));
+		}
+
+		assertEquals(bruteForce.intersects(new VectorXZ(20, -1), new VectorXZ(20.5, 1)),
+				prepared.intersects(new VectorXZ(20, -1), new VectorXZ(20.5, 1)));
+
+	}
+
+}
@@ -0,0 +1,230 @@
+package org.osm2world.core.math.algorithms;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.osm2world.core.math.SimplePolygonXZ;
+import org.osm2world.core.math.TriangleXZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.math.algorithms.TriangulationCache.Usage;
+
+public class TriangulationCacheTest {
+
+	/** triangulates a polygon as a fan around its center, which is not one of the input vertices */
+	private static List<TriangleXZ> centerFan(List<VectorXZ> vertices) {
+		VectorXZ center = new SimplePolygonXZ(closedLoop(vertices)).getCentroid();
+		List<TriangleXZ> result = new ArrayList<>();
+		for (int i = 0; i < vertices.size(); i++) {
+			result.add(new TriangleXZ(center, vertices.get(i), vertices.get((i + 1) % vertices.size())));
+		}
+		return result;
+	}
+
+	private static List<VectorXZ> closedLoop(List<VectorXZ> vertices) {
+		List<VectorXZ> result = new ArrayList<>(vertices);
+		result.add(vertices.get(0));
+		return result;
+	}
+
+	@Test
+	public void testTranslatedAndRotated() {
+
+		TriangulationCache cache = new TriangulationCache();
+
+		List<VectorXZ> square1 = asList(
+				new VectorXZ(0, 0), new VectorXZ(4, 0), new VectorXZ(4, 2), new VectorXZ(0, 2));
+		List<VectorXZ> square2 = asList(
+				new VectorXZ(100, 50), new VectorXZ(100, 46), new VectorXZ(102, 46), new VectorXZ(102, 50));
+
+		List<TriangleXZ> result1 = cache.triangulate(square1, 4, 4, () -> centerFan(square1));
+		List<TriangleXZ> result2 = cache.triangulate(square2, 4, 4, () -> {
+			fail("the triangulation should have been cached");
+			return emptyList();
+		});
+
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		List<TriangleXZ> expected2 = centerFan(square2);
+		assertEquals(result1.size(), result2.size());
+
+		for (int i = 0; i < expected2.size(); i++) {
+			assertTrue(expected2.get(i).v1.distanceTo(result2.get(i).v1) < 1e-9);
+			assertSame(square2.get(i), result2.get(i).v2);
+			assertSame(square2.get((i + 1) % 4), result2.get(i).v3);
+		}
+
+	}
+
+	@Test
+	public void testDifferentInputs() {
+
+		TriangulationCache cache = new TriangulationCache();
+
+		List<VectorXZ> square = asList(
+				new VectorXZ(0, 0), new VectorXZ(4, 0), new VectorXZ(4, 4), new VectorXZ(0, 4));
+		List<VectorXZ> rectangle = asList(
+				new VectorXZ(0, 0), new VectorXZ(4, 0), new VectorXZ(4, 2), new VectorXZ(0, 2));
+
+		cache.triangulate(square, 4, 4, () -> centerFan(square));
+		cache.triangulate(rectangle, 4, 4, () -> centerFan(rectangle));
+		cache.triangulate(square, 4, 5, () -> centerFan(square));
+
+		assertEquals(0, cache.getHits());
+		assertEquals(3, cache.getMisses());
+
+	}
+
+	@Test
+	public void testDifferentStartAndWinding() {
+
+		TriangulationCache cache = new TriangulationCache();
+
+		List<VectorXZ> pentagon1 = asList(
+				new VectorXZ(0, 0), new VectorXZ(5, 0), new VectorXZ(6, 3), new VectorXZ(3, 5), new VectorXZ(0, 2));
+
+		/* the same shape, moved, starting at another vertex and running in the opposite direction */
+
+		List<VectorXZ> pentagon2 = new ArrayList<>();
+		for (int i = 0; i < pentagon1.size(); i++) {
+			pentagon2.add(pentagon1.get((i + 2) % pentagon1.size()).add(new VectorXZ(-20, 30)));
+		}
+		Collections.reverse(pentagon2);
+
+		cache.triangulate(pentagon1, 5, 5, () -> centerFan(pentagon1));
+		List<TriangleXZ> result2 = cache.triangulate(pentagon2, 5, 5, () -> {
+			fail("the triangulation should have been cached");
+			return emptyList();
+		});
+
+		assertEquals(1, cache.getHits());
+		assertEquals(5, result2.size());
+
+		VectorXZ center2 = new SimplePolygonXZ(closedLoop(pentagon2)).getCentroid();
+		double area = 0;
+
+		for (TriangleXZ t : result2) {
+			for (VectorXZ v : asList(t.v1, t.v2, t.v3)) {
+				assertTrue(pentagon2.stream().anyMatch(it -> it == v) || v.distanceTo(center2) < 1e-9);
+			}
+			area += t.getArea();
+		}
+
+		assertEquals(new SimplePolygonXZ(closedLoop(pentagon2)).getArea(), area, 1e-9);
+
+	}
+
+	@Test
+	public void testDisabledUsage() {
+
+		TriangulationCache cache = new TriangulationCache();
+
+		List<VectorXZ> square = asList(
+				new VectorXZ(0, 0), new VectorXZ(4, 0), new VectorXZ(4, 4), new VectorXZ(0, 4));
+
+		Usage usage = new Usage(cache, false);
+		usage.activate();
+
+		AtomicInteger calls = new AtomicInteger();
+
+		for (int i = 0; i < 3; i++) {
+			cache.triangulate(square, 4, 4, () -> {
+				calls.incrementAndGet();
+				return centerFan(square);
+			});
+		}
+
+		assertEquals(3, calls.get());
+		assertEquals(0, usage.getHits());
+		assertEquals(3, usage.getMisses());
+
+	}
+
+	@Test
+	public void testBypassWithoutHits() {
+
+		TriangulationCache cache = new TriangulationCache();
+
+		Usage usage = new Usage(cache, true);
+		usage.activate();
+
+		for (int i = 0; i < TriangulationCache.BYPASS_THRESHOLD; i++) {
+			List<VectorXZ> rectangle = asList(
+					new VectorXZ(0, 0), new VectorXZ(i + 1, 0), new VectorXZ(i + 1, 1), new VectorXZ(0, 1));
+			cache.triangulate(rectangle, 4, 4, () -> centerFan(rectangle));
+		}
+
+		assertEquals(0, usage.getHits());
+
+		/* an input which is in the cache is no longer looked up */
+
+		List<VectorXZ> rectangle = asList(
+				new VectorXZ(0, 0), new VectorXZ(1, 0), new VectorXZ(1, 1), new VectorXZ(0, 1));
+
+		AtomicInteger calls = new AtomicInteger();
+
+		cache.triangulate(rectangle, 4, 4, () -> {
+			calls.incrementAndGet();
+			return centerFan(rectangle);
+		});
+
+		assertEquals(1, calls.get());
+		assertEquals(0, usage.getHits());
+
+		/* a new usage, e.g. for the next conversion, uses the cache again */
+
+		Usage nextUsage = new Usage(cache, true);
+		nextUsage.activate();
+
+		cache.triangulate(rectangle, 4, 4, () -> centerFan(rectangle));
+
+		assertEquals(1, nextUsage.getHits());
+
+	}
+
+	@Test
+	public void testUsagesOfConcurrentThreads() throws InterruptedException {
+
+		TriangulationCache cache = new TriangulationCache();
+
+		List<VectorXZ> square = asList(
+				new VectorXZ(0, 0), new VectorXZ(4, 0), new VectorXZ(4, 4), new VectorXZ(0, 4));
+
+		List<Usage> usages = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+
+		for (int i = 0; i < 4; i++) {
+			Usage usage = new Usage(cache, true);
+			usages.add(usage);
+			threads.add(new Thread(() -> {
+				usage.activate();
+				for (int j = 0; j < 1000; j++) {
+					cache.triangulate(square, 4, 4, () -> centerFan(square));
+				}
+			}));
+		}
+
+		for (Thread thread : threads) {
+			thread.start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		for (Usage usage : usages) {
+			assertEquals(1000, usage.getHits() + usage.getMisses());
+		}
+
+		assertEquals(4000, cache.getHits() + cache.getMisses());
+
+	}
+
+}
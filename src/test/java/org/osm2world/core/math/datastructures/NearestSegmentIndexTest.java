@@ -0,0 +1,95 @@
+package org.osm2world.core.math.datastructures;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.*;
+import static org.osm2world.core.math.GeometryUtil.distanceFromLineSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.osm2world.core.math.LineSegmentXZ;
+import org.osm2world.core.math.VectorXZ;
+
+public class NearestSegmentIndexTest {
+
+	private static LineSegmentXZ closestSegmentBruteForce(List<LineSegmentXZ> segments, VectorXZ p) {
+
+		LineSegmentXZ closestSegment = null;
+		double closestSegmentDistance = Double.MAX_VALUE;
+
+		for (LineSegmentXZ segment : segments) {
+			double segmentDistance = distanceFromLineSegment(p, segment);
+			if (segmentDistance < closestSegmentDistance) {
+				closestSegment = segment;
+				closestSegmentDistance = segmentDistance;
+			}
+		}
+
+		return closestSegment;
+
+	}
+
+	@Test
+	public void testEmpty() {
+		assertNull(new NearestSegmentIndex(emptyList()).getClosestSegment(new VectorXZ(1, 2)));
+	}
+
+	@Test
+	public void testTies() {
+
+		LineSegmentXZ s1 = new LineSegmentXZ(new VectorXZ(0, 0), new VectorXZ(10, 0));
+		LineSegmentXZ s2 = new LineSegmentXZ(new VectorXZ(0, 2), new VectorXZ(10, 2));
+
+		assertSame(s1, new NearestSegmentIndex(asList(s1, s2)).getClosestSegment(new VectorXZ(5, 1)));
+		assertSame(s2, new NearestSegmentIndex(asList(s2, s1)).getClosestSegment(new VectorXZ(5, 1)));
+
+	}
+
+	@Test
+	public void testAxisParallelSegments() {
+
+		List<LineSegmentXZ> segments = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			segments.add(new LineSegmentXZ(new VectorXZ(i, 0), new VectorXZ(i + 1, 0)));
+		}
+
+		NearestSegmentIndex index = new NearestSegmentIndex(segments);
+
+		for (double x = -5; x < 55; x += 0.7) {
+			VectorXZ p = new VectorXZ(x, 3);
+			assertSame(closestSegmentBruteForce(segments, p), index.getClosestSegment(p));
+		}
+
+	}
+
+	@Test
+	public void testRandomSegments() {
+
+		Random random = new Random(42);
+
+		for (int segmentCount : new int[] {1, 5, 20, 200}) {
+
+			List<LineSegmentXZ> segments = new ArrayList<>();
+
+			for (int i = 0; i < segmentCount; i++) {
+				VectorXZ p1 = new VectorXZ(100 * random.nextDouble(), 40 * random.nextDouble());
+				VectorXZ p2 = p1.add(new VectorXZ(10 * random.nextGaussian(), 10 * random.nextGaussian()));
+				segments.add(new LineSegmentXZ(p1, p2));
+			}
+
+			NearestSegmentIndex index = new NearestSegmentIndex(segments);
+			assertEquals(segmentCount, index.size());
+
+			for (int i = 0; i < 1000; i++) {
+				VectorXZ p = new VectorXZ(140 * random.nextDouble() - 20, 80 * random.nextDouble() - 20);
+				assertSame(closestSegmentBruteForce(segments, p), index.getClosestSegment(p));
+			}
+
+		}
+
+	}
+
+}
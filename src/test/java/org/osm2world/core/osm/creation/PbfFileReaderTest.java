@@ -0,0 +1,79 @@
+package org.osm2world.core.osm.creation;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.osm2world.core.map_data.creation.LatLonBounds;
+import org.osm2world.core.osm.data.OSMData;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmEntity;
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Relation;
+import de.topobyte.osm4j.core.model.impl.RelationMember;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
+import de.topobyte.osm4j.pbf.seq.PbfWriter;
+
+public class PbfFileReaderTest {
+
+	private static Set<Long> ids(Iterable<? extends OsmEntity> entities) {
+		Set<Long> result = new TreeSet<>();
+		entities.forEach(e -> result.add(e.getId()));
+		return result;
+	}
+
+	@Test
+	public void testBoundingBox() throws IOException {
+
+		File pbfFile = File.createTempFile("unittest", ".osm.pbf");
+		pbfFile.deleteOnExit();
+
+		try (OutputStream out = new FileOutputStream(pbfFile)) {
+
+			PbfWriter writer = new PbfWriter(out, true);
+
+			writer.write(new Node(1, 10.05, 50.05)); // inside
+			writer.write(new Node(2, 10.20, 50.05));
+			writer.write(new Node(3, 10.20, 50.20));
+			writer.write(new Node(4, 10.30, 50.20));
+			writer.write(new Node(5, 10.40, 50.20));
+
+			writer.write(new Way(10, new TLongArrayList(new long[] {1, 2, 3, 1})));
+			writer.write(new Way(11, new TLongArrayList(new long[] {3, 4})));
+			writer.write(new Way(12, new TLongArrayList(new long[] {4, 5})));
+
+			writer.write(new Relation(20, asList(
+					new RelationMember(10, EntityType.Way, "outer"),
+					new RelationMember(11, EntityType.Way, "outer")),
+					singletonList(new Tag("type", "multipolygon"))));
+
+			writer.complete();
+
+		}
+
+		for (int threads : asList(1, 4)) {
+
+			OSMData osmData = new PbfFileReader(pbfFile, new LatLonBounds(50.0, 10.0, 50.1, 10.1), threads).getData();
+
+			assertEquals(new TreeSet<>(asList(1L, 2L, 3L, 4L)), ids(osmData.getNodes()));
+			assertEquals(new TreeSet<>(asList(10L, 11L)), ids(osmData.getWays()));
+			assertEquals(singleton(20L), ids(osmData.getRelations()));
+			assertEquals(1, osmData.getBounds().size());
+
+		}
+
+	}
+
+}
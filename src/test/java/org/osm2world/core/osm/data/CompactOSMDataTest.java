@@ -0,0 +1,113 @@
+package org.osm2world.core.osm.data;
+
+import static de.topobyte.osm4j.core.model.util.OsmModelUtil.*;
+import static java.util.Arrays.asList;
+import static java.util.Collections.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.dataset.InMemoryMapDataSet;
+import de.topobyte.osm4j.core.dataset.MapDataSetLoader;
+import de.topobyte.osm4j.core.model.iface.EntityType;
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Relation;
+import de.topobyte.osm4j.core.model.impl.RelationMember;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+import de.topobyte.osm4j.xml.dynsax.OsmXmlIterator;
+
+public class CompactOSMDataTest {
+
+	@Test
+	public void testSameAsDataSet() throws IOException, EntityNotFoundException {
+
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		File testFile = new File(classLoader.getResource("mp_two_holes_advanced.osm").getFile());
+
+		InMemoryMapDataSet dataSet = MapDataSetLoader.read(new OsmXmlIterator(testFile, true), true, true, true);
+		CompactOSMData compactData = CompactOSMData.read(new OsmXmlIterator(testFile, true));
+
+		assertEquals(dataSet.getNodes().size(), compactData.getNodes().size());
+		assertEquals(dataSet.getWays().size(), compactData.getWays().size());
+		assertEquals(dataSet.getRelations().size(), compactData.getRelations().size());
+		assertEquals(dataSet.hasBounds() ? 1 : 0, compactData.getBounds().size());
+
+		for (OsmNode expected : dataSet.getNodes().valueCollection()) {
+			OsmNode actual = compactData.getNode(expected.getId());
+			assertEquals(expected.getLatitude(), actual.getLatitude(), 0);
+			assertEquals(expected.getLongitude(), actual.getLongitude(), 0);
+			assertEquals(getTagsAsMap(expected), getTagsAsMap(actual));
+		}
+
+		for (OsmWay expected : dataSet.getWays().valueCollection()) {
+			OsmWay actual = compactData.getWay(expected.getId());
+			assertArrayEquals(nodesAsList(expected).toArray(), nodesAsList(actual).toArray());
+			assertEquals(getTagsAsMap(expected), getTagsAsMap(actual));
+		}
+
+		for (OsmRelation expected : dataSet.getRelations().valueCollection()) {
+			OsmRelation actual = compactData.getRelation(expected.getId());
+			assertEquals(expected.getNumberOfMembers(), actual.getNumberOfMembers());
+			for (int i = 0; i < expected.getNumberOfMembers(); i++) {
+				assertEquals(expected.getMember(i).getId(), actual.getMember(i).getId());
+				assertEquals(expected.getMember(i).getType(), actual.getMember(i).getType());
+				assertEquals(expected.getMember(i).getRole(), actual.getMember(i).getRole());
+			}
+			assertEquals(getTagsAsMap(expected), getTagsAsMap(actual));
+		}
+
+	}
+
+	@Test
+	public void testBuilder() throws EntityNotFoundException {
+
+		CompactOSMData data = new CompactOSMData.Builder()
+				.add(new Node(3, 1.0, 2.0, singletonList(new Tag("amenity", "bench"))))
+				.add(new Way(10, new TLongArrayList(new long[] {1, 3}), singletonList(new Tag("highway", "path"))))
+				.add(new Node(1, 3.0, 4.0, singletonList(new Tag(new String("amenity"), "bench"))))
+				.add(new Relation(20, singletonList(new RelationMember(10, EntityType.Way, "outer")),
+						singletonList(new Tag("type", "multipolygon"))))
+				.add(new Node(3, 5.0, 6.0, asList(new Tag("amenity", "bench"), new Tag("backrest", "no"))))
+				.build();
+
+		/* nodes are sorted by id, later duplicates replace earlier ones */
+
+		assertEquals(2, data.getNodes().size());
+		assertEquals(1, data.getNodes().iterator().next().getId());
+
+		OsmNode node3 = data.getNode(3);
+		assertEquals(5.0, node3.getLongitude(), 0);
+		assertEquals(6.0, node3.getLatitude(), 0);
+		assertEquals(2, node3.getNumberOfTags());
+
+		/* tags are not mixed up between entities of different types added in between */
+
+		assertEquals(1, data.getNode(1).getNumberOfTags());
+		assertEquals("path", getTagsAsMap(data.getWay(10)).get("highway"));
+		assertArrayEquals(new long[] {1, 3}, nodesAsList(data.getWay(10)).toArray());
+		assertEquals("outer", data.getRelation(20).getMember(0).getRole());
+
+		/* interning */
+
+		assertSame(data.getNode(1).getTag(0).getKey(), data.getNode(3).getTag(0).getKey());
+
+		try {
+			data.getWay(11);
+			fail();
+		} catch (EntityNotFoundException e) {
+			// expected
+		}
+
+	}
+
+}
@@ -0,0 +1,77 @@
+package org.osm2world.core.target;
+
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.*;
+import static org.osm2world.core.target.statistics.StatisticsTarget.Stat.PRIMITIVE_COUNT;
+
+import org.junit.Test;
+import org.osm2world.core.map_data.data.MapElement;
+import org.osm2world.core.map_elevation.data.EleConnector;
+import org.osm2world.core.math.VectorXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.target.TargetUtil.RecordedObject;
+import org.osm2world.core.target.common.material.Materials;
+import org.osm2world.core.target.statistics.StatisticsTarget;
+import org.osm2world.core.world.data.WorldObject;
+
+public class RenderCacheTest {
+
+	/** draws a box and counts how often it has been rendered */
+	private static class TestObject implements WorldObject {
+
+		int renderCount = 0;
+
+		@Override
+		public void renderTo(Target target) {
+			renderCount++;
+			target.drawBox(Materials.CONCRETE, VectorXYZ.NULL_VECTOR, VectorXZ.Z_UNIT, 1, 1, 1);
+		}
+
+		@Override
+		public MapElement getPrimaryMapElement() {
+			return null;
+		}
+
+		@Override
+		public Iterable<EleConnector> getEleConnectors() {
+			return emptyList();
+		}
+
+	}
+
+	@Test
+	public void testRenderOnce() {
+
+		RenderCache cache = new RenderCache(1_000_000);
+		TestObject object = new TestObject();
+
+		StatisticsTarget target1 = new StatisticsTarget();
+		StatisticsTarget target2 = new StatisticsTarget();
+
+		for (StatisticsTarget target : new StatisticsTarget[] {target1, target2}) {
+			RecordedObject r = cache.getRecording(object, target);
+			r.recording.replay(target);
+		}
+
+		assertEquals(1, object.renderCount);
+		assertTrue(target1.getGlobalCount(PRIMITIVE_COUNT) > 0);
+		assertEquals(target1.getGlobalCount(PRIMITIVE_COUNT), target2.getGlobalCount(PRIMITIVE_COUNT));
+		assertTrue(cache.getUsedMemory() > 0);
+
+	}
+
+	@Test
+	public void testMemoryBudget() {
+
+		RenderCache cache = new RenderCache(0);
+		TestObject object = new TestObject();
+
+		cache.getRecording(object, new StatisticsTarget());
+		cache.getRecording(object, new StatisticsTarget());
+
+		assertEquals(2, object.renderCount);
+		assertEquals(0, cache.getUsedMemory());
+
+	}
+
+}
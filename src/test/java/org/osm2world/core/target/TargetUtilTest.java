@@ -0,0 +1,109 @@
+package org.osm2world.core.target;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.osm2world.core.ConversionFacade;
+import org.osm2world.core.ConversionFacade.BoundingBoxSizeException;
+import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.math.TriangleXYZ;
+import org.osm2world.core.math.VectorXZ;
+import org.osm2world.core.osm.data.OSMData;
+import org.osm2world.core.target.common.AbstractTarget;
+import org.osm2world.core.target.common.material.Material;
+
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Tag;
+import de.topobyte.osm4j.core.model.impl.Way;
+
+public class TargetUtilTest {
+
+	/** records all triangles drawn to it, in order */
+	private static class TriangleListTarget extends AbstractTarget {
+
+		final List<String> triangles = new ArrayList<>();
+
+		@Override
+		public void drawTriangles(Material material, List<? extends TriangleXYZ> triangles,
+				List<List<VectorXZ>> texCoordLists) {
+			for (TriangleXYZ t : triangles) {
+				this.triangles.add(material.getColor() + " " + t);
+			}
+		}
+
+	}
+
+	/**
+	 * renders buildings with interiors on one and on several threads.
+	 * Each interior contains walls which share segments with a room,
+	 * so the result depends on the shared segments being detected within each interior.
+	 */
+	@Test
+	public void testRenderWorldObjects_indoorWalls() throws BoundingBoxSizeException, IOException {
+
+		List<OsmNode> nodes = new ArrayList<>();
+		List<OsmWay> ways = new ArrayList<>();
+
+		for (int i = 0; i < 50; i++) {
+
+			double lon = 0.0005 * (i % 10);
+			double lat = 0.0005 * (i / 10);
+
+			long id = 100 * i;
+
+			/* building outline */
+
+			nodes.add(new Node(id + 1, lon, lat));
+			nodes.add(new Node(id + 2, lon + 0.0002, lat));
+			nodes.add(new Node(id + 3, lon + 0.0002, lat + 0.0001));
+			nodes.add(new Node(id + 4, lon, lat + 0.0001));
+
+			ways.add(new Way(id + 1, new TLongArrayList(new long[] {id + 1, id + 2, id + 3, id + 4, id + 1}),
+					asList(new Tag("building", "yes"), new Tag("building:levels", "3"))));
+
+			/* a room, and walls sharing some of its segments */
+
+			nodes.add(new Node(id + 11, lon + 0.00002, lat + 0.00002));
+			nodes.add(new Node(id + 12, lon + 0.0001, lat + 0.00002));
+			nodes.add(new Node(id + 13, lon + 0.0001, lat + 0.00008));
+			nodes.add(new Node(id + 14, lon + 0.00002, lat + 0.00008));
+			nodes.add(new Node(id + 15, lon + 0.00018, lat + 0.00002));
+
+			ways.add(new Way(id + 2, new TLongArrayList(new long[] {id + 11, id + 12, id + 13, id + 14, id + 11}),
+					asList(new Tag("indoor", "room"), new Tag("level", "0"))));
+			ways.add(new Way(id + 3, new TLongArrayList(new long[] {id + 11, id + 12, id + 15}),
+					asList(new Tag("indoor", "wall"), new Tag("level", "0"))));
+			ways.add(new Way(id + 4, new TLongArrayList(new long[] {id + 12, id + 13}),
+					asList(new Tag("indoor", "wall"), new Tag("level", "0"))));
+
+		}
+
+		OSMData osmData = new OSMData(emptyList(), nodes, ways, emptyList());
+
+		ConversionFacade cf = new ConversionFacade();
+		Results results = cf.createRepresentations(osmData, null, null, null);
+
+		TriangleListTarget serialTarget = new TriangleListTarget();
+		TargetUtil.renderWorldObjects(serialTarget, results.getMapData(), false, 1);
+
+		assertFalse(serialTarget.triangles.isEmpty());
+
+		for (int run = 0; run < 5; run++) {
+			TriangleListTarget parallelTarget = new TriangleListTarget();
+			TargetUtil.renderWorldObjects(parallelTarget, results.getMapData(), false, 8);
+			assertEquals(serialTarget.triangles, parallelTarget.triangles);
+		}
+
+	}
+
+}
@@ -0,0 +1,115 @@
+package org.osm2world.core.target.common.material;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.After;
+import org.junit.Test;
+
+public class MaterialRegistryTest {
+
+	@After
+	public void resetRegistry() {
+		MaterialRegistry.DEFAULT.activate();
+	}
+
+	private static Configuration configWithColor(String materialName, String color) {
+		Configuration config = new BaseConfiguration();
+		config.setProperty("material_" + materialName + "_color", color);
+		return config;
+	}
+
+	@Test
+	public void testConfiguredColor() {
+
+		Color defaultColor = Materials.ASPHALT.getColor();
+
+		MaterialRegistry.forConfig(configWithColor("ASPHALT", "#ff0000")).activate();
+		assertEquals(Color.RED, Materials.ASPHALT.getColor());
+		assertEquals(Materials.CONCRETE.getDefaults().getColor(), Materials.CONCRETE.getColor());
+
+		MaterialRegistry.DEFAULT.activate();
+		assertEquals(defaultColor, Materials.ASPHALT.getColor());
+
+	}
+
+	@Test
+	public void testCache() {
+
+		MaterialRegistry registry1 = MaterialRegistry.forConfig(configWithColor("BRICK", "#00ff00"));
+		MaterialRegistry registry2 = MaterialRegistry.forConfig(configWithColor("BRICK", "#00ff00"));
+		MaterialRegistry registry3 = MaterialRegistry.forConfig(configWithColor("BRICK", "#0000ff"));
+
+		assertSame(registry1, registry2);
+		assertNotSame(registry1, registry3);
+
+		assertSame(MaterialRegistry.DEFAULT, MaterialRegistry.forConfig(new BaseConfiguration()));
+
+	}
+
+	@Test
+	public void testExternalMaterial() {
+
+		assertNull(Materials.getMaterial("TEST_EXTERNAL"));
+
+		MaterialRegistry.forConfig(configWithColor("TEST_EXTERNAL", "#0000ff")).activate();
+
+		ConfMaterial material = Materials.getMaterial("TEST_EXTERNAL");
+		assertNotNull(material);
+		assertEquals(Color.BLUE, material.getColor());
+
+	}
+
+	@Test
+	public void testConcurrentRegistries() throws Exception {
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+
+			Future<Color> red = executor.submit(() -> {
+				MaterialRegistry.forConfig(configWithColor("WOOD", "#ff0000")).activate();
+				Thread.sleep(100);
+				return Materials.WOOD.getColor();
+			});
+
+			Future<Color> blue = executor.submit(() -> {
+				MaterialRegistry.forConfig(configWithColor("WOOD", "#0000ff")).activate();
+				Thread.sleep(100);
+				return Materials.WOOD.getColor();
+			});
+
+			assertEquals(Color.RED, red.get());
+			assertEquals(Color.BLUE, blue.get());
+
+		} finally {
+			executor.shutdown();
+		}
+
+	}
+
+	@Test
+	public void testRegistryNotSharedWithOtherThreads() throws Exception {
+
+		Thread thread = new Thread(() -> MaterialRegistry.forConfig(configWithColor("WOOD", "#ff0000")).activate());
+		thread.start();
+		thread.join();
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		try {
+			Future<Color> color = executor.submit(() -> Materials.WOOD.getColor());
+			assertEquals(Materials.WOOD.getDefaults().getColor(), color.get());
+		} finally {
+			executor.shutdown();
+		}
+
+	}
+
+}
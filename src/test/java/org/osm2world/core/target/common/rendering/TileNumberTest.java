@@ -1,5 +1,6 @@
 package org.osm2world.core.target.common.rendering;
 
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
@@ -54,4 +55,17 @@ public class TileNumberTest {
 		new TileNumber(2, 4, 4);
 	}
 
+	@Test
+	public void testTilesInRange() {
+		assertEquals(asList(
+				new TileNumber(13, 4402, 2827), new TileNumber(13, 4402, 2828),
+				new TileNumber(13, 4403, 2827), new TileNumber(13, 4403, 2828)),
+				TileNumber.tilesInRange(new TileNumber(13, 4403, 2827), new TileNumber(13, 4402, 2828)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTilesInRangeDifferentZoom() {
+		TileNumber.tilesInRange(new TileNumber(13, 4402, 2828), new TileNumber(14, 8804, 5656));
+	}
+
 }
@@ -1,30 +1,43 @@
 package org.osm2world.core.target.frontend_pbf;
 
 import static java.util.Arrays.asList;
-import static java.util.Collections.emptyList;
+import static java.util.Collections.*;
 import static org.junit.Assert.*;
 import static org.osm2world.core.math.VectorXZ.*;
+import static org.osm2world.core.target.common.material.Materials.PLASTIC;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.junit.Test;
 import org.osm2world.core.ConversionFacade;
 import org.osm2world.core.ConversionFacade.BoundingBoxSizeException;
 import org.osm2world.core.ConversionFacade.Results;
+import org.osm2world.core.map_data.data.MapNode;
+import org.osm2world.core.map_elevation.data.EleConnector;
 import org.osm2world.core.math.AxisAlignedRectangleXZ;
+import org.osm2world.core.math.TriangleXYZ;
+import org.osm2world.core.math.VectorXYZ;
 import org.osm2world.core.math.VectorXZ;
 import org.osm2world.core.osm.data.OSMData;
+import org.osm2world.core.target.Target;
+import org.osm2world.core.target.common.rendering.OrthoTilesUtil;
+import org.osm2world.core.target.common.rendering.TileNumber;
 import org.osm2world.core.target.frontend_pbf.FrontendPbf.Tile;
 import org.osm2world.core.target.frontend_pbf.FrontendPbf.WorldObject;
 import org.osm2world.core.target.frontend_pbf.FrontendPbfTarget.Block;
 import org.osm2world.core.target.frontend_pbf.FrontendPbfTarget.SimpleBlock;
 import org.osm2world.core.target.frontend_pbf.FrontendPbfTarget.VectorBlock;
 import org.osm2world.core.test.TestWorldModule;
+import org.osm2world.core.world.data.NodeWorldObject;
 
 import de.topobyte.osm4j.core.model.iface.OsmNode;
 import de.topobyte.osm4j.core.model.impl.Node;
@@ -58,7 +71,32 @@ public class FrontendPbfTargetTest {
 
 	@Test
 	public void testVectorBlock() {
-		testBlock(new VectorBlock<VectorXZ>());
+		testBlock(VectorBlock.vector2dBlock());
+	}
+
+	@Test
+	public void testVectorBlock_manyVectors() {
+
+		VectorBlock<VectorXYZ> block = VectorBlock.vector3dBlock();
+
+		for (int i = 0; i < 10000; i++) {
+			assertEquals(i, block.toIndex(new VectorXYZ(i, -i / 3.0, i % 7)));
+		}
+
+		for (int i = 0; i < 10000; i++) {
+			assertEquals(i, block.toIndex(new VectorXYZ(i, -i / 3.0, i % 7)));
+			// vectors which are identical after rounding share an index
+			assertEquals(i, block.toIndex(new VectorXYZ(i + 0.0001, -i / 3.0, i % 7)));
+		}
+
+		assertEquals(10000, block.size());
+
+		List<Long> coords = new ArrayList<>();
+		block.forEachCoord(coords::add);
+
+		assertEquals(30000, coords.size());
+		assertEquals(asList(5000000L, -1666667L, 2000L), coords.subList(15000, 15003));
+
 	}
 
 	@Test
@@ -106,4 +144,161 @@ public class FrontendPbfTargetTest {
 
 	}
 
+	@Test
+	public void testWritePbfFile_sameBytesAsTileMessage() throws BoundingBoxSizeException, IOException {
+
+		AxisAlignedRectangleXZ bbox = new AxisAlignedRectangleXZ(-10, -10, +10, +10);
+
+		OsmNode node0 = new Node(0, 0, 0, asList(new de.topobyte.osm4j.core.model.impl.Tag("highway", "street_lamp")));
+		OsmNode node1 = new Node(1, 0.00001, 0.00001, asList(new de.topobyte.osm4j.core.model.impl.Tag("natural", "tree")));
+		OSMData osmData = new OSMData(emptyList(), asList(node0, node1), emptyList(), emptyList());
+
+		ConversionFacade cf = new ConversionFacade();
+		Results results = cf.createRepresentations(osmData, null, null, null);
+
+		File outputFile = File.createTempFile("unittest", ".o2w.pbf");
+		outputFile.deleteOnExit();
+		FrontendPbfTarget.writePbfFile(outputFile, results.getMapData(), bbox, null);
+
+		byte[] bytes = Files.readAllBytes(outputFile.toPath());
+
+		Tile tile = Tile.parseFrom(bytes);
+
+		assertTrue(tile.getObjectsCount() > 0);
+		assertArrayEquals(tile.toByteArray(), bytes);
+
+	}
+
+	@Test
+	public void testWritePbfFile_parallelRendering() throws BoundingBoxSizeException, IOException {
+
+		AxisAlignedRectangleXZ bbox = new AxisAlignedRectangleXZ(-100, -100, +100, +100);
+
+		List<OsmNode> nodes = new ArrayList<>();
+
+		for (int i = 0; i < 600; i++) {
+			String value = i % 2 == 0 ? "street_lamp" : "tree";
+			String key = i % 2 == 0 ? "highway" : "natural";
+			nodes.add(new Node(i, 0.00003 * (i % 25), 0.00003 * (i / 25),
+					asList(new de.topobyte.osm4j.core.model.impl.Tag(key, value))));
+		}
+
+		OSMData osmData = new OSMData(emptyList(), nodes, emptyList(), emptyList());
+
+		ConversionFacade cf = new ConversionFacade();
+		Results results = cf.createRepresentations(osmData, null, null, null);
+
+		File serialFile = File.createTempFile("unittest", ".o2w.pbf");
+		serialFile.deleteOnExit();
+		FrontendPbfTarget.writePbfFile(serialFile, results.getMapData(), bbox, null, 1);
+
+		File parallelFile = File.createTempFile("unittest", ".o2w.pbf");
+		parallelFile.deleteOnExit();
+		FrontendPbfTarget.writePbfFile(parallelFile, results.getMapData(), bbox, null, 4);
+
+		assertArrayEquals(Files.readAllBytes(serialFile.toPath()), Files.readAllBytes(parallelFile.toPath()));
+
+	}
+
+	@Test
+	public void testWritePbfTiles_sameAsSingleTiles() throws BoundingBoxSizeException, IOException {
+
+		/* a node in each of the four tiles which meet at the origin */
+
+		List<OsmNode> nodes = new ArrayList<>();
+
+		for (int i = 0; i < 4; i++) {
+			nodes.add(new Node(i, i % 2 == 0 ? -0.0001 : 0.0001, i / 2 == 0 ? -0.0001 : 0.0001));
+		}
+
+		OSMData osmData = new OSMData(emptyList(), nodes, emptyList(), emptyList());
+
+		ConversionFacade cf = new ConversionFacade();
+		Results results = cf.createRepresentations(osmData, asList(new TestWorldModule()), null, null);
+
+		/* add an object without a location, which is written to all tiles */
+
+		UnlocatedWorldObject unlocatedObject = new UnlocatedWorldObject();
+		results.getMapData().getMapNodes().iterator().next().addRepresentation(unlocatedObject);
+
+		List<TileNumber> tiles = TileNumber.tilesInRange(new TileNumber(19, 262143, 262143),
+				new TileNumber(19, 262144, 262144));
+		assertEquals(4, tiles.size());
+
+		/* write the tiles in parallel */
+
+		File tileDir = Files.createTempDirectory("unittest").toFile();
+		tileDir.deleteOnExit();
+		Function<TileNumber, File> fileForTile = t -> new File(tileDir, t.toString() + ".o2w.pbf");
+
+		FrontendPbfTarget.writePbfTiles(fileForTile, results.getMapData(), tiles, results.getMapProjection(), 4);
+
+		assertEquals(1, unlocatedObject.renderCount.get());
+		assertFalse(unlocatedObject.renderedConcurrently);
+
+		/* compare each tile to a tile written on its own */
+
+		for (TileNumber tile : tiles) {
+
+			File tileFile = fileForTile.apply(tile);
+			tileFile.deleteOnExit();
+
+			File singleFile = File.createTempFile("unittest", ".o2w.pbf");
+			singleFile.deleteOnExit();
+			FrontendPbfTarget.writePbfFile(singleFile, results.getMapData(),
+					OrthoTilesUtil.boundsForTiles(results.getMapProjection(), asList(tile)),
+					results.getMapProjection());
+
+			byte[] bytes = Files.readAllBytes(tileFile.toPath());
+			assertTrue(Tile.parseFrom(bytes).getObjectsCount() >= 2);
+			assertArrayEquals(Files.readAllBytes(singleFile.toPath()), bytes);
+
+		}
+
+	}
+
+	/**
+	 * an object which is not associated with a location.
+	 * Keeps track of how often it has been rendered, and whether that happened on several threads at once.
+	 */
+	private static class UnlocatedWorldObject implements NodeWorldObject {
+
+		final AtomicInteger renderCount = new AtomicInteger();
+		final AtomicInteger activeRenderCalls = new AtomicInteger();
+		volatile boolean renderedConcurrently = false;
+
+		@Override
+		public MapNode getPrimaryMapElement() {
+			return null;
+		}
+
+		@Override
+		public Iterable<EleConnector> getEleConnectors() {
+			return emptyList();
+		}
+
+		@Override
+		public void renderTo(Target target) {
+
+			renderCount.incrementAndGet();
+
+			if (activeRenderCalls.incrementAndGet() > 1) {
+				renderedConcurrently = true;
+			}
+
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			TriangleXYZ triangle = new TriangleXYZ(VectorXYZ.NULL_VECTOR, VectorXYZ.Y_UNIT, VectorXYZ.X_UNIT);
+			target.drawTriangles(PLASTIC, singletonList(triangle), emptyList());
+
+			activeRenderCalls.decrementAndGet();
+
+		}
+
+	}
+
 }
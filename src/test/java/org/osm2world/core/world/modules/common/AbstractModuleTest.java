@@ -0,0 +1,77 @@
+package org.osm2world.core.world.modules.common;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Test;
+import org.osm2world.core.ConversionFacade;
+import org.osm2world.core.map_data.data.MapNode;
+import org.osm2world.core.osm.data.OSMData;
+import org.osm2world.core.world.creation.WorldModule;
+import org.osm2world.core.world.data.WorldObject;
+import org.osm2world.core.world.modules.BarrierModule;
+import org.osm2world.core.world.modules.StreetFurnitureModule;
+
+import de.topobyte.osm4j.core.model.impl.Node;
+import de.topobyte.osm4j.core.model.impl.Tag;
+
+public class AbstractModuleTest {
+
+	@Test
+	public void testParallelMatchesSerial() throws Exception {
+
+		List<Node> nodes = new ArrayList<>();
+
+		for (int i = 0; i < 400; i++) {
+			Tag tag;
+			switch (i % 4) {
+			case 0: tag = new Tag("amenity", "bench"); break;
+			case 1: tag = new Tag("barrier", "bollard"); break;
+			case 2: tag = new Tag("highway", "bus_stop"); break;
+			default: tag = new Tag("highway", "street_lamp"); break;
+			}
+			nodes.add(new Node(i, 0.0001 * (i % 20), 0.0001 * (i / 20),
+					asList(tag, new Tag("bin", "yes"))));
+		}
+
+		OSMData osmData = new OSMData(emptyList(), nodes, emptyList(), emptyList());
+
+		List<List<String>> serialResult = representationsOfNodes(osmData, 1);
+		List<List<String>> parallelResult = representationsOfNodes(osmData, 4);
+
+		assertEquals(serialResult, parallelResult);
+
+	}
+
+	/** returns the class names of each node's representations, in the order of the nodes */
+	private static List<List<String>> representationsOfNodes(OSMData osmData, int threads) throws Exception {
+
+		Configuration config = new BaseConfiguration();
+		config.setProperty("moduleThreads", threads);
+
+		List<WorldModule> modules = asList(new StreetFurnitureModule(), new BarrierModule());
+
+		ConversionFacade cf = new ConversionFacade();
+		ConversionFacade.Results results = cf.createRepresentations(osmData, modules, config, null);
+
+		List<List<String>> result = new ArrayList<>();
+
+		for (MapNode node : results.getMapData().getMapNodes()) {
+			List<String> classNames = new ArrayList<>();
+			for (WorldObject representation : node.getRepresentations()) {
+				classNames.add(representation.getClass().getSimpleName());
+			}
+			result.add(classNames);
+		}
+
+		return result;
+
+	}
+
+}